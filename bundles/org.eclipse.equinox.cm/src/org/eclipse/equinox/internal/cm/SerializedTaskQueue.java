@@ -14,53 +14,92 @@
 package org.eclipse.equinox.internal.cm;
 
 import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * SerializedTaskQueue is a utility class that will allow asynchronous but
- * serialized execution of tasks
+ * serialized execution of tasks. The tasks run on a virtual thread if the
+ * framework property {@value #PROP_VIRTUAL_THREADS} is set to true and the VM
+ * supports virtual threads.
  */
 public class SerializedTaskQueue {
 
+	static final String PROP_VIRTUAL_THREADS = "equinox.virtual.threads"; //$NON-NLS-1$
 	private static final int MAX_WAIT = 5000;
 	private final LinkedList<Runnable> tasks = new LinkedList<>();
+	// a lock instead of a monitor so a virtual thread waiting for tasks does not
+	// pin its carrier thread
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition tasksAdded = lock.newCondition();
 	private Thread thread;
 	private final String queueName;
+	private final boolean virtualThreads;
 
 	public SerializedTaskQueue(String queueName) {
 		this.queueName = queueName;
+		this.virtualThreads = Boolean.parseBoolean(Activator.getProperty(PROP_VIRTUAL_THREADS));
 	}
 
-	public synchronized void put(Runnable newTask) {
-		tasks.add(newTask);
-		if (thread == null) {
-			thread = new Thread(queueName) {
-				@Override
-				public void run() {
+	public void put(Runnable newTask) {
+		lock.lock();
+		try {
+			tasks.add(newTask);
+			if (thread == null) {
+				Runnable runner = () -> {
 					Runnable task = nextTask(MAX_WAIT);
 					while (task != null) {
 						task.run();
 						task = nextTask(MAX_WAIT);
 					}
+				};
+				thread = virtualThreads ? newVirtualThread(queueName, runner) : null;
+				if (thread == null) {
+					thread = new Thread(runner, queueName);
 				}
-			};
-			thread.start();
-		} else
-			notify();
+				thread.start();
+			} else
+				tasksAdded.signal();
+		} finally {
+			lock.unlock();
+		}
 	}
 
-	synchronized Runnable nextTask(int maxWait) {
-		if (tasks.isEmpty()) {
-			try {
-				wait(maxWait);
-			} catch (InterruptedException e) {
-				// ignore -- we control the stack here and do not need to propagate it.
-			}
-
+	Runnable nextTask(int maxWait) {
+		lock.lock();
+		try {
 			if (tasks.isEmpty()) {
-				thread = null;
-				return null;
+				try {
+					tasksAdded.await(maxWait, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					// ignore -- we control the stack here and do not need to propagate it.
+				}
+
+				if (tasks.isEmpty()) {
+					thread = null;
+					return null;
+				}
 			}
+			return tasks.removeFirst();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns an unstarted virtual thread, or <code>null</code> if the VM does not
+	 * support virtual threads. The bundle is compiled for Java 17 so the virtual
+	 * thread API is called reflectively.
+	 */
+	private static Thread newVirtualThread(String name, Runnable task) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null); //$NON-NLS-1$
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder"); //$NON-NLS-1$
+			builder = builderClass.getMethod("name", String.class).invoke(builder, name); //$NON-NLS-1$
+			return (Thread) builderClass.getMethod("unstarted", Runnable.class).invoke(builder, task); //$NON-NLS-1$
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
 		}
-		return tasks.removeFirst();
 	}
 }
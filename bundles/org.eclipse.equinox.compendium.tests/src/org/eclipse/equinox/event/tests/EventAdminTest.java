@@ -13,17 +13,26 @@
  *******************************************************************************/
 package org.eclipse.equinox.event.tests;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
-import java.util.Dictionary;
-import java.util.Hashtable;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.equinox.compendium.tests.Activator;
+import org.eclipse.equinox.event.BatchEventAdmin;
+import org.eclipse.equinox.event.BatchEventHandler;
+import org.eclipse.equinox.event.EventDeliveryStatistics;
 import org.junit.*;
 import org.osgi.framework.*;
 import org.osgi.service.event.*;
 
 public class EventAdminTest {
+	private static final String PROP_ASYNC_THREADS = "equinox.event.async.threads"; //$NON-NLS-1$
+	private static final String PROP_HANDLER_TIMEOUT = "equinox.event.handler.timeout"; //$NON-NLS-1$
+
 	private EventAdmin eventAdmin;
 	private ServiceReference<EventAdmin> eventAdminReference;
 
@@ -38,6 +47,28 @@ public class EventAdminTest {
 		Activator.getBundleContext().ungetService(eventAdminReference);
 	}
 
+	/*
+	 * Restarts the Event Admin bundle so it reads the given configuration; a null
+	 * value restores the default.
+	 */
+	private void restartEventAdmin(String asyncThreads, String handlerTimeout) throws Exception {
+		setProperty(PROP_ASYNC_THREADS, asyncThreads);
+		setProperty(PROP_HANDLER_TIMEOUT, handlerTimeout);
+		Bundle eventBundle = eventAdminReference.getBundle();
+		tearDown();
+		eventBundle.stop();
+		eventBundle.start();
+		setUp();
+	}
+
+	private static void setProperty(String key, String value) {
+		if (value == null) {
+			System.clearProperty(key);
+		} else {
+			System.setProperty(key, value);
+		}
+	}
+
 	/*
 	 * Ensures EventAdmin does not deliver an event published on topic "a/b/c" to an
 	 * EventHandler listening to topic a/b/c/*.
@@ -175,4 +206,420 @@ public class EventAdminTest {
 				handler.lastEvent());
 		handlerRegistration.unregister();
 	}
+
+	/*
+	 * Ensures events posted by a thread are delivered in the order they were
+	 * posted to a handler, while a handler that asked for unordered delivery gets
+	 * all of them.
+	 */
+	@Test
+	public void testPostEventOrdering() throws InterruptedException {
+		final int count = 1000;
+		final List<String> topics = Collections.synchronizedList(new ArrayList<String>());
+		final CountDownLatch ordered = new CountDownLatch(count);
+		final CountDownLatch unordered = new CountDownLatch(count);
+		BundleContext bundleContext = Activator.getBundleContext();
+
+		Dictionary<String, Object> properties = new Hashtable<String, Object>();
+		properties.put(EventConstants.EVENT_TOPIC, "ordering/*"); //$NON-NLS-1$
+		ServiceRegistration<EventHandler> orderedRegistration = bundleContext.registerService(EventHandler.class,
+				event -> {
+					topics.add(event.getTopic());
+					ordered.countDown();
+				}, properties);
+
+		properties = new Hashtable<String, Object>();
+		properties.put(EventConstants.EVENT_TOPIC, "ordering/*"); //$NON-NLS-1$
+		properties.put(EventConstants.EVENT_DELIVERY, EventConstants.DELIVERY_ASYNC_UNORDERED);
+		ServiceRegistration<EventHandler> unorderedRegistration = bundleContext.registerService(EventHandler.class,
+				event -> unordered.countDown(), properties);
+
+		try {
+			for (int i = 0; i < count; i++) {
+				eventAdmin.postEvent(new Event("ordering/" + i, (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			}
+			assertTrue("Ordered handler did not receive all events", ordered.await(30, TimeUnit.SECONDS)); //$NON-NLS-1$
+			assertTrue("Unordered handler did not receive all events", unordered.await(30, TimeUnit.SECONDS)); //$NON-NLS-1$
+			for (int i = 0; i < count; i++) {
+				assertEquals("Wrong event order", "ordering/" + i, topics.get(i)); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		} finally {
+			orderedRegistration.unregister();
+			unorderedRegistration.unregister();
+		}
+	}
+
+	/*
+	 * Ensures the handlers cached for a topic are looked up again when a handler
+	 * is added, changes its topics or is removed.
+	 */
+	@Test
+	public void testHandlerCacheInvalidation() {
+		BundleContext bundleContext = Activator.getBundleContext();
+		Dictionary<String, Object> properties = new Hashtable<String, Object>();
+		properties.put(EventConstants.EVENT_TOPIC, "cache/a"); //$NON-NLS-1$
+		EventHandlerHelper handlerA = new EventHandlerHelper();
+		ServiceRegistration<EventHandler> registrationA = bundleContext.registerService(EventHandler.class, handlerA,
+				properties);
+		EventHandlerHelper handlerB = new EventHandlerHelper();
+		ServiceRegistration<EventHandler> registrationB = null;
+		try {
+			eventAdmin.sendEvent(new Event("cache/a", (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			assertNotNull("Did not receive event on 'cache/a'", handlerA.clearLastEvent()); //$NON-NLS-1$
+
+			// added handler
+			registrationB = bundleContext.registerService(EventHandler.class, handlerB, properties);
+			eventAdmin.sendEvent(new Event("cache/a", (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			assertNotNull("Added handler did not receive event on 'cache/a'", handlerB.clearLastEvent()); //$NON-NLS-1$
+
+			// modified topics
+			properties = new Hashtable<String, Object>();
+			properties.put(EventConstants.EVENT_TOPIC, "cache/b"); //$NON-NLS-1$
+			registrationB.setProperties(properties);
+			eventAdmin.sendEvent(new Event("cache/a", (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			assertNull("Modified handler received event on 'cache/a'", handlerB.clearLastEvent()); //$NON-NLS-1$
+			eventAdmin.sendEvent(new Event("cache/b", (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			assertNotNull("Modified handler did not receive event on 'cache/b'", handlerB.clearLastEvent()); //$NON-NLS-1$
+
+			// removed handler
+			registrationA.unregister();
+			registrationA = null;
+			eventAdmin.sendEvent(new Event("cache/a", (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			assertNull("Removed handler received event on 'cache/a'", handlerA.lastEvent()); //$NON-NLS-1$
+		} finally {
+			if (registrationA != null) {
+				registrationA.unregister();
+			}
+			if (registrationB != null) {
+				registrationB.unregister();
+			}
+		}
+	}
+
+	/*
+	 * Ensures events are delivered to the right handlers when more topics are
+	 * published than the handlers of are cached.
+	 */
+	@Test
+	public void testHandlerCacheManyTopics() {
+		final int count = 2048;
+		BundleContext bundleContext = Activator.getBundleContext();
+		final int[] received = new int[1];
+		Dictionary<String, Object> properties = new Hashtable<String, Object>();
+		properties.put(EventConstants.EVENT_TOPIC, "cache/many/*"); //$NON-NLS-1$
+		ServiceRegistration<EventHandler> wildcardRegistration = bundleContext.registerService(EventHandler.class,
+				event -> received[0]++, properties);
+		ServiceRegistration<EventHandler> firstRegistration = null;
+		ServiceRegistration<EventHandler> lastRegistration = null;
+		try {
+			for (int i = 0; i < count; i++) {
+				eventAdmin.sendEvent(new Event("cache/many/" + i, (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			}
+			assertEquals("Wrong number of events", count, received[0]); //$NON-NLS-1$
+
+			properties = new Hashtable<String, Object>();
+			properties.put(EventConstants.EVENT_TOPIC, "cache/many/0"); //$NON-NLS-1$
+			EventHandlerHelper first = new EventHandlerHelper();
+			firstRegistration = bundleContext.registerService(EventHandler.class, first, properties);
+			properties = new Hashtable<String, Object>();
+			properties.put(EventConstants.EVENT_TOPIC, "cache/many/" + (count - 1)); //$NON-NLS-1$
+			EventHandlerHelper last = new EventHandlerHelper();
+			lastRegistration = bundleContext.registerService(EventHandler.class, last, properties);
+
+			eventAdmin.sendEvent(new Event("cache/many/0", (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			eventAdmin.sendEvent(new Event("cache/many/" + (count - 1), (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			assertNotNull("Did not receive event on 'cache/many/0'", first.lastEvent()); //$NON-NLS-1$
+			assertNotNull("Did not receive event on the last topic", last.lastEvent()); //$NON-NLS-1$
+			assertEquals("Wrong number of events", count + 2, received[0]); //$NON-NLS-1$
+		} finally {
+			wildcardRegistration.unregister();
+			if (firstRegistration != null) {
+				firstRegistration.unregister();
+			}
+			if (lastRegistration != null) {
+				lastRegistration.unregister();
+			}
+		}
+	}
+
+	/*
+	 * Ensures a batch handler receives the events of a batch it subscribes to in
+	 * one call, in order, while a plain handler receives them one at a time.
+	 */
+	@Test
+	public void testSendEvents() {
+		BundleContext bundleContext = Activator.getBundleContext();
+		ServiceReference<BatchEventAdmin> batchReference = bundleContext.getServiceReference(BatchEventAdmin.class);
+		assertNotNull("No BatchEventAdmin service", batchReference); //$NON-NLS-1$
+		BatchEventAdmin batchEventAdmin = bundleContext.getService(batchReference);
+
+		final List<List<Event>> batches = new ArrayList<List<Event>>();
+		Dictionary<String, Object> properties = new Hashtable<String, Object>();
+		properties.put(EventConstants.EVENT_TOPIC, "batch/a/*"); //$NON-NLS-1$
+		ServiceRegistration<EventHandler> batchRegistration = bundleContext.registerService(EventHandler.class,
+				new BatchEventHandler() {
+					@Override
+					public void handleEvent(Event event) {
+						batches.add(Collections.singletonList(event));
+					}
+
+					@Override
+					public void handleEvents(List<Event> events) {
+						batches.add(new ArrayList<Event>(events));
+					}
+				}, properties);
+
+		properties = new Hashtable<String, Object>();
+		properties.put(EventConstants.EVENT_TOPIC, "batch/*"); //$NON-NLS-1$
+		EventHandlerHelper handler = new EventHandlerHelper();
+		ServiceRegistration<EventHandler> handlerRegistration = bundleContext.registerService(EventHandler.class,
+				handler, properties);
+
+		try {
+			List<Event> events = new ArrayList<Event>();
+			events.add(new Event("batch/a/1", (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			events.add(new Event("batch/b/2", (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			events.add(new Event("batch/a/3", (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			batchEventAdmin.sendEvents(events);
+
+			assertEquals("Wrong number of batch handler calls", 1, batches.size()); //$NON-NLS-1$
+			assertEquals("Wrong batch", Arrays.asList(events.get(0), events.get(2)), batches.get(0)); //$NON-NLS-1$
+			assertEquals("Wrong last event", events.get(2), handler.lastEvent()); //$NON-NLS-1$
+		} finally {
+			batchRegistration.unregister();
+			handlerRegistration.unregister();
+			bundleContext.ungetService(batchReference);
+		}
+	}
+
+	/*
+	 * Ensures that with a pool of delivery threads each handler receives the
+	 * events posted by a thread in the order they were posted, while another
+	 * handler is still busy with the same events.
+	 */
+	@Test
+	public void testPostEventOrderingWithPool() throws Exception {
+		restartEventAdmin("4", null); //$NON-NLS-1$
+		final int count = 500;
+		final String[] publishers = { "p1", "p2" }; //$NON-NLS-1$ //$NON-NLS-2$
+		final Map<String, List<String>> received = new HashMap<String, List<String>>();
+		for (String publisher : publishers) {
+			received.put(publisher, Collections.synchronizedList(new ArrayList<String>()));
+		}
+		final CountDownLatch done = new CountDownLatch(count * publishers.length);
+		final CountDownLatch slowDone = new CountDownLatch(count * publishers.length);
+		BundleContext bundleContext = Activator.getBundleContext();
+
+		Dictionary<String, Object> properties = new Hashtable<String, Object>();
+		properties.put(EventConstants.EVENT_TOPIC, "pool/*"); //$NON-NLS-1$
+		ServiceRegistration<EventHandler> orderedRegistration = bundleContext.registerService(EventHandler.class,
+				event -> {
+					received.get(event.getProperty("publisher")).add(event.getTopic()); //$NON-NLS-1$
+					done.countDown();
+				}, properties);
+		ServiceRegistration<EventHandler> slowRegistration = bundleContext.registerService(EventHandler.class,
+				event -> {
+					if (slowDone.getCount() == count * publishers.length) {
+						try {
+							Thread.sleep(500);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+					slowDone.countDown();
+				}, properties);
+
+		try {
+			List<Thread> threads = new ArrayList<Thread>();
+			for (final String publisher : publishers) {
+				threads.add(new Thread(() -> {
+					for (int i = 0; i < count; i++) {
+						Map<String, Object> eventProperties = new HashMap<String, Object>();
+						eventProperties.put("publisher", publisher); //$NON-NLS-1$
+						eventAdmin.postEvent(new Event("pool/" + publisher + "/" + i, eventProperties)); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+				}, publisher));
+			}
+			for (Thread thread : threads) {
+				thread.start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			assertTrue("Handler did not receive all events", done.await(30, TimeUnit.SECONDS)); //$NON-NLS-1$
+			assertTrue("Slow handler did not receive all events", slowDone.await(30, TimeUnit.SECONDS)); //$NON-NLS-1$
+			for (String publisher : publishers) {
+				List<String> topics = received.get(publisher);
+				assertEquals("Wrong number of events", count, topics.size()); //$NON-NLS-1$
+				for (int i = 0; i < count; i++) {
+					assertEquals("Wrong event order", "pool/" + publisher + "/" + i, topics.get(i)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				}
+			}
+		} finally {
+			orderedRegistration.unregister();
+			slowRegistration.unregister();
+			restartEventAdmin(null, null);
+		}
+	}
+
+	/*
+	 * Ensures a handler which takes longer than the handler timeout is denied any
+	 * further events and is counted in the delivery statistics.
+	 */
+	@Test
+	public void testSlowHandlerDenied() throws Exception {
+		restartEventAdmin(null, "100"); //$NON-NLS-1$
+		BundleContext bundleContext = Activator.getBundleContext();
+		ServiceReference<EventDeliveryStatistics> statisticsReference = bundleContext
+				.getServiceReference(EventDeliveryStatistics.class);
+		assertNotNull("No EventDeliveryStatistics service", statisticsReference); //$NON-NLS-1$
+		EventDeliveryStatistics statistics = bundleContext.getService(statisticsReference);
+
+		final List<Event> slowEvents = Collections.synchronizedList(new ArrayList<Event>());
+		Dictionary<String, Object> properties = new Hashtable<String, Object>();
+		properties.put(EventConstants.EVENT_TOPIC, "timeout/*"); //$NON-NLS-1$
+		ServiceRegistration<EventHandler> slowRegistration = bundleContext.registerService(EventHandler.class,
+				event -> {
+					slowEvents.add(event);
+					try {
+						Thread.sleep(300);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}, properties);
+		EventHandlerHelper handler = new EventHandlerHelper();
+		ServiceRegistration<EventHandler> handlerRegistration = bundleContext.registerService(EventHandler.class,
+				handler, properties);
+
+		try {
+			eventAdmin.sendEvent(new Event("timeout/1", (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			Event second = new Event("timeout/2", (Dictionary<String, Object>) null); //$NON-NLS-1$
+			eventAdmin.sendEvent(second);
+
+			assertEquals("Wrong number of events for the slow handler", 1, slowEvents.size()); //$NON-NLS-1$
+			assertEquals("Wrong last event", second, handler.lastEvent()); //$NON-NLS-1$
+			assertEquals("Wrong number of denied handlers", 1, statistics.getDeniedHandlers()); //$NON-NLS-1$
+			assertTrue("Wrong number of deliveries", statistics.getDeliveries() >= 3); //$NON-NLS-1$
+			assertTrue("Wrong max latency", //$NON-NLS-1$
+					statistics.getMaxLatencyNanos() >= TimeUnit.MILLISECONDS.toNanos(300));
+		} finally {
+			slowRegistration.unregister();
+			handlerRegistration.unregister();
+			bundleContext.ungetService(statisticsReference);
+			restartEventAdmin(null, null);
+		}
+	}
+
+	/*
+	 * Ensures batches posted through a pool of delivery threads reach each
+	 * handler in order, in one call for a batch handler.
+	 */
+	@Test
+	public void testPostEventsWithPool() throws Exception {
+		restartEventAdmin("4", null); //$NON-NLS-1$
+		BundleContext bundleContext = Activator.getBundleContext();
+		ServiceReference<BatchEventAdmin> batchReference = bundleContext.getServiceReference(BatchEventAdmin.class);
+		BatchEventAdmin batchEventAdmin = bundleContext.getService(batchReference);
+
+		final int batchCount = 50;
+		final int batchSize = 20;
+		final List<List<Event>> batches = Collections.synchronizedList(new ArrayList<List<Event>>());
+		final List<Event> events = Collections.synchronizedList(new ArrayList<Event>());
+		final CountDownLatch batchesDone = new CountDownLatch(batchCount);
+		final CountDownLatch eventsDone = new CountDownLatch(batchCount * batchSize);
+		Dictionary<String, Object> properties = new Hashtable<String, Object>();
+		properties.put(EventConstants.EVENT_TOPIC, "poolbatch/*"); //$NON-NLS-1$
+		ServiceRegistration<EventHandler> batchRegistration = bundleContext.registerService(EventHandler.class,
+				new BatchEventHandler() {
+					@Override
+					public void handleEvent(Event event) {
+						batches.add(Collections.singletonList(event));
+						batchesDone.countDown();
+					}
+
+					@Override
+					public void handleEvents(List<Event> batch) {
+						batches.add(new ArrayList<Event>(batch));
+						batchesDone.countDown();
+					}
+				}, properties);
+		ServiceRegistration<EventHandler> handlerRegistration = bundleContext.registerService(EventHandler.class,
+				event -> {
+					events.add(event);
+					eventsDone.countDown();
+				}, properties);
+
+		try {
+			List<Event> posted = new ArrayList<Event>();
+			for (int i = 0; i < batchCount; i++) {
+				List<Event> batch = new ArrayList<Event>();
+				for (int j = 0; j < batchSize; j++) {
+					batch.add(new Event("poolbatch/" + i + "/" + j, (Dictionary<String, Object>) null)); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				posted.addAll(batch);
+				batchEventAdmin.postEvents(batch);
+			}
+			assertTrue("Batch handler did not receive all batches", batchesDone.await(30, TimeUnit.SECONDS)); //$NON-NLS-1$
+			assertTrue("Handler did not receive all events", eventsDone.await(30, TimeUnit.SECONDS)); //$NON-NLS-1$
+			assertEquals("Wrong number of batch handler calls", batchCount, batches.size()); //$NON-NLS-1$
+			for (int i = 0; i < batchCount; i++) {
+				assertEquals("Wrong batch", posted.subList(i * batchSize, (i + 1) * batchSize), batches.get(i)); //$NON-NLS-1$
+			}
+			assertEquals("Wrong events", posted, events); //$NON-NLS-1$
+		} finally {
+			batchRegistration.unregister();
+			handlerRegistration.unregister();
+			bundleContext.ungetService(batchReference);
+			restartEventAdmin(null, null);
+		}
+	}
+
+	/*
+	 * Ensures a batch handler which takes longer than the handler timeout for
+	 * each event of a batch is denied any further events.
+	 */
+	@Test
+	public void testSlowBatchHandlerDenied() throws Exception {
+		restartEventAdmin(null, "50"); //$NON-NLS-1$
+		BundleContext bundleContext = Activator.getBundleContext();
+		ServiceReference<BatchEventAdmin> batchReference = bundleContext.getServiceReference(BatchEventAdmin.class);
+		BatchEventAdmin batchEventAdmin = bundleContext.getService(batchReference);
+
+		final List<List<Event>> batches = new ArrayList<List<Event>>();
+		Dictionary<String, Object> properties = new Hashtable<String, Object>();
+		properties.put(EventConstants.EVENT_TOPIC, "slowbatch/*"); //$NON-NLS-1$
+		ServiceRegistration<EventHandler> batchRegistration = bundleContext.registerService(EventHandler.class,
+				new BatchEventHandler() {
+					@Override
+					public void handleEvent(Event event) {
+						batches.add(Collections.singletonList(event));
+					}
+
+					@Override
+					public void handleEvents(List<Event> batch) {
+						batches.add(new ArrayList<Event>(batch));
+						try {
+							Thread.sleep(300);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+				}, properties);
+
+		try {
+			List<Event> events = new ArrayList<Event>();
+			events.add(new Event("slowbatch/1", (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			events.add(new Event("slowbatch/2", (Dictionary<String, Object>) null)); //$NON-NLS-1$
+			batchEventAdmin.sendEvents(events);
+			batchEventAdmin.sendEvents(events);
+			eventAdmin.sendEvent(new Event("slowbatch/3", (Dictionary<String, Object>) null)); //$NON-NLS-1$
+
+			assertEquals("Wrong number of batch handler calls", 1, batches.size()); //$NON-NLS-1$
+			assertEquals("Wrong batch", events, batches.get(0)); //$NON-NLS-1$
+		} finally {
+			batchRegistration.unregister();
+			bundleContext.ungetService(batchReference);
+			restartEventAdmin(null, null);
+		}
+	}
 }
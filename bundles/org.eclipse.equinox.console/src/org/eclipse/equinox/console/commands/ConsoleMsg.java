@@ -32,6 +32,7 @@ public class ConsoleMsg extends NLS {
 	public static String CONSOLE_STATE_BUNDLE_FILE_NAME_HEADER;
 	public static String CONSOLE_BUNDLES_USING_SERVICE_MESSAGE;
 	public static String CONSOLE_NO_REGISTERED_SERVICES_MESSAGE;
+	public static String CONSOLE_STARTUP_PROFILER_DISABLED_MESSAGE;
 	public static String CONSOLE_NO_BUNDLES_USING_SERVICE_MESSAGE;
 	public static String CONSOLE_REGISTERED_BY_BUNDLE_MESSAGE;
 	public static String CONSOLE_IMPORTS_MESSAGE;
@@ -180,6 +181,8 @@ public class ConsoleMsg extends NLS {
 	public static final String CONSOLE_HELP_DISABLE_COMMAND_DESCRIPTION = "Disable the specified bundle(s)";
 	public static final String CONSOLE_HELP_DISABLE_COMMAND_ARGUMENT_DESCRIPTION = "IDs of bundle(s) to disable";
 	public static final String CONSOLE_HELP_LD_COMMAND_DESCRIPTION = "List disabled bundles in the system";
+	public static final String CONSOLE_HELP_STARTUPREPORT_COMMAND_DESCRIPTION = "Display the time spent in the framework startup phases and the startup cost of each bundle";
+	public static final String CONSOLE_HELP_STARTUPREPORT_COUNT_OPTION_DESCRIPTION = "maximum number of bundles to display, all bundles if not specified";
 
 	static {
 		// initialize resource bundles
@@ -178,6 +178,9 @@ public class EquinoxCommandProvider implements SynchronousBundleListener {
 	private final static String tab = "\t"; //$NON-NLS-1$
 	private final static String newline = "\r\n"; //$NON-NLS-1$
 
+	/** the class name of the framework startup profiler service */
+	private final static String STARTUP_PROFILER_CLASS = "org.eclipse.osgi.internal.debug.StartupProfiler"; //$NON-NLS-1$
+
 	/** this list contains the bundles known to be lazily awaiting activation */
 	private final List<Bundle> lazyActivation = new ArrayList<>();
 
@@ -189,7 +192,7 @@ public class EquinoxCommandProvider implements SynchronousBundleListener {
 			"services", "p", "p", "packages", "packages", "bundles", "b", "bundle", "gc", "init", "close", "r",
 			"refresh", "exec", "fork", "h", "headers", "pr", "props", "setp", "setprop", "ss", "t", "threads", "sl",
 			"setfwsl", "setbsl", "setibsl", "requiredBundles", "classSpaces", "profilelog", "getPackages", "getprop",
-			"diag", "enableBundle", "disableBundle", "disabledBundles" };
+			"diag", "enableBundle", "disableBundle", "disabledBundles", "startupreport" };
 
 	/**
 	 * Constructor.
@@ -1708,6 +1711,36 @@ public class EquinoxCommandProvider implements SynchronousBundleListener {
 		System.out.println(getProfileLog.invoke(null, (Object[]) null));
 	}
 
+	/**
+	 * Handles the startupreport command. Prints the startup cost report of the
+	 * framework startup profiler.
+	 *
+	 * @param count the maximum number of bundles to list
+	 */
+	@Descriptor(ConsoleMsg.CONSOLE_HELP_STARTUPREPORT_COMMAND_DESCRIPTION)
+	public void startupreport(
+			@Descriptor(ConsoleMsg.CONSOLE_HELP_STARTUPREPORT_COUNT_OPTION_DESCRIPTION) @Parameter(absentValue = "0", names = {
+					"-n" }) int count)
+			throws Exception {
+		// the profiler is internal to the framework; call it reflectively like the profilelog command
+		ServiceReference<?> profilerRef = context.getServiceReference(STARTUP_PROFILER_CLASS);
+		if (profilerRef == null) {
+			System.out.println(ConsoleMsg.CONSOLE_STARTUP_PROFILER_DISABLED_MESSAGE);
+			return;
+		}
+		Object profiler = context.getService(profilerRef);
+		if (profiler == null) {
+			System.out.println(ConsoleMsg.CONSOLE_STARTUP_PROFILER_DISABLED_MESSAGE);
+			return;
+		}
+		try {
+			Method getReport = profiler.getClass().getMethod("getReport", int.class);
+			System.out.println(getReport.invoke(profiler, Integer.valueOf(count)));
+		} finally {
+			context.ungetService(profilerRef);
+		}
+	}
+
 	/**
 	 * Lists all packages visible from the specified bundle
 	 * 
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.event;
+
+import java.util.List;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+
+/**
+ * An Equinox specific extension of the Event Admin service for publishers of
+ * many events. The handlers of each distinct topic in a batch are resolved and
+ * the publish permission of each topic is checked once per batch. Handlers
+ * receive the events of a batch in order; a handler which implements
+ * {@link BatchEventHandler} receives all events of a batch it subscribes to in
+ * one call.
+ * <p>
+ * The Event Admin service of the org.eclipse.equinox.event bundle is also
+ * registered under this interface.
+ * 
+ * @ThreadSafe
+ * @noimplement This interface is not intended to be implemented by clients.
+ * @since 1.8
+ */
+public interface BatchEventAdmin extends EventAdmin {
+
+	/**
+	 * Initiate asynchronous, ordered delivery of a batch of events. Each handler
+	 * gets the events of the batch as a single asynchronous task.
+	 * 
+	 * @param events the events to deliver, in order
+	 * @throws SecurityException if the caller does not have permission to publish
+	 *                           the topic of any of the events; no event is
+	 *                           delivered in that case
+	 */
+	void postEvents(List<Event> events);
+
+	/**
+	 * Initiate synchronous delivery of a batch of events. This method does not
+	 * return to the caller until delivery of all events is completed.
+	 * 
+	 * @param events the events to deliver, in order
+	 * @throws SecurityException if the caller does not have permission to publish
+	 *                           the topic of any of the events; no event is
+	 *                           delivered in that case
+	 */
+	void sendEvents(List<Event> events);
+}
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.event;
+
+import java.util.List;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * An event handler which can receive the events of a batch published through
+ * {@link BatchEventAdmin} in one call. The handler is registered as an
+ * {@link EventHandler} service and still receives events published one at a
+ * time through {@link EventHandler#handleEvent(Event)}.
+ * 
+ * @since 1.8
+ */
+public interface BatchEventHandler extends EventHandler {
+
+	/**
+	 * Called by the Event Admin service with the events of a batch which match
+	 * the topics and filter of the handler.
+	 * 
+	 * @param events the events, in the order they were published; the list must
+	 *               not be modified
+	 */
+	void handleEvents(List<Event> events);
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.event;
+
+/**
+ * Statistics of the event deliveries of the Equinox Event Admin service. The
+ * Event Admin service of the org.eclipse.equinox.event bundle is also
+ * registered under this interface.
+ * <p>
+ * The values are updated while events are delivered and are not a consistent
+ * snapshot of each other.
+ * 
+ * @ThreadSafe
+ * @noimplement This interface is not intended to be implemented by clients.
+ * @since 1.8
+ */
+public interface EventDeliveryStatistics {
+
+	/**
+	 * @return the number of events handed to handlers
+	 */
+	long getDeliveries();
+
+	/**
+	 * @return the total time spent in handler calls in nanoseconds
+	 */
+	long getLatencyNanos();
+
+	/**
+	 * @return the longest handler call in nanoseconds
+	 */
+	long getMaxLatencyNanos();
+
+	/**
+	 * @return the number of asynchronous deliveries waiting for a thread
+	 */
+	long getQueueDepth();
+
+	/**
+	 * @return the largest number of asynchronous deliveries that waited for a
+	 *         thread at the same time
+	 */
+	long getMaxQueueDepth();
+
+	/**
+	 * @return the number of handlers denied events because they exceeded the
+	 *         handler timeout
+	 */
+	long getDeniedHandlers();
+}
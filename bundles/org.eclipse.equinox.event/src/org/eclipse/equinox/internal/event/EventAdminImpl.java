@@ -15,23 +15,37 @@
 package org.eclipse.equinox.internal.event;
 
 import java.security.Permission;
-import java.util.Map;
-import java.util.Set;
-import org.eclipse.osgi.framework.eventmgr.*;
+import java.util.*;
+import org.eclipse.equinox.event.BatchEventAdmin;
+import org.eclipse.equinox.event.EventDeliveryStatistics;
 import org.eclipse.osgi.util.NLS;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.event.*;
 import org.osgi.service.log.LogService;
 
 /**
- * Implementation of org.osgi.service.event.EventAdmin. EventAdminImpl uses
- * org.eclipse.osgi.framework.eventmgr.EventManager. It is assumed
- * org.eclipse.osgi.framework.eventmgr package is exported by some other bundle.
+ * Implementation of org.osgi.service.event.EventAdmin. The handlers of a topic
+ * are resolved to an array which is cached until the handlers change, so
+ * delivering an event does not copy the handlers.
+ * <p>
+ * Asynchronous events are delivered on a single thread unless the
+ * {@link #PROP_ASYNC_THREADS} property asks for a pool of threads. Handlers
+ * which exceed the {@link #PROP_HANDLER_TIMEOUT} are denied further events.
+ * The statistics of the deliveries are available as
+ * {@link EventDeliveryStatistics}.
+ * Batches of events are accepted through {@link BatchEventAdmin}.
  */
-public class EventAdminImpl implements EventAdmin {
+public class EventAdminImpl implements BatchEventAdmin {
+	/** The number of threads delivering asynchronous events. */
+	public static final String PROP_ASYNC_THREADS = "equinox.event.async.threads"; //$NON-NLS-1$
+	/** The time in milliseconds a handler may take to handle an event. */
+	public static final String PROP_HANDLER_TIMEOUT = "equinox.event.handler.timeout"; //$NON-NLS-1$
+
+	private final BundleContext context;
 	private final LogTracker log;
+	private final EventDeliveryMonitor monitor;
 	private final EventHandlerTracker handlers;
-	private volatile EventManager eventManager;
+	private volatile EventDeliveryPool deliveryPool;
 
 	/**
 	 * Constructor for EventAdminImpl.
@@ -40,8 +54,10 @@ public class EventAdminImpl implements EventAdmin {
 	 */
 	EventAdminImpl(BundleContext context) {
 		super();
+		this.context = context;
 		log = new LogTracker(context, System.out);
-		handlers = new EventHandlerTracker(context, log);
+		monitor = new EventDeliveryMonitor(log, getLongProperty(PROP_HANDLER_TIMEOUT));
+		handlers = new EventHandlerTracker(context, log, monitor);
 	}
 
 	/**
@@ -51,7 +67,9 @@ public class EventAdminImpl implements EventAdmin {
 		log.open();
 		ThreadGroup eventGroup = new ThreadGroup("Equinox Event Admin"); //$NON-NLS-1$
 		eventGroup.setDaemon(true);
-		eventManager = new EventManager(EventAdminMsg.EVENT_ASYNC_THREAD_NAME, eventGroup);
+		long asyncThreads = getLongProperty(PROP_ASYNC_THREADS);
+		deliveryPool = new EventDeliveryPool((int) Math.min(asyncThreads, Integer.MAX_VALUE), eventGroup,
+				EventAdminMsg.EVENT_ASYNC_THREAD_NAME, monitor);
 		handlers.open();
 	}
 
@@ -59,12 +77,36 @@ public class EventAdminImpl implements EventAdmin {
 	 * This method should be called after unregistering EventAdmin service
 	 */
 	void stop() {
+		EventDeliveryPool currentPool = deliveryPool;
+		deliveryPool = null; // signify we have stopped
+		// deliver the queued events before the handlers are released
+		currentPool.close();
 		handlers.close();
-		eventManager.close();
-		eventManager = null; // signify we have stopped
 		log.close();
 	}
 
+	/**
+	 * Returns the statistics of event deliveries to handlers.
+	 * 
+	 * @return the delivery statistics
+	 */
+	EventDeliveryStatistics getStatistics() {
+		return monitor;
+	}
+
+	private long getLongProperty(String key) {
+		String value = context.getProperty(key);
+		if (value == null) {
+			return 0;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			log.log(LogService.LOG_WARNING, NLS.bind(EventAdminMsg.EVENT_INVALID_PROPERTY, key, value));
+			return 0;
+		}
+	}
+
 	@Override
 	public void postEvent(Event event) {
 		dispatchEvent(event, true);
@@ -85,11 +127,113 @@ public class EventAdminImpl implements EventAdmin {
 	 */
 	private void dispatchEvent(Event event, boolean isAsync) {
 		// keep a local copy in case we are stopped in the middle of dispatching
-		EventManager currentManager = eventManager;
-		if (currentManager == null) {
+		EventDeliveryPool currentPool = deliveryPool;
+		if (currentPool == null) {
+			// EventAdmin is stopped
+			return;
+		}
+		String topic = checkEvent(event);
+
+		EventHandlerWrapper[] eventHandlers = handlers.getHandlers(topic);
+		// If there are no handlers, then we are done
+		if (eventHandlers.length == 0) {
+			return;
+		}
+
+		SecurityManager sm = System.getSecurityManager();
+		Permission perm = (sm == null) ? null : new TopicPermission(topic, TopicPermission.SUBSCRIBE);
+
+		if (isAsync) {
+			currentPool.post(eventHandlers, event, perm);
+		} else {
+			for (EventHandlerWrapper wrapper : eventHandlers) {
+				wrapper.handleEvent(event, perm);
+			}
+		}
+	}
+
+	@Override
+	public void postEvents(List<Event> events) {
+		dispatchEvents(events, true);
+	}
+
+	@Override
+	public void sendEvents(List<Event> events) {
+		dispatchEvents(events, false);
+	}
+
+	/**
+	 * Internal main method for sendEvents() and postEvents(). The handlers and the
+	 * publish permission of each distinct topic are looked up once and the events
+	 * are grouped per handler before any of them is delivered.
+	 * 
+	 * @param events  to be delivered
+	 * @param isAsync must be set to true for synchronous event delivery, false for
+	 *                asynchronous delivery.
+	 */
+	private void dispatchEvents(List<Event> events, boolean isAsync) {
+		// keep a local copy in case we are stopped in the middle of dispatching
+		EventDeliveryPool currentPool = deliveryPool;
+		if (currentPool == null) {
 			// EventAdmin is stopped
 			return;
 		}
+
+		SecurityManager sm = System.getSecurityManager();
+		Map<String, TopicHandlers> topics = new HashMap<>();
+		// EventHandlerWrapper uses identity equality
+		Map<EventHandlerWrapper, HandlerBatch> batches = new LinkedHashMap<>();
+
+		for (Event event : events) {
+			String topic = checkEvent(event, topics.keySet());
+
+			TopicHandlers topicHandlers = topics.get(topic);
+			if (topicHandlers == null) {
+				topicHandlers = new TopicHandlers(handlers.getHandlers(topic),
+						(sm == null) ? null : new TopicPermission(topic, TopicPermission.SUBSCRIBE));
+				topics.put(topic, topicHandlers);
+			}
+
+			for (EventHandlerWrapper wrapper : topicHandlers.handlers) {
+				HandlerBatch batch = batches.get(wrapper);
+				if (batch == null) {
+					batch = new HandlerBatch(wrapper, sm != null);
+					batches.put(wrapper, batch);
+				}
+				batch.add(event, topicHandlers.perm);
+			}
+		}
+
+		// If there are no handlers, then we are done
+		if (batches.isEmpty()) {
+			return;
+		}
+
+		if (isAsync) {
+			currentPool.post(new ArrayList<>(batches.values()));
+		} else {
+			for (HandlerBatch batch : batches.values()) {
+				batch.deliver();
+			}
+		}
+	}
+
+	private String checkEvent(Event event) {
+		return checkEvent(event, Collections.emptySet());
+	}
+
+	/**
+	 * Checks that an event may be published.
+	 * 
+	 * @param event          the event
+	 * @param checkedTopics  the topics the caller is already known to be allowed
+	 *                       to publish
+	 * @return the topic of the event
+	 * @throws NullPointerException if the event is null
+	 * @throws SecurityException    if the caller does not have the right to PUBLISH
+	 *                              the topic of the event
+	 */
+	private String checkEvent(Event event, Set<String> checkedTopics) {
 		if (event == null) {
 			log.log(LogService.LOG_ERROR, EventAdminMsg.EVENT_NULL_EVENT);
 			// continue from here will result in an NPE below; the spec for EventAdmin does
@@ -98,6 +242,9 @@ public class EventAdminImpl implements EventAdmin {
 		}
 
 		String topic = event.getTopic();
+		if (checkedTopics.contains(topic)) {
+			return topic;
+		}
 
 		try {
 			checkTopicPermissionPublish(topic);
@@ -107,31 +254,7 @@ public class EventAdminImpl implements EventAdmin {
 			// must throw a security exception here according to the EventAdmin spec
 			throw e;
 		}
-
-		Set<EventHandlerWrapper> eventHandlers = handlers.getHandlers(topic);
-		// If there are no handlers, then we are done
-		if (eventHandlers.isEmpty()) {
-			return;
-		}
-
-		SecurityManager sm = System.getSecurityManager();
-		Permission perm = (sm == null) ? null : new TopicPermission(topic, TopicPermission.SUBSCRIBE);
-
-		Map<EventHandlerWrapper, Permission> listeners = new CopyOnWriteIdentityMap<>();
-		for (EventHandlerWrapper wrapper : eventHandlers)
-			listeners.put(wrapper, perm);
-
-		// Create the listener queue for this event delivery
-		ListenerQueue<EventHandlerWrapper, Permission, Event> listenerQueue = new ListenerQueue<>(currentManager);
-		// Add the listeners to the queue and associate them with the event
-		// dispatcher
-		listenerQueue.queueListeners(listeners.entrySet(), handlers);
-		// Deliver the event to the listeners.
-		if (isAsync) {
-			listenerQueue.dispatchEventAsynchronous(0, event);
-		} else {
-			listenerQueue.dispatchEventSynchronous(0, event);
-		}
+		return topic;
 	}
 
 	/**
@@ -147,4 +270,13 @@ public class EventAdminImpl implements EventAdmin {
 		sm.checkPermission(new TopicPermission(topic, TopicPermission.PUBLISH));
 	}
 
+	private static final class TopicHandlers {
+		final EventHandlerWrapper[] handlers;
+		final Permission perm;
+
+		TopicHandlers(EventHandlerWrapper[] handlers, Permission perm) {
+			this.handlers = handlers;
+			this.perm = perm;
+		}
+	}
 }
@@ -23,8 +23,12 @@ public class EventAdminMsg extends NLS {
 	public static String EVENT_NULL_EVENT;
 	public static String EVENT_NO_TOPICPERMISSION_PUBLISH;
 	public static String EVENT_DISPATCH_HANDLER_EXCEPTION;
+	public static String EVENT_DISPATCH_BATCH_HANDLER_EXCEPTION;
 	public static String EVENT_INVALID_HANDLER_FILTER;
 	public static String EVENT_INVALID_HANDLER_TOPICS;
+	public static String EVENT_HANDLER_DENIED;
+	public static String EVENT_HANDLER_DENIED_BATCH;
+	public static String EVENT_INVALID_PROPERTY;
 
 	static {
 		// initialize resource bundles
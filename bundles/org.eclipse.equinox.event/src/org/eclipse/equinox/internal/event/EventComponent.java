@@ -13,12 +13,14 @@
  *******************************************************************************/
 package org.eclipse.equinox.internal.event;
 
+import java.util.List;
+import org.eclipse.equinox.event.BatchEventAdmin;
+import org.eclipse.equinox.event.EventDeliveryStatistics;
 import org.eclipse.equinox.internal.event.mapper.EventRedeliverer;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.event.Event;
-import org.osgi.service.event.EventAdmin;
 
-public class EventComponent implements EventAdmin {
+public class EventComponent implements BatchEventAdmin, EventDeliveryStatistics {
 	private EventRedeliverer eventRedeliverer;
 	private EventAdminImpl eventAdmin;
 
@@ -34,6 +36,36 @@ public class EventComponent implements EventAdmin {
 		eventAdmin.stop();
 	}
 
+	@Override
+	public long getDeliveries() {
+		return eventAdmin.getStatistics().getDeliveries();
+	}
+
+	@Override
+	public long getLatencyNanos() {
+		return eventAdmin.getStatistics().getLatencyNanos();
+	}
+
+	@Override
+	public long getMaxLatencyNanos() {
+		return eventAdmin.getStatistics().getMaxLatencyNanos();
+	}
+
+	@Override
+	public long getQueueDepth() {
+		return eventAdmin.getStatistics().getQueueDepth();
+	}
+
+	@Override
+	public long getMaxQueueDepth() {
+		return eventAdmin.getStatistics().getMaxQueueDepth();
+	}
+
+	@Override
+	public long getDeniedHandlers() {
+		return eventAdmin.getStatistics().getDeniedHandlers();
+	}
+
 	@Override
 	public void postEvent(Event event) {
 		eventAdmin.postEvent(event);
@@ -43,4 +75,14 @@ public class EventComponent implements EventAdmin {
 	public void sendEvent(Event event) {
 		eventAdmin.sendEvent(event);
 	}
+
+	@Override
+	public void postEvents(List<Event> events) {
+		eventAdmin.postEvents(events);
+	}
+
+	@Override
+	public void sendEvents(List<Event> events) {
+		eventAdmin.sendEvents(events);
+	}
 }
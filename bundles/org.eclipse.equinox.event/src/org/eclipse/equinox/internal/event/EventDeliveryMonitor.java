@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.internal.event;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.equinox.event.EventDeliveryStatistics;
+import org.eclipse.osgi.util.NLS;
+import org.osgi.service.event.Event;
+import org.osgi.service.log.LogService;
+
+/**
+ * Collects delivery statistics and applies the handler timeout policy. A
+ * handler which takes longer than the configured timeout to handle an event is
+ * denied any further events.
+ */
+class EventDeliveryMonitor implements EventDeliveryStatistics {
+	private final LogTracker log;
+	private final long timeoutNanos;
+
+	private final LongAdder deliveries = new LongAdder();
+	private final LongAdder latencyNanos = new LongAdder();
+	private final AtomicLong maxLatencyNanos = new AtomicLong();
+	private final AtomicLong queueDepth = new AtomicLong();
+	private final AtomicLong maxQueueDepth = new AtomicLong();
+	private final LongAdder deniedHandlers = new LongAdder();
+
+	/**
+	 * @param log           LogService object for logging
+	 * @param timeoutMillis the handler timeout in milliseconds; zero or less
+	 *                      disables the timeout policy
+	 */
+	EventDeliveryMonitor(LogTracker log, long timeoutMillis) {
+		this.log = log;
+		this.timeoutNanos = (timeoutMillis > 0) ? TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : 0;
+	}
+
+	/**
+	 * Records a completed call of a handler and denies the handler further events
+	 * if the call exceeded the timeout.
+	 */
+	void handled(EventHandlerWrapper wrapper, Event event, long elapsedNanos) {
+		deliveries.increment();
+		latencyNanos.add(elapsedNanos);
+		maxLatencyNanos.accumulateAndGet(elapsedNanos, Math::max);
+
+		if ((timeoutNanos > 0) && (elapsedNanos > timeoutNanos) && wrapper.deny()) {
+			deniedHandlers.increment();
+			log.log(LogService.LOG_WARNING, NLS.bind(EventAdminMsg.EVENT_HANDLER_DENIED,
+					new Object[] { wrapper.reference, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), event }));
+		}
+	}
+
+	/**
+	 * Records a completed call of a batch handler. The handler is denied further
+	 * events if the call took longer than the timeout for each event on average.
+	 */
+	void handled(EventHandlerWrapper wrapper, List<Event> events, long elapsedNanos) {
+		deliveries.add(events.size());
+		latencyNanos.add(elapsedNanos);
+		maxLatencyNanos.accumulateAndGet(elapsedNanos, Math::max);
+
+		if ((timeoutNanos > 0) && (elapsedNanos / events.size() > timeoutNanos) && wrapper.deny()) {
+			deniedHandlers.increment();
+			log.log(LogService.LOG_WARNING, NLS.bind(EventAdminMsg.EVENT_HANDLER_DENIED_BATCH,
+					new Object[] { wrapper.reference, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), events.size() }));
+		}
+	}
+
+	void queued(int deliveryCount) {
+		maxQueueDepth.accumulateAndGet(queueDepth.addAndGet(deliveryCount), Math::max);
+	}
+
+	void dequeued(int deliveryCount) {
+		queueDepth.addAndGet(-deliveryCount);
+	}
+
+	@Override
+	public long getDeliveries() {
+		return deliveries.sum();
+	}
+
+	@Override
+	public long getLatencyNanos() {
+		return latencyNanos.sum();
+	}
+
+	@Override
+	public long getMaxLatencyNanos() {
+		return maxLatencyNanos.get();
+	}
+
+	@Override
+	public long getQueueDepth() {
+		return queueDepth.get();
+	}
+
+	@Override
+	public long getMaxQueueDepth() {
+		return maxQueueDepth.get();
+	}
+
+	@Override
+	public long getDeniedHandlers() {
+		return deniedHandlers.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "deliveries=" + getDeliveries() + ", latencyNanos=" + getLatencyNanos() + ", maxLatencyNanos=" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ getMaxLatencyNanos() + ", queueDepth=" + getQueueDepth() + ", maxQueueDepth=" + getMaxQueueDepth() //$NON-NLS-1$ //$NON-NLS-2$
+				+ ", deniedHandlers=" + getDeniedHandlers(); //$NON-NLS-1$
+	}
+}
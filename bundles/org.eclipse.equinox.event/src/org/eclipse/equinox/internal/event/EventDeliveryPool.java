@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.internal.event;
+
+import java.security.Permission;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.osgi.service.event.Event;
+
+/**
+ * Delivers asynchronous events on a fixed pool of threads.
+ * <p>
+ * With a single thread every event is one task which calls the handlers of the
+ * event in turn, so all handlers see all events in the order they were posted.
+ * <p>
+ * With more threads every handler has its own queue of pending events which is
+ * drained by at most one pool thread at a time, so a handler receives the
+ * events posted by a thread in the order they were posted while a slow handler
+ * only holds up its own queue. Handlers which registered for unordered
+ * delivery get each event as a separate task and may be called on several
+ * threads at once.
+ */
+class EventDeliveryPool {
+	/* the number of events a thread delivers to a handler before it lets other handlers have a turn */
+	private static final int DRAIN_LIMIT = 64;
+	/* the time in milliseconds close waits for the queued events to be delivered */
+	private static final long CLOSE_TIMEOUT = 5000;
+
+	private final ExecutorService executor;
+	private final EventDeliveryMonitor monitor;
+	private final boolean serial;
+
+	EventDeliveryPool(int threads, final ThreadGroup group, final String threadName, EventDeliveryMonitor monitor) {
+		this.monitor = monitor;
+		this.serial = threads <= 1;
+		final AtomicInteger count = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(Math.max(threads, 1), r -> {
+			Thread t = new Thread(group, r, serial ? threadName : threadName + " " + count.incrementAndGet()); //$NON-NLS-1$
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Queues an event for delivery to handlers.
+	 *
+	 * @param handlers the handlers to deliver the event to
+	 * @param event    the event
+	 * @param perm     the permission the handlers' bundles must have, may be null
+	 */
+	void post(EventHandlerWrapper[] handlers, Event event, Permission perm) {
+		if (serial) {
+			monitor.queued(handlers.length);
+			try {
+				executor.execute(new EventDelivery(handlers, event, perm));
+			} catch (RejectedExecutionException e) {
+				// the pool is closed
+				monitor.dequeued(handlers.length);
+			}
+			return;
+		}
+		for (EventHandlerWrapper wrapper : handlers) {
+			Delivery delivery = new EventHandlerDelivery(wrapper, event, perm);
+			monitor.queued(1);
+			try {
+				if (wrapper.isUnordered()) {
+					executor.execute(delivery);
+				} else {
+					wrapper.getHandlerQueue(this).add(delivery);
+				}
+			} catch (RejectedExecutionException e) {
+				// the pool is closed
+				monitor.dequeued(1);
+			}
+		}
+	}
+
+	/**
+	 * Queues a batch of events for delivery to handlers. Each handler gets its
+	 * part of the batch as a single task.
+	 *
+	 * @param batches the events of the batch for each handler
+	 */
+	void post(List<HandlerBatch> batches) {
+		if (serial) {
+			BatchDelivery delivery = new BatchDelivery(batches);
+			monitor.queued(delivery.size());
+			try {
+				executor.execute(delivery);
+			} catch (RejectedExecutionException e) {
+				// the pool is closed
+				monitor.dequeued(delivery.size());
+			}
+			return;
+		}
+		for (HandlerBatch batch : batches) {
+			BatchDelivery delivery = new BatchDelivery(List.of(batch));
+			monitor.queued(delivery.size());
+			try {
+				if (batch.wrapper.isUnordered()) {
+					executor.execute(delivery);
+				} else {
+					batch.wrapper.getHandlerQueue(this).add(delivery);
+				}
+			} catch (RejectedExecutionException e) {
+				// the pool is closed
+				monitor.dequeued(delivery.size());
+			}
+		}
+	}
+
+	/**
+	 * Stops accepting events and waits a bounded time for the queued events to
+	 * be delivered. Deliveries still pending after that are abandoned.
+	 */
+	void close() {
+		executor.shutdown();
+		try {
+			if (executor.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				return;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		executor.shutdownNow();
+	}
+
+	private class EventDelivery implements Runnable {
+		private final EventHandlerWrapper[] handlers;
+		private final Event event;
+		private final Permission perm;
+
+		EventDelivery(EventHandlerWrapper[] handlers, Event event, Permission perm) {
+			this.handlers = handlers;
+			this.event = event;
+			this.perm = perm;
+		}
+
+		@Override
+		public void run() {
+			for (EventHandlerWrapper wrapper : handlers) {
+				monitor.dequeued(1);
+				wrapper.handleEvent(event, perm);
+			}
+		}
+	}
+
+	private class EventHandlerDelivery implements Delivery {
+		private final EventHandlerWrapper wrapper;
+		private final Event event;
+		private final Permission perm;
+
+		EventHandlerDelivery(EventHandlerWrapper wrapper, Event event, Permission perm) {
+			this.wrapper = wrapper;
+			this.event = event;
+			this.perm = perm;
+		}
+
+		@Override
+		public int size() {
+			return 1;
+		}
+
+		@Override
+		public void run() {
+			monitor.dequeued(1);
+			wrapper.handleEvent(event, perm);
+		}
+	}
+
+	/**
+	 * A queued delivery of one or more events.
+	 */
+	private interface Delivery extends Runnable {
+		/**
+		 * @return the number of events the delivery hands to handlers
+		 */
+		int size();
+	}
+
+	private class BatchDelivery implements Delivery {
+		private final List<HandlerBatch> batches;
+
+		BatchDelivery(List<HandlerBatch> batches) {
+			this.batches = batches;
+		}
+
+		@Override
+		public int size() {
+			int size = 0;
+			for (HandlerBatch batch : batches) {
+				size += batch.size();
+			}
+			return size;
+		}
+
+		@Override
+		public void run() {
+			for (HandlerBatch batch : batches) {
+				monitor.dequeued(batch.size());
+				batch.deliver();
+			}
+		}
+	}
+
+	/**
+	 * The pending events of a handler which registered for ordered delivery.
+	 */
+	class HandlerQueue implements Runnable {
+		private final Queue<Delivery> deliveries = new ConcurrentLinkedQueue<>();
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		void add(Delivery delivery) {
+			deliveries.add(delivery);
+			schedule();
+		}
+
+		private void schedule() {
+			if (scheduled.compareAndSet(false, true)) {
+				try {
+					executor.execute(this);
+				} catch (RejectedExecutionException e) {
+					// the pool is closed; drop the pending events
+					scheduled.set(false);
+					Delivery delivery;
+					while ((delivery = deliveries.poll()) != null) {
+						monitor.dequeued(delivery.size());
+					}
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				for (int i = 0; i < DRAIN_LIMIT; i++) {
+					Delivery delivery = deliveries.poll();
+					if (delivery == null) {
+						break;
+					}
+					delivery.run();
+				}
+			} finally {
+				scheduled.set(false);
+			}
+			// an event may have been added after the last poll
+			if (!deliveries.isEmpty()) {
+				schedule();
+			}
+		}
+	}
+}
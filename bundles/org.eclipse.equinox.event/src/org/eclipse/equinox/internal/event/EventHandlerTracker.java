@@ -14,37 +14,43 @@
 
 package org.eclipse.equinox.internal.event;
 
-import java.security.Permission;
 import java.util.*;
-import org.eclipse.osgi.framework.eventmgr.EventDispatcher;
+import java.util.concurrent.ConcurrentHashMap;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
-import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
 import org.osgi.util.tracker.ServiceTracker;
 
-public class EventHandlerTracker extends ServiceTracker<EventHandler, EventHandlerWrapper>
-		implements EventDispatcher<EventHandlerWrapper, Permission, Event> {
+public class EventHandlerTracker extends ServiceTracker<EventHandler, EventHandlerWrapper> {
+
+	/** the largest number of topics whose handlers are cached */
+	private static final int MAX_CACHED_TOPICS = 1024;
+	private static final EventHandlerWrapper[] NO_HANDLERS = new EventHandlerWrapper[0];
 
 	private final LogTracker log;
+	private final EventDeliveryMonitor monitor;
 	// * List<EventHandlerWrapper> of all handlers with topic of "*"
 	private final List<EventHandlerWrapper> globalWildcard;
 	// Map<String,List<EventHandlerWrapper>> key is topic prefix of partial wildcard
 	private final Map<String, List<EventHandlerWrapper>> partialWildcard;
 	// Map<String,List<EventHandlerWrapper>> key is topic name
 	private final Map<String, List<EventHandlerWrapper>> topicName;
+	// Map<String,EventHandlerWrapper[]> key is topic name; cleared whenever the buckets change
+	private final Map<String, EventHandlerWrapper[]> topicHandlers;
 
-	public EventHandlerTracker(BundleContext context, LogTracker log) {
+	public EventHandlerTracker(BundleContext context, LogTracker log, EventDeliveryMonitor monitor) {
 		super(context, EventHandler.class.getName(), null);
 		this.log = log;
+		this.monitor = monitor;
 		globalWildcard = new ArrayList<>();
 		partialWildcard = new HashMap<>();
 		topicName = new HashMap<>();
+		topicHandlers = new ConcurrentHashMap<>();
 	}
 
 	@Override
 	public EventHandlerWrapper addingService(ServiceReference<EventHandler> reference) {
-		EventHandlerWrapper wrapper = new EventHandlerWrapper(reference, context, log);
+		EventHandlerWrapper wrapper = new EventHandlerWrapper(reference, context, log, monitor);
 		synchronized (this) {
 			if (wrapper.init()) {
 				bucket(wrapper);
@@ -82,6 +88,7 @@ public class EventHandlerTracker extends ServiceTracker<EventHandler, EventHandl
 	 * @GuardedBy this
 	 */
 	private void bucket(EventHandlerWrapper wrapper) {
+		topicHandlers.clear();
 		final String[] topics = wrapper.getTopics();
 		final int length = (topics == null) ? 0 : topics.length;
 		for (int i = 0; i < length; i++) {
@@ -119,6 +126,7 @@ public class EventHandlerTracker extends ServiceTracker<EventHandler, EventHandl
 	 * @GuardedBy this
 	 */
 	private void unbucket(EventHandlerWrapper wrapper) {
+		topicHandlers.clear();
 		final String[] topics = wrapper.getTopics();
 		final int length = (topics == null) ? 0 : topics.length;
 		for (int i = 0; i < length; i++) {
@@ -152,12 +160,35 @@ public class EventHandlerTracker extends ServiceTracker<EventHandler, EventHandl
 	}
 
 	/**
-	 * Return the set of handlers which subscribe to the event topic. A set is used
-	 * to ensure a handler is not called for an event more than once.
+	 * Return the handlers which subscribe to the event topic. Each handler is
+	 * listed once. The array is shared by all events of the topic until the
+	 * handlers change and must not be modified.
 	 * 
-	 * @return a set of handlers
+	 * @return an array of handlers
 	 */
-	public synchronized Set<EventHandlerWrapper> getHandlers(final String topic) {
+	public EventHandlerWrapper[] getHandlers(final String topic) {
+		EventHandlerWrapper[] handlers = topicHandlers.get(topic);
+		if (handlers != null) {
+			return handlers;
+		}
+		synchronized (this) {
+			handlers = findHandlers(topic);
+			// the number of topics is not bounded; only cache the first ones seen
+			if (topicHandlers.size() < MAX_CACHED_TOPICS) {
+				topicHandlers.put(topic, handlers);
+			}
+			return handlers;
+		}
+	}
+
+	/**
+	 * Return the handlers which subscribe to the event topic. A set is used to
+	 * ensure a handler is not called for an event more than once.
+	 * 
+	 * @return an array of handlers
+	 * @GuardedBy this
+	 */
+	private EventHandlerWrapper[] findHandlers(final String topic) {
 		// Use a set to remove duplicates
 		Set<EventHandlerWrapper> handlers = new LinkedHashSet<>();
 
@@ -186,18 +217,6 @@ public class EventHandlerTracker extends ServiceTracker<EventHandler, EventHandl
 			handlers.addAll(wrappers);
 		}
 
-		return handlers;
-	}
-
-	/**
-	 * Dispatches Event to EventHandlers
-	 * 
-	 * @see org.eclipse.osgi.framework.eventmgr.EventDispatcher#dispatchEvent(java.lang.Object,
-	 *      java.lang.Object, int, java.lang.Object)
-	 */
-	@Override
-	public void dispatchEvent(EventHandlerWrapper eventListener, Permission listenerObject, int eventAction,
-			Event eventObject) {
-		eventListener.handleEvent(eventObject, listenerObject);
+		return handlers.isEmpty() ? NO_HANDLERS : handlers.toArray(NO_HANDLERS);
 	}
 }
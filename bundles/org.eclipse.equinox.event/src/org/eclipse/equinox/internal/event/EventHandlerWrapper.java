@@ -15,7 +15,8 @@
 package org.eclipse.equinox.internal.event;
 
 import java.security.*;
-import java.util.Collection;
+import java.util.*;
+import org.eclipse.equinox.event.BatchEventHandler;
 import org.eclipse.osgi.util.NLS;
 import org.osgi.framework.*;
 import org.osgi.service.event.*;
@@ -28,10 +29,14 @@ import org.osgi.service.log.LogService;
 public class EventHandlerWrapper {
 	final ServiceReference<EventHandler> reference;
 	private final LogTracker log;
+	private final EventDeliveryMonitor monitor;
 	final BundleContext context;
 	private EventHandler handler;
 	private String[] topics;
 	private Filter filter;
+	private boolean unordered;
+	private volatile boolean denied;
+	private volatile EventDeliveryPool.HandlerQueue handlerQueue;
 
 	/**
 	 * Create an EventHandlerWrapper.
@@ -39,11 +44,14 @@ public class EventHandlerWrapper {
 	 * @param reference Reference to the EventHandler
 	 * @param context   Bundle Context of the Event Admin bundle
 	 * @param log       LogService object for logging
+	 * @param monitor   the monitor to report handler calls to
 	 */
-	public EventHandlerWrapper(ServiceReference<EventHandler> reference, BundleContext context, LogTracker log) {
+	public EventHandlerWrapper(ServiceReference<EventHandler> reference, BundleContext context, LogTracker log,
+			EventDeliveryMonitor monitor) {
 		this.reference = reference;
 		this.context = context;
 		this.log = log;
+		this.monitor = monitor;
 	}
 
 	/**
@@ -55,6 +63,7 @@ public class EventHandlerWrapper {
 	public synchronized boolean init() {
 		topics = null;
 		filter = null;
+		unordered = false;
 
 		// Get topic names
 		Object o = reference.getProperty(EventConstants.EVENT_TOPIC);
@@ -87,9 +96,68 @@ public class EventHandlerWrapper {
 			}
 		}
 
+		// get delivery qualities; ordered delivery wins if both are requested
+		o = reference.getProperty(EventConstants.EVENT_DELIVERY);
+		Collection<?> delivery = null;
+		if (o instanceof String) {
+			delivery = Collections.singleton(o);
+		} else if (o instanceof String[]) {
+			delivery = Arrays.asList((String[]) o);
+		} else if (o instanceof Collection) {
+			delivery = (Collection<?>) o;
+		}
+		if (delivery != null) {
+			unordered = delivery.contains(EventConstants.DELIVERY_ASYNC_UNORDERED)
+					&& !delivery.contains(EventConstants.DELIVERY_ASYNC_ORDERED);
+		}
+
 		return true;
 	}
 
+	/**
+	 * Return true if the handler accepts asynchronous events in any order.
+	 * 
+	 * @return true if the handler requested unordered delivery
+	 */
+	public synchronized boolean isUnordered() {
+		return unordered;
+	}
+
+	/**
+	 * Deny the handler any further events.
+	 * 
+	 * @return true if the handler was not denied before
+	 */
+	boolean deny() {
+		synchronized (this) {
+			if (denied) {
+				return false;
+			}
+			denied = true;
+		}
+		return true;
+	}
+
+	/**
+	 * Return the queue of pending ordered deliveries to the handler, creating it
+	 * on first use.
+	 * 
+	 * @param pool the pool which delivers the events
+	 * @return the queue of the handler
+	 */
+	EventDeliveryPool.HandlerQueue getHandlerQueue(EventDeliveryPool pool) {
+		EventDeliveryPool.HandlerQueue queue = handlerQueue;
+		if (queue == null) {
+			synchronized (this) {
+				queue = handlerQueue;
+				if (queue == null) {
+					handlerQueue = queue = pool.new HandlerQueue();
+				}
+			}
+		}
+		return queue;
+	}
+
 	/**
 	 * Flush the handler service if it has been obtained.
 	 */
@@ -180,6 +248,11 @@ public class EventHandlerWrapper {
 	 * @param perm  The permission to be checked
 	 */
 	public void handleEvent(Event event, Permission perm) {
+		// did the handler exceed the timeout?
+		if (denied) {
+			return;
+		}
+
 		Bundle bundle = reference.getBundle();
 		// is service unregistered?
 		if (bundle == null) {
@@ -203,10 +276,101 @@ public class EventHandlerWrapper {
 			return;
 		}
 
+		deliver(handlerService, event);
+	}
+
+	/**
+	 * Dispatch a batch of events to handler. The events which pass the final tests
+	 * are given to a {@link BatchEventHandler} in one call and to any other
+	 * handler one at a time.
+	 * 
+	 * @param events The events to dispatch, in order
+	 * @param perms  The permission to be checked for each event, or null if no
+	 *               permissions are checked
+	 */
+	public void handleEvents(List<Event> events, List<Permission> perms) {
+		// did the handler exceed the timeout?
+		if (denied) {
+			return;
+		}
+
+		Bundle bundle = reference.getBundle();
+		// is service unregistered?
+		if (bundle == null) {
+			return;
+		}
+
+		Filter eventFilter = getFilter();
+		List<Event> accepted = new ArrayList<>(events.size());
+		// the events of a topic share the permission object
+		Permission lastPerm = null;
+		boolean lastGranted = false;
+		for (int i = 0; i < events.size(); i++) {
+			Event event = events.get(i);
+			// filter match
+			if ((eventFilter != null) && !event.matches(eventFilter)) {
+				continue;
+			}
+			// permission check
+			Permission perm = (perms == null) ? null : perms.get(i);
+			if (perm != null) {
+				if (perm != lastPerm) {
+					lastPerm = perm;
+					lastGranted = bundle.hasPermission(perm);
+				}
+				if (!lastGranted) {
+					continue;
+				}
+			}
+			accepted.add(event);
+		}
+		if (accepted.isEmpty()) {
+			return;
+		}
+
+		// get handler service
+		EventHandler handlerService = getHandler();
+		if (handlerService == null) {
+			return;
+		}
+
+		if (!(handlerService instanceof BatchEventHandler)) {
+			for (Event event : accepted) {
+				if (denied) {
+					return;
+				}
+				deliver(handlerService, event);
+			}
+			return;
+		}
+
+		long start = System.nanoTime();
+		try {
+			((BatchEventHandler) handlerService).handleEvents(Collections.unmodifiableList(accepted));
+		} catch (Throwable t) {
+			for (Event event : accepted) {
+				if (isLogEntryEvent(event)) {
+					if (event.getProperty("exception") instanceof LogTopicException) //$NON-NLS-1$
+						return;// avoid endless event dispatching
+					// wrap exception in a LogTopicException to detect endless event dispatching
+					t = new LogTopicException(t);
+					break;
+				}
+			}
+			// log/handle any Throwable thrown by the listener
+			log.log(LogService.LOG_ERROR,
+					NLS.bind(EventAdminMsg.EVENT_DISPATCH_BATCH_HANDLER_EXCEPTION, accepted.size(), handlerService), t);
+		} finally {
+			monitor.handled(this, accepted, System.nanoTime() - start);
+		}
+	}
+
+	private void deliver(EventHandler handlerService, Event event) {
+		long start = System.nanoTime();
 		try {
 			handlerService.handleEvent(event);
 		} catch (Throwable t) {
-			if (event.getTopic().startsWith("org/osgi/service/log/LogEntry")) { //$NON-NLS-1$
+			if (isLogEntryEvent(event)) {
 				Object exception = event.getProperty("exception"); //$NON-NLS-1$
 				if (exception instanceof LogTopicException)
 					return;// avoid endless event dispatching
@@ -216,9 +380,15 @@ public class EventHandlerWrapper {
 			// log/handle any Throwable thrown by the listener
 			log.log(LogService.LOG_ERROR,
 					NLS.bind(EventAdminMsg.EVENT_DISPATCH_HANDLER_EXCEPTION, event, handlerService), t);
+		} finally {
+			monitor.handled(this, event, System.nanoTime() - start);
 		}
 	}
 
+	private static boolean isLogEntryEvent(Event event) {
+		return event.getTopic().startsWith("org/osgi/service/log/LogEntry"); //$NON-NLS-1$
+	}
+
 	static class LogTopicException extends RuntimeException {
 		private static final long serialVersionUID = -2386940335620739632L;
 
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.internal.event;
+
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.List;
+import org.osgi.service.event.Event;
+
+/**
+ * The events of a batch which go to one handler, in the order they were
+ * published.
+ */
+class HandlerBatch {
+	final EventHandlerWrapper wrapper;
+	private final List<Event> events = new ArrayList<>();
+	// null if no permissions are checked
+	private final List<Permission> perms;
+
+	HandlerBatch(EventHandlerWrapper wrapper, boolean checkPermissions) {
+		this.wrapper = wrapper;
+		this.perms = checkPermissions ? new ArrayList<>() : null;
+	}
+
+	void add(Event event, Permission perm) {
+		events.add(event);
+		if (perms != null) {
+			perms.add(perm);
+		}
+	}
+
+	int size() {
+		return events.size();
+	}
+
+	void deliver() {
+		wrapper.handleEvents(events, perms);
+	}
+}
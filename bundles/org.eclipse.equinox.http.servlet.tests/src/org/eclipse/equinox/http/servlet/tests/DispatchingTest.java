@@ -50,11 +50,15 @@ import org.eclipse.equinox.http.servlet.testbase.BaseTest;
 import org.eclipse.equinox.http.servlet.tests.util.BaseServlet;
 import org.eclipse.equinox.http.servlet.tests.util.DispatchResultServlet;
 import org.eclipse.equinox.http.servlet.tests.util.EventHandler;
+import org.eclipse.equinox.http.servlet.tests.util.MockFilter;
+import org.eclipse.equinox.http.servlet.tests.util.MockServlet;
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceRegistration;
 import org.osgi.framework.Version;
 import org.osgi.framework.namespace.ExecutionEnvironmentNamespace;
 import org.osgi.framework.wiring.BundleWiring;
@@ -1652,4 +1656,109 @@ public class DispatchingTest extends BaseTest {
 
 		Assert.assertEquals("/Bug%20497510/a%20b%20c", result);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void test_dispatchAfterRegistrationChanges() throws Exception {
+		BundleContext context = getBundleContext();
+
+		for (int i = 0; i < 50; i++) {
+			Dictionary<String, Object> props = new Hashtable<>();
+			props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_NAME, "prefix" + i);
+			props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_PATTERN, "/index/p" + i + "/*");
+			registrations.add(context.registerService(Servlet.class, new MockServlet().content("p" + i), props));
+		}
+
+		Dictionary<String, Object> props = new Hashtable<>();
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_NAME, "exact");
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_PATTERN, "/index/p7/x");
+		ServiceRegistration<?> exact = context.registerService(Servlet.class, new MockServlet().content("exact"), props);
+		registrations.add(exact);
+
+		props = new Hashtable<>();
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_NAME, "extension");
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_PATTERN, "*.idx");
+		registrations.add(context.registerService(Servlet.class, new MockServlet().content("extension"), props));
+
+		props = new Hashtable<>();
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_FILTER_NAME, "filter");
+		props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_FILTER_PATTERN, "/index/p7/*");
+		ServiceRegistration<?> filter = context.registerService(Filter.class, new MockFilter().around("f"), props);
+		registrations.add(filter);
+
+		Assert.assertEquals("p3", requestAdvisor.request("index/p3/a/b"));
+		Assert.assertEquals("fexactf", requestAdvisor.request("index/p7/x"));
+		Assert.assertEquals("fp7f", requestAdvisor.request("index/p7/y"));
+		Assert.assertEquals("extension", requestAdvisor.request("index/other.idx"));
+
+		exact.unregister();
+		registrations.remove(exact);
+
+		Assert.assertEquals("fp7f", requestAdvisor.request("index/p7/x"));
+
+		filter.unregister();
+		registrations.remove(filter);
+
+		Assert.assertEquals("p7", requestAdvisor.request("index/p7/x"));
+	}
+
+	@Test
+	public void test_dispatchCache() throws Exception {
+		try {
+			stopJetty();
+			System.setProperty("equinox.http.dispatch.cache.size", "16");
+		}
+		finally {
+			startJetty();
+		}
+
+		try {
+			BundleContext context = getBundleContext();
+
+			Dictionary<String, Object> props = new Hashtable<>();
+			props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_NAME, "prefix");
+			props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_PATTERN, "/cached/*");
+			registrations.add(context.registerService(Servlet.class, new MockServlet().content("prefix"), props));
+
+			Assert.assertEquals("prefix", requestAdvisor.request("cached/a?p=1"));
+			Assert.assertEquals("prefix", requestAdvisor.request("cached/a?p=2"));
+
+			Map<String, Object> properties = getHttpServiceRuntime().getRuntimeDTO().serviceDTO.properties;
+
+			Assert.assertEquals(1L, properties.get("equinox.http.dispatch.cache.hits"));
+			Assert.assertEquals(1L, properties.get("equinox.http.dispatch.cache.misses"));
+
+			props = new Hashtable<>();
+			props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_NAME, "exact");
+			props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_SERVLET_PATTERN, "/cached/a");
+			ServiceRegistration<?> exact = context.registerService(Servlet.class, new MockServlet().content("exact"), props);
+			registrations.add(exact);
+
+			Assert.assertEquals("exact", requestAdvisor.request("cached/a"));
+
+			props = new Hashtable<>();
+			props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_FILTER_NAME, "filter");
+			props.put(HttpWhiteboardConstants.HTTP_WHITEBOARD_FILTER_PATTERN, "/cached/*");
+			ServiceRegistration<?> filter = context.registerService(Filter.class, new MockFilter().around("f"), props);
+			registrations.add(filter);
+
+			Assert.assertEquals("fexactf", requestAdvisor.request("cached/a"));
+			Assert.assertEquals("fexactf", requestAdvisor.request("cached/a"));
+
+			exact.unregister();
+			registrations.remove(exact);
+			filter.unregister();
+			registrations.remove(filter);
+
+			Assert.assertEquals("prefix", requestAdvisor.request("cached/a"));
+		}
+		finally {
+			try {
+				stopJetty();
+				System.clearProperty("equinox.http.dispatch.cache.size");
+			}
+			finally {
+				startJetty();
+			}
+		}
+	}
+}
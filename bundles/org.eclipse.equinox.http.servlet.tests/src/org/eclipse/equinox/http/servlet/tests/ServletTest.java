@@ -1978,6 +1978,66 @@ public class ServletTest extends BaseTest {
 		assertEquals("Wrong value.", "test", actual);
 	}
 
+	@Test
+	public void test_ResourceCache() throws Exception {
+		try {
+			stopJetty();
+			System.setProperty("equinox.http.resource.cache.size", "65536");
+		}
+		finally {
+			startJetty();
+		}
+
+		try {
+			HttpService extendedHttpService = getHttpService();
+
+			extendedHttpService.registerResources("/cached", "/org/eclipse/equinox/http/servlet/tests", null);
+
+			Map<String, List<String>> actual = requestAdvisor.request("cached/resource2.txt", null);
+
+			assertEquals("Response Code", Collections.singletonList("200"), actual.get("responseCode"));
+			assertEquals("Response Body", "test", actual.get("responseBody").get(0));
+
+			String etag = actual.get("ETag").get(0);
+
+			assertTrue("Strong ETag expected: " + etag, etag.startsWith("\""));
+
+			Map<String, List<String>> requestHeader = new HashMap<>();
+			requestHeader.put("If-None-Match", Collections.singletonList(etag));
+
+			actual = requestAdvisor.request("cached/resource2.txt", requestHeader);
+
+			assertEquals("Response Code", Collections.singletonList("304"), actual.get("responseCode"));
+
+			// the entity tag of another representation must not match
+			String otherEtag = etag.substring(0, etag.length() - 1) + "-gzip\"";
+			requestHeader = new HashMap<>();
+			requestHeader.put("If-None-Match", Collections.singletonList(otherEtag));
+
+			actual = requestAdvisor.request("cached/resource2.txt", requestHeader);
+
+			assertEquals("Response Code", Collections.singletonList("200"), actual.get("responseCode"));
+
+			requestHeader = new HashMap<>();
+			requestHeader.put("Range", Collections.singletonList("bytes=1-2"));
+
+			actual = requestAdvisor.request("cached/resource2.txt", requestHeader);
+
+			assertEquals("Response Code", Collections.singletonList("206"), actual.get("responseCode"));
+			assertEquals("Content-Range", Collections.singletonList("bytes 1-2/4"), actual.get("Content-Range"));
+			assertEquals("Response Body", "es", actual.get("responseBody").get(0));
+		}
+		finally {
+			try {
+				stopJetty();
+				System.clearProperty("equinox.http.resource.cache.size");
+			}
+			finally {
+				startJetty();
+			}
+		}
+	}
+
 	@Test
 	public void test_ResourceRangeRequest_Complete() throws Exception {
 		Bundle bundle = installBundle(TEST_BUNDLE_2);
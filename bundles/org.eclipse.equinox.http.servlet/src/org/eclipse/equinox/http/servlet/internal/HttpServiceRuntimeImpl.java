@@ -37,6 +37,7 @@ import org.eclipse.equinox.http.servlet.internal.error.*;
 import org.eclipse.equinox.http.servlet.internal.registration.PreprocessorRegistration;
 import org.eclipse.equinox.http.servlet.internal.servlet.HttpSessionTracker;
 import org.eclipse.equinox.http.servlet.internal.servlet.Match;
+import org.eclipse.equinox.http.servlet.internal.servlet.ResourceCache;
 import org.eclipse.equinox.http.servlet.internal.util.*;
 import org.eclipse.equinox.http.servlet.session.HttpSessionInvalidator;
 import org.osgi.framework.*;
@@ -77,6 +78,8 @@ public class HttpServiceRuntimeImpl implements HttpServiceRuntime,
 		this.httpSessionTracker = new HttpSessionTracker(this);
 		this.invalidatorReg = trackingContext.registerService(HttpSessionInvalidator.class, this.httpSessionTracker,
 				attributes);
+		this.dispatchTargetsCache = createDispatchTargetsCache(consumingContext, this.attributes);
+		this.resourceCache = createResourceCache(consumingContext, this.attributes);
 
 		loggerFactoryTracker = new ServiceTracker<>(consumingContext, LoggerFactory.class,
 				new ServiceTrackerCustomizer<LoggerFactory, Logger>() {
@@ -147,6 +150,7 @@ public class HttpServiceRuntimeImpl implements HttpServiceRuntime,
 
 			recordFailedServletContextDTO(serviceReference, 0, DTOConstants.FAILURE_REASON_EXCEPTION_ON_INIT);
 		} finally {
+			dispatchTargetsChanged();
 			incrementServiceChangecount();
 		}
 
@@ -234,6 +238,7 @@ public class HttpServiceRuntimeImpl implements HttpServiceRuntime,
 		preprocessorServiceTracker.close();
 
 		controllerMap.clear();
+		dispatchTargetsChanged();
 		preprocessorMap.clear();
 		registeredObjects.clear();
 		legacyContextMap.clear();
@@ -246,12 +251,70 @@ public class HttpServiceRuntimeImpl implements HttpServiceRuntime,
 		failedServletContextDTOs.clear();
 		failedServletDTOs.clear();
 
+		if (resourceCache != null) {
+			try {
+				consumingContext.removeBundleListener(resourceCache);
+			} catch (IllegalStateException ise) {
+				// ignore
+			}
+			resourceCache.clear();
+		}
+
 		httpSessionTracker.clear();
 		registeredObjects.clear();
 		scheduledExecutor.shutdown();
 		loggerFactoryTracker.close();
 	}
 
+	/**
+	 * Resolves the dispatch targets of a request, consulting the dispatch cache
+	 * when one is configured.
+	 */
+	public DispatchTargets getDispatchTargets(String pathString, DispatcherType dispatcherType) {
+		DispatchTargetsCache cache = dispatchTargetsCache;
+
+		if (cache == null) {
+			return getDispatchTargets(pathString, (RequestInfoDTO) null);
+		}
+
+		Path path = new Path(pathString);
+
+		String queryString = path.getQueryString();
+		String requestURI = path.getRequestURI();
+
+		if (Const.SLASH.equals(requestURI) && !Const.SLASH.equals(pathString)) {
+			// only a bare '/' is a candidate for the context root
+			return getDispatchTargets(pathString, (RequestInfoDTO) null);
+		}
+
+		DispatchTargets dispatchTargets = cache.get(requestURI, dispatcherType, queryString);
+
+		if (dispatchTargets != null) {
+			return dispatchTargets;
+		}
+
+		long changeCount = cache.getChangeCount();
+
+		dispatchTargets = getDispatchTargets(pathString, (RequestInfoDTO) null);
+
+		if (dispatchTargets != null) {
+			cache.put(requestURI, dispatcherType, changeCount, dispatchTargets);
+		}
+
+		return dispatchTargets;
+	}
+
+	/**
+	 * Called after a context or one of its registrations was added or removed.
+	 */
+	public void dispatchTargetsChanged() {
+		DispatchTargetsCache cache = dispatchTargetsCache;
+
+		if (cache != null) {
+			cache.invalidate();
+		}
+	}
+
 	public DispatchTargets getDispatchTargets(String pathString, RequestInfoDTO requestInfoDTO) {
 
 		Path path = new Path(pathString);
@@ -296,6 +359,14 @@ public class HttpServiceRuntimeImpl implements HttpServiceRuntime,
 		return httpSessionTracker;
 	}
 
+	/**
+	 * Returns the cache of static resource content, or {@code null} if resource
+	 * caching is not enabled.
+	 */
+	public ResourceCache getResourceCache() {
+		return resourceCache;
+	}
+
 	public Set<Object> getRegisteredObjects() {
 		return registeredObjects;
 	}
@@ -348,6 +419,7 @@ public class HttpServiceRuntimeImpl implements HttpServiceRuntime,
 			String[] serviceTypes = (String[]) serviceDTO.properties.get(Constants.OBJECTCLASS);
 			for (String type : serviceTypes) {
 				if (HttpServiceRuntime.class.getName().equals(type)) {
+					addDispatchTargetsCacheStatistics(serviceDTO);
 					return serviceDTO;
 				}
 			}
@@ -355,6 +427,63 @@ public class HttpServiceRuntimeImpl implements HttpServiceRuntime,
 		return null;
 	}
 
+	private void addDispatchTargetsCacheStatistics(ServiceReferenceDTO serviceDTO) {
+		DispatchTargetsCache cache = dispatchTargetsCache;
+
+		if (cache == null) {
+			return;
+		}
+
+		Map<String, Object> properties = new HashMap<>(serviceDTO.properties);
+		properties.put(Const.EQUINOX_HTTP_DISPATCH_CACHE_HITS, cache.getHits());
+		properties.put(Const.EQUINOX_HTTP_DISPATCH_CACHE_MISSES, cache.getMisses());
+		serviceDTO.properties = properties;
+	}
+
+	private static DispatchTargetsCache createDispatchTargetsCache(BundleContext context,
+			Map<String, Object> attributes) {
+
+		long size = getSizeProperty(context, attributes, Const.EQUINOX_HTTP_DISPATCH_CACHE_SIZE);
+
+		return (size > 0) ? new DispatchTargetsCache((int) Math.min(size, Integer.MAX_VALUE)) : null;
+	}
+
+	private static ResourceCache createResourceCache(BundleContext context, Map<String, Object> attributes) {
+		long size = getSizeProperty(context, attributes, Const.EQUINOX_HTTP_RESOURCE_CACHE_SIZE);
+
+		if (size <= 0) {
+			return null;
+		}
+
+		ResourceCache resourceCache = new ResourceCache(size);
+
+		context.addBundleListener(resourceCache);
+
+		return resourceCache;
+	}
+
+	/*
+	 * Sizes are read from the init parameters of the proxy servlet first and
+	 * from the framework properties second; a missing or malformed size is 0.
+	 */
+	private static long getSizeProperty(BundleContext context, Map<String, Object> attributes, String key) {
+		Object sizeObj = attributes.get(key);
+
+		if (sizeObj == null) {
+			sizeObj = context.getProperty(key);
+		}
+
+		if (sizeObj == null) {
+			return 0;
+		}
+
+		try {
+			return Long.parseLong(String.valueOf(sizeObj).trim());
+		} catch (NumberFormatException nfe) {
+			return 0;
+		}
+	}
+
 	public void debug(String message) {
 		Logger logger = loggerFactoryTracker.getService();
 		if (logger == null) {
@@ -442,6 +571,7 @@ public class HttpServiceRuntimeImpl implements HttpServiceRuntime,
 			controllerMap.remove(serviceReference);
 			trackingContext.ungetService(serviceReference);
 		} finally {
+			dispatchTargetsChanged();
 			incrementServiceChangecount();
 		}
 	}
@@ -1295,6 +1425,8 @@ public class HttpServiceRuntimeImpl implements HttpServiceRuntime,
 	private final HttpSessionTracker httpSessionTracker;
 	private final ServiceRegistration<HttpSessionInvalidator> invalidatorReg;
 	private final AtomicReference<ServiceRegistration<HttpServiceRuntime>> hsrRegistration = new AtomicReference<>();
+	private final DispatchTargetsCache dispatchTargetsCache;
+	private final ResourceCache resourceCache;
 
 	private final AtomicLong serviceChangecount = new AtomicLong();
 	private final ScheduledExecutorService scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
@@ -21,6 +21,7 @@ import java.net.URISyntaxException;
 import java.security.AccessController;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -158,6 +159,7 @@ public class ContextController {
 		recordErrorPageShadowing(errorPageRegistration);
 
 		endpointRegistrations.add(errorPageRegistration);
+		registrationsChanged();
 
 		return errorPageRegistration;
 	}
@@ -259,6 +261,7 @@ public class ContextController {
 		newRegistration.init(filterConfig);
 
 		filterRegistrations.add(newRegistration);
+		registrationsChanged();
 		return newRegistration;
 	}
 
@@ -355,7 +358,8 @@ public class ContextController {
 
 		Bundle bundle = resourceRef.getBundle();
 		ServletContextHelper curServletContextHelper = getServletContextHelper(bundle);
-		Servlet servlet = new ResourceServlet(prefix, curServletContextHelper, AccessController.getContext());
+		Servlet servlet = new ResourceServlet(prefix, curServletContextHelper, AccessController.getContext(), bundle,
+				httpServiceRuntime.getResourceCache());
 
 		ResourceDTO resourceDTO = new ResourceDTO();
 
@@ -382,6 +386,7 @@ public class ContextController {
 		recordEndpointShadowing(resourceRegistration);
 
 		endpointRegistrations.add(resourceRegistration);
+		registrationsChanged();
 
 		return resourceRegistration;
 	}
@@ -458,6 +463,7 @@ public class ContextController {
 		recordEndpointShadowing(servletRegistration);
 
 		endpointRegistrations.add(servletRegistration);
+		registrationsChanged();
 
 		return servletRegistration;
 	}
@@ -568,6 +574,7 @@ public class ContextController {
 
 		endpointRegistrations.clear();
 		filterRegistrations.clear();
+		registrationsChanged();
 		listenerRegistrations.clear();
 		eventListeners.clear();
 		proxyContext.destroy();
@@ -675,12 +682,18 @@ public class ContextController {
 
 		checkShutdown();
 
+		DispatchIndex index = getDispatchIndex();
+
 		EndpointRegistration<?> endpointRegistration = null;
-		for (EndpointRegistration<?> curEndpointRegistration : endpointRegistrations) {
-			if (curEndpointRegistration.match(servletName, servletPath, pathInfo, extension, match) != null) {
-				endpointRegistration = curEndpointRegistration;
+		if ((servletName == null) && (match != Match.ERROR)) {
+			endpointRegistration = index.findEndpoint(servletPath, pathInfo, extension, match);
+		} else {
+			for (EndpointRegistration<?> curEndpointRegistration : endpointRegistrations) {
+				if (curEndpointRegistration.match(servletName, servletPath, pathInfo, extension, match) != null) {
+					endpointRegistration = curEndpointRegistration;
 
-				break;
+					break;
+				}
 			}
 		}
 
@@ -695,7 +708,7 @@ public class ContextController {
 
 		addEnpointRegistrationsToRequestInfo(endpointRegistration, requestInfoDTO);
 
-		if (filterRegistrations.isEmpty()) {
+		if (!index.hasFilters()) {
 			return new DispatchTargets(this, endpointRegistration, servletName, requestURI, servletPath, pathInfo,
 					queryString);
 		}
@@ -708,10 +721,8 @@ public class ContextController {
 			}
 		}
 
-		List<FilterRegistration> matchingFilterRegistrations = new ArrayList<>();
-
-		collectFilters(matchingFilterRegistrations, endpointRegistration.getName(), requestURI, servletPath, pathInfo,
-				extension);
+		List<FilterRegistration> matchingFilterRegistrations = index.findFilters(endpointRegistration.getName(),
+				requestURI, extension);
 
 		addFilterRegistrationsToRequestInfo(matchingFilterRegistrations, requestInfoDTO);
 
@@ -719,16 +730,22 @@ public class ContextController {
 				servletPath, pathInfo, queryString);
 	}
 
-	private void collectFilters(List<FilterRegistration> matchingFilterRegistrations, String servletName,
-			String requestURI, String servletPath, String pathInfo, String extension) {
-
-		for (FilterRegistration filterRegistration : filterRegistrations) {
-			if ((filterRegistration.match(servletName, requestURI, extension, null) != null)
-					&& !matchingFilterRegistrations.contains(filterRegistration)) {
+	private DispatchIndex getDispatchIndex() {
+		DispatchIndex current = dispatchIndex;
+		// read the count before the registrations so that a concurrent change forces another rebuild
+		long changes = registrationChanges.get();
 
-				matchingFilterRegistrations.add(filterRegistration);
-			}
+		if ((current == null) || (current.getChangeCount() != changes)) {
+			current = new DispatchIndex(changes, endpointRegistrations, filterRegistrations);
+			dispatchIndex = current;
 		}
+
+		return current;
+	}
+
+	private void registrationsChanged() {
+		registrationChanges.incrementAndGet();
+		httpServiceRuntime.dispatchTargetsChanged();
 	}
 
 	public Map<String, HttpSessionAdaptor> getActiveSessions() {
@@ -747,6 +764,16 @@ public class ContextController {
 		return filterRegistrations;
 	}
 
+	public void removeEndpointRegistration(EndpointRegistration<?> endpointRegistration) {
+		endpointRegistrations.remove(endpointRegistration);
+		registrationsChanged();
+	}
+
+	public void removeFilterRegistration(FilterRegistration filterRegistration) {
+		filterRegistrations.remove(filterRegistration);
+		registrationsChanged();
+	}
+
 	public String getFullContextPath() {
 		if (fullContextPath != null) {
 			return fullContextPath;
@@ -1385,6 +1412,8 @@ public class ContextController {
 	private final Set<EndpointRegistration<?>> endpointRegistrations = new ConcurrentSkipListSet<>();
 	private final EventListeners eventListeners = new EventListeners();
 	private final Set<FilterRegistration> filterRegistrations = new ConcurrentSkipListSet<>();
+	private final AtomicLong registrationChanges = new AtomicLong();
+	private volatile DispatchIndex dispatchIndex;
 	private final ConcurrentMap<String, HttpSessionAdaptor> activeSessions = new ConcurrentHashMap<>();
 
 	private final HttpServiceRuntimeImpl httpServiceRuntime;
@@ -0,0 +1,384 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.http.servlet.internal.context;
+
+import java.util.*;
+import org.eclipse.equinox.http.servlet.internal.registration.*;
+import org.eclipse.equinox.http.servlet.internal.servlet.Match;
+import org.eclipse.equinox.http.servlet.internal.util.Const;
+
+/**
+ * A compiled routing structure for the endpoint and filter registrations of a
+ * context. The index answers the same questions as matching every registration
+ * against a request, in the same order, with a few map lookups:
+ * <ul>
+ * <li>exact servlet patterns are keyed by the pattern,</li>
+ * <li>path prefix patterns ({@code /foo/*}) are keyed by the path before the
+ * wildcard,</li>
+ * <li>extension patterns ({@code *.jsp} and {@code /foo/*.jsp}) are keyed by
+ * the path before the wildcard,</li>
+ * <li>filters matched by servlet name are pre-matched per servlet name and
+ * filters with path patterns are keyed like servlet patterns.</li>
+ * </ul>
+ * Registrations that win a lookup are the ones that come first in the ordered
+ * registration sets of the context. Filters with regular expressions or
+ * patterns that cannot be indexed are matched against every request.
+ * <p>
+ * The index is immutable and is replaced whenever a registration is added to
+ * or removed from the context.
+ */
+final class DispatchIndex {
+
+	private static final FilterRegistration[] NO_FILTERS = new FilterRegistration[0];
+
+	private final long changeCount;
+
+	private final Map<String, EndpointRegistration<?>> exactEndpoints = new HashMap<>();
+	private final Map<String, EndpointRegistration<?>> prefixEndpoints = new HashMap<>();
+	private final Map<String, List<ExtensionEndpoint>> extensionEndpoints = new HashMap<>();
+	private EndpointRegistration<?> defaultEndpoint;
+	private EndpointRegistration<?> contextRootEndpoint;
+
+	private final FilterRegistration[] filters;
+	private final Map<String, int[]> nameFilters = new HashMap<>();
+	private final Map<String, int[]> exactFilters = new HashMap<>();
+	private final Map<String, List<PrefixFilter>> prefixFilters = new HashMap<>();
+	private final Map<String, int[]> extensionFilters = new HashMap<>();
+	private final int[] scannedFilters;
+
+	DispatchIndex(long changeCount, Collection<EndpointRegistration<?>> endpointRegistrations,
+			Collection<FilterRegistration> filterRegistrations) {
+
+		this.changeCount = changeCount;
+
+		for (EndpointRegistration<?> endpointRegistration : endpointRegistrations) {
+			if (endpointRegistration instanceof ErrorPageRegistration) {
+				// error pages only match error dispatches which are not indexed
+				continue;
+			}
+
+			String[] patterns = endpointRegistration.getPatterns();
+
+			if (patterns == null) {
+				continue;
+			}
+
+			for (String pattern : patterns) {
+				addEndpointPattern(endpointRegistration, pattern);
+			}
+		}
+
+		this.filters = filterRegistrations.toArray(NO_FILTERS);
+
+		Map<String, List<Integer>> names = new HashMap<>();
+		Map<String, List<Integer>> exact = new HashMap<>();
+		Map<String, List<Integer>> extensions = new HashMap<>();
+		List<Integer> scanned = new ArrayList<>();
+
+		for (int i = 0; i < filters.length; i++) {
+			FilterRegistration filterRegistration = filters[i];
+
+			String[] regexs = filterRegistration.getD().regexs;
+
+			if (((regexs != null) && (regexs.length > 0)) || !canIndex(filterRegistration.getD().patterns)) {
+				scanned.add(i);
+
+				continue;
+			}
+
+			if (filterRegistration.getD().servletNames != null) {
+				for (String servletName : filterRegistration.getD().servletNames) {
+					add(names, servletName, i);
+				}
+			}
+
+			for (String pattern : filterRegistration.getD().patterns) {
+				addFilterPattern(i, pattern, exact, extensions);
+			}
+		}
+
+		toArrays(names, nameFilters);
+		toArrays(exact, exactFilters);
+		toArrays(extensions, extensionFilters);
+		this.scannedFilters = toArray(scanned);
+	}
+
+	long getChangeCount() {
+		return changeCount;
+	}
+
+	/**
+	 * Returns the first endpoint registration that matches the servlet path,
+	 * path info and extension of a request for the given match pass. Only
+	 * matches by path are answered; dispatches by name and error dispatches must
+	 * be matched against the registrations.
+	 */
+	EndpointRegistration<?> findEndpoint(String servletPath, String pathInfo, String extension, Match match) {
+		switch (match) {
+		case EXACT:
+			return exactEndpoints.get(servletPath);
+		case EXTENSION:
+			List<ExtensionEndpoint> candidates = extensionEndpoints.get(servletPath);
+
+			if (candidates != null) {
+				String suffix = Const.DOT + extension;
+
+				for (ExtensionEndpoint candidate : candidates) {
+					if (candidate.pattern.endsWith(suffix)) {
+						return candidate.endpointRegistration;
+					}
+				}
+			}
+
+			return null;
+		case REGEX:
+			return prefixEndpoints.get(servletPath);
+		case DEFAULT_SERVLET:
+			if ((defaultEndpoint != null) && !servletPath.isEmpty() && (pathInfo == null)) {
+				return defaultEndpoint;
+			}
+
+			return null;
+		case CONTEXT_ROOT:
+			if ((contextRootEndpoint != null) && Const.BLANK.equals(servletPath) && Const.SLASH.equals(pathInfo)) {
+				return contextRootEndpoint;
+			}
+
+			return null;
+		default:
+			throw new IllegalArgumentException(String.valueOf(match));
+		}
+	}
+
+	boolean hasFilters() {
+		return filters.length > 0;
+	}
+
+	/**
+	 * Returns the filter registrations that apply to a request for the named
+	 * servlet, in the order of the filter registrations of the context.
+	 */
+	List<FilterRegistration> findFilters(String servletName, String requestURI, String extension) {
+		int[] matched = new int[filters.length];
+		int count = 0;
+
+		count = collect(nameFilters.get(servletName), matched, count);
+
+		if ((requestURI != null) && !requestURI.isEmpty()) {
+			count = collect(exactFilters.get(requestURI), matched, count);
+
+			count = collectPrefix(requestURI, extension, matched, count);
+
+			for (int pos = requestURI.indexOf('/'); pos > -1; pos = requestURI.indexOf('/', pos + 1)) {
+				count = collectPrefix(requestURI.substring(0, pos), extension, matched, count);
+			}
+
+			if (extension != null) {
+				count = collect(extensionFilters.get(extension), matched, count);
+			}
+		}
+
+		for (int i : scannedFilters) {
+			if (filters[i].match(servletName, requestURI, extension, null) != null) {
+				matched[count++] = i;
+			}
+		}
+
+		if (count == 0) {
+			return new ArrayList<>();
+		}
+
+		Arrays.sort(matched, 0, count);
+
+		List<FilterRegistration> result = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			result.add(filters[matched[i]]);
+		}
+
+		return result;
+	}
+
+	private int collectPrefix(String path, String extension, int[] matched, int count) {
+		List<PrefixFilter> candidates = prefixFilters.get(path);
+
+		if (candidates == null) {
+			return count;
+		}
+
+		for (PrefixFilter candidate : candidates) {
+			if ((candidate.extension == null) || candidate.extension.equals(extension)) {
+				count = add(matched, count, candidate.index);
+			}
+		}
+
+		return count;
+	}
+
+	private static int collect(int[] indexes, int[] matched, int count) {
+		if (indexes == null) {
+			return count;
+		}
+
+		for (int index : indexes) {
+			count = add(matched, count, index);
+		}
+
+		return count;
+	}
+
+	private static int add(int[] matched, int count, int index) {
+		// a filter may match through more than one pattern
+		for (int i = 0; i < count; i++) {
+			if (matched[i] == index) {
+				return count;
+			}
+		}
+
+		matched[count] = index;
+
+		return count + 1;
+	}
+
+	private void addEndpointPattern(EndpointRegistration<?> endpointRegistration, String pattern) {
+		exactEndpoints.putIfAbsent(pattern, endpointRegistration);
+
+		if (Const.BLANK.equals(pattern)) {
+			if (contextRootEndpoint == null) {
+				contextRootEndpoint = endpointRegistration;
+			}
+
+			return;
+		}
+
+		if (Const.SLASH.equals(pattern)) {
+			if (defaultEndpoint == null) {
+				defaultEndpoint = endpointRegistration;
+			}
+
+			return;
+		}
+
+		if (pattern.indexOf(Const.SLASH_STAR_DOT) == 0) {
+			pattern = pattern.substring(1);
+		}
+
+		if ((pattern.charAt(0) == '/') && pattern.endsWith(Const.SLASH_STAR)) {
+			prefixEndpoints.putIfAbsent(pattern.substring(0, pattern.length() - 2), endpointRegistration);
+		}
+
+		int index = pattern.lastIndexOf(Const.STAR_DOT);
+
+		if (index != -1) {
+			String prefix = (index > 0) ? pattern.substring(0, index - 1) : Const.BLANK;
+
+			extensionEndpoints.computeIfAbsent(prefix, k -> new ArrayList<>())
+					.add(new ExtensionEndpoint(pattern, endpointRegistration));
+		}
+	}
+
+	private void addFilterPattern(int index, String pattern, Map<String, List<Integer>> exact,
+			Map<String, List<Integer>> extensions) {
+
+		if (pattern.indexOf(Const.SLASH_STAR_DOT) == 0) {
+			pattern = pattern.substring(1);
+		}
+
+		int extensionMatchIndex = pattern.indexOf(Const.SLASH_STAR_DOT);
+		String extensionWithPrefixMatch = null;
+
+		if ((extensionMatchIndex >= 0) && (pattern.lastIndexOf('/') == extensionMatchIndex)) {
+			extensionWithPrefixMatch = pattern.substring(extensionMatchIndex + 3);
+			pattern = pattern.substring(0, extensionMatchIndex + 2);
+		}
+
+		if (pattern.isEmpty()) {
+			add(exact, Const.SLASH, index);
+		} else if (pattern.charAt(0) == '/') {
+			if (pattern.endsWith(Const.SLASH_STAR)) {
+				prefixFilters.computeIfAbsent(pattern.substring(0, pattern.length() - 2), k -> new ArrayList<>())
+						.add(new PrefixFilter(index, extensionWithPrefixMatch));
+			} else {
+				add(exact, pattern, index);
+			}
+		} else if (pattern.charAt(0) == '*') {
+			add(extensions, pattern.substring(2), index);
+		}
+	}
+
+	/*
+	 * Patterns which do not start with '/' or '*' never match and extension
+	 * patterns must have an extension; anything else is matched by the filter
+	 * registration itself.
+	 */
+	private static boolean canIndex(String[] patterns) {
+		if (patterns == null) {
+			return false;
+		}
+
+		for (String pattern : patterns) {
+			if ((pattern.length() == 1) && (pattern.charAt(0) == '*')) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static void add(Map<String, List<Integer>> map, String key, int index) {
+		map.computeIfAbsent(key, k -> new ArrayList<>()).add(index);
+	}
+
+	private static void toArrays(Map<String, List<Integer>> from, Map<String, int[]> to) {
+		for (Map.Entry<String, List<Integer>> entry : from.entrySet()) {
+			to.put(entry.getKey(), toArray(entry.getValue()));
+		}
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[] result = new int[list.size()];
+
+		for (int i = 0; i < result.length; i++) {
+			result[i] = list.get(i);
+		}
+
+		return result;
+	}
+
+	private static final class ExtensionEndpoint {
+
+		ExtensionEndpoint(String pattern, EndpointRegistration<?> endpointRegistration) {
+			this.pattern = pattern;
+			this.endpointRegistration = endpointRegistration;
+		}
+
+		final String pattern;
+		final EndpointRegistration<?> endpointRegistration;
+
+	}
+
+	private static final class PrefixFilter {
+
+		PrefixFilter(int index, String extension) {
+			this.index = index;
+			this.extension = extension;
+		}
+
+		final int index;
+		final String extension;
+
+	}
+
+}
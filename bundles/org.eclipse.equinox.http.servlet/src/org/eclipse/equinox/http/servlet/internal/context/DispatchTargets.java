@@ -190,6 +190,16 @@ public class DispatchTargets {
 		this.dispatcherType = dispatcherType;
 	}
 
+	/**
+	 * Returns new dispatch targets resolved to the same endpoint and filters for
+	 * a request with the given query string.
+	 */
+	public DispatchTargets withQueryString(String newQueryString) {
+		return new DispatchTargets(contextController, endpointRegistration,
+				new ArrayList<>(matchingFilterRegistrations), servletName, requestURI, servletPath, pathInfo,
+				newQueryString);
+	}
+
 	@Override
 	public String toString() {
 		String value = string;
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.http.servlet.internal.context;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.servlet.DispatcherType;
+
+/**
+ * A bounded, least recently used cache of resolved dispatch targets keyed by
+ * request URI (which includes the context path) and dispatcher type.
+ * <p>
+ * The cache holds templates which are never dispatched themselves; every hit
+ * returns new dispatch targets for the query string of the request. All
+ * entries are dropped whenever a registration or context changes. A result
+ * resolved while such a change happened is not stored because the change count
+ * it was resolved under is no longer current.
+ */
+public final class DispatchTargetsCache {
+
+	public DispatchTargetsCache(final int maxSize) {
+		this.entries = new LinkedHashMap<Key, DispatchTargets>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, DispatchTargets> eldest) {
+				return size() > maxSize;
+			}
+
+		};
+	}
+
+	public DispatchTargets get(String requestURI, DispatcherType dispatcherType, String queryString) {
+		DispatchTargets template;
+
+		synchronized (entries) {
+			template = entries.get(new Key(requestURI, dispatcherType));
+		}
+
+		if (template == null) {
+			misses.increment();
+
+			return null;
+		}
+
+		hits.increment();
+
+		return template.withQueryString(queryString);
+	}
+
+	/**
+	 * Returns the change count to pass to {@link #put} for a result resolved
+	 * after this call.
+	 */
+	public long getChangeCount() {
+		synchronized (entries) {
+			return changeCount;
+		}
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public void invalidate() {
+		synchronized (entries) {
+			changeCount++;
+			entries.clear();
+		}
+	}
+
+	public void put(String requestURI, DispatcherType dispatcherType, long resolvedChangeCount,
+			DispatchTargets dispatchTargets) {
+
+		// the returned targets belong to the request, keep a copy nobody dispatches
+		DispatchTargets template = dispatchTargets.withQueryString(null);
+
+		synchronized (entries) {
+			if (resolvedChangeCount == changeCount) {
+				entries.put(new Key(requestURI, dispatcherType), template);
+			}
+		}
+	}
+
+	private final LinkedHashMap<Key, DispatchTargets> entries;
+	private long changeCount;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private static final class Key {
+
+		Key(String requestURI, DispatcherType dispatcherType) {
+			this.requestURI = requestURI;
+			this.dispatcherType = dispatcherType;
+			this.hashCode = (31 * requestURI.hashCode()) + String.valueOf(dispatcherType).hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			Key other = (Key) obj;
+
+			return (dispatcherType == other.dispatcherType) && requestURI.equals(other.requestURI);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		private final String requestURI;
+		private final DispatcherType dispatcherType;
+		private final int hashCode;
+
+	}
+
+}
@@ -135,7 +135,7 @@ public class ProxyServlet extends HttpServlet {
 	public void dispatch(HttpServletRequest request, HttpServletResponse response, String alias,
 			DispatcherType dispatcherType) throws ServletException, IOException {
 
-		DispatchTargets dispatchTargets = httpServiceRuntimeImpl.getDispatchTargets(alias, null);
+		DispatchTargets dispatchTargets = httpServiceRuntimeImpl.getDispatchTargets(alias, dispatcherType);
 
 		if (dispatchTargets != null) {
 			dispatchTargets.doDispatch(request, response, alias, dispatcherType);
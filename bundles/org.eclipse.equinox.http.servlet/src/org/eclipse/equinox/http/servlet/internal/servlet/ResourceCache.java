@@ -0,0 +1,393 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.http.servlet.internal.servlet;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+import org.osgi.framework.*;
+import org.osgi.service.http.context.ServletContextHelper;
+
+/**
+ * A size bounded, least recently used store of static resource content served
+ * by {@link ResourceServlet}.
+ * <p>
+ * Only resources read from bundle entries or bundle resources are cached since
+ * their content cannot change while the bundles involved stay resolved. A
+ * resource is dropped when the bundle that registered it or the bundle that
+ * holds its content is updated, unresolved or uninstalled. Each resource keeps
+ * a strong entity tag computed from its content and may keep compressed
+ * variants: a {@code .br} or {@code .gz} sibling resource supplied by the
+ * bundle, or content compressed with gzip when the bundle does not supply a
+ * {@code .gz} sibling.
+ */
+public class ResourceCache implements SynchronousBundleListener {
+
+	static final String ENCODING_BROTLI = "br"; //$NON-NLS-1$
+	static final String ENCODING_GZIP = "gzip"; //$NON-NLS-1$
+
+	private static final String PROTOCOL_BUNDLE_ENTRY = "bundleentry"; //$NON-NLS-1$
+	private static final String PROTOCOL_BUNDLE_RESOURCE = "bundleresource"; //$NON-NLS-1$
+	private static final String SUFFIX_BROTLI = ".br"; //$NON-NLS-1$
+	private static final String SUFFIX_GZIP = ".gz"; //$NON-NLS-1$
+	private static final long UNKNOWN_BUNDLE_ID = -1;
+
+	public ResourceCache(long maxSize) {
+		this.maxSize = maxSize;
+		// a single resource may not take more than a quarter of the cache
+		this.maxEntrySize = maxSize / 4;
+	}
+
+	@Override
+	public void bundleChanged(BundleEvent event) {
+		switch (event.getType()) {
+		case BundleEvent.UPDATED:
+		case BundleEvent.UNRESOLVED:
+		case BundleEvent.UNINSTALLED:
+			remove(event.getBundle().getBundleId());
+			break;
+		default:
+			break;
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+			size = 0;
+		}
+	}
+
+	/**
+	 * Returns the cached content of a resource, loading it on first use.
+	 *
+	 * @return the cached resource or {@code null} if the resource can not be
+	 *         cached and must be served from its URL
+	 */
+	CachedResource get(Bundle owner, String resourcePath, URL resourceURL, ServletContextHelper servletContextHelper)
+			throws IOException {
+
+		if ((owner == null) || !isCacheable(resourceURL)) {
+			return null;
+		}
+
+		String key = owner.getBundleId() + ":" + resourceURL.toExternalForm(); //$NON-NLS-1$
+
+		long loadChanges;
+
+		synchronized (entries) {
+			CachedResource cachedResource = entries.get(key);
+
+			if (cachedResource != null) {
+				return cachedResource;
+			}
+
+			loadChanges = changes;
+		}
+
+		// no lock while reading; concurrent misses may load the same resource twice
+		CachedResource cachedResource = load(owner.getBundleId(), resourcePath, resourceURL, servletContextHelper);
+
+		if (cachedResource == null) {
+			return null;
+		}
+
+		synchronized (entries) {
+			if (loadChanges != changes) {
+				// a bundle changed while the content was read
+				return cachedResource;
+			}
+
+			CachedResource previous = entries.put(key, cachedResource);
+
+			if (previous != null) {
+				size -= previous.size();
+			}
+
+			size += cachedResource.size();
+
+			Iterator<CachedResource> iterator = entries.values().iterator();
+
+			while ((size > maxSize) && iterator.hasNext()) {
+				size -= iterator.next().size();
+				iterator.remove();
+			}
+		}
+
+		return cachedResource;
+	}
+
+	private boolean isCacheable(URL resourceURL) {
+		String protocol = resourceURL.getProtocol();
+
+		return PROTOCOL_BUNDLE_ENTRY.equals(protocol) || PROTOCOL_BUNDLE_RESOURCE.equals(protocol);
+	}
+
+	private CachedResource load(long ownerId, String resourcePath, URL resourceURL,
+			ServletContextHelper servletContextHelper) throws IOException {
+
+		URLConnection connection = resourceURL.openConnection();
+
+		long lastModified = connection.getLastModified();
+		byte[] content = read(connection);
+
+		if (content == null) {
+			return null;
+		}
+
+		byte[] brotli = readSibling(resourcePath + SUFFIX_BROTLI, servletContextHelper);
+		byte[] gzip = readSibling(resourcePath + SUFFIX_GZIP, servletContextHelper);
+
+		if (gzip == null) {
+			gzip = gzip(content);
+		}
+
+		CachedResource cachedResource = new CachedResource(ownerId, getContentBundleId(resourceURL), content, brotli,
+				gzip, lastModified);
+
+		return (cachedResource.size() <= maxEntrySize) ? cachedResource : null;
+	}
+
+	private byte[] read(URLConnection connection) throws IOException {
+		int contentLength = connection.getContentLength();
+
+		if ((contentLength < 0) || (contentLength > maxEntrySize)) {
+			return null;
+		}
+
+		try (InputStream is = connection.getInputStream()) {
+			byte[] content = is.readNBytes(contentLength);
+
+			return (content.length == contentLength) ? content : null;
+		}
+	}
+
+	private byte[] readSibling(String path, ServletContextHelper servletContextHelper) throws IOException {
+		URL url = servletContextHelper.getResource(path);
+
+		if ((url == null) || !isCacheable(url)) {
+			return null;
+		}
+
+		try {
+			return read(url.openConnection());
+		} catch (FileNotFoundException e) {
+			return null;
+		}
+	}
+
+	private void remove(long bundleId) {
+		synchronized (entries) {
+			changes++;
+
+			Iterator<CachedResource> iterator = entries.values().iterator();
+
+			while (iterator.hasNext()) {
+				CachedResource cachedResource = iterator.next();
+
+				if ((cachedResource.ownerId == bundleId) || (cachedResource.contentBundleId == bundleId)
+						|| (cachedResource.contentBundleId == UNKNOWN_BUNDLE_ID)) {
+					size -= cachedResource.size();
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/*
+	 * The framework names bundle content URLs after the id of the bundle that
+	 * holds the content, as in bundleentry://12.fwk123456/path.
+	 */
+	private static long getContentBundleId(URL resourceURL) {
+		String host = resourceURL.getHost();
+		int end = 0;
+
+		while ((end < host.length()) && Character.isDigit(host.charAt(end))) {
+			end++;
+		}
+
+		if ((end == 0) || (end == host.length()) || (host.charAt(end) != '.')) {
+			return UNKNOWN_BUNDLE_ID;
+		}
+
+		try {
+			return Long.parseLong(host.substring(0, end));
+		} catch (NumberFormatException e) {
+			return UNKNOWN_BUNDLE_ID;
+		}
+	}
+
+	/*
+	 * Compressed content is only kept when it saves at least a tenth of the
+	 * size; already compressed formats would otherwise be stored twice.
+	 */
+	private static byte[] gzip(byte[] content) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream(content.length / 2);
+
+		try (GZIPOutputStream gzos = new GZIPOutputStream(baos)) {
+			gzos.write(content);
+		}
+
+		return (baos.size() < (content.length - (content.length / 10))) ? baos.toByteArray() : null;
+	}
+
+	private final LinkedHashMap<String, CachedResource> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final long maxEntrySize;
+	private final long maxSize;
+	private long changes;
+	private long size;
+
+	static class CachedResource {
+
+		CachedResource(long ownerId, long contentBundleId, byte[] content, byte[] brotli, byte[] gzip,
+				long lastModified) {
+			this.ownerId = ownerId;
+			this.contentBundleId = contentBundleId;
+			this.content = content;
+			this.brotli = brotli;
+			this.gzip = gzip;
+			this.lastModified = lastModified;
+			this.tag = digest(content);
+		}
+
+		byte[] getContent(String encoding) {
+			if (ENCODING_BROTLI.equals(encoding)) {
+				return brotli;
+			} else if (ENCODING_GZIP.equals(encoding)) {
+				return gzip;
+			}
+			return content;
+		}
+
+		String getETag(String encoding) {
+			if (encoding == null) {
+				return '"' + tag + '"';
+			}
+			return '"' + tag + '-' + encoding + '"';
+		}
+
+		long getLastModified() {
+			return lastModified;
+		}
+
+		boolean hasVariants() {
+			return (brotli != null) || (gzip != null);
+		}
+
+		/**
+		 * Returns true if an If-None-Match header names the entity tag of the
+		 * representation with the given content coding.
+		 */
+		boolean matches(String ifNoneMatch, String encoding) {
+			if (ifNoneMatch.trim().equals("*")) { //$NON-NLS-1$
+				return true;
+			}
+			String etag = getETag(encoding);
+			for (String candidate : ifNoneMatch.split(",")) { //$NON-NLS-1$
+				candidate = candidate.trim();
+				// If-None-Match uses the weak comparison
+				if (candidate.startsWith("W/")) { //$NON-NLS-1$
+					candidate = candidate.substring(2);
+				}
+				if (candidate.equals(etag)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Returns the content coding to use for a request with the given
+		 * Accept-Encoding header, or {@code null} for the identity coding.
+		 */
+		String negotiate(String acceptEncoding) {
+			if ((acceptEncoding == null) || !hasVariants()) {
+				return null;
+			}
+
+			boolean acceptsBrotli = false;
+			boolean acceptsGzip = false;
+
+			for (String coding : acceptEncoding.split(",")) { //$NON-NLS-1$
+				String[] parameters = coding.split(";"); //$NON-NLS-1$
+				String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+
+				if (isRejected(parameters)) {
+					continue;
+				}
+
+				if (ENCODING_BROTLI.equals(name)) {
+					acceptsBrotli = true;
+				} else if (ENCODING_GZIP.equals(name) || "x-gzip".equals(name) || "*".equals(name)) { //$NON-NLS-1$ //$NON-NLS-2$
+					acceptsGzip = true;
+				}
+			}
+
+			if (acceptsBrotli && (brotli != null)) {
+				return ENCODING_BROTLI;
+			}
+
+			if (acceptsGzip && (gzip != null)) {
+				return ENCODING_GZIP;
+			}
+
+			return null;
+		}
+
+		int size() {
+			return content.length + ((brotli != null) ? brotli.length : 0) + ((gzip != null) ? gzip.length : 0);
+		}
+
+		private static boolean isRejected(String[] parameters) {
+			for (int i = 1; i < parameters.length; i++) {
+				String parameter = parameters[i].trim();
+
+				if (parameter.startsWith("q=")) { //$NON-NLS-1$
+					try {
+						return Double.parseDouble(parameter.substring(2)) <= 0;
+					} catch (NumberFormatException e) {
+						return false;
+					}
+				}
+			}
+
+			return false;
+		}
+
+		private static String digest(byte[] content) {
+			try {
+				byte[] hash = MessageDigest.getInstance("SHA-256").digest(content); //$NON-NLS-1$
+
+				return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 18));
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		final long contentBundleId;
+		final long ownerId;
+		private final byte[] brotli;
+		private final byte[] content;
+		private final byte[] gzip;
+		private final long lastModified;
+		private final String tag;
+
+	}
+
+}
@@ -17,14 +17,16 @@
 package org.eclipse.equinox.http.servlet.internal.servlet;
 
 import java.io.*;
-import java.net.URL;
-import java.net.URLConnection;
+import java.net.*;
+import java.nio.channels.*;
+import java.nio.file.*;
 import java.security.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.servlet.http.*;
 import org.eclipse.equinox.http.servlet.RangeAwareServletContextHelper;
 import org.eclipse.equinox.http.servlet.internal.util.Const;
+import org.osgi.framework.Bundle;
 import org.osgi.service.http.context.ServletContextHelper;
 
 public class ResourceServlet extends HttpServlet {
@@ -33,22 +35,37 @@ public class ResourceServlet extends HttpServlet {
 	private static final String IF_MODIFIED_SINCE = "If-Modified-Since"; //$NON-NLS-1$
 	private static final String IF_NONE_MATCH = "If-None-Match"; //$NON-NLS-1$
 	private static final String ETAG = "ETag"; //$NON-NLS-1$
+	private static final String ACCEPT_ENCODING = "Accept-Encoding"; //$NON-NLS-1$
+	private static final String CONTENT_ENCODING = "Content-Encoding"; //$NON-NLS-1$
+	private static final String VARY = "Vary"; //$NON-NLS-1$
 	private static final String RANGE = "Range"; //$NON-NLS-1$
 	private static final String ACCEPT_RANGES = "Accept-Ranges"; //$NON-NLS-1$
 	private static final String RANGE_UNIT_BYTES = "bytes"; //$NON-NLS-1$
 	private static final String CONTENT_RANGE = "Content-Range"; //$NON-NLS-1$
+	private static final String PROTOCOL_FILE = "file"; //$NON-NLS-1$
+	private static final String PROTOCOL_BUNDLE_ENTRY = "bundleentry"; //$NON-NLS-1$
+	private static final String PROTOCOL_BUNDLE_RESOURCE = "bundleresource"; //$NON-NLS-1$
 
 	private final String internalName;
 	final ServletContextHelper servletContextHelper;
 	private final AccessControlContext acc;
+	private final Bundle bundle;
+	private final ResourceCache resourceCache;
 
 	public ResourceServlet(String internalName, ServletContextHelper servletContextHelper, AccessControlContext acc) {
+		this(internalName, servletContextHelper, acc, null, null);
+	}
+
+	public ResourceServlet(String internalName, ServletContextHelper servletContextHelper, AccessControlContext acc,
+			Bundle bundle, ResourceCache resourceCache) {
 		if (internalName.equals(Const.SLASH)) {
 			internalName = Const.BLANK;
 		}
 		this.internalName = internalName;
 		this.servletContextHelper = servletContextHelper;
 		this.acc = acc;
+		this.bundle = bundle;
+		this.resourceCache = resourceCache;
 	}
 
 	public void service(HttpServletRequest req, final HttpServletResponse resp) throws IOException {
@@ -72,6 +89,10 @@ public class ResourceServlet extends HttpServlet {
 			final URL resourceURL) throws IOException {
 		try {
 			AccessController.doPrivileged((PrivilegedExceptionAction<Boolean>) () -> {
+				if (writeCachedResource(req, resp, resourcePath, resourceURL)) {
+					return Boolean.TRUE;
+				}
+
 				URLConnection connection = resourceURL.openConnection();
 				long lastModified = connection.getLastModified();
 				int contentLength = connection.getContentLength();
@@ -148,21 +169,26 @@ public class ResourceServlet extends HttpServlet {
 				}
 
 				if (contentLength != 0) {
-					// open the input stream
-					try (InputStream is = connection.getInputStream()) {
-						// write the resource
-						try {
-							OutputStream os = resp.getOutputStream();
-							int writtenContentLength = writeResourceToOutputStream(is, os, range);
-							if (contentLength == -1 || contentLength != writtenContentLength)
-								resp.setContentLength(writtenContentLength);
-						} catch (IllegalStateException e) { // can occur if the response output is already open as a
-															// Writer
-							Writer writer = resp.getWriter();
-							writeResourceToWriter(is, writer, range);
-							// Since ContentLength is a measure of the number of bytes contained in the body
-							// of a message when we use a Writer we lose control of the exact byte count and
-							// defer the problem to the Servlet Engine's Writer implementation.
+					try {
+						if (writeResourceFromChannel(resp, resourceURL, connection, contentLength, range)) {
+							return Boolean.TRUE;
+						}
+						// open the input stream
+						try (InputStream is = connection.getInputStream()) {
+							// write the resource
+							try {
+								OutputStream os = resp.getOutputStream();
+								int writtenContentLength = writeResourceToOutputStream(is, os, range);
+								if (contentLength == -1 || contentLength != writtenContentLength)
+									resp.setContentLength(writtenContentLength);
+							} catch (IllegalStateException e) { // can occur if the response output is already open as a
+																// Writer
+								Writer writer = resp.getWriter();
+								writeResourceToWriter(is, writer, range);
+								// Since ContentLength is a measure of the number of bytes contained in the body
+								// of a message when we use a Writer we lose control of the exact byte count and
+								// defer the problem to the Servlet Engine's Writer implementation.
+							}
 						}
 					} catch (FileNotFoundException | SecurityException e) {
 						// SecurityException may indicate the following scenarios
@@ -177,6 +203,107 @@ public class ResourceServlet extends HttpServlet {
 		}
 	}
 
+	/**
+	 * Writes the resource from the resource cache. Range requests are served
+	 * from the identity content; other requests get the compressed variant that
+	 * the client accepts, if any.
+	 * @return false if the resource is not cached and must be written from its URL
+	 */
+	boolean writeCachedResource(HttpServletRequest req, HttpServletResponse resp, String resourcePath,
+			URL resourceURL) throws IOException {
+		if (resourceCache == null) {
+			return false;
+		}
+		ResourceCache.CachedResource cachedResource = resourceCache.get(bundle, resourcePath, resourceURL,
+				servletContextHelper);
+		if (cachedResource == null) {
+			return false;
+		}
+		OutputStream os;
+		try {
+			os = resp.getOutputStream();
+		} catch (IllegalStateException e) {
+			// the response output is already open as a Writer
+			return false;
+		}
+
+		String rangeHeader = req.getHeader(RANGE);
+		String encoding = (rangeHeader == null) ? cachedResource.negotiate(req.getHeader(ACCEPT_ENCODING)) : null;
+		byte[] content = cachedResource.getContent(encoding);
+		String etag = cachedResource.getETag(encoding);
+		long lastModified = cachedResource.getLastModified();
+
+		if (cachedResource.hasVariants())
+			resp.setHeader(VARY, ACCEPT_ENCODING);
+
+		String ifNoneMatch = req.getHeader(IF_NONE_MATCH);
+		if (ifNoneMatch != null && cachedResource.matches(ifNoneMatch, encoding)) {
+			resp.setHeader(ETAG, etag);
+			resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return true;
+		}
+
+		long ifModifiedSince = req.getDateHeader(IF_MODIFIED_SINCE);
+		if (ifNoneMatch == null && ifModifiedSince > -1 && lastModified > 0
+				&& lastModified <= (ifModifiedSince + 999)) {
+			resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return true;
+		}
+
+		Range range = null;
+		if (rangeHeader != null) {
+			range = Range.createFromRangeHeader(rangeHeader);
+			range.completeLength = content.length;
+			range.updateBytePos();
+
+			if (!range.isValid()) {
+				resp.setHeader(ACCEPT_RANGES, RANGE_UNIT_BYTES);
+				resp.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return true;
+			}
+		}
+
+		resp.setContentLength(content.length);
+
+		String filename = new File(resourcePath).getName();
+		String contentType = servletContextHelper.getMimeType(filename);
+		if (contentType == null)
+			contentType = getServletConfig().getServletContext().getMimeType(filename);
+
+		if (contentType != null)
+			resp.setContentType(contentType);
+
+		if (lastModified > 0)
+			resp.setDateHeader(LAST_MODIFIED, lastModified);
+
+		resp.setHeader(ETAG, etag);
+
+		if (encoding != null)
+			resp.setHeader(CONTENT_ENCODING, encoding);
+
+		if (range == null && encoding == null && (servletContextHelper instanceof RangeAwareServletContextHelper)
+				&& ((RangeAwareServletContextHelper) servletContextHelper).rangeableContentType(contentType,
+						req.getHeader("User-Agent"))) { //$NON-NLS-1$
+
+			range = new Range();
+			range.firstBytePos = 0;
+			range.completeLength = content.length;
+			range.updateBytePos();
+		}
+
+		if (range != null) {
+			resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			resp.setHeader(ACCEPT_RANGES, RANGE_UNIT_BYTES);
+			resp.setContentLength(range.contentLength());
+			resp.setHeader(CONTENT_RANGE, RANGE_UNIT_BYTES + " " + range.firstBytePos + "-" + range.lastBytePos //$NON-NLS-1$ //$NON-NLS-2$
+					+ "/" + range.completeLength); //$NON-NLS-1$
+			os.write(content, range.firstBytePos, range.contentLength());
+		} else {
+			os.write(content);
+		}
+		return true;
+	}
+
 	void sendError(final HttpServletResponse resp, int sc) throws IOException {
 
 		try {
@@ -188,6 +315,70 @@ public class ResourceServlet extends HttpServlet {
 		}
 	}
 
+	/**
+	 * Writes the resource by transferring it from a file channel if the resource
+	 * content is available uncompressed in a file.  The transfer starts at the
+	 * first byte of the range instead of skipping the content before it.
+	 * @return false if the resource must be written from its input stream
+	 */
+	boolean writeResourceFromChannel(HttpServletResponse resp, URL resourceURL, URLConnection connection,
+			int contentLength, Range range) throws IOException {
+		if (contentLength == -1) {
+			return false;
+		}
+		FileChannel channel = getFileChannel(resourceURL, connection);
+		if (channel == null) {
+			return false;
+		}
+		try (FileChannel in = channel) {
+			OutputStream os;
+			try {
+				os = resp.getOutputStream();
+			} catch (IllegalStateException e) {
+				// the response output is already open as a Writer
+				return false;
+			}
+			long start = in.position();
+			long count = contentLength;
+			if (range != null) {
+				start += range.firstBytePos;
+				count = range.contentLength();
+			}
+			WritableByteChannel out = Channels.newChannel(os);
+			long position = start;
+			long end = start + count;
+			while (position < end) {
+				long transferred = in.transferTo(position, end - position, out);
+				if (transferred <= 0) {
+					break;
+				}
+				position += transferred;
+			}
+			int writtenContentLength = (int) (position - start);
+			if (contentLength != writtenContentLength)
+				resp.setContentLength(writtenContentLength);
+			return true;
+		}
+	}
+
+	private FileChannel getFileChannel(URL resourceURL, URLConnection connection) throws IOException {
+		String protocol = resourceURL.getProtocol();
+		if (PROTOCOL_FILE.equals(protocol)) {
+			try {
+				Path path = Paths.get(resourceURL.toURI());
+				return Files.isRegularFile(path) ? FileChannel.open(path, StandardOpenOption.READ) : null;
+			} catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+				return null;
+			}
+		}
+		if (PROTOCOL_BUNDLE_ENTRY.equals(protocol) || PROTOCOL_BUNDLE_RESOURCE.equals(protocol)) {
+			// the framework answers a channel for entries stored uncompressed in a file
+			Object content = connection.getContent(new Class<?>[] {FileChannel.class});
+			return content instanceof FileChannel ? (FileChannel) content : null;
+		}
+		return null;
+	}
+
 	int writeResourceToOutputStream(InputStream is, OutputStream os, Range range) throws IOException {
 		if (range != null) {
 			if (range.firstBytePos != Range.NOT_SET) {
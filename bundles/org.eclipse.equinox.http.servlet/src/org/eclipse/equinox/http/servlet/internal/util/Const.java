@@ -42,6 +42,10 @@ public class Const {
 	public static final String SLASH_STAR = "/*"; //$NON-NLS-1$
 	public static final String SLASH_STAR_DOT = "/*."; //$NON-NLS-1$
 	public static final String STAR_DOT = "*."; //$NON-NLS-1$
+	public static final String EQUINOX_HTTP_DISPATCH_CACHE_HITS = "equinox.http.dispatch.cache.hits"; //$NON-NLS-1$
+	public static final String EQUINOX_HTTP_DISPATCH_CACHE_MISSES = "equinox.http.dispatch.cache.misses"; //$NON-NLS-1$
+	public static final String EQUINOX_HTTP_DISPATCH_CACHE_SIZE = "equinox.http.dispatch.cache.size"; //$NON-NLS-1$
+	public static final String EQUINOX_HTTP_RESOURCE_CACHE_SIZE = "equinox.http.resource.cache.size"; //$NON-NLS-1$
 	public static final String EQUINOX_HTTP_MULTIPART_ENABLED = "equinox.http.multipartSupported"; //$NON-NLS-1$
 	public static final String EQUINOX_HTTP_MULTIPART_FILESIZETHRESHOLD = "equinox.http.whiteboard.servlet.multipart.fileSizeThreshold"; //$NON-NLS-1$
 	public static final String EQUINOX_HTTP_MULTIPART_LOCATION = "equinox.http.whiteboard.servlet.multipart.location"; //$NON-NLS-1$
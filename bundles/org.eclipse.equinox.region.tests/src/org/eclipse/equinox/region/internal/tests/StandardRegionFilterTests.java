@@ -157,6 +157,42 @@ public class StandardRegionFilterTests {
 				regionFilter.getSharingPolicy().get(RegionFilter.VISIBLE_PACKAGE_NAMESPACE));
 	}
 
+	@Test
+	public void testCapabilityIndexedPolicies() throws InvalidSyntaxException {
+		RegionFilter regionFilter = createRegionFilter(RegionFilter.VISIBLE_PACKAGE_NAMESPACE,
+				Arrays.asList(packageImportPolicy, //
+						"(&(" + BundleRevision.PACKAGE_NAMESPACE + "=bar)(version>=2.0))", //
+						"(" + BundleRevision.PACKAGE_NAMESPACE + "=baz.*)", //
+						"(" + BundleRevision.PACKAGE_NAMESPACE + "=a\\*b)"));
+		assertTrue(isPackageAllowed(regionFilter, "foo", "1.0"));
+		assertFalse(isPackageAllowed(regionFilter, "bar", "1.0"));
+		assertTrue(isPackageAllowed(regionFilter, "bar", "2.0"));
+		assertTrue(isPackageAllowed(regionFilter, "baz.impl", "1.0"));
+		assertFalse(isPackageAllowed(regionFilter, "baz", "1.0"));
+		assertTrue(isPackageAllowed(regionFilter, "a*b", "1.0"));
+		assertFalse(isPackageAllowed(regionFilter, "ab", "1.0"));
+		assertFalse(isPackageAllowed(regionFilter, "foo.impl", "1.0"));
+	}
+
+	private boolean isPackageAllowed(RegionFilter regionFilter, String packageName, String version) {
+		Map<String, Object> attrs = new HashMap<>();
+		attrs.put(BundleRevision.PACKAGE_NAMESPACE, packageName);
+		attrs.put("version", new Version(version));
+		return regionFilter.isAllowed(RegionFilter.VISIBLE_PACKAGE_NAMESPACE, attrs);
+	}
+
+	@Test
+	public void testServiceIndexedPolicies() throws InvalidSyntaxException {
+		RegionFilter regionFilter = createRegionFilter(RegionFilter.VISIBLE_OSGI_SERVICE_NAMESPACE,
+				Arrays.asList(serviceImportPolicy));
+		Map<String, Object> attrs = new HashMap<>();
+		attrs.put(Constants.OBJECTCLASS, Arrays.asList("bar.Service", "foo.Service"));
+		assertTrue(regionFilter.isAllowed(RegionFilter.VISIBLE_OSGI_SERVICE_NAMESPACE, attrs));
+		attrs.put(Constants.OBJECTCLASS, new String[] { "bar.Service" });
+		assertFalse(regionFilter.isAllowed(RegionFilter.VISIBLE_OSGI_SERVICE_NAMESPACE, attrs));
+		assertFalse(regionFilter.isAllowed(barService.getReference()));
+	}
+
 	@SuppressWarnings("deprecation")
 	@Test
 	public void testServiceAllowed() throws InvalidSyntaxException {
@@ -228,6 +228,48 @@ public class RegionBundleFindHookTests {
 		assertTrue(this.candidates.contains(bundle(BUNDLE_X)));
 	}
 
+	@Test
+	public void testFindTransitiveAllowAll() throws BundleException, InvalidSyntaxException {
+		region(REGION_A).connectRegion(region(REGION_B),
+				digraph.createRegionFilterBuilder().allowAll(RegionFilter.VISIBLE_BUNDLE_NAMESPACE).build());
+		region(REGION_B).connectRegion(region(REGION_C),
+				digraph.createRegionFilterBuilder().allowAll(RegionFilter.VISIBLE_ALL_NAMESPACE).build());
+		region(REGION_C).connectRegion(region(REGION_D), createFilter(false, BUNDLE_X));
+		region(REGION_D).addBundle(bundle(BUNDLE_X));
+
+		this.candidates.add(bundle(BUNDLE_B));
+		this.candidates.add(bundle(BUNDLE_C));
+		this.candidates.add(bundle(BUNDLE_D));
+		this.candidates.add(bundle(BUNDLE_X));
+		this.bundleFindHook.find(bundleContext(BUNDLE_A), this.candidates);
+		assertEquals(3, this.candidates.size());
+		assertTrue(this.candidates.contains(bundle(BUNDLE_B)));
+		assertTrue(this.candidates.contains(bundle(BUNDLE_C)));
+		assertTrue(this.candidates.contains(bundle(BUNDLE_X)));
+	}
+
+	@Test
+	public void testFindAfterConnectionChanges() throws BundleException, InvalidSyntaxException {
+		region(REGION_A).connectRegion(region(REGION_B),
+				digraph.createRegionFilterBuilder().allowAll(RegionFilter.VISIBLE_BUNDLE_NAMESPACE).build());
+		this.candidates.add(bundle(BUNDLE_B));
+		this.bundleFindHook.find(bundleContext(BUNDLE_A), this.candidates);
+		assertTrue(this.candidates.contains(bundle(BUNDLE_B)));
+
+		this.digraph.replaceConnection(region(REGION_A), createFilter(false, BUNDLE_X), region(REGION_B));
+		this.bundleFindHook.find(bundleContext(BUNDLE_A), this.candidates);
+		assertFalse(this.candidates.contains(bundle(BUNDLE_B)));
+
+		this.digraph.replaceConnection(region(REGION_A), createFilter(false, BUNDLE_B), region(REGION_B));
+		this.candidates.add(bundle(BUNDLE_B));
+		this.bundleFindHook.find(bundleContext(BUNDLE_A), this.candidates);
+		assertTrue(this.candidates.contains(bundle(BUNDLE_B)));
+
+		this.digraph.replaceConnection(region(REGION_A), null, region(REGION_B));
+		this.bundleFindHook.find(bundleContext(BUNDLE_A), this.candidates);
+		assertFalse(this.candidates.contains(bundle(BUNDLE_B)));
+	}
+
 	@Test
 	public void testFindFromSystemBundle() {
 		this.candidates.add(bundle(BUNDLE_A));
@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.internal.region;
+
+import java.util.*;
+import org.eclipse.equinox.region.RegionFilter;
+import org.osgi.framework.*;
+
+/**
+ * {@link NamespacePolicy} is the compiled form of the filters a
+ * {@link StandardRegionFilter} has for one namespace.
+ * <p />
+ * Filters of the form <code>(key=value)</code> on the attribute naming the
+ * candidate, such as the package name for <code>osgi.wiring.package</code> or
+ * <code>objectClass</code> for services, are indexed by value. Conjunctions
+ * containing such a term are indexed by the value of the term and only
+ * evaluated for candidates with that value. All other filters are evaluated one
+ * by one.
+ * <p />
+ *
+ * <strong>Concurrent Semantics</strong><br />
+ * Immutable and thread safe.
+ */
+final class NamespacePolicy {
+
+	private final String key;
+
+	private final boolean allowAll;
+
+	// values allowed by (key=value) filters
+	private final Set<String> values = new HashSet<>();
+
+	// conjunctions containing a (key=value) term, by value
+	private final Map<String, List<Filter>> conjunctions = new HashMap<>();
+
+	// all filters indexed above, for candidate values which are not strings
+	private final List<Filter> indexed = new ArrayList<>();
+
+	private final List<Filter> residual = new ArrayList<>();
+
+	NamespacePolicy(String namespace, Collection<Filter> filters) {
+		this.key = getKey(namespace);
+		boolean all = false;
+		for (Filter filter : filters) {
+			if (filter == StandardRegionFilter.ALL) {
+				all = true;
+				continue;
+			}
+			String spec = filter.toString();
+			String value = getEqualityValue(spec, 0, spec.length());
+			if (value != null) {
+				this.values.add(value);
+				this.indexed.add(filter);
+				continue;
+			}
+			value = getConjunctionValue(spec);
+			if (value != null) {
+				List<Filter> valueFilters = this.conjunctions.get(value);
+				if (valueFilters == null) {
+					valueFilters = new ArrayList<>(1);
+					this.conjunctions.put(value, valueFilters);
+				}
+				valueFilters.add(filter);
+				this.indexed.add(filter);
+				continue;
+			}
+			this.residual.add(filter);
+		}
+		this.allowAll = all;
+	}
+
+	/**
+	 * Returns the attribute naming a candidate in the given namespace.
+	 */
+	@SuppressWarnings("deprecation")
+	private static String getKey(String namespace) {
+		if (RegionFilter.VISIBLE_OSGI_SERVICE_NAMESPACE.equals(namespace)
+				|| RegionFilter.VISIBLE_SERVICE_NAMESPACE.equals(namespace)) {
+			return Constants.OBJECTCLASS;
+		}
+		if (RegionFilter.VISIBLE_BUNDLE_LIFECYCLE_NAMESPACE.equals(namespace)) {
+			// bundle lifecycle candidates are named like bundle candidates
+			return RegionFilter.VISIBLE_BUNDLE_NAMESPACE;
+		}
+		return namespace;
+	}
+
+	/**
+	 * Returns the value of a normalized <code>(key=value)</code> filter string
+	 * between the given indexes, or <code>null</code> if it is a different kind of
+	 * filter.
+	 */
+	private String getEqualityValue(String spec, int start, int end) {
+		int valueStart = start + this.key.length() + 2;
+		if (valueStart >= end || spec.charAt(start) != '(' || spec.charAt(end - 1) != ')'
+				|| !spec.startsWith(this.key, start + 1) || spec.charAt(valueStart - 1) != '=') {
+			return null;
+		}
+		StringBuilder value = new StringBuilder(end - valueStart);
+		for (int i = valueStart; i < end - 1; i++) {
+			char c = spec.charAt(i);
+			if (c == '\\') {
+				c = spec.charAt(++i);
+			} else if (c == '*' || c == '(' || c == ')') {
+				// substring or presence filter
+				return null;
+			}
+			value.append(c);
+		}
+		return value.toString();
+	}
+
+	/**
+	 * Returns the value of the first <code>(key=value)</code> term of a normalized
+	 * conjunction filter string, or <code>null</code> if there is none.
+	 */
+	private String getConjunctionValue(String spec) {
+		if (!spec.startsWith("(&")) { //$NON-NLS-1$
+			return null;
+		}
+		int start = 2;
+		while (start < spec.length() && spec.charAt(start) == '(') {
+			int end = getOperandEnd(spec, start);
+			if (end < 0) {
+				return null;
+			}
+			String value = getEqualityValue(spec, start, end);
+			if (value != null) {
+				return value;
+			}
+			start = end;
+		}
+		return null;
+	}
+
+	private static int getOperandEnd(String spec, int start) {
+		int depth = 0;
+		for (int i = start; i < spec.length(); i++) {
+			char c = spec.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')' && --depth == 0) {
+				return i + 1;
+			}
+		}
+		return -1;
+	}
+
+	boolean isAllowAll() {
+		return this.allowAll;
+	}
+
+	boolean matches(Map<String, ?> attributes) {
+		if (this.allowAll) {
+			return true;
+		}
+		Object value = attributes.get(this.key);
+		if (value != null && !this.indexed.isEmpty()) {
+			Boolean result = matchIndexed(value, attributes, null);
+			if (result == null) {
+				for (Filter filter : this.indexed) {
+					if (filter.matches(attributes)) {
+						return true;
+					}
+				}
+			} else if (result) {
+				return true;
+			}
+		}
+		for (Filter filter : this.residual) {
+			if (filter.matches(attributes)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	boolean matches(ServiceReference<?> service) {
+		if (this.allowAll) {
+			return true;
+		}
+		Object value = service.getProperty(this.key);
+		if (value != null && !this.indexed.isEmpty()) {
+			Boolean result = matchIndexed(value, null, service);
+			if (result == null) {
+				for (Filter filter : this.indexed) {
+					if (filter.match(service)) {
+						return true;
+					}
+				}
+			} else if (result) {
+				return true;
+			}
+		}
+		for (Filter filter : this.residual) {
+			if (filter.match(service)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Matches the indexed filters against a candidate with the given value for
+	 * the key attribute.
+	 *
+	 * @return the result, or <code>null</code> if the value is not a string or a
+	 *         collection or array of strings and the indexed filters must be
+	 *         evaluated one by one
+	 */
+	private Boolean matchIndexed(Object value, Map<String, ?> attributes, ServiceReference<?> service) {
+		if (value instanceof String) {
+			return matchIndexed((String) value, attributes, service);
+		}
+		Collection<?> elements;
+		if (value instanceof String[]) {
+			elements = Arrays.asList((String[]) value);
+		} else if (value instanceof Collection) {
+			elements = (Collection<?>) value;
+		} else {
+			return null;
+		}
+		for (Object element : elements) {
+			if (!(element instanceof String)) {
+				return null;
+			}
+		}
+		for (Object element : elements) {
+			if (matchIndexed((String) element, attributes, service)) {
+				return Boolean.TRUE;
+			}
+		}
+		return Boolean.FALSE;
+	}
+
+	private boolean matchIndexed(String value, Map<String, ?> attributes, ServiceReference<?> service) {
+		if (this.values.contains(value)) {
+			return true;
+		}
+		List<Filter> valueFilters = this.conjunctions.get(value);
+		if (valueFilters != null) {
+			for (Filter filter : valueFilters) {
+				if (service == null ? filter.matches(attributes) : filter.match(service)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
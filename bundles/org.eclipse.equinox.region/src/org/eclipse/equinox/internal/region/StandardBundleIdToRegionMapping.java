@@ -16,18 +16,20 @@ package org.eclipse.equinox.internal.region;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.equinox.region.Region;
 import org.osgi.framework.BundleException;
 
 public final class StandardBundleIdToRegionMapping implements BundleIdToRegionMapping {
 
+	// guards modifications; read operations do not lock
 	private final Object monitor = new Object();
 
 	/*
 	 * bundleToRegion maps a given bundle id to the region for which it belongs.
 	 * this is a global map for all regions in the digraph
 	 */
-	private final Map<Long, Region> bundleToRegion = new HashMap<>();
+	private final Map<Long, Region> bundleToRegion = new ConcurrentHashMap<>();
 
 	/**
 	 * {@inheritDoc}
@@ -59,9 +61,7 @@ public final class StandardBundleIdToRegionMapping implements BundleIdToRegionMa
 	 */
 	@Override
 	public boolean isBundleAssociatedWithRegion(long bundleId, Region region) {
-		synchronized (this.monitor) {
-			return this.bundleToRegion.get(bundleId) == region;
-		}
+		return this.bundleToRegion.get(bundleId) == region;
 	}
 
 	/**
@@ -70,11 +70,9 @@ public final class StandardBundleIdToRegionMapping implements BundleIdToRegionMa
 	@Override
 	public Set<Long> getBundleIds(Region region) {
 		Set<Long> bundleIds = new HashSet<>();
-		synchronized (this.monitor) {
-			for (Map.Entry<Long, Region> entry : this.bundleToRegion.entrySet()) {
-				if (entry.getValue() == region) {
-					bundleIds.add(entry.getKey());
-				}
+		for (Map.Entry<Long, Region> entry : this.bundleToRegion.entrySet()) {
+			if (entry.getValue() == region) {
+				bundleIds.add(entry.getKey());
 			}
 		}
 		return Collections.unmodifiableSet(bundleIds);
@@ -95,9 +93,7 @@ public final class StandardBundleIdToRegionMapping implements BundleIdToRegionMa
 	 */
 	@Override
 	public Region getRegion(long bundleId) {
-		synchronized (this.monitor) {
-			return this.bundleToRegion.get(bundleId);
-		}
+		return this.bundleToRegion.get(bundleId);
 	}
 
 	/**
@@ -16,6 +16,8 @@ package org.eclipse.equinox.internal.region;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 import org.eclipse.equinox.internal.region.hook.*;
 import org.eclipse.equinox.region.*;
@@ -30,16 +32,36 @@ import org.osgi.framework.hooks.resolver.ResolverHookFactory;
  * 
  * <strong>Concurrent Semantics</strong><br />
  * 
- * Thread safe.
+ * Thread safe. Modifications are made while holding the digraph monitor and
+ * publish an immutable {@link Snapshot} of the regions and edges which read
+ * operations, and in particular the framework hooks, use without locking.
  */
 public final class StandardRegionDigraph implements BundleIdToRegionMapping, RegionDigraph {
 
+	/**
+	 * The visibility of the candidates of a region from another region.
+	 */
+	public enum Visibility {
+		/**
+		 * All candidates are visible
+		 */
+		ALL,
+		/**
+		 * Some candidates may be visible; the region filters must be applied
+		 */
+		FILTERED,
+		/**
+		 * No candidates are visible
+		 */
+		NONE
+	}
+
 	private static final Set<FilteredRegion> EMPTY_EDGE_SET = Collections
 			.unmodifiableSet(new HashSet<FilteredRegion>());
 
-	// This monitor guards the modifications and read operations on the digraph as
-	// well as
-	// bundle id modifications of all regions in this digraph
+	// This monitor guards the modifications on the digraph as well as bundle id
+	// modifications of all regions in this digraph. Read operations use the
+	// current snapshot and the bundle id mapping without locking.
 	private final Object monitor = new Object();
 
 	private final Map<String, Region> regions = new HashMap<>();
@@ -56,6 +78,9 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	private final Map<Region, Set<FilteredRegion>> edges = new HashMap<>();
 
+	// Replaced while this.monitor is locked whenever regions or edges change
+	private volatile Snapshot snapshot = new Snapshot(this.regions, this.edges);
+
 	private final BundleContext bundleContext;
 
 	private final ThreadLocal<Region> threadLocal;
@@ -127,12 +152,13 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	private Region createRegion(String regionName, boolean notify) throws BundleException {
 		Region region = new BundleIdBasedRegion(regionName, this, this, this.bundleContext, this.threadLocal);
 		synchronized (this.monitor) {
-			if (getRegion(regionName) != null) {
+			if (this.regions.get(regionName) != null) {
 				throw new BundleException("Region '" + regionName + "' already exists", //$NON-NLS-1$ //$NON-NLS-2$
 						BundleException.UNSUPPORTED_OPERATION);
 			}
 			this.regions.put(region.getName(), region);
 			this.edges.put(region, EMPTY_EDGE_SET);
+			publishSnapshot();
 			incrementUpdateCount();
 		}
 		if (notify) {
@@ -211,6 +237,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 			}
 
 			this.edges.put(tailRegion, Collections.unmodifiableSet(connections));
+			publishSnapshot();
 			incrementUpdateCount();
 		}
 		if (tailAdded) {
@@ -232,11 +259,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public Iterator<Region> iterator() {
-		synchronized (this.monitor) {
-			Set<Region> snapshot = new HashSet<>(this.regions.size());
-			snapshot.addAll(this.regions.values());
-			return snapshot.iterator();
-		}
+		return getRegions().iterator();
 	}
 
 	/**
@@ -244,11 +267,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public Set<FilteredRegion> getEdges(Region tailRegion) {
-		synchronized (this.monitor) {
-			// Cope with the case where tailRegion is not in the digraph
-			Set<FilteredRegion> edgeSet = this.edges.get(tailRegion);
-			return edgeSet == null ? EMPTY_EDGE_SET : edgeSet;
-		}
+		return this.snapshot.getEdges(tailRegion);
 	}
 
 	static class StandardFilteredRegion implements FilteredRegion {
@@ -279,9 +298,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public Region getRegion(String regionName) {
-		synchronized (this.monitor) {
-			return regions.get(regionName);
-		}
+		return this.snapshot.regions.get(regionName);
 	}
 
 	/**
@@ -297,9 +314,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public Region getRegion(long bundleId) {
-		synchronized (this.monitor) {
-			return this.bundleIdToRegionMapping.getRegion(bundleId);
-		}
+		return this.bundleIdToRegionMapping.getRegion(bundleId);
 	}
 
 	/**
@@ -329,6 +344,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 				}
 			}
 			this.bundleIdToRegionMapping.dissociateRegion(region);
+			publishSnapshot();
 			incrementUpdateCount();
 		}
 	}
@@ -338,45 +354,40 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public String toString() {
-		synchronized (this.monitor) {
-			StringBuilder s = new StringBuilder();
-			boolean first = true;
-			s.append("RegionDigraph{"); //$NON-NLS-1$
-			for (Region r : this) {
-				if (!first) {
-					s.append(", "); //$NON-NLS-1$
-				}
-				s.append(r);
-				first = false;
+		Snapshot current = this.snapshot;
+		StringBuilder s = new StringBuilder();
+		boolean first = true;
+		s.append("RegionDigraph{"); //$NON-NLS-1$
+		for (Region r : current.regions.values()) {
+			if (!first) {
+				s.append(", "); //$NON-NLS-1$
 			}
-			s.append("}"); //$NON-NLS-1$
-
-			s.append("["); //$NON-NLS-1$
-			first = true;
-			for (Region r : this) {
-				Set<FilteredRegion> edgeSet = this.edges.get(r);
-				if (edgeSet != null) {
-					for (FilteredRegion filteredRegion : edgeSet) {
-						if (!first) {
-							s.append(", "); //$NON-NLS-1$
-						}
-						s.append(r + "->" + filteredRegion.getRegion()); //$NON-NLS-1$
-						first = false;
+			s.append(r);
+			first = false;
+		}
+		s.append("}"); //$NON-NLS-1$
+
+		s.append("["); //$NON-NLS-1$
+		first = true;
+		for (Region r : current.regions.values()) {
+			Set<FilteredRegion> edgeSet = current.edges.get(r);
+			if (edgeSet != null) {
+				for (FilteredRegion filteredRegion : edgeSet) {
+					if (!first) {
+						s.append(", "); //$NON-NLS-1$
 					}
+					s.append(r + "->" + filteredRegion.getRegion()); //$NON-NLS-1$
+					first = false;
 				}
 			}
-			s.append("]"); //$NON-NLS-1$
-			return s.toString();
 		}
+		s.append("]"); //$NON-NLS-1$
+		return s.toString();
 	}
 
 	@Override
 	public Set<Region> getRegions() {
-		Set<Region> result = new HashSet<>();
-		synchronized (this.monitor) {
-			result.addAll(this.regions.values());
-		}
-		return result;
+		return new HashSet<>(this.snapshot.regions.values());
 	}
 
 	@Override
@@ -423,7 +434,27 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public void visitSubgraph(Region startingRegion, RegionDigraphVisitor visitor) {
-		this.subgraphTraverser.visitSubgraph(startingRegion, visitor);
+		// traverse a single snapshot so concurrent changes cannot be half observed
+		this.subgraphTraverser.visitSubgraph(startingRegion, visitor, this.snapshot.edges);
+	}
+
+	/**
+	 * Determines the visibility of the candidates of the target region from the
+	 * source region, for candidates which are allowed by a {@link RegionFilter} if
+	 * the filter allows any of the given namespaces. The result is cached until the
+	 * regions or edges of this digraph change.
+	 * 
+	 * @param source     the region the candidates are visible from
+	 * @param target     the region containing the candidates
+	 * @param namespaces the namespaces the candidates are filtered in
+	 * @return the {@link Visibility} of the target region candidates
+	 */
+	public Visibility getVisibility(Region source, Region target, String... namespaces) {
+		if (source.equals(target)) {
+			return Visibility.ALL;
+		}
+		Visibility visibility = this.snapshot.getVisibility(source, namespaces).get(target);
+		return visibility == null ? Visibility.NONE : visibility;
 	}
 
 	/**
@@ -432,9 +463,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 * @return a snapshot of filtered regions
 	 */
 	Map<Region, Set<FilteredRegion>> getFilteredRegions() {
-		synchronized (this.monitor) {
-			return new HashMap<>(this.edges);
-		}
+		return new HashMap<>(this.snapshot.edges);
 	}
 
 	/**
@@ -504,12 +533,13 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 				}
 			}
 			for (Map.Entry<Region, Set<FilteredRegion>> connection : filteredRegions.entrySet()) {
-				Region tailRegion = this.getRegion(connection.getKey().getName());
+				Region tailRegion = this.regions.get(connection.getKey().getName());
 				for (FilteredRegion headFilter : connection.getValue()) {
-					Region headRegion = this.getRegion(headFilter.getRegion().getName());
+					Region headRegion = this.regions.get(headFilter.getRegion().getName());
 					this.connect(tailRegion, headFilter.getFilter(), headRegion);
 				}
 			}
+			publishSnapshot();
 			incrementUpdateCount();
 			if (check) {
 				replacement.originUpdateCount = this.updateCount.get();
@@ -606,6 +636,12 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 		}
 	}
 
+	private void publishSnapshot() {
+		synchronized (this.monitor) {
+			this.snapshot = new Snapshot(this.regions, this.edges);
+		}
+	}
+
 	private void incrementUpdateCount() {
 		synchronized (this.monitor) {
 			this.updateCount.incrementAndGet();
@@ -630,9 +666,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public boolean isBundleAssociatedWithRegion(long bundleId, Region region) {
-		synchronized (this.monitor) {
-			return this.bundleIdToRegionMapping.isBundleAssociatedWithRegion(bundleId, region);
-		}
+		return this.bundleIdToRegionMapping.isBundleAssociatedWithRegion(bundleId, region);
 	}
 
 	/**
@@ -640,9 +674,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public Set<Long> getBundleIds(Region region) {
-		synchronized (this.monitor) {
-			return this.bundleIdToRegionMapping.getBundleIds(region);
-		}
+		return this.bundleIdToRegionMapping.getBundleIds(region);
 	}
 
 	/**
@@ -667,4 +699,107 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 		}
 	}
 
+	/**
+	 * An immutable view of the regions and edges of a digraph together with the
+	 * region visibility computed from them.
+	 */
+	private static final class Snapshot {
+
+		final Map<String, Region> regions;
+
+		final Map<Region, Set<FilteredRegion>> edges;
+
+		// source region and namespaces -> visibility of the other regions
+		private final ConcurrentMap<VisibilityKey, Map<Region, Visibility>> visibility = new ConcurrentHashMap<>();
+
+		Snapshot(Map<String, Region> regions, Map<Region, Set<FilteredRegion>> edges) {
+			this.regions = Collections.unmodifiableMap(new HashMap<>(regions));
+			this.edges = Collections.unmodifiableMap(new HashMap<>(edges));
+		}
+
+		Set<FilteredRegion> getEdges(Region tailRegion) {
+			// Cope with the case where tailRegion is not in the digraph
+			Set<FilteredRegion> edgeSet = this.edges.get(tailRegion);
+			return edgeSet == null ? EMPTY_EDGE_SET : edgeSet;
+		}
+
+		Map<Region, Visibility> getVisibility(Region source, String[] namespaces) {
+			VisibilityKey key = new VisibilityKey(source, namespaces);
+			Map<Region, Visibility> result = this.visibility.get(key);
+			if (result == null) {
+				result = computeVisibility(source, namespaces);
+				Map<Region, Visibility> existing = this.visibility.putIfAbsent(key, result);
+				if (existing != null) {
+					result = existing;
+				}
+			}
+			return result;
+		}
+
+		/*
+		 * A region is visible to all candidates if it can be reached over edges whose
+		 * filters allow everything in one of the namespaces; it is not visible at all
+		 * if every path to it has an edge whose filter allows nothing in the
+		 * namespaces. Any walk between two regions contains a cycle free path over a
+		 * subset of its edges, so plain reachability gives the same answer as the
+		 * path based traversal of the hooks.
+		 */
+		private Map<Region, Visibility> computeVisibility(Region source, String[] namespaces) {
+			Map<Region, Visibility> result = new HashMap<>();
+			Set<Region> all = reachable(source, namespaces, true);
+			for (Region region : reachable(source, namespaces, false)) {
+				result.put(region, all.contains(region) ? Visibility.ALL : Visibility.FILTERED);
+			}
+			return result;
+		}
+
+		private Set<Region> reachable(Region source, String[] namespaces, boolean allowAll) {
+			Set<Region> reached = new HashSet<>();
+			Deque<Region> pending = new ArrayDeque<>();
+			pending.add(source);
+			while (!pending.isEmpty()) {
+				for (FilteredRegion edge : getEdges(pending.remove())) {
+					Visibility filterVisibility = getVisibility(edge.getFilter(), namespaces);
+					if ((allowAll ? filterVisibility == Visibility.ALL : filterVisibility != Visibility.NONE)
+							&& reached.add(edge.getRegion())) {
+						pending.add(edge.getRegion());
+					}
+				}
+			}
+			return reached;
+		}
+
+		private static Visibility getVisibility(RegionFilter filter, String[] namespaces) {
+			if (filter instanceof StandardRegionFilter) {
+				return ((StandardRegionFilter) filter).getVisibility(namespaces);
+			}
+			return Visibility.FILTERED;
+		}
+	}
+
+	private static final class VisibilityKey {
+
+		private final Region source;
+
+		private final String[] namespaces;
+
+		VisibilityKey(Region source, String[] namespaces) {
+			this.source = source;
+			this.namespaces = namespaces;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * this.source.hashCode() + Arrays.hashCode(this.namespaces);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof VisibilityKey)) {
+				return false;
+			}
+			VisibilityKey other = (VisibilityKey) obj;
+			return this.source.equals(other.source) && Arrays.equals(this.namespaces, other.namespaces);
+		}
+	}
 }
@@ -16,6 +16,7 @@
 package org.eclipse.equinox.internal.region;
 
 import java.util.*;
+import org.eclipse.equinox.internal.region.StandardRegionDigraph.Visibility;
 import org.eclipse.equinox.region.RegionFilter;
 import org.osgi.framework.*;
 import org.osgi.framework.wiring.BundleCapability;
@@ -36,6 +37,7 @@ public final class StandardRegionFilter implements RegionFilter {
 
 	private static final String BUNDLE_ID_ATTR = "id"; //$NON-NLS-1$
 	private final Map<String, Collection<Filter>> filters;
+	private final Map<String, NamespacePolicy> policies;
 
 	public StandardRegionFilter(Map<String, Collection<Filter>> filters) {
 		if (filters == null) {
@@ -43,9 +45,11 @@ public final class StandardRegionFilter implements RegionFilter {
 		}
 		// must perform deep copy to avoid external changes
 		this.filters = new HashMap<>((int) ((filters.size() / 0.75) + 1));
+		this.policies = new HashMap<>((int) ((filters.size() / 0.75) + 1));
 		for (Map.Entry<String, Collection<Filter>> namespace : filters.entrySet()) {
 			Collection<Filter> namespaceFilters = new ArrayList<>(namespace.getValue());
 			this.filters.put(namespace.getKey(), namespaceFilters);
+			this.policies.put(namespace.getKey(), new NamespacePolicy(namespace.getKey(), namespaceFilters));
 		}
 	}
 
@@ -99,18 +103,9 @@ public final class StandardRegionFilter implements RegionFilter {
 		return false;
 	}
 
-	private static boolean match(Collection<Filter> filters, ServiceReference<?> service) {
-		if (filters == null)
-			return false;
-		for (Filter filter : filters) {
-			if (filter == ALL || filter.match(service))
-				return true;
-		}
-		return false;
-	}
-
 	public boolean isAllowed(ServiceReference<?> service) {
-		if (match(filters.get(VISIBLE_OSGI_SERVICE_NAMESPACE), service))
+		NamespacePolicy policy = policies.get(VISIBLE_OSGI_SERVICE_NAMESPACE);
+		if (policy != null && policy.matches(service))
 			return true;
 		return matchAll(VISIBLE_OSGI_SERVICE_NAMESPACE, service);
 	}
@@ -125,7 +120,8 @@ public final class StandardRegionFilter implements RegionFilter {
 	 */
 	@Override
 	public boolean isAllowed(String namespace, Map<String, ?> attributes) {
-		if (match(filters.get(namespace), attributes))
+		NamespacePolicy policy = policies.get(namespace);
+		if (policy != null && policy.matches(attributes))
 			return true;
 		return matchAll(namespace, attributes);
 	}
@@ -186,6 +182,33 @@ public final class StandardRegionFilter implements RegionFilter {
 		});
 	}
 
+	/**
+	 * Determines which candidates this filter allows if a candidate is allowed
+	 * when any of the given namespaces allows it.
+	 * 
+	 * @param namespaces the namespaces
+	 * @return {@link Visibility#ALL} if this filter allows all candidates,
+	 *         {@link Visibility#NONE} if it allows none, and
+	 *         {@link Visibility#FILTERED} otherwise
+	 */
+	Visibility getVisibility(String... namespaces) {
+		Collection<Filter> allMatching = filters.get(VISIBLE_ALL_NAMESPACE);
+		boolean none = allMatching == null || allMatching.isEmpty();
+		if (!none && allMatching.contains(ALL)) {
+			return Visibility.ALL;
+		}
+		for (String namespace : namespaces) {
+			Collection<Filter> namespaceFilters = filters.get(namespace);
+			if (namespaceFilters != null && !namespaceFilters.isEmpty()) {
+				if (policies.get(namespace).isAllowAll()) {
+					return Visibility.ALL;
+				}
+				none = false;
+			}
+		}
+		return none ? Visibility.NONE : Visibility.FILTERED;
+	}
+
 	@Override
 	public Map<String, Collection<String>> getSharingPolicy() {
 		Map<String, Collection<String>> result = new HashMap<>((int) ((filters.size() / 0.75) + 1));
@@ -18,7 +18,9 @@ import org.eclipse.equinox.region.Region;
 import org.eclipse.equinox.region.RegionDigraphVisitor;
 import org.eclipse.equinox.region.RegionDigraph.FilteredRegion;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -31,23 +33,33 @@ import java.util.Set;
  */
 final class SubgraphTraverser {
 
-	void visitSubgraph(Region startingRegion, RegionDigraphVisitor visitor) {
-		visitRemainingSubgraph(startingRegion, visitor, new HashSet<Region>());
+	/**
+	 * Visits the subgraph reachable from the starting region over the given edges.
+	 * 
+	 * @param startingRegion the region to start from
+	 * @param visitor        the visitor to call
+	 * @param edges          the edges of the digraph, keyed by tail region
+	 */
+	void visitSubgraph(Region startingRegion, RegionDigraphVisitor visitor, Map<Region, Set<FilteredRegion>> edges) {
+		visitRemainingSubgraph(startingRegion, visitor, new HashSet<Region>(), edges);
 	}
 
-	private void visitRemainingSubgraph(Region r, RegionDigraphVisitor visitor, Set<Region> path) {
+	private void visitRemainingSubgraph(Region r, RegionDigraphVisitor visitor, Set<Region> path,
+			Map<Region, Set<FilteredRegion>> edges) {
 		if (!path.contains(r)) {
 			if (visitor.visit(r)) {
-				traverseEdges(r, visitor, path);
+				traverseEdges(r, visitor, path, edges);
 			}
 		}
 	}
 
-	private void traverseEdges(Region r, RegionDigraphVisitor visitor, Set<Region> path) {
-		for (FilteredRegion fr : r.getEdges()) {
+	private void traverseEdges(Region r, RegionDigraphVisitor visitor, Set<Region> path,
+			Map<Region, Set<FilteredRegion>> edges) {
+		Set<FilteredRegion> edgeSet = edges.get(r);
+		for (FilteredRegion fr : edgeSet == null ? Collections.<FilteredRegion>emptySet() : edgeSet) {
 			if (visitor.preEdgeTraverse(fr.getFilter())) {
 				try {
-					visitRemainingSubgraph(fr.getRegion(), visitor, extendPath(r, path));
+					visitRemainingSubgraph(fr.getRegion(), visitor, extendPath(r, path), edges);
 				} finally {
 					visitor.postEdgeTraverse(fr.getFilter());
 				}
@@ -67,18 +67,36 @@ public final class RegionBundleFindHook implements FindHook {
 		}
 
 		Visitor visitor = new Visitor(bundles);
-		finderRegion.visitSubgraph(visitor);
-		Collection<Bundle> allowed = visitor.getAllowed();
+		Collection<Bundle> allowed = visitor.visitSubgraph(finderRegion);
 
 		bundles.retainAll(allowed);
 	}
 
 	static class Visitor extends RegionDigraphVisitorBase<Bundle> {
 
+		private static final String[] NAMESPACES = { RegionFilter.VISIBLE_BUNDLE_NAMESPACE,
+				RegionFilter.VISIBLE_BUNDLE_LIFECYCLE_NAMESPACE };
+
 		Visitor(Collection<Bundle> candidates) {
 			super(candidates);
 		}
 
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected String[] getNamespaces(Bundle candidate) {
+			return NAMESPACES;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected Region getRegion(RegionDigraph digraph, Bundle candidate) {
+			return digraph.getRegion(candidate);
+		}
+
 		/**
 		 * {@inheritDoc}
 		 */
@@ -15,6 +15,7 @@
 package org.eclipse.equinox.internal.region.hook;
 
 import java.util.*;
+import org.eclipse.equinox.internal.region.StandardRegionDigraph;
 import org.eclipse.equinox.region.*;
 
 /**
@@ -27,7 +28,7 @@ import org.eclipse.equinox.region.*;
  */
 abstract class RegionDigraphVisitorBase<C> implements RegionDigraphVisitor {
 
-	private final Collection<C> allCandidates;
+	private Collection<C> allCandidates;
 
 	private final Stack<Set<C>> allowedStack = new Stack<>();
 	private final Stack<Collection<C>> filteredStack = new Stack<>();
@@ -42,6 +43,78 @@ abstract class RegionDigraphVisitorBase<C> implements RegionDigraphVisitor {
 		this.monitor = new Object();
 	}
 
+	/**
+	 * Visits the subgraph of the given region and returns the allowed candidates.
+	 * Candidates whose visibility from the region is decided by the digraph
+	 * structure alone are allowed or rejected without traversing the subgraph.
+	 * 
+	 * @param region the region to start from
+	 * @return the allowed candidates
+	 */
+	Collection<C> visitSubgraph(Region region) {
+		RegionDigraph digraph = region.getRegionDigraph();
+		if (digraph instanceof StandardRegionDigraph) {
+			StandardRegionDigraph standardDigraph = (StandardRegionDigraph) digraph;
+			Collection<C> filtered = new ArrayList<>();
+			for (C candidate : this.allCandidates) {
+				String[] namespaces = getNamespaces(candidate);
+				if (namespaces == null) {
+					filtered.add(candidate);
+					continue;
+				}
+				Region candidateRegion = getRegion(digraph, candidate);
+				if (candidateRegion == null) {
+					// not contained by any region; never allowed
+					continue;
+				}
+				switch (standardDigraph.getVisibility(region, candidateRegion, namespaces)) {
+				case ALL:
+					allow(candidate);
+					break;
+				case FILTERED:
+					filtered.add(candidate);
+					break;
+				default:
+					break;
+				}
+			}
+			synchronized (this.monitor) {
+				this.allCandidates = filtered;
+			}
+			if (filtered.isEmpty()) {
+				return getAllowed();
+			}
+		}
+		region.visitSubgraph(this);
+		return getAllowed();
+	}
+
+	/**
+	 * Returns the namespaces a {@link RegionFilter} is consulted in to determine
+	 * whether the given candidate is allowed. The candidate is allowed by a filter
+	 * if the filter allows it in any of the namespaces.
+	 * 
+	 * @param candidate the candidate
+	 * @return the namespaces, or <code>null</code> if the candidate must always be
+	 *         checked by traversing the subgraph
+	 */
+	protected String[] getNamespaces(C candidate) {
+		return null;
+	}
+
+	/**
+	 * Returns the region containing the given candidate. Only called if
+	 * {@link #getNamespaces(Object)} returns namespaces for the candidate.
+	 * 
+	 * @param digraph   the {@link RegionDigraph}
+	 * @param candidate the candidate
+	 * @return the region containing the candidate, or <code>null</code> if no
+	 *         region contains it
+	 */
+	protected Region getRegion(RegionDigraph digraph, C candidate) {
+		return null;
+	}
+
 	Collection<C> getAllowed() {
 		synchronized (this.monitor) {
 			return this.allowed;
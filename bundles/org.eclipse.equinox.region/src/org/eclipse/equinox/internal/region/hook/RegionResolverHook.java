@@ -65,8 +65,7 @@ public final class RegionResolverHook implements ResolverHook {
 			}
 
 			Visitor visitor = new Visitor(candidates);
-			requirerRegion.visitSubgraph(visitor);
-			Collection<BundleCapability> allowed = visitor.getAllowed();
+			Collection<BundleCapability> allowed = visitor.visitSubgraph(requirerRegion);
 
 			candidates.retainAll(allowed);
 		} finally {
@@ -84,7 +83,17 @@ public final class RegionResolverHook implements ResolverHook {
 
 		@Override
 		protected boolean contains(Region region, BundleCapability candidate) {
-			return region.equals(getRegion(candidate.getRevision()));
+			return region.equals(RegionResolverHook.this.getRegion(candidate.getRevision()));
+		}
+
+		@Override
+		protected String[] getNamespaces(BundleCapability candidate) {
+			return new String[] { candidate.getNamespace(), RegionFilter.VISIBLE_BUNDLE_NAMESPACE };
+		}
+
+		@Override
+		protected Region getRegion(RegionDigraph digraph, BundleCapability candidate) {
+			return RegionResolverHook.this.getRegion(candidate.getRevision());
 		}
 
 		@Override
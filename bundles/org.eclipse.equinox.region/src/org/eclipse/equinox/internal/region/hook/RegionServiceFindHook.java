@@ -61,18 +61,37 @@ public final class RegionServiceFindHook implements FindHook {
 		}
 
 		Visitor visitor = new Visitor(references);
-		finderRegion.visitSubgraph(visitor);
-		Collection<ServiceReference<?>> allowed = visitor.getAllowed();
+		Collection<ServiceReference<?>> allowed = visitor.visitSubgraph(finderRegion);
 
 		references.retainAll(allowed);
 	}
 
 	static class Visitor extends RegionDigraphVisitorBase<ServiceReference<?>> {
 
+		private static final String[] NAMESPACES = { RegionFilter.VISIBLE_OSGI_SERVICE_NAMESPACE,
+				RegionFilter.VISIBLE_BUNDLE_NAMESPACE };
+
 		Visitor(Collection<ServiceReference<?>> candidates) {
 			super(candidates);
 		}
 
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected String[] getNamespaces(ServiceReference<?> candidate) {
+			return NAMESPACES;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected Region getRegion(RegionDigraph digraph, ServiceReference<?> candidate) {
+			Bundle b = candidate.getBundle();
+			return b == null ? null : digraph.getRegion(b);
+		}
+
 		/**
 		 * {@inheritDoc}
 		 */
@@ -17,6 +17,8 @@ package org.eclipse.core.internal.registry;
 import java.io.*;
 import java.lang.reflect.Array;
 import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.xml.parsers.ParserConfigurationException;
 import org.eclipse.core.internal.registry.spi.ConfigurationElementAttribute;
 import org.eclipse.core.internal.registry.spi.ConfigurationElementDescription;
@@ -1045,6 +1047,10 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 
 	private RegistryEventThread eventThread = null; // registry event loop
 	protected final List<QueueElement> queue = new LinkedList<>(); // stores registry events info
+	// guards the queue; a lock instead of a monitor so a virtual event thread
+	// waiting for events does not pin its carrier thread
+	private final ReentrantLock queueLock = new ReentrantLock();
+	private final Condition queueNotEmpty = queueLock.newCondition();
 
 	// Registry events notifications are done on a separate thread in a sequential
 	// manner
@@ -1055,9 +1061,12 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 			eventThread = new RegistryEventThread(this);
 			eventThread.start();
 		}
-		synchronized (queue) {
+		queueLock.lock();
+		try {
 			queue.add(newElement);
-			queue.notify();
+			queueNotEmpty.signal();
+		} finally {
+			queueLock.unlock();
 		}
 	}
 
@@ -1072,38 +1081,77 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 		}
 	}
 
-	private class RegistryEventThread extends Thread {
+	private class RegistryEventThread implements Runnable {
+		private static final String NAME = "Extension Registry Event Dispatcher"; //$NON-NLS-1$
 		private final ExtensionRegistry registry;
+		private final Thread thread;
 
 		public RegistryEventThread(ExtensionRegistry registry) {
-			super("Extension Registry Event Dispatcher"); //$NON-NLS-1$
-			setDaemon(true);
 			this.registry = registry;
+			Thread virtual = "true".equals(RegistryProperties.getProperty(IRegistryConstants.PROP_VIRTUAL_THREADS)) //$NON-NLS-1$
+					? newVirtualThread(NAME, this)
+					: null;
+			if (virtual != null) {
+				thread = virtual;
+			} else {
+				thread = new Thread(this, NAME);
+				thread.setDaemon(true);
+			}
+		}
+
+		void start() {
+			thread.start();
+		}
+
+		void interrupt() {
+			thread.interrupt();
 		}
 
 		@Override
 		public void run() {
 			while (true) {
 				QueueElement element;
-				synchronized (queue) {
+				queueLock.lock();
+				try {
 					try {
 						while (queue.isEmpty())
-							queue.wait();
+							queueNotEmpty.await();
 					} catch (InterruptedException e) {
 						return;
 					}
 					element = queue.remove(0);
+				} finally {
+					queueLock.unlock();
 				}
 				registry.processChangeEvent(element.listenerInfos, element.scheduledDeltas);
 			}
 		}
 	}
 
+	/**
+	 * Returns an unstarted virtual thread, or <code>null</code> if the VM does not
+	 * support virtual threads. The bundle is compiled for Java 17 so the virtual
+	 * thread API is called reflectively.
+	 */
+	private static Thread newVirtualThread(String name, Runnable task) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null); //$NON-NLS-1$
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder"); //$NON-NLS-1$
+			builder = builderClass.getMethod("name", String.class).invoke(builder, name); //$NON-NLS-1$
+			return (Thread) builderClass.getMethod("unstarted", Runnable.class).invoke(builder, task); //$NON-NLS-1$
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
 	protected void stopChangeEventScheduler() {
 		if (eventThread != null) {
-			synchronized (queue) {
+			queueLock.lock();
+			try {
 				eventThread.interrupt();
 				eventThread = null;
+			} finally {
+				queueLock.unlock();
 			}
 		}
 	}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.security.tests.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import javax.crypto.BadPaddingException;
+import javax.crypto.spec.PBEKeySpec;
+import org.eclipse.equinox.internal.security.storage.*;
+import org.junit.Test;
+
+/**
+ * Tests entries encrypted with a key derived once per module password.
+ */
+public class MasterKeyEncryptionTest {
+
+	private static final byte[] clearText = "secret value".getBytes(StandardCharsets.UTF_8);
+
+	private static PasswordExt password(String password, String moduleID) {
+		return new PasswordExt(new PBEKeySpec(password.toCharArray()), moduleID);
+	}
+
+	@Test
+	public void testRoundtrip() throws Exception {
+		JavaEncryption encryption = new JavaEncryption();
+		encryption.setMasterKey(true);
+		PasswordExt password = password("password1", "module1");
+
+		CryptoData encrypted = encryption.encrypt(password, clearText);
+		assertTrue(encrypted.isMasterKey());
+		CryptoData parsed = new CryptoData(encrypted.toString());
+		assertTrue(parsed.isMasterKey());
+		assertEquals("module1", parsed.getModuleID());
+		assertArrayEquals(clearText, encryption.decrypt(password, parsed));
+
+		// entries of a module share the derived key, but not the IV
+		CryptoData other = encryption.encrypt(password, clearText);
+		assertArrayEquals(encrypted.getSalt(), other.getSalt());
+		assertFalse(encrypted.toString().equals(other.toString()));
+	}
+
+	@Test
+	public void testReadableWithoutPreference() throws Exception {
+		JavaEncryption writer = new JavaEncryption();
+		writer.setMasterKey(true);
+		CryptoData encrypted = writer.encrypt(password("password1", "module1"), clearText);
+
+		JavaEncryption reader = new JavaEncryption();
+		reader.setMasterKey(false);
+		PasswordExt password = password("password1", "module1");
+		assertArrayEquals(clearText, reader.decrypt(password, new CryptoData(encrypted.toString())));
+		assertFalse(reader.encrypt(password, clearText).isMasterKey());
+	}
+
+	@Test
+	public void testWrongPassword() throws Exception {
+		JavaEncryption encryption = new JavaEncryption();
+		encryption.setMasterKey(true);
+		CryptoData encrypted = encryption.encrypt(password("password1", "module1"), clearText);
+
+		assertThrows(BadPaddingException.class,
+				() -> encryption.decrypt(password("password2", "module1"), encrypted));
+		assertThrows(BadPaddingException.class,
+				() -> encryption.decrypt(password("password1", "module2"), encrypted));
+	}
+
+	@Test
+	public void testClearKeyCache() throws Exception {
+		JavaEncryption encryption = new JavaEncryption();
+		encryption.setMasterKey(true);
+		PasswordExt password = password("password1", "module1");
+		CryptoData encrypted = encryption.encrypt(password, clearText);
+
+		encryption.clearKeyCache();
+		assertArrayEquals(clearText, encryption.decrypt(password, encrypted));
+		// a new salt is only chosen when no entry of the module was seen
+		assertArrayEquals(encrypted.getSalt(), encryption.encrypt(password, clearText).getSalt());
+
+		encryption.clearKeyCache();
+		assertFalse(Arrays.equals(encrypted.getSalt(), encryption.encrypt(password, clearText).getSalt()));
+	}
+}
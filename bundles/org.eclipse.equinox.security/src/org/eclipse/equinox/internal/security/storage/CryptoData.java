@@ -28,16 +28,28 @@ public class CryptoData {
 	static private final char SALT_SEPARATOR = ',';
 	static private final char IV_SEPARATOR = ';';
 
+	/**
+	 * Marks data encrypted with a key derived once per module; this must not be a
+	 * valid Base64 character.
+	 */
+	static private final char MASTER_KEY_MARKER = '@';
+
 	final private String moduleID;
 	final private byte[] salt;
 	final private byte[] iv;
 	final private byte[] encryptedData;
+	final private boolean masterKey;
 
 	public CryptoData(String moduleID, byte[] salt, byte[] data, byte[] iv) {
+		this(moduleID, salt, data, iv, false);
+	}
+
+	public CryptoData(String moduleID, byte[] salt, byte[] data, byte[] iv, boolean masterKey) {
 		this.moduleID = moduleID;
 		this.salt = salt;
 		this.encryptedData = data;
 		this.iv = iv;
+		this.masterKey = masterKey;
 	}
 
 	public String getModuleID() {
@@ -56,6 +68,15 @@ public class CryptoData {
 		return iv;
 	}
 
+	/**
+	 * @return <code>true</code> if the data is encrypted with a master key derived
+	 *         from the module password and the salt, <code>false</code> if it is
+	 *         encrypted with a password based cipher
+	 */
+	public boolean isMasterKey() {
+		return masterKey;
+	}
+
 	public CryptoData(String data) throws StorageException {
 		// separate moduleID
 		int pos = data.indexOf(MODULE_ID_SEPARATOR);
@@ -70,6 +91,10 @@ public class CryptoData {
 			encrypted = data.substring(pos + 1);
 		}
 
+		masterKey = !encrypted.isEmpty() && encrypted.charAt(0) == MASTER_KEY_MARKER;
+		if (masterKey)
+			encrypted = encrypted.substring(1);
+
 		// separate IV
 		int ivPos = encrypted.indexOf(IV_SEPARATOR);
 		if (ivPos != -1) {
@@ -95,6 +120,9 @@ public class CryptoData {
 	public String toString() {
 		StringBuilder encryptedText = (moduleID == null) ? new StringBuilder() : new StringBuilder(moduleID);
 		encryptedText.append(MODULE_ID_SEPARATOR);
+		if (masterKey) {
+			encryptedText.append(MASTER_KEY_MARKER);
+		}
 		if (iv != null) {
 			encryptedText.append(Base64.encode(iv));
 		}
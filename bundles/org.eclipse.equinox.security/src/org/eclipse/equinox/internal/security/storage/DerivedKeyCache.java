@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.security.storage;
+
+import java.util.*;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Session scoped cache of keys derived from passwords, keyed by password, salt
+ * and key derivation algorithm. Passwords are compared by identity: the
+ * password cache of the secure storage hands out the same password object for
+ * a module until it is cleared.
+ * <p>
+ * The cache also remembers the salt to use for new entries encrypted with a
+ * password so that all entries of a module share one derived key. The key
+ * material is overwritten when the cache is cleared.
+ * </p>
+ */
+class DerivedKeyCache {
+
+	private static final class Key {
+		final PBEKeySpec password;
+		final byte[] salt;
+		final String algorithm;
+
+		Key(PBEKeySpec password, byte[] salt, String algorithm) {
+			this.password = password;
+			this.salt = salt;
+			this.algorithm = algorithm;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return password == other.password && algorithm.equals(other.algorithm) && Arrays.equals(salt, other.salt);
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * System.identityHashCode(password) + algorithm.hashCode()) * 31 + Arrays.hashCode(salt);
+		}
+	}
+
+	private final Map<Key, byte[]> keys = new HashMap<>();
+
+	private final Map<PBEKeySpec, byte[]> salts = new IdentityHashMap<>();
+
+	/**
+	 * @return a copy of the cached key which the caller should overwrite when done,
+	 *         or <code>null</code> if no key is cached
+	 */
+	synchronized byte[] get(PBEKeySpec password, byte[] salt, String algorithm) {
+		byte[] key = keys.get(new Key(password, salt, algorithm));
+		return (key == null) ? null : key.clone();
+	}
+
+	/**
+	 * Caches a derived key. The cache takes ownership of the given array.
+	 *
+	 * @return a copy of the cached key which the caller should overwrite when done
+	 */
+	synchronized byte[] put(PBEKeySpec password, byte[] salt, String algorithm, byte[] key) {
+		Key cacheKey = new Key(password, salt.clone(), algorithm);
+		byte[] existing = keys.get(cacheKey);
+		if (existing != null) { // derived concurrently by another thread
+			Arrays.fill(key, (byte) 0);
+			return existing.clone();
+		}
+		keys.put(cacheKey, key);
+		return key.clone();
+	}
+
+	/**
+	 * @return the salt to use for new entries encrypted with the password, or
+	 *         <code>null</code> if none was set
+	 */
+	synchronized byte[] getSalt(PBEKeySpec password) {
+		return salts.get(password);
+	}
+
+	/**
+	 * Sets the salt to use for new entries encrypted with the password unless one
+	 * is set already.
+	 *
+	 * @return the salt to use for new entries
+	 */
+	synchronized byte[] setSalt(PBEKeySpec password, byte[] salt) {
+		byte[] existing = salts.get(password);
+		if (existing != null)
+			return existing;
+		salts.put(password, salt);
+		return salt;
+	}
+
+	/**
+	 * Overwrites and forgets all cached keys.
+	 */
+	synchronized void clear() {
+		for (byte[] key : keys.values()) {
+			Arrays.fill(key, (byte) 0);
+		}
+		keys.clear();
+		salts.clear();
+	}
+}
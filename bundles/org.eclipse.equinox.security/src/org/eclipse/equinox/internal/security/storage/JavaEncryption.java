@@ -11,6 +11,7 @@
  * Contributors:
  *     IBM Corporation - initial API and implementation
  *     Inno-Tec Innovative Technologies GmbH - Fix for Bug 388055
+ *     IBM Corporation - master key format and derived key cache
  *
  *******************************************************************************/
 package org.eclipse.equinox.internal.security.storage;
@@ -48,9 +49,29 @@ public class JavaEncryption {
 
 	static private final int SALT_ITERATIONS = 10;
 
+	// master key format: one key per module password, derived with PBKDF2
+	static private final String MASTER_KEY_FACTORY = "PBKDF2WithHmacSHA512"; //$NON-NLS-1$
+	static private final String MASTER_KEY_CIPHER = "AES/GCM/NoPadding"; //$NON-NLS-1$
+	static private final String MASTER_KEY_ALGORITHM = "AES"; //$NON-NLS-1$
+	static private final int MASTER_KEY_ITERATIONS = 210000;
+	static private final int MASTER_KEY_LENGTH = 256; // bits
+	static private final int MASTER_SALT_LENGTH = 16; // bytes
+	static private final int GCM_IV_LENGTH = 12; // bytes
+	static private final int GCM_TAG_LENGTH = 128; // bits
+
 	private String keyFactoryAlgorithm = null;
 	private String cipherAlgorithm = null;
 
+	/**
+	 * Whether new entries are encrypted in the master key format; <code>null</code>
+	 * until read from the preferences
+	 */
+	private Boolean masterKey = null;
+
+	private final DerivedKeyCache keyCache = new DerivedKeyCache();
+
+	private final SecureRandom random = new SecureRandom();
+
 	private boolean initialized = false;
 
 	private HashMap<String, String> availableCiphers;
@@ -77,6 +98,25 @@ public class JavaEncryption {
 		}
 	}
 
+	public boolean isMasterKey() {
+		return Boolean.TRUE.equals(masterKey);
+	}
+
+	/**
+	 * Specifies whether new entries are encrypted with AES-GCM using a key derived
+	 * once per module password. Existing entries remain readable in either case.
+	 */
+	public void setMasterKey(boolean masterKey) {
+		this.masterKey = Boolean.valueOf(masterKey);
+	}
+
+	/**
+	 * Overwrites and forgets the keys derived from module passwords.
+	 */
+	public void clearKeyCache() {
+		keyCache.clear();
+	}
+
 	private void init() throws StorageException {
 		if (initialized)
 			return;
@@ -96,6 +136,10 @@ public class JavaEncryption {
 	}
 
 	protected void internalInitialize() throws StorageException {
+		if (masterKey == null) {
+			IEclipsePreferences eclipseNode = ConfigurationScope.INSTANCE.getNode(AuthPlugin.PI_AUTH);
+			masterKey = Boolean.valueOf(eclipseNode.getBoolean(IStorageConstants.MASTER_KEY_KEY, false));
+		}
 		if (cipherAlgorithm != null && keyFactoryAlgorithm != null) {
 			if (roundtrip(cipherAlgorithm, keyFactoryAlgorithm))
 				return;
@@ -130,6 +174,8 @@ public class JavaEncryption {
 
 	public CryptoData encrypt(PasswordExt passwordExt, byte[] clearText) throws StorageException {
 		init();
+		if (isMasterKey())
+			return masterKeyEncrypt(passwordExt, clearText);
 		return internalEncrypt(passwordExt, clearText);
 	}
 
@@ -173,6 +219,8 @@ public class JavaEncryption {
 	public byte[] decrypt(PasswordExt passwordExt, CryptoData encryptedData)
 			throws StorageException, IllegalStateException, IllegalBlockSizeException, BadPaddingException {
 		init();
+		if (encryptedData.isMasterKey())
+			return masterKeyDecrypt(passwordExt, encryptedData);
 		return internalDecrypt(passwordExt, encryptedData);
 	}
 
@@ -206,6 +254,78 @@ public class JavaEncryption {
 		}
 	}
 
+	/////////////////////////////////////////////////////////////////////////////////////
+	// Master key format
+
+	private CryptoData masterKeyEncrypt(PasswordExt passwordExt, byte[] clearText) throws StorageException {
+		PBEKeySpec password = passwordExt.getPassword();
+		byte[] salt = keyCache.getSalt(password);
+		if (salt == null) {
+			salt = new byte[MASTER_SALT_LENGTH];
+			random.nextBytes(salt);
+			salt = keyCache.setSalt(password, salt);
+		}
+		byte[] iv = new byte[GCM_IV_LENGTH];
+		random.nextBytes(iv);
+		try {
+			Cipher c = masterKeyCipher(Cipher.ENCRYPT_MODE, passwordExt, salt, iv);
+			byte[] result = c.doFinal(clearText);
+			return new CryptoData(passwordExt.getModuleID(), salt, result, iv, true);
+		} catch (InvalidKeyException | InvalidAlgorithmParameterException | IllegalBlockSizeException
+				| BadPaddingException e) {
+			handle(e, StorageException.ENCRYPTION_ERROR);
+			return null;
+		} catch (InvalidKeySpecException | NoSuchPaddingException | NoSuchAlgorithmException e) {
+			handle(e, StorageException.INTERNAL_ERROR);
+			return null;
+		}
+	}
+
+	private byte[] masterKeyDecrypt(PasswordExt passwordExt, CryptoData encryptedData)
+			throws StorageException, IllegalBlockSizeException, BadPaddingException {
+		if (encryptedData.getIV() == null)
+			throw new StorageException(StorageException.DECRYPTION_ERROR, SecAuthMessages.invalidEntryFormat);
+		try {
+			Cipher c = masterKeyCipher(Cipher.DECRYPT_MODE, passwordExt, encryptedData.getSalt(),
+					encryptedData.getIV());
+			byte[] result = c.doFinal(encryptedData.getData());
+			// the password is valid: keep encrypting with the key we already derived
+			keyCache.setSalt(passwordExt.getPassword(), encryptedData.getSalt());
+			return result;
+		} catch (InvalidAlgorithmParameterException | InvalidKeyException | InvalidKeySpecException
+				| NoSuchPaddingException | NoSuchAlgorithmException e) {
+			handle(e, StorageException.INTERNAL_ERROR);
+			return null;
+		}
+	}
+
+	private Cipher masterKeyCipher(int mode, PasswordExt passwordExt, byte[] salt, byte[] iv)
+			throws NoSuchAlgorithmException, InvalidKeySpecException, NoSuchPaddingException, InvalidKeyException,
+			InvalidAlgorithmParameterException {
+		PBEKeySpec password = passwordExt.getPassword();
+		byte[] key = keyCache.get(password, salt, MASTER_KEY_FACTORY);
+		if (key == null) {
+			PBEKeySpec keySpec = new PBEKeySpec(password.getPassword(), salt, MASTER_KEY_ITERATIONS,
+					MASTER_KEY_LENGTH);
+			try {
+				SecretKeyFactory keyFactory = SecretKeyFactory.getInstance(MASTER_KEY_FACTORY);
+				key = keyCache.put(password, salt, MASTER_KEY_FACTORY, keyFactory.generateSecret(keySpec).getEncoded());
+			} finally {
+				keySpec.clearPassword();
+			}
+		}
+		try {
+			Cipher c = Cipher.getInstance(MASTER_KEY_CIPHER);
+			c.init(mode, new SecretKeySpec(key, MASTER_KEY_ALGORITHM), new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+			// bind the data to the module that encrypted it
+			if (passwordExt.getModuleID() != null)
+				c.updateAAD(StorageUtils.getBytes(passwordExt.getModuleID()));
+			return c;
+		} finally {
+			Arrays.fill(key, (byte) 0);
+		}
+	}
+
 	private void handle(Exception e, int internalCode) throws StorageException {
 		if (AuthPlugin.DEBUG_LOGIN_FRAMEWORK)
 			e.printStackTrace();
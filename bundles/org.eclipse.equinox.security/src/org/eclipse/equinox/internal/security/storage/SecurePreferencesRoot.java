@@ -387,6 +387,7 @@ public class SecurePreferencesRoot extends SecurePreferences implements IStorage
 		synchronized (passwordCache) {
 			passwordCache.clear();
 		}
+		cipher.clearKeyCache();
 	}
 
 	private long getLastModified() {
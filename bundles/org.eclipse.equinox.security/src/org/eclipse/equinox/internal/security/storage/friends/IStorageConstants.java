@@ -38,6 +38,13 @@ public interface IStorageConstants {
 	 */
 	public String DEFAULT_KEY_FACTORY = "PBEWithHmacSHA512AndAES_256"; //$NON-NLS-1$
 
+	/**
+	 * Preference describing whether new entries in secure storage are encrypted
+	 * with AES-GCM using a key derived once per module password instead of a
+	 * password based cipher. Entries in either format can always be read.
+	 */
+	public String MASTER_KEY_KEY = "org.eclipse.equinox.security.preferences.masterKey"; //$NON-NLS-1$
+
 	/**
 	 * Preference contains list of disabled password provider modules
 	 */
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.weaving.internal.caching;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PackedClassCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File directory;
+
+	private PackedClassCache cache;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = new File(folder.getRoot(), "cache"); //$NON-NLS-1$
+		cache = PackedClassCache.open(directory, true);
+	}
+
+	@After
+	public void tearDown() {
+		cache.close();
+	}
+
+	private static byte[] classBytes(final int length, final int seed) {
+		final byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = (byte) (seed + i);
+		}
+		return bytes;
+	}
+
+	private File packFile() {
+		return new File(directory, PackedClassCache.PACK_FILE_NAME);
+	}
+
+	private void reopen() throws IOException {
+		cache.close();
+		cache = PackedClassCache.open(directory, false);
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		final Map<String, byte[]> classes = new LinkedHashMap<>();
+		classes.put("a.A", classBytes(100, 1)); //$NON-NLS-1$
+		classes.put("a.B", classBytes(0, 2)); //$NON-NLS-1$
+		classes.put("a.C", classBytes(5000, 3)); //$NON-NLS-1$
+		cache.store(classes);
+		for (final Map.Entry<String, byte[]> entry : classes.entrySet()) {
+			assertArrayEquals(entry.getKey(), entry.getValue(), cache.find(entry.getKey()));
+		}
+
+		reopen();
+		for (final Map.Entry<String, byte[]> entry : classes.entrySet()) {
+			assertArrayEquals(entry.getKey(), entry.getValue(), cache.find(entry.getKey()));
+		}
+		assertNull(cache.find("a.D")); //$NON-NLS-1$
+
+		// a class stored again supersedes the earlier record
+		final byte[] replaced = classBytes(200, 4);
+		cache.store(Map.of("a.A", replaced)); //$NON-NLS-1$
+		assertArrayEquals(replaced, cache.find("a.A")); //$NON-NLS-1$
+		reopen();
+		assertArrayEquals(replaced, cache.find("a.A")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testOpenWithoutCreate() throws IOException {
+		assertNull(PackedClassCache.open(new File(folder.getRoot(), "missing"), false)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testTruncatedRecord() throws IOException {
+		final byte[] first = classBytes(100, 1);
+		final byte[] second = classBytes(100, 2);
+		cache.store(Map.of("a.A", first)); //$NON-NLS-1$
+		cache.store(Map.of("a.B", second)); //$NON-NLS-1$
+		cache.close();
+
+		// cut off the end of the last record as an interrupted write would
+		try (RandomAccessFile file = new RandomAccessFile(packFile(), "rw")) { //$NON-NLS-1$
+			file.setLength(file.length() - 10);
+		}
+
+		cache = PackedClassCache.open(directory, false);
+		assertArrayEquals(first, cache.find("a.A")); //$NON-NLS-1$
+		assertNull(cache.find("a.B")); //$NON-NLS-1$
+
+		// the incomplete record is dropped, so new records are readable after a restart
+		cache.store(Map.of("a.B", second)); //$NON-NLS-1$
+		reopen();
+		assertArrayEquals(first, cache.find("a.A")); //$NON-NLS-1$
+		assertArrayEquals(second, cache.find("a.B")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testCorruptRecord() throws IOException {
+		final byte[] first = classBytes(100, 1);
+		final byte[] second = classBytes(100, 2);
+		cache.store(Map.of("a.A", first)); //$NON-NLS-1$
+		cache.store(Map.of("a.B", second)); //$NON-NLS-1$
+		cache.close();
+
+		// change the last byte of the class bytes of the last record
+		try (RandomAccessFile file = new RandomAccessFile(packFile(), "rw")) { //$NON-NLS-1$
+			file.seek(file.length() - 1);
+			final int last = file.read();
+			file.seek(file.length() - 1);
+			file.write(last ^ 0xFF);
+		}
+
+		cache = PackedClassCache.open(directory, false);
+		assertArrayEquals(first, cache.find("a.A")); //$NON-NLS-1$
+		assertNull(cache.find("a.B")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testUnknownFile() throws IOException {
+		cache.close();
+		Files.write(packFile().toPath(), classBytes(100, 1));
+
+		cache = PackedClassCache.open(directory, false);
+		assertNull(cache.find("a.A")); //$NON-NLS-1$
+		final byte[] classbytes = classBytes(100, 2);
+		cache.store(Map.of("a.A", classbytes)); //$NON-NLS-1$
+		reopen();
+		assertArrayEquals(classbytes, cache.find("a.A")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testCompact() throws IOException {
+		byte[] classbytes = null;
+		for (int i = 0; i < 10; i++) {
+			classbytes = classBytes(1000, i);
+			cache.store(Map.of("a.A", classbytes)); //$NON-NLS-1$
+		}
+		final byte[] other = classBytes(10, 42);
+		cache.store(Map.of("a.B", other)); //$NON-NLS-1$
+		final long before = packFile().length();
+
+		cache.compact();
+		assertTrue("File not compacted", packFile().length() < before); //$NON-NLS-1$
+		assertArrayEquals(classbytes, cache.find("a.A")); //$NON-NLS-1$
+		assertArrayEquals(other, cache.find("a.B")); //$NON-NLS-1$
+
+		// the compacted file is used after a restart and can still be appended to
+		final byte[] appended = classBytes(10, 7);
+		cache.store(Map.of("a.C", appended)); //$NON-NLS-1$
+		assertArrayEquals(appended, cache.find("a.C")); //$NON-NLS-1$
+		reopen();
+		assertArrayEquals(classbytes, cache.find("a.A")); //$NON-NLS-1$
+		assertArrayEquals(other, cache.find("a.B")); //$NON-NLS-1$
+		assertArrayEquals(appended, cache.find("a.C")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testMigration() throws IOException {
+		cache.close();
+		Files.delete(packFile().toPath());
+		final byte[] first = classBytes(100, 1);
+		final byte[] second = classBytes(200, 2);
+		final File firstFile = new File(directory, "a.A"); //$NON-NLS-1$
+		final File secondFile = new File(directory, "a.B"); //$NON-NLS-1$
+		Files.write(firstFile.toPath(), first);
+		Files.write(secondFile.toPath(), second);
+
+		cache = PackedClassCache.open(directory, false);
+		assertArrayEquals(first, cache.find("a.A")); //$NON-NLS-1$
+		assertArrayEquals(second, cache.find("a.B")); //$NON-NLS-1$
+		assertFalse("Migrated file not deleted", firstFile.exists()); //$NON-NLS-1$
+		assertFalse("Migrated file not deleted", secondFile.exists()); //$NON-NLS-1$
+
+		reopen();
+		assertArrayEquals(first, cache.find("a.A")); //$NON-NLS-1$
+		assertArrayEquals(second, cache.find("a.B")); //$NON-NLS-1$
+		assertEquals(1, directory.list().length);
+	}
+
+	@Test
+	public void testFindAppendedWhileWriting() throws Exception {
+		final byte[] classbytes = classBytes(100, 1);
+		cache.store(Map.of("a.A", classbytes)); //$NON-NLS-1$
+
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			// a store or compaction holds the monitor of the cache while it syncs the file
+			synchronized (cache) {
+				final Future<byte[]> found = executor.submit(() -> cache.find("a.A")); //$NON-NLS-1$
+				assertArrayEquals(classbytes, found.get(10, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
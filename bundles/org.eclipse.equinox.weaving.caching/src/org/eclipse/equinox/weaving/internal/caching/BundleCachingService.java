@@ -18,9 +18,7 @@
 package org.eclipse.equinox.weaving.internal.caching;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -46,8 +44,6 @@ import org.osgi.framework.BundleContext;
  */
 public class BundleCachingService implements ICachingService {
 
-	private static final int READ_BUFFER_SIZE = 8 * 1024;
-
 	private final Bundle bundle;
 
 	private File cacheDirectory;
@@ -68,9 +64,14 @@ public class BundleCachingService implements ICachingService {
 	private final Map<CacheItemKey, byte[]> itemsInQueue;
 
 	/**
-	 * the lock manager to protect against concurrent file system access
+	 * The packed cache file, opened on first use
+	 */
+	private volatile PackedClassCache packedCache;
+
+	/**
+	 * @GuardedBy this
 	 */
-	private final ClassnameLockManager lockManager;
+	private boolean stopped;
 
 	/**
 	 * @param bundleContext    Must not be null!
@@ -79,13 +80,10 @@ public class BundleCachingService implements ICachingService {
 	 * @param cacheWriterQueue The queue for items to be written to the cache, must
 	 *                         not be null
 	 * @param itemsInQueue     lookup map for the items in the CacheWriter queue
-	 * @param lockManager      the lock manager to protect against concurrent file
-	 *                         system access
 	 * @throws IllegalArgumentException if given bundleContext or bundle is null.
 	 */
 	public BundleCachingService(final BundleContext bundleContext, final Bundle bundle, final String key,
-			final BlockingQueue<CacheItem> cacheWriterQueue, final Map<CacheItemKey, byte[]> itemsInQueue,
-			final ClassnameLockManager lockManager) {
+			final BlockingQueue<CacheItem> cacheWriterQueue, final Map<CacheItemKey, byte[]> itemsInQueue) {
 		if (bundleContext == null) {
 			throw new IllegalArgumentException("Argument \"bundleContext\" must not be null!"); //$NON-NLS-1$
 		}
@@ -100,7 +98,6 @@ public class BundleCachingService implements ICachingService {
 		this.cacheKey = hashNamespace(key);
 		this.cacheWriterQueue = cacheWriterQueue;
 		this.itemsInQueue = itemsInQueue;
-		this.lockManager = lockManager;
 
 		final File dataFile = bundleContext.getDataFile(cacheKey);
 		if (dataFile != null) {
@@ -141,8 +138,10 @@ public class BundleCachingService implements ICachingService {
 			storedClass = itemsInQueue.get(new CacheItemKey(directoryString, name));
 			if (storedClass == null) {
 				// else, read it from disk
-				final File cachedBytecodeFile = new File(cacheDirectory, name);
-				storedClass = lockManager.executeRead(name, () -> read(name, cachedBytecodeFile));
+				final PackedClassCache cache = getPackedCache(false);
+				if (cache != null) {
+					storedClass = cache.find(name);
+				}
 			}
 			isCached = storedClass != null;
 		}
@@ -157,6 +156,34 @@ public class BundleCachingService implements ICachingService {
 		return new CacheEntry(isCached, storedClass);
 	}
 
+	/**
+	 * Returns the packed cache of the bundle, opening it if necessary. Classes
+	 * cached by earlier versions in one file per class are moved into the packed
+	 * cache when it is opened.
+	 *
+	 * @param create whether to create the cache if it does not exist yet
+	 * @return the cache or null if it does not exist or cannot be opened
+	 */
+	private PackedClassCache getPackedCache(final boolean create) {
+		PackedClassCache cache = packedCache;
+		if (cache != null) {
+			return cache;
+		}
+		synchronized (this) {
+			if ((packedCache == null) && !stopped) {
+				try {
+					packedCache = PackedClassCache.open(cacheDirectory, create);
+				} catch (final IOException e) {
+					Log.error(MessageFormat.format("for [{0}]: Cannot open cache in [{1}]!", //$NON-NLS-1$
+							bundle.getSymbolicName(), cacheDirectoryString), e);
+					// do not try again for every class
+					stopped = true;
+				}
+			}
+			return packedCache;
+		}
+	}
+
 	/**
 	 * Hash the shared class namespace using MD5
 	 *
@@ -187,54 +214,17 @@ public class BundleCachingService implements ICachingService {
 		return new String(result);
 	}
 
-	private byte[] read(final String name, final File file) {
-		int length = (int) file.length();
-
-		try (InputStream in = new FileInputStream(file)) {
-			byte[] classbytes = new byte[length];
-			int bytesread = 0;
-			int readcount;
-
-			if (length > 0) {
-				classbytes = new byte[length];
-				for (; bytesread < length; bytesread += readcount) {
-					readcount = in.read(classbytes, bytesread, length - bytesread);
-					if (readcount <= 0) /* if we didn't read anything */
-						break; /* leave the loop */
-				}
-			} else /* BundleEntry does not know its own length! */ {
-				length = READ_BUFFER_SIZE;
-				classbytes = new byte[length];
-				readloop: while (true) {
-					for (; bytesread < length; bytesread += readcount) {
-						readcount = in.read(classbytes, bytesread, length - bytesread);
-						if (readcount <= 0) /* if we didn't read anything */
-							break readloop; /* leave the loop */
-					}
-					final byte[] oldbytes = classbytes;
-					length += READ_BUFFER_SIZE;
-					classbytes = new byte[length];
-					System.arraycopy(oldbytes, 0, classbytes, 0, bytesread);
-				}
-			}
-			if (classbytes.length > bytesread) {
-				final byte[] oldbytes = classbytes;
-				classbytes = new byte[bytesread];
-				System.arraycopy(oldbytes, 0, classbytes, 0, bytesread);
-			}
-			return classbytes;
-		} catch (final IOException e) {
-			Log.debug(MessageFormat.format("for [{0}]: Cannot read [1] from cache!", bundle //$NON-NLS-1$
-					.getSymbolicName(), name));
-			return null;
-		}
-	}
-
 	/**
-	 * Writes the remaining cache to disk.
+	 * Closes the cache file. Items of this bundle still in the CacheWriter queue
+	 * are dropped.
 	 */
 	@Override
-	public void stop() {
+	public synchronized void stop() {
+		stopped = true;
+		if (packedCache != null) {
+			packedCache.close();
+			packedCache = null;
+		}
 	}
 
 	/**
@@ -250,12 +240,13 @@ public class BundleCachingService implements ICachingService {
 		if (classbytes == null) {
 			throw new IllegalArgumentException("Argument \"classbytes\" must not be null!"); //$NON-NLS-1$
 		}
-		if (cacheDirectory == null) {
+		final PackedClassCache cache = (cacheDirectory == null) ? null : getPackedCache(true);
+		if (cache == null) {
 			return false;
 		}
 
 		final String className = clazz.getName();
-		final CacheItem item = new CacheItem(classbytes, cacheDirectoryString, className);
+		final CacheItem item = new CacheItem(classbytes, cacheDirectoryString, className, cache);
 
 		final boolean queued = this.cacheWriterQueue.offer(item);
 		if (queued) {
@@ -271,8 +262,13 @@ public class BundleCachingService implements ICachingService {
 	@Override
 	public boolean storeClassAndGeneratedClasses(final String namespace, final URL sourceFileUrl, final Class<?> clazz,
 			final byte[] classbytes, final Map<String, byte[]> generatedClasses) {
+		final PackedClassCache cache = (cacheDirectory == null) ? null : getPackedCache(true);
+		if (cache == null) {
+			return false;
+		}
+
 		final String className = clazz.getName();
-		final CacheItem item = new CacheItem(classbytes, cacheDirectoryString, className, generatedClasses);
+		final CacheItem item = new CacheItem(classbytes, cacheDirectoryString, className, generatedClasses, cache);
 
 		final boolean queued = this.cacheWriterQueue.offer(item);
 		if (queued) {
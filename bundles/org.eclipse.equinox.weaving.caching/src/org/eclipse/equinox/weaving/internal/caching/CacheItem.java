@@ -27,6 +27,8 @@ public class CacheItem {
 
 	private final byte[] cachedBytes;
 
+	private final PackedClassCache cache;
+
 	private final String directory;
 
 	private final Map<String, byte[]> generatedClasses;
@@ -38,10 +40,12 @@ public class CacheItem {
 	 * 
 	 * @param cachedBytes The bytes to be written to the cache
 	 * @param directory   The directory to where the bytes should be stored
-	 * @param name        The name of the file to store the bytes in
+	 * @param name        The name of the class to store the bytes for
+	 * @param cache       The cache to store the bytes in
 	 */
-	public CacheItem(final byte[] cachedBytes, final String directory, final String name) {
-		this(cachedBytes, directory, name, null);
+	public CacheItem(final byte[] cachedBytes, final String directory, final String name,
+			final PackedClassCache cache) {
+		this(cachedBytes, directory, name, null, cache);
 	}
 
 	/**
@@ -49,13 +53,15 @@ public class CacheItem {
 	 * 
 	 * @param cachedBytes      The bytes to be written to the cache
 	 * @param directory        The directory to where the bytes should be stored
-	 * @param name             The name of the file to store the bytes in
+	 * @param name             The name of the class to store the bytes for
 	 * @param generatedClasses The generated classes that should be stored together
 	 *                         with this item (className -> bytecode)
+	 * @param cache            The cache to store the bytes in
 	 */
 	public CacheItem(final byte[] cachedBytes, final String directory, final String name,
-			final Map<String, byte[]> generatedClasses) {
+			final Map<String, byte[]> generatedClasses, final PackedClassCache cache) {
 		this.cachedBytes = cachedBytes;
+		this.cache = cache;
 		this.directory = directory;
 		this.name = name;
 		this.generatedClasses = generatedClasses;
@@ -68,6 +74,13 @@ public class CacheItem {
 		return cachedBytes;
 	}
 
+	/**
+	 * @return The cache in which the item should be stored
+	 */
+	public PackedClassCache getCache() {
+		return cache;
+	}
+
 	/**
 	 * @return The directory in which the item should be stored
 	 */
@@ -84,7 +97,7 @@ public class CacheItem {
 	}
 
 	/**
-	 * @return The name of the file to be written to the cache
+	 * @return The name of the class to be written to the cache
 	 */
 	public String getName() {
 		return name;
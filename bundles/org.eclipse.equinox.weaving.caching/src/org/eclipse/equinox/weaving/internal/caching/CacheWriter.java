@@ -16,14 +16,9 @@
 
 package org.eclipse.equinox.weaving.internal.caching;
 
-import java.io.BufferedOutputStream;
-import java.io.DataOutputStream;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.BlockingQueue;
 
 /**
@@ -38,11 +33,6 @@ public class CacheWriter {
 	 */
 	private final Map<CacheItemKey, byte[]> itemsInQueue;
 
-	/**
-	 * the lock manager to protect against concurrent file system access
-	 */
-	private final ClassnameLockManager lockManager;
-
 	private final Thread writerThread;
 
 	/**
@@ -51,13 +41,9 @@ public class CacheWriter {
 	 * @param cacheQueue   The blocking queue that delivers the cache items to store
 	 *                     to this cache writer
 	 * @param itemsInQueue The lookup map for items currently in the queue
-	 * @param lockManager  the lock manager to protect against concurrent file
-	 *                     system access
 	 */
-	public CacheWriter(final BlockingQueue<CacheItem> cacheQueue, final Map<CacheItemKey, byte[]> itemsInQueue,
-			final ClassnameLockManager lockManager) {
+	public CacheWriter(final BlockingQueue<CacheItem> cacheQueue, final Map<CacheItemKey, byte[]> itemsInQueue) {
 		this.itemsInQueue = itemsInQueue;
-		this.lockManager = lockManager;
 		this.writerThread = new Thread(() -> {
 			try {
 				while (true) {
@@ -91,46 +77,29 @@ public class CacheWriter {
 	/**
 	 * store the cache item to disk
 	 *
-	 * This operation creates the appropriate directory for the cache item if it
-	 * does not exist
+	 * The generated classes of the item are appended to the cache of the item
+	 * before the woven class and the cache is synced to disk once for the whole
+	 * item.
 	 *
 	 * @param item the cache item to store to disc
 	 * @throws IOException if an error occurs while writing to the cache
 	 */
 	protected void store(final CacheItem item) throws IOException {
-		// write out generated classes first
+		final Map<String, byte[]> classes = new LinkedHashMap<>();
 		final Map<String, byte[]> generatedClasses = item.getGeneratedClasses();
 		if (generatedClasses != null) {
-			for (final Entry<String, byte[]> entry : generatedClasses.entrySet()) {
-				final String className = entry.getKey();
-				final byte[] classBytes = entry.getValue();
-				// write the class to the cache in a locked operation to prevent concurrent
-				// reads of incompletely written files
-				lockManager.executeWrite(className, () -> storeSingleClass(className, classBytes, item.getDirectory()));
-			}
-		}
-
-		// write out the woven class
-		lockManager.executeWrite(item.getName(),
-				() -> storeSingleClass(item.getName(), item.getCachedBytes(), item.getDirectory()));
-	}
-
-	private void storeSingleClass(final String className, final byte[] classBytes, final String cacheDirectory)
-			throws FileNotFoundException, IOException {
-		final File directory = new File(cacheDirectory);
-		if (!directory.exists()) {
-			directory.mkdirs();
+			classes.putAll(generatedClasses);
 		}
+		classes.put(item.getName(), item.getCachedBytes());
 
-		try (FileOutputStream fosCache = new FileOutputStream(new File(directory, className));
-				DataOutputStream outCache = new DataOutputStream(new BufferedOutputStream(fosCache))) {
-			outCache.write(classBytes);
-			outCache.flush();
-			fosCache.getFD().sync();
+		try {
+			item.getCache().store(classes);
+		} finally {
+			// after writing the classes, remove the item from the itemsInQueue lookup map
+			// as well; a class that could not be written is woven again
+			for (final String className : classes.keySet()) {
+				itemsInQueue.remove(new CacheItemKey(item.getDirectory(), className));
+			}
 		}
-
-		// after writing the file, remove the item from the itemsInQueue lookup map as
-		// well
-		itemsInQueue.remove(new CacheItemKey(cacheDirectory, className));
 	}
 }
@@ -53,11 +53,6 @@ public class CachingServiceFactory implements ICachingServiceFactory {
 	 */
 	private final ConcurrentMap<CacheItemKey, byte[]> itemsInCacheQueue;
 
-	/**
-	 * the lock manager to protect against concurrent file system access
-	 */
-	private final ClassnameLockManager lockManager = new ClassnameLockManager();
-
 	/**
 	 * @param bundleContext Must not be null!
 	 * @throws IllegalArgumentException if given bundleContext is null.
@@ -69,7 +64,7 @@ public class CachingServiceFactory implements ICachingServiceFactory {
 		this.bundleContext = bundleContext;
 		this.cacheQueue = new ArrayBlockingQueue<>(IBundleConstants.QUEUE_CAPACITY);
 		this.itemsInCacheQueue = new ConcurrentHashMap<>();
-		this.cacheWriter = new CacheWriter(this.cacheQueue, this.itemsInCacheQueue, this.lockManager);
+		this.cacheWriter = new CacheWriter(this.cacheQueue, this.itemsInCacheQueue);
 		this.cacheWriter.start();
 
 		this.bundleContext.addBundleListener(new SynchronousBundleListener() {
@@ -103,7 +98,7 @@ public class CachingServiceFactory implements ICachingServiceFactory {
 
 			if (key != null && key.length() > 0) {
 				bundleCachingService = new BundleCachingService(bundleContext, bundle, key, this.cacheQueue,
-						this.itemsInCacheQueue, this.lockManager);
+						this.itemsInCacheQueue);
 			} else {
 				bundleCachingService = new UnchangedCachingService();
 			}
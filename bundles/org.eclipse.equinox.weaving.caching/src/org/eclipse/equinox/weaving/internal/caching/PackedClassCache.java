@@ -0,0 +1,499 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.weaving.internal.caching;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * The cached classes of one bundle, packed into a single file.
+ * <p>
+ * The file starts with a header followed by one record per stored class:
+ * the length of the class name, the length of the class bytes, a CRC-32 of the
+ * class bytes, the UTF-8 encoded class name and the class bytes. Records are
+ * only ever appended; a class stored again supersedes its earlier record. The
+ * index of the records is built when the file is opened, which only touches the
+ * record headers, and a record that was not written completely is cut off.
+ * </p>
+ * <p>
+ * The file is memory-mapped when it is opened, so classes stored in earlier
+ * sessions are read without any system call. Classes appended in this session
+ * are read from the file through a separate handle, so readers never wait for a
+ * store or a compaction to sync the file. When superseded records take up more space than the
+ * live ones the file is compacted. Classes found in the cache directory in the
+ * earlier one file per class layout are moved into the file when it is opened.
+ * </p>
+ */
+public class PackedClassCache {
+
+	/**
+	 * The name of the packed file in the cache directory. Class names cannot start
+	 * with a dot, so the name cannot clash with a class file of the earlier layout.
+	 */
+	static final String PACK_FILE_NAME = ".classes"; //$NON-NLS-1$
+
+	private static final String COMPACT_FILE_NAME = ".classes.tmp"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x45435043; // "ECPC"
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 8;
+
+	private static final int RECORD_HEADER_SIZE = 12;
+
+	private static final int MAX_NAME_LENGTH = 64 * 1024;
+
+	/**
+	 * Superseded records below this size are not worth a compaction.
+	 */
+	private static final long MIN_COMPACT_GARBAGE = 64 * 1024;
+
+	/**
+	 * The location of the class bytes of a record.
+	 */
+	private static final class Record {
+		final long offset;
+
+		final int length;
+
+		final int crc;
+
+		Record(final long offset, final int length, final int crc) {
+			this.offset = offset;
+			this.length = length;
+			this.crc = crc;
+		}
+	}
+
+	/**
+	 * The index of a version of the file together with its mapping. A compaction
+	 * replaces both at once, so a reader never combines the index of one file with
+	 * the content of another.
+	 */
+	private static final class Mapping {
+		final Map<String, Record> index;
+
+		final MappedByteBuffer buffer;
+
+		Mapping(final Map<String, Record> index, final MappedByteBuffer buffer) {
+			this.index = index;
+			this.buffer = buffer;
+		}
+
+		int mappedSize() {
+			return (buffer == null) ? 0 : buffer.limit();
+		}
+	}
+
+	private final File directory;
+
+	private final File packFile;
+
+	/**
+	 * All file access goes through a {@link RandomAccessFile}; unlike a
+	 * {@link FileChannel} it is not closed when a thread using it is interrupted.
+	 *
+	 * @GuardedBy this
+	 */
+	private RandomAccessFile file;
+
+	/**
+	 * @GuardedBy this
+	 */
+	private long size;
+
+	/**
+	 * The number of bytes taken by superseded records.
+	 *
+	 * @GuardedBy this
+	 */
+	private long garbage;
+
+	/**
+	 * Reads the classes appended after the file was mapped.
+	 *
+	 * @GuardedBy readLock
+	 */
+	private RandomAccessFile reader;
+
+	/**
+	 * Guards {@link #reader}. A writer holding the monitor of the cache may take
+	 * this lock, a reader never takes the monitor of the cache.
+	 */
+	private final Object readLock = new Object();
+
+	private volatile Mapping mapping;
+
+	private PackedClassCache(final File directory) {
+		this.directory = directory;
+		this.packFile = new File(directory, PACK_FILE_NAME);
+	}
+
+	/**
+	 * Opens the packed cache in the given directory.
+	 *
+	 * @param directory the cache directory of the bundle
+	 * @param create    whether to create the cache if the directory holds no
+	 *                  cached classes yet
+	 * @return the cache, or null if there is no cache and {@code create} is false
+	 * @throws IOException if the cache cannot be opened
+	 */
+	public static PackedClassCache open(final File directory, final boolean create) throws IOException {
+		if (!create && !directory.isDirectory()) {
+			return null;
+		}
+		if (create && !directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+			throw new IOException("Cannot create " + directory); //$NON-NLS-1$
+		}
+		final PackedClassCache cache = new PackedClassCache(directory);
+		cache.load();
+		return cache;
+	}
+
+	/**
+	 * Closes the cache. Classes stored after the cache is closed are dropped.
+	 */
+	public synchronized void close() {
+		synchronized (readLock) {
+			closeReader();
+		}
+		if (file != null) {
+			try {
+				file.close();
+			} catch (final IOException e) {
+				// ignore
+			}
+			file = null;
+		}
+	}
+
+	/**
+	 * Rewrites the file with the live records only.
+	 *
+	 * @throws IOException if the file cannot be rewritten; the cache stays usable
+	 *                     with the old file in that case
+	 */
+	public synchronized void compact() throws IOException {
+		if (file == null) {
+			return;
+		}
+		final Mapping current = mapping;
+		final File compactFile = new File(directory, COMPACT_FILE_NAME);
+		final Map<String, Record> index = new ConcurrentHashMap<>(current.index.size() * 4 / 3 + 1);
+
+		try (FileOutputStream fos = new FileOutputStream(compactFile);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			long position = HEADER_SIZE;
+			for (final Entry<String, Record> entry : current.index.entrySet()) {
+				final byte[] classbytes = read(current, entry.getValue());
+				if (classbytes == null) {
+					continue;
+				}
+				final byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+				out.writeInt(name.length);
+				out.writeInt(classbytes.length);
+				out.writeInt(entry.getValue().crc);
+				out.write(name);
+				out.write(classbytes);
+				index.put(entry.getKey(), new Record(position + RECORD_HEADER_SIZE + name.length, classbytes.length,
+						entry.getValue().crc));
+				position += RECORD_HEADER_SIZE + name.length + classbytes.length;
+			}
+			out.flush();
+			fos.getFD().sync();
+		}
+
+		// appended classes cannot be read until the new file is in place
+		synchronized (readLock) {
+			closeReader();
+		}
+		file.close();
+		file = null;
+		try {
+			try {
+				Files.move(compactFile.toPath(), packFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(compactFile.toPath(), packFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (final IOException e) {
+			// the mapped file may not be replaceable on some platforms; keep using it
+			Files.deleteIfExists(compactFile.toPath());
+			file = new RandomAccessFile(packFile, "rw"); //$NON-NLS-1$
+			openReader(current);
+			throw e;
+		}
+
+		file = new RandomAccessFile(packFile, "rw"); //$NON-NLS-1$
+		size = file.length();
+		garbage = 0;
+		openReader(new Mapping(index, map()));
+	}
+
+	/**
+	 * Returns the bytes of a cached class.
+	 *
+	 * @param name the class name
+	 * @return the class bytes or null if the class is not cached
+	 */
+	public byte[] find(final String name) {
+		final Mapping current = mapping;
+		if (current == null) {
+			return null;
+		}
+		final Record record = current.index.get(name);
+		if (record == null) {
+			return null;
+		}
+		return read(current, record);
+	}
+
+	/**
+	 * Appends classes to the cache and syncs the file.
+	 *
+	 * @param classes the class bytes by class name, in the order to append them
+	 * @throws IOException if the classes cannot be written
+	 */
+	public synchronized void store(final Map<String, byte[]> classes) throws IOException {
+		if (file == null) {
+			return;
+		}
+		final Mapping current = mapping;
+		final CRC32 crc = new CRC32();
+		for (final Entry<String, byte[]> entry : classes.entrySet()) {
+			final byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+			final byte[] classbytes = entry.getValue();
+			crc.reset();
+			crc.update(classbytes);
+
+			final byte[] record = new byte[RECORD_HEADER_SIZE + name.length + classbytes.length];
+			putInt(record, 0, name.length);
+			putInt(record, 4, classbytes.length);
+			putInt(record, 8, (int) crc.getValue());
+			System.arraycopy(name, 0, record, RECORD_HEADER_SIZE, name.length);
+			System.arraycopy(classbytes, 0, record, RECORD_HEADER_SIZE + name.length, classbytes.length);
+
+			file.seek(size);
+			file.write(record);
+
+			final Record previous = current.index.put(entry.getKey(),
+					new Record(size + RECORD_HEADER_SIZE + name.length, classbytes.length, (int) crc.getValue()));
+			if (previous != null) {
+				garbage += RECORD_HEADER_SIZE + name.length + previous.length;
+			}
+			size += record.length;
+		}
+		file.getFD().sync();
+	}
+
+	private void load() throws IOException {
+		file = new RandomAccessFile(packFile, "rw"); //$NON-NLS-1$
+		try {
+			final Map<String, Record> index = new ConcurrentHashMap<>();
+			size = scan(index);
+			openReader(new Mapping(index, map()));
+
+			migrate();
+
+			final long live = size - HEADER_SIZE - garbage;
+			if ((garbage > MIN_COMPACT_GARBAGE) && (garbage > live)) {
+				try {
+					compact();
+				} catch (final IOException e) {
+					Log.debug(MessageFormat.format("Cannot compact [{0}]: {1}", packFile, e)); //$NON-NLS-1$
+				}
+			}
+		} catch (final IOException | RuntimeException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Builds the index from the record headers and cuts off a record at the end
+	 * of the file that was not written completely.
+	 *
+	 * @return the end of the last complete record
+	 */
+	private long scan(final Map<String, Record> index) throws IOException {
+		final long length = file.length();
+		if ((length < HEADER_SIZE) || (readInt(0) != MAGIC) || (readInt(4) != VERSION)) {
+			if (length > 0) {
+				Log.debug(MessageFormat.format("Discarding unknown cache file [{0}]", packFile)); //$NON-NLS-1$
+			}
+			file.setLength(0);
+			file.writeInt(MAGIC);
+			file.writeInt(VERSION);
+			return HEADER_SIZE;
+		}
+
+		long position = HEADER_SIZE;
+		final byte[] header = new byte[RECORD_HEADER_SIZE];
+		while (position + RECORD_HEADER_SIZE <= length) {
+			file.seek(position);
+			file.readFully(header);
+			final int nameLength = getInt(header, 0);
+			final int classLength = getInt(header, 4);
+			final long end = position + RECORD_HEADER_SIZE + nameLength + classLength;
+			if ((nameLength <= 0) || (nameLength > MAX_NAME_LENGTH) || (classLength < 0) || (end > length)) {
+				break;
+			}
+			final byte[] name = new byte[nameLength];
+			file.readFully(name);
+			final Record previous = index.put(new String(name, StandardCharsets.UTF_8),
+					new Record(position + RECORD_HEADER_SIZE + nameLength, classLength, getInt(header, 8)));
+			if (previous != null) {
+				garbage += RECORD_HEADER_SIZE + nameLength + previous.length;
+			}
+			position = end;
+		}
+
+		if (position < length) {
+			Log.debug(MessageFormat.format("Truncating incomplete record in [{0}] at {1}", packFile, position)); //$NON-NLS-1$
+			file.setLength(position);
+		}
+		return position;
+	}
+
+	/**
+	 * Moves classes cached as one file per class into the packed file.
+	 */
+	private void migrate() throws IOException {
+		final File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (final File classFile : files) {
+			final String name = classFile.getName();
+			if (!classFile.isFile() || name.startsWith(".")) { //$NON-NLS-1$
+				continue;
+			}
+			if (!mapping.index.containsKey(name)) {
+				final byte[] classbytes;
+				try {
+					classbytes = Files.readAllBytes(classFile.toPath());
+				} catch (final IOException e) {
+					Log.debug(MessageFormat.format("Cannot migrate [{0}]: {1}", classFile, e)); //$NON-NLS-1$
+					continue;
+				}
+				store(Map.of(name, classbytes));
+			}
+			if (!classFile.delete()) {
+				Log.debug(MessageFormat.format("Cannot delete migrated [{0}]", classFile)); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * @GuardedBy this
+	 */
+	private MappedByteBuffer map() throws IOException {
+		final long mappedSize = Math.min(size, Integer.MAX_VALUE);
+		if (mappedSize <= HEADER_SIZE) {
+			return null;
+		}
+		return file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, mappedSize);
+	}
+
+	/**
+	 * Opens the reader of the file and publishes the mapping of the file.
+	 *
+	 * @GuardedBy this
+	 */
+	private void openReader(final Mapping newMapping) throws IOException {
+		synchronized (readLock) {
+			reader = new RandomAccessFile(packFile, "r"); //$NON-NLS-1$
+			mapping = newMapping;
+		}
+	}
+
+	/**
+	 * @GuardedBy readLock
+	 */
+	private void closeReader() {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (final IOException e) {
+				// ignore
+			}
+			reader = null;
+		}
+	}
+
+	private byte[] read(final Mapping current, final Record record) {
+		final byte[] classbytes = new byte[record.length];
+		if (record.offset + record.length <= current.mappedSize()) {
+			// absolute bulk reads leave the buffer position alone and may run concurrently
+			current.buffer.get((int) record.offset, classbytes);
+		} else {
+			synchronized (readLock) {
+				if ((reader == null) || (current != mapping)) {
+					return null;
+				}
+				try {
+					reader.seek(record.offset);
+					reader.readFully(classbytes);
+				} catch (final IOException e) {
+					Log.debug(MessageFormat.format("Cannot read from [{0}]: {1}", packFile, e)); //$NON-NLS-1$
+					return null;
+				}
+			}
+		}
+
+		final CRC32 crc = new CRC32();
+		crc.update(classbytes);
+		if ((int) crc.getValue() != record.crc) {
+			Log.debug(MessageFormat.format("Corrupt record in [{0}] at {1}", packFile, record.offset)); //$NON-NLS-1$
+			return null;
+		}
+		return classbytes;
+	}
+
+	private int readInt(final long position) throws IOException {
+		file.seek(position);
+		return file.readInt();
+	}
+
+	private static int getInt(final byte[] bytes, final int offset) {
+		return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+				| ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+	}
+
+	private static void putInt(final byte[] bytes, final int offset, final int value) {
+		bytes[offset] = (byte) (value >>> 24);
+		bytes[offset + 1] = (byte) (value >>> 16);
+		bytes[offset + 2] = (byte) (value >>> 8);
+		bytes[offset + 3] = (byte) value;
+	}
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.benchmarks;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.osgi.container.Module;
+import org.eclipse.osgi.container.Module.Settings;
+import org.eclipse.osgi.container.ModuleCollisionHook;
+import org.eclipse.osgi.container.ModuleContainer;
+import org.eclipse.osgi.container.ModuleContainerAdaptor;
+import org.eclipse.osgi.container.ModuleDatabase;
+import org.eclipse.osgi.container.ModuleRevision;
+import org.eclipse.osgi.container.SystemModule;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkListener;
+import org.osgi.framework.hooks.resolver.ResolverHook;
+import org.osgi.framework.hooks.resolver.ResolverHookFactory;
+import org.osgi.framework.wiring.BundleCapability;
+import org.osgi.framework.wiring.BundleRequirement;
+import org.osgi.framework.wiring.BundleRevision;
+
+/**
+ * A container adaptor for a module container without a framework.  Modules
+ * have no bundle objects and events are discarded, so that the benchmarks
+ * only measure the work done by the container, the resolver and the database.
+ */
+final class BenchmarkContainerAdaptor extends ModuleContainerAdaptor {
+	private static final ResolverHook NO_OP_HOOK = new ResolverHook() {
+		@Override
+		public void filterResolvable(Collection<BundleRevision> candidates) {
+			// nothing
+		}
+
+		@Override
+		public void filterSingletonCollisions(BundleCapability singleton, Collection<BundleCapability> collisionCandidates) {
+			// nothing
+		}
+
+		@Override
+		public void filterMatches(BundleRequirement requirement, Collection<BundleCapability> candidates) {
+			// nothing
+		}
+
+		@Override
+		public void end() {
+			// nothing
+		}
+	};
+
+	private final Map<String, String> configuration;
+	private final ModuleDatabase moduleDatabase;
+	private final ModuleContainer container;
+
+	BenchmarkContainerAdaptor() {
+		this(new HashMap<>());
+	}
+
+	BenchmarkContainerAdaptor(Map<String, String> configuration) {
+		this.configuration = configuration;
+		this.moduleDatabase = new ModuleDatabase(this);
+		this.container = new ModuleContainer(this, moduleDatabase);
+	}
+
+	ModuleContainer getContainer() {
+		return container;
+	}
+
+	ModuleDatabase getDatabase() {
+		return moduleDatabase;
+	}
+
+	@Override
+	public ModuleCollisionHook getModuleCollisionHook() {
+		return (operationType, target, collisionCandidates) -> {
+			// allow all collisions
+		};
+	}
+
+	@Override
+	public ResolverHookFactory getResolverHookFactory() {
+		return triggers -> NO_OP_HOOK;
+	}
+
+	@Override
+	public void publishContainerEvent(ContainerEvent type, Module module, Throwable error, FrameworkListener... listeners) {
+		// events are not delivered
+	}
+
+	@Override
+	public void publishModuleEvent(ModuleEvent type, Module module, Module origin) {
+		// events are not delivered
+	}
+
+	@Override
+	public String getProperty(String key) {
+		return configuration.get(key);
+	}
+
+	@Override
+	public Module createModule(String location, long id, EnumSet<Settings> settings, int startlevel) {
+		return new Module(Long.valueOf(id), location, container, settings, startlevel) {
+			@Override
+			public Bundle getBundle() {
+				return null;
+			}
+
+			@Override
+			protected void cleanup(ModuleRevision revision) {
+				// nothing to clean up
+			}
+		};
+	}
+
+	@Override
+	public SystemModule createSystemModule() {
+		return new SystemModule(container) {
+			@Override
+			public Bundle getBundle() {
+				return null;
+			}
+
+			@Override
+			protected void cleanup(ModuleRevision revision) {
+				// nothing to clean up
+			}
+		};
+	}
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import org.eclipse.osgi.launch.EquinoxFactory;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.Constants;
+import org.osgi.framework.launch.Framework;
+
+/**
+ * Utilities to launch a framework and to create the bundles installed
+ * by the benchmarks.
+ */
+final class BenchmarkFramework {
+
+	private BenchmarkFramework() {
+		// no instances
+	}
+
+	/**
+	 * Creates a temporary directory which holds the storage of a framework
+	 * and the bundles installed.
+	 * @return the directory
+	 * @throws IOException if the directory cannot be created
+	 */
+	static File createTempDir() throws IOException {
+		return Files.createTempDirectory("equinox-bench").toFile(); //$NON-NLS-1$
+	}
+
+	/**
+	 * Launches a framework with a clean storage area in the specified directory.
+	 * Bundles with the same symbolic name and version may be installed.
+	 * @param dir the directory
+	 * @return the started framework
+	 * @throws BundleException if the framework cannot be started
+	 */
+	static Framework launch(File dir) throws BundleException {
+		return launch(dir, new HashMap<>());
+	}
+
+	/**
+	 * Launches a framework with a clean storage area in the specified directory
+	 * and additional configuration properties.
+	 * Bundles with the same symbolic name and version may be installed.
+	 * @param dir the directory
+	 * @param extraConfiguration the additional configuration properties
+	 * @return the started framework
+	 * @throws BundleException if the framework cannot be started
+	 */
+	static Framework launch(File dir, Map<String, String> extraConfiguration) throws BundleException {
+		Map<String, String> configuration = new HashMap<>(extraConfiguration);
+		configuration.put(Constants.FRAMEWORK_STORAGE, new File(dir, "storage").getAbsolutePath()); //$NON-NLS-1$
+		configuration.put(Constants.FRAMEWORK_STORAGE_CLEAN, Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT);
+		// benchmarks may install the same bundle more than once
+		configuration.put(Constants.FRAMEWORK_BSNVERSION, Constants.FRAMEWORK_BSNVERSION_MULTIPLE);
+		Framework framework = new EquinoxFactory().newFramework(configuration);
+		framework.start();
+		return framework;
+	}
+
+	/**
+	 * Stops the framework and deletes the directory of the framework.
+	 * @param framework the framework, may be {@code null}
+	 * @param dir the directory, may be {@code null}
+	 */
+	static void shutdown(Framework framework, File dir) throws BundleException, InterruptedException {
+		if (framework != null) {
+			framework.stop();
+			framework.waitForStop(30000);
+		}
+		if (dir != null) {
+			delete(dir);
+		}
+	}
+
+	/**
+	 * Creates a bundle jar.
+	 * @param file the jar file
+	 * @param headers the manifest headers of the bundle
+	 * @param entries the content of the bundle keyed by entry path
+	 * @return the jar file
+	 * @throws IOException if the jar cannot be written
+	 */
+	static File createBundle(File file, Map<String, String> headers, Map<String, byte[]> entries) throws IOException {
+		Manifest manifest = new Manifest();
+		Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0"); //$NON-NLS-1$
+		attributes.putValue(Constants.BUNDLE_MANIFESTVERSION, "2"); //$NON-NLS-1$
+		for (Map.Entry<String, String> header : headers.entrySet()) {
+			attributes.putValue(header.getKey(), header.getValue());
+		}
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(file), manifest)) {
+			for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+				out.putNextEntry(new ZipEntry(entry.getKey()));
+				out.write(entry.getValue());
+				out.closeEntry();
+			}
+		}
+		return file;
+	}
+
+	/**
+	 * Creates the bytes of a public class with no members that extends java.lang.Object
+	 * @param internalName the internal name of the class
+	 * @return the bytes of the class
+	 */
+	static byte[] createEmptyClass(String internalName) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0); // minor version
+			out.writeShort(52); // major version
+			out.writeShort(5); // constant pool count
+			out.writeByte(7); // #1 Class #2
+			out.writeShort(2);
+			out.writeByte(1); // #2 Utf8
+			out.writeUTF(internalName);
+			out.writeByte(7); // #3 Class #4
+			out.writeShort(4);
+			out.writeByte(1); // #4 Utf8
+			out.writeUTF("java/lang/Object"); //$NON-NLS-1$
+			out.writeShort(0x0021); // ACC_PUBLIC | ACC_SUPER
+			out.writeShort(1); // this class
+			out.writeShort(3); // super class
+			out.writeShort(0); // interfaces
+			out.writeShort(0); // fields
+			out.writeShort(0); // methods
+			out.writeShort(0); // attributes
+		}
+		return bytes.toByteArray();
+	}
+
+	static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+}
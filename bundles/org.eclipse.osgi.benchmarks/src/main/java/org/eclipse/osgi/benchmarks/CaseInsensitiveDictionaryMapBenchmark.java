@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.eclipse.osgi.framework.util.CaseInsensitiveDictionaryMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lookups and updates of a {@link CaseInsensitiveDictionaryMap} as used for
+ * service properties and bundle headers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CaseInsensitiveDictionaryMapBenchmark {
+	private static final Object VALUE = new Object();
+
+	@Param({ "5", "20", "100" })
+	public int size;
+
+	private String[] keys;
+	private String[] otherCaseKeys;
+	private CaseInsensitiveDictionaryMap<String, Object> map;
+
+	@Setup
+	public void setup() {
+		keys = new String[size];
+		otherCaseKeys = new String[size];
+		map = new CaseInsensitiveDictionaryMap<>(size);
+		for (int i = 0; i < size; i++) {
+			keys[i] = "Header-" + i + "-Key"; //$NON-NLS-1$ //$NON-NLS-2$
+			otherCaseKeys[i] = keys[i].toUpperCase();
+			map.put(keys[i], VALUE);
+		}
+	}
+
+	@Benchmark
+	public void getSameCase(Blackhole blackhole) {
+		for (String key : keys) {
+			blackhole.consume(map.get(key));
+		}
+	}
+
+	@Benchmark
+	public void getOtherCase(Blackhole blackhole) {
+		for (String key : otherCaseKeys) {
+			blackhole.consume(map.get(key));
+		}
+	}
+
+	@Benchmark
+	public void getMissing(Blackhole blackhole) {
+		blackhole.consume(map.get("Missing-Header-Key")); //$NON-NLS-1$
+	}
+
+	@Benchmark
+	public CaseInsensitiveDictionaryMap<String, Object> populate() {
+		CaseInsensitiveDictionaryMap<String, Object> result = new CaseInsensitiveDictionaryMap<>(size);
+		for (String key : keys) {
+			result.put(key, VALUE);
+		}
+		return result;
+	}
+}
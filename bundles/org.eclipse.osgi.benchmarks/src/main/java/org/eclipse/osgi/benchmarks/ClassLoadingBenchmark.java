@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.benchmarks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.launch.Framework;
+import org.osgi.framework.wiring.BundleWiring;
+
+/**
+ * Class loading through the bundle loader of a bundle which imports a
+ * package from another bundle.  The loaded benchmarks measure the lookup
+ * of classes that are already defined; the define benchmark measures the
+ * first load of all classes of a freshly resolved bundle.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ClassLoadingBenchmark {
+	static final int CLASSES = 200;
+	static final String PROVIDER_PACKAGE = "bench.provider"; //$NON-NLS-1$
+	static final String CONSUMER_PACKAGE = "bench.consumer"; //$NON-NLS-1$
+
+	@State(Scope.Benchmark)
+	public static class Bundles {
+		File dir;
+		Framework framework;
+		File providerJar;
+		File consumerJar;
+		Bundle consumer;
+		ClassLoader loader;
+
+		@Setup
+		public void setup() throws Exception {
+			dir = BenchmarkFramework.createTempDir();
+			providerJar = createBundle(new File(dir, "provider.jar"), PROVIDER_PACKAGE, null); //$NON-NLS-1$
+			consumerJar = createBundle(new File(dir, "consumer.jar"), CONSUMER_PACKAGE, PROVIDER_PACKAGE); //$NON-NLS-1$
+			framework = BenchmarkFramework.launch(dir);
+			BundleContext context = framework.getBundleContext();
+			context.installBundle(providerJar.toURI().toString());
+			consumer = context.installBundle(consumerJar.toURI().toString());
+			loader = getClassLoader(consumer);
+			for (int i = 0; i < CLASSES; i++) {
+				loader.loadClass(CONSUMER_PACKAGE + ".C" + i); //$NON-NLS-1$
+				loader.loadClass(PROVIDER_PACKAGE + ".C" + i); //$NON-NLS-1$
+			}
+		}
+
+		@TearDown
+		public void tearDown() throws Exception {
+			BenchmarkFramework.shutdown(framework, dir);
+		}
+	}
+
+	/**
+	 * A bundle installed for each invocation so that none of its classes are defined yet.
+	 */
+	@State(Scope.Thread)
+	public static class FreshBundle {
+		Bundle bundle;
+		ClassLoader loader;
+
+		@Setup(Level.Invocation)
+		public void setup(Bundles bundles) throws Exception {
+			try (InputStream in = new FileInputStream(bundles.consumerJar)) {
+				bundle = bundles.framework.getBundleContext().installBundle("fresh:" + System.nanoTime(), in); //$NON-NLS-1$
+			}
+			loader = getClassLoader(bundle);
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown() throws Exception {
+			bundle.uninstall();
+		}
+	}
+
+	@Benchmark
+	public void loadLocalClass(Bundles bundles, Blackhole blackhole) throws ClassNotFoundException {
+		for (int i = 0; i < CLASSES; i += 10) {
+			blackhole.consume(bundles.loader.loadClass(CONSUMER_PACKAGE + ".C" + i)); //$NON-NLS-1$
+		}
+	}
+
+	@Benchmark
+	public void loadImportedClass(Bundles bundles, Blackhole blackhole) throws ClassNotFoundException {
+		for (int i = 0; i < CLASSES; i += 10) {
+			blackhole.consume(bundles.loader.loadClass(PROVIDER_PACKAGE + ".C" + i)); //$NON-NLS-1$
+		}
+	}
+
+	@Benchmark
+	public Class<?> loadBootClass(Bundles bundles) throws ClassNotFoundException {
+		return bundles.loader.loadClass("java.util.ArrayList"); //$NON-NLS-1$
+	}
+
+	@Benchmark
+	public Object loadMissingClass(Bundles bundles) {
+		try {
+			return bundles.loader.loadClass(CONSUMER_PACKAGE + ".Missing"); //$NON-NLS-1$
+		} catch (ClassNotFoundException e) {
+			return e;
+		}
+	}
+
+	@Benchmark
+	public Class<?> bundleLoadClass(Bundles bundles) throws ClassNotFoundException {
+		return bundles.consumer.loadClass(PROVIDER_PACKAGE + ".C0"); //$NON-NLS-1$
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 20)
+	@Measurement(iterations = 50)
+	public void defineClasses(FreshBundle fresh, Blackhole blackhole) throws ClassNotFoundException {
+		for (int i = 0; i < CLASSES; i++) {
+			blackhole.consume(fresh.loader.loadClass(CONSUMER_PACKAGE + ".C" + i)); //$NON-NLS-1$
+		}
+	}
+
+	static ClassLoader getClassLoader(Bundle bundle) throws ClassNotFoundException {
+		// loading a class resolves the bundle
+		bundle.loadClass(Object.class.getName());
+		return bundle.adapt(BundleWiring.class).getClassLoader();
+	}
+
+	static File createBundle(File file, String packageName, String importPackage) throws IOException {
+		Map<String, String> headers = new HashMap<>();
+		headers.put(Constants.BUNDLE_SYMBOLICNAME, packageName);
+		headers.put(Constants.EXPORT_PACKAGE, packageName);
+		if (importPackage != null) {
+			headers.put(Constants.IMPORT_PACKAGE, importPackage);
+		}
+		Map<String, byte[]> entries = new HashMap<>();
+		String path = packageName.replace('.', '/');
+		for (int i = 0; i < CLASSES; i++) {
+			String internalName = path + "/C" + i; //$NON-NLS-1$
+			entries.put(internalName + ".class", BenchmarkFramework.createEmptyClass(internalName)); //$NON-NLS-1$
+		}
+		return BenchmarkFramework.createBundle(file, headers, entries);
+	}
+}
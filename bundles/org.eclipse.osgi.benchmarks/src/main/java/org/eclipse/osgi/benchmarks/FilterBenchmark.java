@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.benchmarks;
+
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.osgi.internal.framework.FilterImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.framework.Constants;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.Version;
+
+/**
+ * Parsing of filter strings and matching of parsed filters against the
+ * properties of a service.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FilterBenchmark {
+
+	@Param({ "(objectClass=org.example.Service)", //
+			"(&(objectClass=org.example.Service)(service.ranking>=10))", //
+			"(&(objectClass=org.example.Service)(|(name=foo*)(name=*bar))(!(disabled=true)))", //
+			"(&(version>=1.0.0)(!(version>=2.0.0)))" })
+	public String filter;
+
+	private FilterImpl parsed;
+	private Map<String, Object> map;
+	private Dictionary<String, Object> dictionary;
+
+	@Setup
+	public void setup() throws InvalidSyntaxException {
+		parsed = FilterImpl.newInstance(filter);
+		map = new HashMap<>();
+		map.put(Constants.OBJECTCLASS, new String[] { "org.example.Service", "org.example.Other" }); //$NON-NLS-1$ //$NON-NLS-2$
+		map.put(Constants.SERVICE_RANKING, Integer.valueOf(20));
+		map.put(Constants.SERVICE_ID, Long.valueOf(42));
+		map.put("name", "foo.service.bar"); //$NON-NLS-1$ //$NON-NLS-2$
+		map.put("disabled", Boolean.FALSE); //$NON-NLS-1$
+		map.put("version", new Version(1, 5, 0)); //$NON-NLS-1$
+		dictionary = new Hashtable<>(map);
+	}
+
+	@Benchmark
+	public FilterImpl parse() throws InvalidSyntaxException {
+		return FilterImpl.newInstance(filter);
+	}
+
+	@Benchmark
+	public boolean matchMap() {
+		return parsed.matches(map);
+	}
+
+	@Benchmark
+	public boolean matchDictionary() {
+		return parsed.match(dictionary);
+	}
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.benchmarks;
+
+import java.io.File;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.launch.Framework;
+import org.osgi.service.log.LogEntry;
+import org.osgi.service.log.LogListener;
+import org.osgi.service.log.LogReaderService;
+import org.osgi.service.log.Logger;
+import org.osgi.service.log.LoggerFactory;
+
+/**
+ * Logging through the log service of a running framework from one or more
+ * threads, with a log history and asynchronous log listeners, and reading
+ * the log history.  After each iteration the benchmark waits until the
+ * listeners received all entries so no backlog is carried over.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class LogBenchmark {
+	private static final String LOGGER_NAME = "org.eclipse.osgi.benchmarks"; //$NON-NLS-1$
+	private static final String MESSAGE = "benchmark message"; //$NON-NLS-1$
+	private static final String DONE_MESSAGE = "benchmark iteration done"; //$NON-NLS-1$
+
+	@Param({ "0", "1000" })
+	public int history;
+
+	@Param({ "0", "1", "4" })
+	public int listeners;
+
+	private File dir;
+	private Framework framework;
+	private LogReaderService logReader;
+	private Logger logger;
+	private volatile CountDownLatch done;
+
+	/**
+	 * A listener that signals when it received the last entry of an iteration.
+	 */
+	final class DoneListener implements LogListener {
+		@Override
+		public void logged(LogEntry entry) {
+			if (DONE_MESSAGE.equals(entry.getMessage())) {
+				done.countDown();
+			}
+		}
+	}
+
+	@Setup
+	public void setup() throws Exception {
+		dir = BenchmarkFramework.createTempDir();
+		Map<String, String> configuration = new HashMap<>();
+		configuration.put("equinox.log.history.max", Integer.toString(history)); //$NON-NLS-1$
+		framework = BenchmarkFramework.launch(dir, configuration);
+		BundleContext context = framework.getBundleContext();
+		logReader = context.getService(context.getServiceReference(LogReaderService.class));
+		for (int i = 0; i < listeners; i++) {
+			logReader.addLogListener(new DoneListener());
+		}
+		logger = context.getService(context.getServiceReference(LoggerFactory.class)).getLogger(LOGGER_NAME);
+		// fill the history
+		for (int i = 0; i < history; i++) {
+			logger.warn(MESSAGE);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		BenchmarkFramework.shutdown(framework, dir);
+	}
+
+	@TearDown(Level.Iteration)
+	public void waitForListeners() throws InterruptedException {
+		// the listeners receive the entries in order; once all received the
+		// last entry the next iteration does not start with a backlog
+		done = new CountDownLatch(listeners);
+		logger.warn(DONE_MESSAGE);
+		done.await();
+	}
+
+	@Benchmark
+	public void log() {
+		logger.warn(MESSAGE);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void logContended() {
+		logger.warn(MESSAGE);
+	}
+
+	@Benchmark
+	public int getLog() {
+		int count = 0;
+		for (Enumeration<LogEntry> entries = logReader.getLog(); entries.hasMoreElements(); entries.nextElement()) {
+			count++;
+		}
+		return count;
+	}
+}
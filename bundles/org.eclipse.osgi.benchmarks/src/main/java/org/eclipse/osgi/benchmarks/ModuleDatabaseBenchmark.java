@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.osgi.container.ModuleDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Persistence of a module database holding a resolved
+ * {@link SyntheticRepository}, with and without the wirings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ModuleDatabaseBenchmark {
+
+	@Param({ "100", "1000" })
+	public int size;
+
+	private ModuleDatabase database;
+	private byte[] withWirings;
+	private byte[] withoutWirings;
+
+	/**
+	 * A new database for each invocation since a database can only be loaded once.
+	 */
+	@State(Scope.Thread)
+	public static class EmptyDatabase {
+		ModuleDatabase database;
+
+		@Setup(Level.Invocation)
+		public void setup() {
+			database = new BenchmarkContainerAdaptor().getDatabase();
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		BenchmarkContainerAdaptor adaptor = new BenchmarkContainerAdaptor();
+		new SyntheticRepository(size).install(adaptor.getContainer());
+		adaptor.getContainer().resolve(null, false);
+		database = adaptor.getDatabase();
+		withWirings = store(true).toByteArray();
+		withoutWirings = store(false).toByteArray();
+	}
+
+	@Benchmark
+	public ByteArrayOutputStream storeWithWirings() throws IOException {
+		return store(true);
+	}
+
+	@Benchmark
+	public ByteArrayOutputStream storeWithoutWirings() throws IOException {
+		return store(false);
+	}
+
+	@Benchmark
+	public ModuleDatabase loadWithWirings(EmptyDatabase empty) throws IOException {
+		return load(withWirings, empty.database);
+	}
+
+	@Benchmark
+	public ModuleDatabase loadWithoutWirings(EmptyDatabase empty) throws IOException {
+		return load(withoutWirings, empty.database);
+	}
+
+	private ByteArrayOutputStream store(boolean persistWirings) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(withWirings == null ? 1024 : withWirings.length);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			database.store(out, persistWirings);
+		}
+		return bytes;
+	}
+
+	private static ModuleDatabase load(byte[] bytes, ModuleDatabase empty) throws IOException {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+			empty.load(in);
+		}
+		return empty;
+	}
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.eclipse.osgi.container.ModuleContainer;
+import org.eclipse.osgi.report.resolution.ResolutionReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.framework.BundleException;
+
+/**
+ * Resolution of all modules of a {@link SyntheticRepository} installed in a
+ * new module container.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+@State(Scope.Thread)
+public class ModuleResolverBenchmark {
+
+	@Param({ "100", "500" })
+	public int size;
+
+	private SyntheticRepository repository;
+	private ModuleContainer container;
+
+	@Setup(Level.Trial)
+	public void createRepository() {
+		repository = new SyntheticRepository(size);
+	}
+
+	@Setup(Level.Invocation)
+	public void install() throws BundleException {
+		container = new BenchmarkContainerAdaptor().getContainer();
+		repository.install(container);
+	}
+
+	@Benchmark
+	public ResolutionReport resolve() {
+		return container.resolve(null, false);
+	}
+}
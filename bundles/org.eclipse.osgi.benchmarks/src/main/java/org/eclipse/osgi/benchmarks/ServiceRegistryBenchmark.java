@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.benchmarks;
+
+import java.io.File;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.framework.launch.Framework;
+
+/**
+ * Registration, lookup and use of services in the service registry of a
+ * running framework.  The registry is populated with services registered
+ * under a single class name that differ by their properties.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ServiceRegistryBenchmark {
+	private static final String SERVICE_CLASS = Runnable.class.getName();
+	private static final String OTHER_CLASS = Comparable.class.getName();
+	private static final String ID_PROPERTY = "bench.id"; //$NON-NLS-1$
+
+	@Param({ "10", "1000" })
+	public int services;
+
+	private File dir;
+	private Framework framework;
+	private BundleContext context;
+	private String idFilter;
+	private ServiceReference<?> reference;
+
+	@Setup
+	public void setup() throws Exception {
+		dir = BenchmarkFramework.createTempDir();
+		framework = BenchmarkFramework.launch(dir);
+		context = framework.getBundleContext();
+		for (int i = 0; i < services; i++) {
+			Dictionary<String, Object> properties = new Hashtable<>();
+			properties.put(ID_PROPERTY, Integer.valueOf(i));
+			context.registerService(SERVICE_CLASS, (Runnable) () -> {
+				// nothing
+			}, properties);
+		}
+		idFilter = "(" + ID_PROPERTY + "=" + (services / 2) + ")"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		reference = context.getServiceReferences(SERVICE_CLASS, idFilter)[0];
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		BenchmarkFramework.shutdown(framework, dir);
+	}
+
+	@Benchmark
+	public ServiceReference<?> getServiceReference() {
+		return context.getServiceReference(SERVICE_CLASS);
+	}
+
+	@Benchmark
+	public ServiceReference<?>[] getServiceReferencesByClass() throws InvalidSyntaxException {
+		return context.getServiceReferences(SERVICE_CLASS, null);
+	}
+
+	@Benchmark
+	public ServiceReference<?>[] getServiceReferencesByFilter() throws InvalidSyntaxException {
+		return context.getServiceReferences(SERVICE_CLASS, idFilter);
+	}
+
+	@Benchmark
+	public ServiceReference<?>[] getServiceReferencesByFilterOnly() throws InvalidSyntaxException {
+		return context.getServiceReferences((String) null, idFilter);
+	}
+
+	@Benchmark
+	public ServiceReference<?>[] getServiceReferencesMissing() throws InvalidSyntaxException {
+		return context.getServiceReferences(OTHER_CLASS, null);
+	}
+
+	@Benchmark
+	public Object getAndUngetService() {
+		Object service = context.getService(reference);
+		context.ungetService(reference);
+		return service;
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Object getAndUngetServiceContended() {
+		return getAndUngetService();
+	}
+
+	@Benchmark
+	public void registerAndUnregister() {
+		ServiceRegistration<?> registration = context.registerService(OTHER_CLASS, "service", null); //$NON-NLS-1$
+		registration.unregister();
+	}
+}
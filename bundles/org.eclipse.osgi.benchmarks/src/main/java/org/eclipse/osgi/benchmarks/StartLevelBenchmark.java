@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.benchmarks;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+import org.osgi.framework.Constants;
+import org.osgi.framework.SynchronousBundleListener;
+import org.osgi.framework.launch.Framework;
+import org.osgi.framework.startlevel.BundleStartLevel;
+import org.osgi.framework.startlevel.FrameworkStartLevel;
+
+/**
+ * Raising the start level of a framework to start thousands of bundles at once
+ * with platform or virtual start level and event threads.  Bundle activation
+ * is simulated by a synchronous bundle listener that blocks briefly for each
+ * starting bundle; an asynchronous bundle listener counts the delivered events
+ * so the measurement includes the event throughput.
+ * <p>
+ * Virtual threads need a VM that supports them, otherwise the framework falls
+ * back to platform threads and both variants measure the same.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(2)
+@State(Scope.Benchmark)
+public class StartLevelBenchmark {
+	private static final int BUNDLE_START_LEVEL = 2;
+
+	@Param({ "2000" })
+	public int bundles;
+
+	@Param({ "false", "true" })
+	public boolean virtualThreads;
+
+	@Param({ "0", "1" })
+	public long activationMillis;
+
+	private File dir;
+	private Framework framework;
+	private FrameworkStartLevel frameworkStartLevel;
+	private final AtomicInteger startedEvents = new AtomicInteger();
+
+	@Setup
+	public void setup() throws Exception {
+		dir = BenchmarkFramework.createTempDir();
+		Map<String, String> configuration = new HashMap<>();
+		// use as many start level threads as needed
+		configuration.put("equinox.start.level.thread.count", "0"); //$NON-NLS-1$ //$NON-NLS-2$
+		configuration.put("equinox.virtual.threads", Boolean.toString(virtualThreads)); //$NON-NLS-1$
+		framework = BenchmarkFramework.launch(dir, configuration);
+		BundleContext context = framework.getBundleContext();
+		File bundlesDir = new File(dir, "bundles"); //$NON-NLS-1$
+		bundlesDir.mkdirs();
+		for (int i = 0; i < bundles; i++) {
+			Map<String, String> headers = new HashMap<>();
+			headers.put(Constants.BUNDLE_SYMBOLICNAME, "bench.startlevel." + i); //$NON-NLS-1$
+			File file = BenchmarkFramework.createBundle(new File(bundlesDir, i + ".jar"), headers, Collections.emptyMap()); //$NON-NLS-1$
+			Bundle bundle = context.installBundle(file.toURI().toString());
+			bundle.adapt(BundleStartLevel.class).setStartLevel(BUNDLE_START_LEVEL);
+			bundle.start();
+		}
+		context.addBundleListener((SynchronousBundleListener) event -> {
+			if (event.getType() == BundleEvent.STARTING && activationMillis > 0) {
+				try {
+					Thread.sleep(activationMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		context.addBundleListener((BundleListener) event -> {
+			if (event.getType() == BundleEvent.STARTED) {
+				startedEvents.incrementAndGet();
+			}
+		});
+		frameworkStartLevel = framework.adapt(FrameworkStartLevel.class);
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		BenchmarkFramework.shutdown(framework, dir);
+	}
+
+	@TearDown(Level.Invocation)
+	public void stopBundles() throws InterruptedException {
+		setStartLevel(1);
+	}
+
+	@Benchmark
+	public int startBundles() throws InterruptedException {
+		startedEvents.set(0);
+		setStartLevel(BUNDLE_START_LEVEL);
+		// wait for the asynchronous events of all started bundles
+		while (startedEvents.get() < bundles) {
+			Thread.sleep(1);
+		}
+		return startedEvents.get();
+	}
+
+	private void setStartLevel(int startLevel) throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(1);
+		frameworkStartLevel.setStartLevel(startLevel, event -> done.countDown());
+		done.await();
+	}
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.osgi.container.Module;
+import org.eclipse.osgi.container.ModuleContainer;
+import org.eclipse.osgi.container.builders.OSGiManifestBuilderFactory;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.Constants;
+
+/**
+ * The manifests of a generated repository of bundles to install in a module
+ * container.  Each bundle exports one package and imports the packages of a
+ * few bundles created before it with uses constraints on the imported
+ * packages.  Some bundles also export a newer version of a package they
+ * import, require another bundle or optionally import a missing package so
+ * that the resolver has to choose between providers.
+ */
+final class SyntheticRepository {
+	private static final String PACKAGE_PREFIX = "bench.p"; //$NON-NLS-1$
+	private static final String BUNDLE_PREFIX = "bench.b"; //$NON-NLS-1$
+	private static final String FRAMEWORK_PACKAGE = "org.osgi.framework"; //$NON-NLS-1$
+
+	private final List<Map<String, String>> manifests;
+
+	/**
+	 * Creates the manifests of a repository.
+	 * @param size the number of bundles in the repository, not including the system bundle
+	 */
+	SyntheticRepository(int size) {
+		manifests = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			manifests.add(createManifest(i));
+		}
+	}
+
+	private static Map<String, String> createManifest(int i) {
+		Set<Integer> dependencies = new LinkedHashSet<>();
+		for (int dependency : new int[] { i - 1, i / 2, i / 3, i - 7 }) {
+			if (dependency >= 0 && dependency != i) {
+				dependencies.add(Integer.valueOf(dependency));
+			}
+		}
+		StringBuilder imports = new StringBuilder(FRAMEWORK_PACKAGE);
+		StringBuilder uses = new StringBuilder();
+		for (Integer dependency : dependencies) {
+			imports.append(',').append(PACKAGE_PREFIX).append(dependency).append(";version=\"[1.0,2.0)\""); //$NON-NLS-1$
+			uses.append(uses.length() == 0 ? "" : ",").append(PACKAGE_PREFIX).append(dependency); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		StringBuilder exports = new StringBuilder(PACKAGE_PREFIX).append(i).append(";version=1.0"); //$NON-NLS-1$
+		if (uses.length() > 0) {
+			exports.append(";uses:=\"").append(uses).append('"'); //$NON-NLS-1$
+		}
+		if (i % 5 == 4) {
+			// a substitutable export of a newer version of an imported package
+			exports.append(',').append(PACKAGE_PREFIX).append(i - 1).append(";version=1.1"); //$NON-NLS-1$
+		}
+		if (i % 11 == 10) {
+			imports.append(",bench.missing").append(i).append(";resolution:=optional"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		Map<String, String> manifest = new HashMap<>();
+		manifest.put(Constants.BUNDLE_MANIFESTVERSION, "2"); //$NON-NLS-1$
+		manifest.put(Constants.BUNDLE_SYMBOLICNAME, BUNDLE_PREFIX + i);
+		manifest.put(Constants.BUNDLE_VERSION, "1.0.0"); //$NON-NLS-1$
+		manifest.put(Constants.EXPORT_PACKAGE, exports.toString());
+		manifest.put(Constants.IMPORT_PACKAGE, imports.toString());
+		if (i % 10 == 9) {
+			manifest.put(Constants.REQUIRE_BUNDLE, BUNDLE_PREFIX + (i / 4));
+		}
+		return manifest;
+	}
+
+	/**
+	 * Installs the system module and all bundles of the repository.
+	 * @param container an empty container
+	 * @throws BundleException if a bundle cannot be installed
+	 */
+	void install(ModuleContainer container) throws BundleException {
+		Map<String, String> systemManifest = new HashMap<>();
+		systemManifest.put(Constants.BUNDLE_MANIFESTVERSION, "2"); //$NON-NLS-1$
+		systemManifest.put(Constants.BUNDLE_SYMBOLICNAME, Constants.SYSTEM_BUNDLE_SYMBOLICNAME);
+		systemManifest.put(Constants.BUNDLE_VERSION, "1.0.0"); //$NON-NLS-1$
+		systemManifest.put(Constants.EXPORT_PACKAGE, FRAMEWORK_PACKAGE + ";version=1.10"); //$NON-NLS-1$
+		Module system = container.install(null, Constants.SYSTEM_BUNDLE_LOCATION, OSGiManifestBuilderFactory.createBuilder(systemManifest), null);
+		for (Map<String, String> manifest : manifests) {
+			container.install(system, manifest.get(Constants.BUNDLE_SYMBOLICNAME), OSGiManifestBuilderFactory.createBuilder(manifest), null);
+		}
+	}
+}
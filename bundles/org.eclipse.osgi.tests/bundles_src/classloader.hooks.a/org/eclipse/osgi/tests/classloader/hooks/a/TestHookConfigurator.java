@@ -19,6 +19,7 @@ import org.eclipse.osgi.container.Module;
 import org.eclipse.osgi.internal.hookregistry.ClassLoaderHook;
 import org.eclipse.osgi.internal.hookregistry.HookConfigurator;
 import org.eclipse.osgi.internal.hookregistry.HookRegistry;
+import org.eclipse.osgi.internal.loader.ModuleClassLoader;
 import org.eclipse.osgi.internal.loader.classpath.ClasspathEntry;
 import org.eclipse.osgi.internal.loader.classpath.ClasspathManager;
 import org.eclipse.osgi.storage.bundlefile.BundleEntry;
@@ -31,6 +32,7 @@ public class TestHookConfigurator implements HookConfigurator {
 	private static final String FILTER_CLASS_PATHS = "classloader.hooks.a.filter.class.paths";
 	private static final String PREVENT_RESOURCE_LOAD_PRE = "classloader.hooks.a.fail.resource.load.pre";
 	private static final String PREVENT_RESOURCE_LOAD_POST = "classloader.hooks.a.fail.resource.load.post";
+	private static final String PROVIDE_CLASS_PRE = "classloader.hooks.a.provide.class.pre";
 	final ThreadLocal<Boolean> doingRecursionLoad = new ThreadLocal<Boolean>() {
 		@Override
 		protected Boolean initialValue() {
@@ -87,6 +89,14 @@ public class TestHookConfigurator implements HookConfigurator {
 				return super.getClassPathEntries(name, manager);
 			}
 
+			@Override
+			public Class<?> preFindClass(String name, ModuleClassLoader classLoader) throws ClassNotFoundException {
+				if (name.equals(System.getProperty(PROVIDE_CLASS_PRE))) {
+					return Object.class;
+				}
+				return null;
+			}
+
 			@Override
 			public void preFindLocalResource(String name, ClasspathManager manager) {
 				if (Boolean.getBoolean(PREVENT_RESOURCE_LOAD_PRE)) {
@@ -316,6 +316,49 @@ public class LogReaderServiceTest extends AbstractBundleTests {
 		}
 	}
 
+	@Test
+	public void testListenerOrderMultipleThreads() throws Exception {
+		final int threadCount = 4;
+		final int entryCount = 1000;
+		final String prefix = getName() + ":"; //$NON-NLS-1$
+		int[] next = new int[threadCount];
+		List<String> outOfOrder = new CopyOnWriteArrayList<>();
+		CountDownLatch delivered = new CountDownLatch(threadCount * entryCount);
+		// entries logged by a thread must be delivered in the order they were logged
+		LogListener listener = entry -> {
+			String message = entry.getMessage();
+			if (!message.startsWith(prefix)) {
+				return;
+			}
+			String[] ids = message.substring(prefix.length()).split(":"); //$NON-NLS-1$
+			int thread = Integer.parseInt(ids[0]);
+			if (Integer.parseInt(ids[1]) != next[thread]++) {
+				outOfOrder.add(message);
+			}
+			delivered.countDown();
+		};
+		reader.addLogListener(listener);
+		try {
+			Thread[] threads = new Thread[threadCount];
+			for (int i = 0; i < threadCount; i++) {
+				final int thread = i;
+				threads[i] = new Thread(() -> {
+					for (int j = 0; j < entryCount; j++) {
+						log.log(LogService.LOG_INFO, prefix + thread + ":" + j); //$NON-NLS-1$
+					}
+				});
+				threads[i].start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			assertTrue("Not all entries delivered.", delivered.await(30, TimeUnit.SECONDS)); //$NON-NLS-1$
+			assertEquals("Entries delivered out of order: " + outOfOrder, 0, outOfOrder.size()); //$NON-NLS-1$
+		} finally {
+			reader.removeLogListener(listener);
+		}
+	}
+
 	private int countLogEntries(Enumeration logEntries, int startingMessage) {
 		int count = 0;
 		while (logEntries.hasMoreElements()) {
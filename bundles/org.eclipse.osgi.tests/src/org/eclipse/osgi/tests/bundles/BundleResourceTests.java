@@ -19,8 +19,18 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Enumeration;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
 import org.eclipse.osgi.service.environment.EnvironmentInfo;
 import org.eclipse.osgi.tests.OSGiTestsActivator;
 import org.junit.After;
@@ -152,6 +162,49 @@ public class BundleResourceTests {
 		assertFalse("Only one entry should have been found", entries.hasMoreElements());
 	}
 
+	@Test
+	public void testFileChannelContent() throws Exception {
+		File outputDir = OSGiTestsActivator.getContext().getDataFile("testFileChannelContent"); //$NON-NLS-1$
+		outputDir.mkdirs();
+		Manifest manifest = new Manifest();
+		Attributes attributes = manifest.getMainAttributes();
+		attributes.putValue("Manifest-Version", "1.0"); //$NON-NLS-1$ //$NON-NLS-2$
+		attributes.putValue("Bundle-ManifestVersion", "2"); //$NON-NLS-1$ //$NON-NLS-2$
+		attributes.putValue("Bundle-SymbolicName", "test.file.channel"); //$NON-NLS-1$ //$NON-NLS-2$
+		File bundleFile = new File(outputDir, "test.file.channel.jar"); //$NON-NLS-1$
+		byte[] stored = "stored content".getBytes();
+		try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(bundleFile), manifest)) {
+			JarEntry storedEntry = new JarEntry("stored.txt"); //$NON-NLS-1$
+			storedEntry.setMethod(ZipEntry.STORED);
+			storedEntry.setSize(stored.length);
+			CRC32 crc = new CRC32();
+			crc.update(stored);
+			storedEntry.setCrc(crc.getValue());
+			jar.putNextEntry(storedEntry);
+			jar.write(stored);
+			jar.closeEntry();
+			jar.putNextEntry(new JarEntry("deflated.txt")); //$NON-NLS-1$
+			jar.write("deflated content".getBytes());
+			jar.closeEntry();
+		}
+
+		Bundle bundle = OSGiTestsActivator.getContext().installBundle(bundleFile.toURI().toString());
+		try {
+			Object content = bundle.getEntry("stored.txt").openConnection().getContent(new Class<?>[] {FileChannel.class}); //$NON-NLS-1$
+			assertTrue("Expected a file channel: " + content, content instanceof FileChannel);
+			try (FileChannel channel = (FileChannel) content) {
+				ByteBuffer buffer = ByteBuffer.allocate(stored.length);
+				while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+					// keep reading
+				}
+				assertEquals("Wrong content.", new String(stored), new String(buffer.array()));
+			}
+			assertNull("Expected no channel for a compressed entry.", bundle.getEntry("deflated.txt").openConnection().getContent(new Class<?>[] {FileChannel.class})); //$NON-NLS-1$
+		} finally {
+			bundle.uninstall();
+		}
+	}
+
 	private void checkEntries(Bundle bundle, String filePattern, int expectedNumber) {
 		Enumeration entries = bundle.findEntries("folder", filePattern, false);
 		if (expectedNumber == 0) {
@@ -24,6 +24,7 @@ import static org.junit.Assert.fail;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -45,6 +46,9 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -2446,6 +2450,175 @@ public class ClassLoadingBundleTests extends AbstractBundleTests {
 		}
 	}
 
+	@Test
+	public void testClasspathEntryIndex() throws Exception {
+		ByteArrayOutputStream libJarBytes = new ByteArrayOutputStream();
+		try (JarOutputStream libJar = new JarOutputStream(libJarBytes)) {
+			libJar.putNextEntry(new JarEntry("lib/pkg/resource.txt"));
+			libJar.write("lib".getBytes());
+			libJar.closeEntry();
+		}
+		File outputDir = OSGiTestsActivator.getContext().getDataFile(getName()); // $NON-NLS-1$
+		outputDir.mkdirs();
+
+		Map<String, String> headers = new HashMap<>();
+		headers.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		headers.put(Constants.BUNDLE_SYMBOLICNAME, getName());
+		headers.put(Constants.BUNDLE_CLASSPATH, "., lib/lib.jar");
+		Map<String, byte[]> entries = new HashMap<>();
+		entries.put("lib/", null);
+		entries.put("lib/lib.jar", libJarBytes.toByteArray());
+		entries.put("root/", null);
+		entries.put("root/pkg/", null);
+		entries.put("root/pkg/resource.txt", "root".getBytes());
+		File bundleFile = SystemBundleTests.createBundleWithBytes(outputDir, getName(), headers, entries);
+
+		Bundle b = getContext().installBundle(bundleFile.toURI().toASCIIString());
+		try {
+			assertEquals("Wrong content.", "root", readURL(b.getResource("root/pkg/resource.txt")));
+			assertEquals("Wrong content.", "lib", readURL(b.getResource("lib/pkg/resource.txt")));
+			assertNotNull("Missing directory.", b.getResource("lib/pkg/"));
+			assertNotNull("Missing directory.", b.getResource("root/pkg/"));
+			assertNull("Found resource.", b.getResource("lib/pkg/missing.txt"));
+			assertNull("Found resource.", b.getResource("missing/resource.txt"));
+			assertEquals("Wrong number of directories.", 2, Collections.list(b.getResources("lib/")).size());
+		} finally {
+			b.uninstall();
+		}
+	}
+
+	@Test
+	public void testNegativeLookupCache() throws BundleException, IOException {
+		File config = OSGiTestsActivator.getContext().getDataFile(getName()); //$NON-NLS-1$
+		config.mkdirs();
+
+		Map<String, String> importerHeaders = new HashMap<>();
+		importerHeaders.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		importerHeaders.put(Constants.BUNDLE_SYMBOLICNAME, getName() + ".importer");
+		importerHeaders.put(Constants.DYNAMICIMPORT_PACKAGE, "negative.export");
+		File importerBundleFile = SystemBundleTests.createBundle(config, getName() + "-importer", importerHeaders, Collections.emptyMap());
+
+		Map<String, String> exporterHeaders = new HashMap<>();
+		exporterHeaders.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		exporterHeaders.put(Constants.BUNDLE_SYMBOLICNAME, getName() + ".exporter");
+		exporterHeaders.put(Constants.EXPORT_PACKAGE, "negative.export");
+		Map<String, String> exporterContent = new HashMap<>();
+		exporterContent.put("negative/", null);
+		exporterContent.put("negative/export/", null);
+		exporterContent.put("negative/export/resource.txt", "resource.txt");
+		File exporterBundleFile = SystemBundleTests.createBundle(config, getName() + "-exporter", exporterHeaders, exporterContent);
+
+		Bundle importer = getContext().installBundle(getName() + "-importer", new FileInputStream(importerBundleFile));
+		Bundle exporter = null;
+		try {
+			importer.start();
+			ModuleClassLoader importerCL = (ModuleClassLoader) importer.adapt(BundleWiring.class).getClassLoader();
+			BundleLoader importerLoader = importerCL.getBundleLoader();
+
+			assertNull("Found resource.", importerCL.getResource("negative/export/resource.txt"));
+			long hits = importerLoader.getNegativeLookupCacheHits();
+			assertNull("Found resource.", importerCL.getResource("negative/export/resource.txt"));
+			assertEquals("Expected the missing resource to be cached.", hits + 1, importerLoader.getNegativeLookupCacheHits());
+
+			// installing and resolving a new exporter must invalidate the cached miss
+			exporter = getContext().installBundle(getName() + "-exporter", new FileInputStream(exporterBundleFile));
+			exporter.start();
+			assertNotNull("Did not find resource from dynamic import.", importerCL.getResource("negative/export/resource.txt"));
+		} finally {
+			importer.uninstall();
+			if (exporter != null) {
+				exporter.uninstall();
+			}
+		}
+	}
+
+	@Test
+	public void testParallelClassDefinition() throws Exception {
+		int numClasses = 2000;
+		int numThreads = 8;
+		File outputDir = OSGiTestsActivator.getContext().getDataFile(getName()); // $NON-NLS-1$
+		outputDir.mkdirs();
+
+		Map<String, String> headers = new HashMap<>();
+		headers.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		headers.put(Constants.BUNDLE_SYMBOLICNAME, getName());
+		Map<String, byte[]> entries = new HashMap<>();
+		entries.put("parallel/", null);
+		List<String> classNames = new ArrayList<>(numClasses);
+		for (int i = 0; i < numClasses; i++) {
+			String internalName = "parallel/p" + (i % 20) + "/C" + i;
+			entries.put("parallel/p" + (i % 20) + "/", null);
+			entries.put(internalName + ".class", createEmptyClass(internalName));
+			classNames.add(internalName.replace('/', '.'));
+		}
+		File bundleFile = SystemBundleTests.createBundleWithBytes(outputDir, getName(), headers, entries);
+
+		Bundle b = getContext().installBundle(bundleFile.toURI().toASCIIString());
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			CountDownLatch startSignal = new CountDownLatch(1);
+			List<Future<List<Class<?>>>> results = new ArrayList<>();
+			for (int t = 0; t < numThreads; t++) {
+				List<String> names = new ArrayList<>(classNames);
+				Collections.shuffle(names);
+				results.add(executor.submit(() -> {
+					startSignal.await();
+					List<Class<?>> loaded = new ArrayList<>(names.size());
+					for (String name : names) {
+						loaded.add(b.loadClass(name));
+					}
+					return loaded;
+				}));
+			}
+			startSignal.countDown();
+
+			Map<String, Class<?>> defined = new HashMap<>();
+			for (Future<List<Class<?>>> result : results) {
+				for (Class<?> clazz : result.get(2, TimeUnit.MINUTES)) {
+					Class<?> existing = defined.putIfAbsent(clazz.getName(), clazz);
+					assertTrue("Class defined more than once: " + clazz.getName(), existing == null || existing == clazz);
+				}
+			}
+			assertEquals("Wrong number of classes.", numClasses, defined.size());
+			ClassLoader bundleLoader = b.adapt(BundleWiring.class).getClassLoader();
+			for (Class<?> clazz : defined.values()) {
+				assertEquals("Wrong class loader.", bundleLoader, clazz.getClassLoader());
+			}
+		} finally {
+			executor.shutdownNow();
+			b.uninstall();
+		}
+	}
+
+	/*
+	 * Creates the bytes of a public class with no members that extends java.lang.Object
+	 */
+	private static byte[] createEmptyClass(String internalName) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0); // minor version
+			out.writeShort(52); // major version
+			out.writeShort(5); // constant pool count
+			out.writeByte(7); // #1 Class #2
+			out.writeShort(2);
+			out.writeByte(1); // #2 Utf8
+			out.writeUTF(internalName);
+			out.writeByte(7); // #3 Class #4
+			out.writeShort(4);
+			out.writeByte(1); // #4 Utf8
+			out.writeUTF("java/lang/Object");
+			out.writeShort(0x0021); // ACC_PUBLIC | ACC_SUPER
+			out.writeShort(1); // this class
+			out.writeShort(3); // super class
+			out.writeShort(0); // interfaces
+			out.writeShort(0); // fields
+			out.writeShort(0); // methods
+			out.writeShort(0); // attributes
+		}
+		return bytes.toByteArray();
+	}
+
 	void refreshBundles(Collection<Bundle> bundles) throws InterruptedException {
 		final CountDownLatch refreshSignal = new CountDownLatch(1);
 		getContext().getBundle(Constants.SYSTEM_BUNDLE_LOCATION).adapt(FrameworkWiring.class).refreshBundles(bundles, event -> {
@@ -23,12 +23,14 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.Proxy;
@@ -59,6 +61,7 @@ import java.util.Properties;
 import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
@@ -82,6 +85,7 @@ import org.eclipse.equinox.log.test.TestListener2;
 import org.eclipse.osgi.container.Module;
 import org.eclipse.osgi.framework.util.FilePath;
 import org.eclipse.osgi.internal.debug.Debug;
+import org.eclipse.osgi.internal.debug.StartupProfiler;
 import org.eclipse.osgi.internal.framework.EquinoxConfiguration;
 import org.eclipse.osgi.internal.location.EquinoxLocations;
 import org.eclipse.osgi.launch.Equinox;
@@ -2741,6 +2745,183 @@ public class SystemBundleTests extends AbstractBundleTests {
 		}
 	}
 
+	@Test
+	public void testStartLevelDependencyOrder() throws Exception {
+		File config = OSGiTestsActivator.getContext().getDataFile(getName()); // $NON-NLS-1$
+		Map<String, String> configuration = new HashMap();
+		configuration.put(Constants.FRAMEWORK_STORAGE, config.getAbsolutePath());
+		configuration.put(EquinoxConfiguration.PROP_EQUINOX_START_LEVEL_THREAD_COUNT, "4");
+		configuration.put(EquinoxConfiguration.PROP_EQUINOX_START_LEVEL_DEPENDENCY_ORDER, "true");
+		Equinox equinox = null;
+		// chains of three bundles, each importing a package from the previous one
+		final int numBundles = 12;
+		File testBundles = new File(config, "testBundles");
+		testBundles.mkdirs();
+		try {
+			equinox = new Equinox(configuration);
+			equinox.start();
+			FrameworkWiring fwkWiring = equinox.adapt(FrameworkWiring.class);
+			final Map<String, String> providers = new HashMap<>();
+			List<Bundle> bundles = new ArrayList<>();
+			for (int i = 0; i < numBundles; i++) {
+				Map<String, String> headers = new HashMap<>();
+				headers.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+				headers.put(Constants.BUNDLE_SYMBOLICNAME, "chain" + i);
+				headers.put(Constants.EXPORT_PACKAGE, "chain" + i);
+				if (i % 3 != 0) {
+					headers.put(Constants.IMPORT_PACKAGE, "chain" + (i - 1));
+					providers.put("chain" + i, "chain" + (i - 1));
+				}
+				Bundle b = equinox.getBundleContext().installBundle("reference:file:///" + createBundle(testBundles, "chain" + i, headers).getAbsolutePath());
+				b.adapt(BundleStartLevel.class).setStartLevel(5);
+				bundles.add(b);
+			}
+			assertTrue("Failed to resolve bundles.", fwkWiring.resolveBundles(bundles));
+			for (Bundle b : bundles) {
+				b.start();
+			}
+
+			final Set<Thread> startingThreads = Collections.synchronizedSet(new HashSet<Thread>());
+			final Set<String> startedBundles = Collections.synchronizedSet(new HashSet<String>());
+			final List<String> outOfOrder = new CopyOnWriteArrayList<>();
+			equinox.getBundleContext().addBundleListener((SynchronousBundleListener) event -> {
+				String bsn = event.getBundle().getSymbolicName();
+				if (event.getType() == BundleEvent.STARTING) {
+					String provider = providers.get(bsn);
+					if (provider != null && !startedBundles.contains(provider)) {
+						outOfOrder.add(bsn);
+					}
+					try {
+						Thread.sleep(100);
+					} catch (InterruptedException e) {
+						// nothing
+					}
+					startingThreads.add(Thread.currentThread());
+				} else if (event.getType() == BundleEvent.STARTED) {
+					startedBundles.add(bsn);
+				}
+			});
+
+			final CountDownLatch waitForStartLevel = new CountDownLatch(1);
+			equinox.adapt(FrameworkStartLevel.class).setStartLevel(5, event -> waitForStartLevel.countDown());
+			waitForStartLevel.await(20, TimeUnit.SECONDS);
+
+			assertEquals("Did not finish start level setting.", 0, waitForStartLevel.getCount());
+			assertEquals("Wrong number of started bundles.", numBundles, startedBundles.size());
+			assertTrue("Bundles started before their providers: " + outOfOrder, outOfOrder.isEmpty());
+			assertTrue("Independent bundles not started in parallel.", startingThreads.size() > 1);
+		} finally {
+			stop(equinox);
+		}
+	}
+
+	@Test
+	public void testVirtualThreads() throws Exception {
+		assumeTrue("virtual threads require Java 21", Runtime.version().feature() >= 21);
+		File config = OSGiTestsActivator.getContext().getDataFile(getName()); // $NON-NLS-1$
+		Map<String, String> configuration = new HashMap<>();
+		configuration.put(Constants.FRAMEWORK_STORAGE, config.getAbsolutePath());
+		configuration.put(EquinoxConfiguration.PROP_EQUINOX_VIRTUAL_THREADS, "true");
+		Equinox equinox = null;
+		final File[] testBundleFiles = createBundles(new File(config, "testBundles"), 2);
+		try {
+			equinox = new Equinox(configuration);
+			equinox.start();
+			BundleContext systemContext = equinox.getBundleContext();
+
+			final Set<Thread> eventThreads = Collections.synchronizedSet(new HashSet<Thread>());
+			final CountDownLatch eventsDelivered = new CountDownLatch(testBundleFiles.length);
+			systemContext.addBundleListener((BundleListener) event -> {
+				if (event.getType() == BundleEvent.INSTALLED) {
+					eventThreads.add(Thread.currentThread());
+					eventsDelivered.countDown();
+				}
+			});
+			final Set<Thread> startingThreads = Collections.synchronizedSet(new HashSet<Thread>());
+			systemContext.addBundleListener((SynchronousBundleListener) event -> {
+				if (event.getType() == BundleEvent.STARTING) {
+					startingThreads.add(Thread.currentThread());
+				}
+			});
+
+			for (File testBundleFile : testBundleFiles) {
+				Bundle b = systemContext.installBundle("reference:file:///" + testBundleFile.getAbsolutePath());
+				b.adapt(BundleStartLevel.class).setStartLevel(5);
+				b.start();
+			}
+			assertTrue("Bundle events not delivered.", eventsDelivered.await(20, TimeUnit.SECONDS));
+
+			final CountDownLatch waitForStartLevel = new CountDownLatch(1);
+			equinox.adapt(FrameworkStartLevel.class).setStartLevel(5, event -> waitForStartLevel.countDown());
+			assertTrue("Did not finish start level setting.", waitForStartLevel.await(20, TimeUnit.SECONDS));
+			assertFalse("No bundles started.", startingThreads.isEmpty());
+
+			final CompletableFuture<Thread> resolverThread = new CompletableFuture<>();
+			equinox.adapt(Module.class).getContainer().getAdaptor().getResolverExecutor()
+					.execute(() -> resolverThread.complete(Thread.currentThread()));
+
+			for (Thread eventThread : eventThreads) {
+				assertTrue("Event thread is not virtual: " + eventThread, isVirtual(eventThread));
+			}
+			for (Thread startingThread : startingThreads) {
+				assertTrue("Start level thread is not virtual: " + startingThread, isVirtual(startingThread));
+			}
+			Thread thread = resolverThread.get(20, TimeUnit.SECONDS);
+			assertTrue("Resolver thread is not virtual: " + thread, isVirtual(thread));
+		} finally {
+			stop(equinox);
+		}
+	}
+
+	@Test
+	public void testStartupProfiler() throws Exception {
+		File config = OSGiTestsActivator.getContext().getDataFile(getName()); // $NON-NLS-1$
+		Map<String, String> configuration = new HashMap<>();
+		configuration.put(Constants.FRAMEWORK_STORAGE, config.getAbsolutePath());
+		configuration.put(EquinoxConfiguration.PROP_STARTUP_PROFILER, "true");
+		Equinox equinox = null;
+		try {
+			equinox = new Equinox(configuration);
+			equinox.start();
+			BundleContext systemContext = equinox.getBundleContext();
+			ServiceReference<StartupProfiler> profilerRef = systemContext.getServiceReference(StartupProfiler.class);
+			assertNotNull("No startup profiler service.", profilerRef);
+
+			Bundle chainTestD = systemContext.installBundle(installer.getBundleLocation("chain.test.d")); //$NON-NLS-1$
+			chainTestD.start(Bundle.START_ACTIVATION_POLICY);
+			// the class load triggers the lazy activation
+			chainTestD.loadClass("chain.test.d.DMultipleChain1"); //$NON-NLS-1$
+			assertEquals("Bundle not active.", Bundle.ACTIVE, chainTestD.getState());
+
+			StartupProfiler profiler = systemContext.getService(profilerRef);
+			String report = profiler.getReport(0);
+			assertTrue("No activator calls recorded: " + report, getReportCount(report, "activator") > 0);
+			assertTrue("No lazy triggers recorded: " + report, getReportCount(report, "lazy trigger") > 0);
+			assertTrue("No class defines recorded: " + report, getReportCount(report, "class define") > 0);
+			assertTrue("No timeline in report: " + report, report.contains("Timeline"));
+			assertTrue("Bundle not in report: " + report, report.contains(chainTestD.toString()));
+			systemContext.ungetService(profilerRef);
+		} finally {
+			stop(equinox);
+		}
+	}
+
+	private static long getReportCount(String report, String phase) {
+		// the phase rows start with the phase followed by the count
+		for (String line : report.split("\\R")) {
+			if (line.startsWith(phase + ' ')) {
+				String[] columns = line.substring(phase.length()).trim().split("\\s+");
+				return Long.parseLong(columns[0]);
+			}
+		}
+		return 0;
+	}
+
+	private static boolean isVirtual(Thread thread) throws Exception {
+		// the tests still compile against Java 17
+		return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+	}
+
 	@Test
 	public void testParallelActivationPersistence() throws IOException, BundleException {
 		File config = OSGiTestsActivator.getContext().getDataFile(getName()); //$NON-NLS-1$
@@ -2973,6 +3154,55 @@ public class SystemBundleTests extends AbstractBundleTests {
 		}
 	}
 
+	@Test
+	public void testZipBundleFileCentralDirectory() throws Exception {
+		File config = OSGiTestsActivator.getContext().getDataFile(getName()); //$NON-NLS-1$
+		config.mkdirs();
+
+		int numBundles = 30;
+		List<File> testBundleFiles = new ArrayList<>();
+		for (int i = 0; i < numBundles; i++) {
+			Map<String, String> bundleHeaders = new HashMap<>();
+			bundleHeaders.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+			bundleHeaders.put(Constants.BUNDLE_SYMBOLICNAME, getName() + i);
+			Map<String, String> bundleEntries = new LinkedHashMap<>();
+			bundleEntries.put("dirA/", null);
+			bundleEntries.put("dirA/fileA", "fileA" + i);
+			// file in a directory with no directory entry
+			bundleEntries.put("dirA/dirC/fileC", "fileC" + i);
+			testBundleFiles.add(SystemBundleTests.createBundle(config, getName() + i, bundleHeaders, bundleEntries));
+		}
+
+		Map<String, Object> configuration = new HashMap<>();
+		configuration.put(EquinoxConfiguration.PROP_FILE_LIMIT, "10");
+		configuration.put(Constants.FRAMEWORK_STORAGE, config.getAbsolutePath());
+
+		final Equinox equinox = new Equinox(configuration);
+		equinox.start();
+		try {
+			BundleContext systemContext = equinox.getBundleContext();
+			List<Bundle> bundles = new ArrayList<>();
+			for (File testBundleFile : testBundleFiles) {
+				bundles.add(systemContext.installBundle("file:///" + testBundleFile.getAbsolutePath()));
+			}
+			// the bundle files are closed and reopened by each round because of the file limit
+			for (int round = 0; round < 3; round++) {
+				for (int i = 0; i < numBundles; i++) {
+					Bundle bundle = bundles.get(i);
+					assertNotNull("Entry not found.", bundle.getEntry("dirA/fileA"));
+					assertNotNull("Entry not found.", bundle.getEntry("dirA/dirC/"));
+					assertNull("Found entry.", bundle.getEntry("dirA/missing"));
+					assertEquals("Wrong entry paths.", Arrays.asList("dirA/fileA", "dirA/dirC/"), Collections.list(bundle.getEntryPaths("dirA/")));
+					try (InputStream in = bundle.getEntry("dirA/dirC/fileC").openStream()) {
+						assertEquals("Wrong content.", "fileC" + i, new String(in.readAllBytes()));
+					}
+				}
+			}
+		} finally {
+			stop(equinox);
+		}
+	}
+
 	@Test
 	public void testContextFinderGetResource() throws Exception {
 		File config = OSGiTestsActivator.getContext().getDataFile(getName()); //$NON-NLS-1$
@@ -3290,4 +3520,139 @@ public class SystemBundleTests extends AbstractBundleTests {
 		assertEquals("Unexpected bundle count", 0, testContext.getBundles().length);
 	}
 
+	@Test
+	public void testStorageDeltaRestart() throws Exception {
+		File config = OSGiTestsActivator.getContext().getDataFile(getName());
+		Map<String, String> configuration = new HashMap<>();
+		configuration.put(Constants.FRAMEWORK_STORAGE, config.getAbsolutePath());
+		configuration.put(EquinoxConfiguration.PROP_STORAGE_MAX_DELTAS, "2");
+		File deltaFile = new File(config, "org.eclipse.osgi/framework.delta");
+
+		Map<String, String> headers = new HashMap<>();
+		headers.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		headers.put(Constants.BUNDLE_SYMBOLICNAME, "delta.b1");
+		String b1Location = createBundle(config, "delta.b1", headers).toURI().toString();
+		headers.put(Constants.BUNDLE_SYMBOLICNAME, "delta.b2");
+		String b2Location = createBundle(config, "delta.b2", headers).toURI().toString();
+		headers.put(Constants.BUNDLE_SYMBOLICNAME, "delta.b3");
+		String b3Location = createBundle(config, "delta.b3", headers).toURI().toString();
+		headers.put(Constants.BUNDLE_VERSION, "2.0");
+		File b3v2 = createBundle(config, "delta.b3_v2", headers);
+
+		// the first save is always a full save
+		Equinox equinox = new Equinox(configuration);
+		equinox.start();
+		BundleContext systemContext = equinox.getBundleContext();
+		systemContext.installBundle(b1Location);
+		systemContext.installBundle(b2Location);
+		stop(equinox);
+		assertFalse("Unexpected delta file.", deltaFile.exists());
+
+		// installs, uninstalls and start-level changes are journaled
+		equinox = new Equinox(configuration);
+		equinox.start();
+		systemContext = equinox.getBundleContext();
+		long b3Id = systemContext.installBundle(b3Location).getBundleId();
+		systemContext.getBundle(b1Location).adapt(BundleStartLevel.class).setStartLevel(3);
+		systemContext.getBundle(b2Location).uninstall();
+		stop(equinox);
+		assertTrue("Missing delta file.", deltaFile.isFile());
+
+		// replay the first delta and journal an update
+		equinox = new Equinox(configuration);
+		equinox.start();
+		systemContext = equinox.getBundleContext();
+		assertEquals("Wrong start-level.", 3, systemContext.getBundle(b1Location).adapt(BundleStartLevel.class).getStartLevel());
+		assertNull("Uninstalled bundle is back.", systemContext.getBundle(b2Location));
+		Bundle b3 = systemContext.getBundle(b3Location);
+		assertNotNull("Missing installed bundle.", b3);
+		assertEquals("Wrong bundle id.", b3Id, b3.getBundleId());
+		try (InputStream in = new FileInputStream(b3v2)) {
+			b3.update(in);
+		}
+		stop(equinox);
+		assertTrue("Missing delta file.", deltaFile.isFile());
+
+		// the maximum number of deltas is reached; the next save compacts the journal
+		equinox = new Equinox(configuration);
+		equinox.start();
+		systemContext = equinox.getBundleContext();
+		b3 = systemContext.getBundle(b3Location);
+		assertEquals("Wrong version.", Version.valueOf("2.0"), b3.getVersion());
+		assertNotNull("Missing content of the updated bundle.", b3.getEntry("META-INF/MANIFEST.MF"));
+		systemContext.getBundle(b1Location).adapt(BundleStartLevel.class).setStartLevel(4);
+		stop(equinox);
+		assertFalse("Delta file was not compacted.", deltaFile.exists());
+
+		equinox = new Equinox(configuration);
+		equinox.start();
+		systemContext = equinox.getBundleContext();
+		assertEquals("Wrong start-level.", 4, systemContext.getBundle(b1Location).adapt(BundleStartLevel.class).getStartLevel());
+		assertEquals("Wrong version.", Version.valueOf("2.0"), systemContext.getBundle(b3Location).getVersion());
+		assertEquals("Wrong number of bundles.", 3, systemContext.getBundles().length);
+		// the next bundle id survives the restarts
+		Bundle b4 = systemContext.installBundle(createBundle(config, "delta.b4", false, false).toURI().toString());
+		assertTrue("Bundle id was reused: " + b4.getBundleId(), b4.getBundleId() > b3Id);
+		stop(equinox);
+	}
+
+	@Test
+	public void testStorageDeltaStale() throws Exception {
+		File config = OSGiTestsActivator.getContext().getDataFile(getName());
+		Map<String, String> configuration = new HashMap<>();
+		configuration.put(Constants.FRAMEWORK_STORAGE, config.getAbsolutePath());
+		File deltaFile = new File(config, "org.eclipse.osgi/framework.delta");
+
+		Map<String, String> headers = new HashMap<>();
+		headers.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		headers.put(Constants.BUNDLE_SYMBOLICNAME, "delta.b1");
+		String b1Location = createBundle(config, "delta.b1", headers).toURI().toString();
+		headers.put(Constants.BUNDLE_VERSION, "2.0");
+		File b1v2 = createBundle(config, "delta.b1_v2", headers);
+
+		Equinox equinox = new Equinox(configuration);
+		equinox.start();
+		stop(equinox);
+
+		// journal the install of the bundle and keep a copy of the journal
+		equinox = new Equinox(configuration);
+		equinox.start();
+		equinox.getBundleContext().installBundle(b1Location);
+		stop(equinox);
+		assertTrue("Missing delta file.", deltaFile.isFile());
+		byte[] staleDelta = Files.readAllBytes(deltaFile.toPath());
+
+		// resolving changes the wirings and forces a full save which removes the journal
+		equinox = new Equinox(configuration);
+		equinox.start();
+		Bundle b1 = equinox.getBundleContext().getBundle(b1Location);
+		try (InputStream in = new FileInputStream(b1v2)) {
+			b1.update(in);
+		}
+		assertTrue("Failed to resolve bundle.", equinox.adapt(FrameworkWiring.class).resolveBundles(Collections.singleton(b1)));
+		stop(equinox);
+		assertFalse("Delta file was not removed.", deltaFile.exists());
+
+		// a crash between the full save and removing the journal leaves a stale journal
+		Files.write(deltaFile.toPath(), staleDelta);
+		equinox = new Equinox(configuration);
+		equinox.start();
+		BundleContext systemContext = equinox.getBundleContext();
+		b1 = systemContext.getBundle(b1Location);
+		assertEquals("Wrong version.", Version.valueOf("2.0"), b1.getVersion());
+		assertEquals("Wrong content of the bundle.", "2.0", b1.getHeaders("").get(Constants.BUNDLE_VERSION));
+		assertEquals("Wrong state.", Bundle.RESOLVED, b1.getState());
+		// the next save replaces the stale journal
+		b1.adapt(BundleStartLevel.class).setStartLevel(3);
+		stop(equinox);
+		assertFalse("Stale delta file was not removed.", deltaFile.exists());
+
+		equinox = new Equinox(configuration);
+		equinox.start();
+		b1 = equinox.getBundleContext().getBundle(b1Location);
+		assertEquals("Wrong start-level.", 3, b1.adapt(BundleStartLevel.class).getStartLevel());
+		assertEquals("Wrong content of the bundle.", "2.0", b1.getHeaders("").get(Constants.BUNDLE_VERSION));
+		stop(equinox);
+	}
+
 }
@@ -28,6 +28,7 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -1215,6 +1216,62 @@ public class TestModuleContainer extends AbstractTest {
 		assertEvents(expected, actual, true);
 	}
 
+	@Test
+	public void testSettingsDelta() throws BundleException, IOException {
+		DummyContainerAdaptor adaptor = createDummyAdaptor();
+		ModuleContainer container = adaptor.getContainer();
+		DummyModuleDatabase database = adaptor.getDatabase();
+
+		Module systemBundle = installDummyModule("system.bundle.MF", Constants.SYSTEM_BUNDLE_LOCATION, container);
+		container.resolve(Arrays.asList(systemBundle), true);
+		systemBundle.start();
+
+		Module c4 = installDummyModule("c4_v1.MF", "c4_v1", container);
+		Module lazy1 = installDummyModule("lazy1_v1.MF", "lazy1", container);
+		container.resolve(Arrays.asList(c4, lazy1), true);
+
+		ByteArrayOutputStream full = new ByteArrayOutputStream();
+		database.store(new DataOutputStream(full), true);
+		long revisionsTimestamp = database.getRevisionsTimestamp();
+
+		c4.setStartLevel(5);
+		c4.start();
+		container.getFrameworkStartLevel().setInitialBundleStartLevel(4);
+		assertEquals("Revisions should not change.", revisionsTimestamp, database.getRevisionsTimestamp());
+
+		ByteArrayOutputStream delta1 = new ByteArrayOutputStream();
+		database.storeDelta(new DataOutputStream(delta1));
+
+		lazy1.setStartLevel(6);
+		lazy1.start(StartOptions.USE_ACTIVATION_POLICY);
+		long timestamp = database.getTimestamp();
+
+		ByteArrayOutputStream delta2 = new ByteArrayOutputStream();
+		database.storeDelta(new DataOutputStream(delta2));
+
+		systemBundle.stop();
+
+		// reload the full store and apply the deltas into a new container
+		adaptor = createDummyAdaptor();
+		container = adaptor.getContainer();
+		database = adaptor.getDatabase();
+		database.load(new DataInputStream(new ByteArrayInputStream(full.toByteArray())));
+		assertTrue("First delta not applied.", database.loadDelta(new DataInputStream(new ByteArrayInputStream(delta1.toByteArray()))));
+		assertTrue("Second delta not applied.", database.loadDelta(new DataInputStream(new ByteArrayInputStream(delta2.toByteArray()))));
+		// applying an old delta again must be ignored
+		assertFalse("Old delta applied.", database.loadDelta(new DataInputStream(new ByteArrayInputStream(delta1.toByteArray()))));
+		assertEquals("Wrong timestamp.", timestamp, database.getTimestamp());
+
+		c4 = container.getModule(c4.getId());
+		lazy1 = container.getModule(lazy1.getId());
+		assertEquals("c4 has wrong start-level", 5, c4.getStartLevel());
+		assertTrue("c4 is not auto started.", c4.isPersistentlyStarted());
+		assertEquals("lazy1 has wrong start-level", 6, lazy1.getStartLevel());
+		assertTrue("lazy1 is not auto started.", lazy1.isPersistentlyStarted());
+		assertTrue("lazy1 is not using activation policy.", lazy1.isActivationPolicyUsed());
+		assertEquals("Wrong initial start-level.", 4, container.getFrameworkStartLevel().getInitialBundleStartLevel());
+	}
+
 	@Test
 	public void testTimestampSeeding() throws BundleException, IOException, InterruptedException {
 		assertNotEquals("The timestamps are the same!", createTestContainerAndGetTimestamp(),
@@ -2639,6 +2696,250 @@ public class TestModuleContainer extends AbstractTest {
 		assertEquals("Wrong requirer attrs", attrs, requirerAttrs);
 	}
 
+	@Test
+	public void testPersistenceIndexed() throws BundleException, IOException {
+		DummyContainerAdaptor adaptor = createDummyAdaptor();
+		ModuleContainer container = adaptor.getContainer();
+		installPersistenceModules(container);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		adaptor.getDatabase().store(new DataOutputStream(bytes), true);
+
+		// reload into a new container
+		DummyContainerAdaptor loaded = createDummyAdaptor();
+		loaded.getDatabase().load(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertSameModules(container, loaded.getContainer());
+		checkLoadedModules(loaded.getContainer());
+
+		// store the loaded container again before anything is decoded
+		loaded = createDummyAdaptor();
+		loaded.getDatabase().load(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		bytes = new ByteArrayOutputStream();
+		loaded.getDatabase().store(new DataOutputStream(bytes), true);
+		loaded = createDummyAdaptor();
+		loaded.getDatabase().load(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertSameModules(container, loaded.getContainer());
+	}
+
+	@Test
+	public void testPersistenceVersion3() throws BundleException, IOException {
+		DummyContainerAdaptor adaptor = createDummyAdaptor();
+		ModuleContainer container = adaptor.getContainer();
+		installPersistenceModules(container);
+
+		// persistence.v3.db was stored from the same modules with version 3 of the format
+		DummyContainerAdaptor loaded = createDummyAdaptor();
+		URL v3 = getBundle().getEntry("/test_files/containerTests/persistence.v3.db");
+		assertNotNull("Could not find the version 3 database.", v3);
+		try (DataInputStream in = new DataInputStream(v3.openStream())) {
+			loaded.getDatabase().load(in);
+		}
+		assertSameModules(container, loaded.getContainer());
+
+		// the version 3 database can be stored again with the current format
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		loaded.getDatabase().store(new DataOutputStream(bytes), true);
+		checkLoadedModules(loaded.getContainer());
+		loaded = createDummyAdaptor();
+		loaded.getDatabase().load(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertSameModules(container, loaded.getContainer());
+	}
+
+	@Test
+	public void testPersistenceDelta() throws BundleException, IOException {
+		DummyContainerAdaptor adaptor = createDummyAdaptor();
+		ModuleContainer container = adaptor.getContainer();
+		DummyModuleDatabase database = adaptor.getDatabase();
+		installPersistenceModules(container);
+		// these stay unresolved
+		Module updated = installDummyModule(getDeltaManifest("delta.updated", "1.0"), "delta.updated", container);
+		Module uninstalled = installDummyModule(getDeltaManifest("delta.uninstalled", "1.0"), "delta.uninstalled", container);
+
+		ByteArrayOutputStream base = new ByteArrayOutputStream();
+		database.store(new DataOutputStream(base), true);
+		assertTrue("Should be able to store a delta.", database.canStoreDelta());
+
+		Module installed = installDummyModule(getDeltaManifest("delta.installed", "1.0"), "delta.installed", container);
+		container.update(updated, OSGiManifestBuilderFactory.createBuilder(getDeltaManifest("delta.updated", "2.0")), null);
+		container.uninstall(uninstalled);
+		container.getModule("lazy1").setStartLevel(7);
+		assertTrue("Should be able to store a delta.", database.canStoreDelta());
+		ByteArrayOutputStream delta1 = new ByteArrayOutputStream();
+		assertEquals("Wrong revised modules.", Arrays.asList(updated, installed), database.storeDelta(new DataOutputStream(delta1)));
+
+		// a module installed by the first delta is uninstalled by the second
+		installDummyModule(getDeltaManifest("delta.installed2", "1.0"), "delta.installed2", container);
+		container.uninstall(installed);
+		ByteArrayOutputStream delta2 = new ByteArrayOutputStream();
+		database.storeDelta(new DataOutputStream(delta2));
+
+		DummyContainerAdaptor loaded = createDummyAdaptor();
+		DummyModuleDatabase loadedDatabase = loaded.getDatabase();
+		loadedDatabase.load(new DataInputStream(new ByteArrayInputStream(base.toByteArray())));
+		// the deltas must be applied in order
+		assertFalse("Applied a delta out of order.", loadedDatabase.loadDelta(new DataInputStream(new ByteArrayInputStream(delta2.toByteArray()))));
+		assertTrue("Delta not applied.", loadedDatabase.loadDelta(new DataInputStream(new ByteArrayInputStream(delta1.toByteArray()))));
+		assertFalse("Applied a delta twice.", loadedDatabase.loadDelta(new DataInputStream(new ByteArrayInputStream(delta1.toByteArray()))));
+		assertTrue("Delta not applied.", loadedDatabase.loadDelta(new DataInputStream(new ByteArrayInputStream(delta2.toByteArray()))));
+		assertSameModules(container, loaded.getContainer());
+		assertEquals("Wrong next id.", database.getNextId(), loadedDatabase.getNextId());
+		assertEquals("Wrong revisions timestamp.", database.getRevisionsTimestamp(), loadedDatabase.getRevisionsTimestamp());
+		assertEquals("Wrong timestamp.", database.getTimestamp(), loadedDatabase.getTimestamp());
+		assertNull("Found uninstalled module.", loaded.getContainer().getModule("delta.uninstalled"));
+		assertEquals("Wrong version.", Version.valueOf("2.0"), loaded.getContainer().getModule("delta.updated").getCurrentRevision().getVersion());
+		checkLoadedModules(loaded.getContainer());
+
+		// changing the wirings requires a full store
+		ResolutionReport report = container.resolve(Arrays.asList(updated), true);
+		assertNull("Failed to resolve.", report.getResolutionException());
+		assertFalse("Should not store a delta after resolving.", database.canStoreDelta());
+		database.store(new DataOutputStream(new ByteArrayOutputStream()), true);
+		assertTrue("Should be able to store a delta.", database.canStoreDelta());
+		container.update(updated, OSGiManifestBuilderFactory.createBuilder(getDeltaManifest("delta.updated", "3.0")), null);
+		assertFalse("Should not store a delta after updating a resolved module.", database.canStoreDelta());
+	}
+
+	private static Map<String, String> getDeltaManifest(String symbolicName, String version) {
+		Map<String, String> manifest = new HashMap<>();
+		manifest.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		manifest.put(Constants.BUNDLE_SYMBOLICNAME, symbolicName);
+		manifest.put(Constants.BUNDLE_VERSION, version);
+		manifest.put(Constants.EXPORT_PACKAGE, symbolicName + "; version=" + version);
+		return manifest;
+	}
+
+	private void installPersistenceModules(ModuleContainer container) throws BundleException, IOException {
+		installDummyModule("system.bundle.MF", Constants.SYSTEM_BUNDLE_LOCATION, Constants.SYSTEM_BUNDLE_SYMBOLICNAME, null, null, container);
+		// a fragment that provides a package from its host
+		installDummyModule("bug483849.host.MF", "host", container);
+		installDummyModule("bug483849.frag.MF", "frag", container);
+		installDummyModule("bug483849.importer.MF", "importer", container);
+		// sub1_v2 substitutes the package of sub1_v1
+		installDummyModule("sub1_v1.MF", "sub1_v1", container);
+		installDummyModule("sub1_v2.MF", "sub1_v2", container);
+		installDummyModule("sub2_v1.MF", "sub2_v1", container);
+		// require.b1 stays unresolved because require.b3 is missing
+		installDummyModule("require.b1.MF", "require.b1", container);
+		installDummyModule("require.b2.MF", "require.b2", container);
+		Module lazy1 = installDummyModule("lazy1_v1.MF", "lazy1", container);
+
+		Map<String, String> providerManifest = new HashMap<>();
+		providerManifest.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		providerManifest.put(Constants.BUNDLE_SYMBOLICNAME, "provider");
+		providerManifest.put(Constants.PROVIDE_CAPABILITY, "provider.cap;"//
+				+ " string=sValue;"//
+				+ " string.list:List<String>=\"v1,v2,v3\";"//
+				+ " version:Version=1.1;"//
+				+ " version.list:List<Version>=\"1.0,2.0,3.0\";"//
+				+ " long:Long=12345;"//
+				+ " long.list:List<Long>=\"1,2,3\";"//
+				+ " double:Double=1.2345;"//
+				+ " double.list:List<Double>=\"1.1,1.2,1.3\"");
+		installDummyModule(providerManifest, "provider", container);
+		Map<String, String> requirerManifest = new HashMap<>();
+		requirerManifest.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		requirerManifest.put(Constants.BUNDLE_SYMBOLICNAME, "requirer");
+		requirerManifest.put(Constants.REQUIRE_CAPABILITY, "provider.cap; filter:=\"(&(string=sValue)(version.list=2))\"");
+		installDummyModule(requirerManifest, "requirer", container);
+
+		container.resolve(new ArrayList<>(), false);
+		lazy1.setStartLevel(5);
+		lazy1.start(StartOptions.USE_ACTIVATION_POLICY);
+	}
+
+	private void assertSameModules(ModuleContainer expected, ModuleContainer actual) {
+		assertEquals("Wrong number of modules.", expected.getModules().size(), actual.getModules().size());
+		for (Module expectedModule : expected.getModules()) {
+			Module actualModule = actual.getModule(expectedModule.getId());
+			assertNotNull("Missing module: " + expectedModule, actualModule);
+			assertEquals("Wrong location.", expectedModule.getLocation(), actualModule.getLocation());
+			assertEquals("Wrong start-level.", expectedModule.getStartLevel(), actualModule.getStartLevel());
+			assertEquals("Wrong persistent start.", expectedModule.isPersistentlyStarted(), actualModule.isPersistentlyStarted());
+			assertEquals("Wrong activation policy.", expectedModule.isActivationPolicyUsed(), actualModule.isActivationPolicyUsed());
+
+			ModuleRevision expectedRevision = expectedModule.getCurrentRevision();
+			ModuleRevision actualRevision = actualModule.getCurrentRevision();
+			assertEquals("Wrong symbolic name.", expectedRevision.getSymbolicName(), actualRevision.getSymbolicName());
+			assertEquals("Wrong version.", expectedRevision.getVersion(), actualRevision.getVersion());
+			assertEquals("Wrong types.", expectedRevision.getTypes(), actualRevision.getTypes());
+			assertEquals("Wrong capabilities.", describe(expectedRevision.getModuleCapabilities(null)), describe(actualRevision.getModuleCapabilities(null)));
+			assertEquals("Wrong requirements.", describe(expectedRevision.getModuleRequirements(null)), describe(actualRevision.getModuleRequirements(null)));
+
+			ModuleWiring expectedWiring = expectedRevision.getWiring();
+			ModuleWiring actualWiring = actualRevision.getWiring();
+			if (expectedWiring == null) {
+				assertNull("Unexpected wiring: " + actualRevision, actualWiring);
+				continue;
+			}
+			assertNotNull("Missing wiring: " + actualRevision, actualWiring);
+			assertEquals("Wrong wiring capabilities.", describe(expectedWiring.getModuleCapabilities(null)), describe(actualWiring.getModuleCapabilities(null)));
+			assertEquals("Wrong wiring requirements.", describe(expectedWiring.getModuleRequirements(null)), describe(actualWiring.getModuleRequirements(null)));
+			assertEquals("Wrong required wires.", describeWires(expectedWiring.getRequiredModuleWires(null)), describeWires(actualWiring.getRequiredModuleWires(null)));
+			// the order of the provided wires is not persisted
+			assertEquals("Wrong provided wires.", new HashSet<>(describeWires(expectedWiring.getProvidedModuleWires(null))), new HashSet<>(describeWires(actualWiring.getProvidedModuleWires(null))));
+			assertEquals("Wrong substituted names.", new HashSet<>(expectedWiring.getSubstitutedNames()), new HashSet<>(actualWiring.getSubstitutedNames()));
+			for (ModuleWire wire : actualWiring.getRequiredModuleWires(null)) {
+				assertTrue("Provided wire is not shared with the provider: " + wire, wire.getProviderWiring().getProvidedModuleWires(null).contains(wire));
+			}
+		}
+	}
+
+	private static List<Object> describe(List<?> capabilitiesOrRequirements) {
+		List<Object> result = new ArrayList<>();
+		for (Object element : capabilitiesOrRequirements) {
+			if (element instanceof ModuleCapability) {
+				ModuleCapability capability = (ModuleCapability) element;
+				result.add(Arrays.asList(getLocation(capability.getRevision()), capability.getNamespace(), capability.getAttributes(), capability.getDirectives()));
+			} else {
+				ModuleRequirement requirement = (ModuleRequirement) element;
+				result.add(Arrays.asList(getLocation(requirement.getRevision()), requirement.getNamespace(), requirement.getAttributes(), requirement.getDirectives()));
+			}
+		}
+		return result;
+	}
+
+	private static List<Object> describeWires(List<ModuleWire> wires) {
+		List<Object> result = new ArrayList<>();
+		for (ModuleWire wire : wires) {
+			result.add(Arrays.asList(describe(Arrays.asList(wire.getRequirement(), wire.getCapability())), getLocation(wire.getRequirer()), getLocation(wire.getProvider())));
+		}
+		return result;
+	}
+
+	private static String getLocation(ModuleRevision revision) {
+		return revision.getRevisions().getModule().getLocation();
+	}
+
+	private void checkLoadedModules(ModuleContainer container) throws BundleException, IOException {
+		// the loaded capabilities must be found when resolving new modules
+		Map<String, String> manifest = new HashMap<>();
+		manifest.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		manifest.put(Constants.BUNDLE_SYMBOLICNAME, "importer.new");
+		manifest.put(Constants.IMPORT_PACKAGE, "host, frag, sub1.a");
+		Module newImporter = installDummyModule(manifest, "importer.new", container);
+		ResolutionReport report = container.resolve(Arrays.asList(newImporter), true);
+		assertNull("Failed to resolve new importer.", report.getResolutionException());
+		Module host = container.getModule("host");
+		for (ModuleWire wire : newImporter.getCurrentRevision().getWiring().getRequiredModuleWires(PackageNamespace.PACKAGE_NAMESPACE)) {
+			Object pkg = wire.getCapability().getAttributes().get(PackageNamespace.PACKAGE_NAMESPACE);
+			if ("sub1.a".equals(pkg)) {
+				assertEquals("Wrong provider.", container.getModule("sub1_v2").getCurrentRevision(), wire.getProvider());
+			} else {
+				assertEquals("Wrong provider.", host.getCurrentRevision(), wire.getProvider());
+			}
+		}
+		assertTrue("Host does not provide a wire to the new importer.", host.getCurrentRevision().getWiring().getProvidedModuleWires(PackageNamespace.PACKAGE_NAMESPACE).size() >= 3);
+
+		// uninstalling and refreshing a loaded module must remove its capabilities
+		Module frag = container.getModule("frag");
+		container.uninstall(frag);
+		container.refresh(Arrays.asList(frag));
+		assertEquals("Wrong host state.", State.RESOLVED, host.getState());
+		assertEquals("Importer should not resolve without the fragment.", State.INSTALLED, container.getModule("importer").getState());
+		report = container.resolve(Arrays.asList(container.getModule("importer")), true);
+		assertNotNull("Importer resolved without the fragment.", report.getResolutionException());
+	}
+
 	@Test
 	public void testInvalidAttributes() throws IOException, BundleException {
 		DummyContainerAdaptor adaptor = createDummyAdaptor();
@@ -45,7 +45,9 @@ import java.util.Map.Entry;
 import java.util.concurrent.atomic.AtomicReference;
 import junit.framework.AssertionFailedError;
 import org.eclipse.osgi.internal.debug.FrameworkDebugOptions;
+import org.eclipse.osgi.internal.debug.FrameworkDebugOptions.TraceOverflowPolicy;
 import org.eclipse.osgi.internal.debug.FrameworkDebugTraceEntry;
+import org.eclipse.osgi.launch.Equinox;
 import org.eclipse.osgi.service.debug.DebugOptions;
 import org.eclipse.osgi.service.debug.DebugOptionsListener;
 import org.eclipse.osgi.service.debug.DebugTrace;
@@ -55,6 +57,8 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestName;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
 import org.osgi.framework.ServiceReference;
 import org.osgi.framework.ServiceRegistration;
 
@@ -679,6 +683,64 @@ public class DebugOptionsTestCase {
 		traceFile.delete();
 	}
 
+	/**
+	 * test DebugTrace.trace(option, message) with the asynchronous trace writer
+	 */
+	@Test
+	public void testAsyncTraceFile() throws Exception {
+		File config = OSGiTestsActivator.getContext().getDataFile(getName());
+		config.mkdirs();
+		File optionsFile = new File(config, ".options"); //$NON-NLS-1$
+		try (FileOutputStream out = new FileOutputStream(optionsFile)) {
+			out.write((getName() + "/debug=true").getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+		}
+		File traceFile = new File(config, getName() + ".trace"); //$NON-NLS-1$
+		Map<String, Object> configuration = new HashMap<>();
+		configuration.put(Constants.FRAMEWORK_STORAGE, config.getAbsolutePath());
+		configuration.put("osgi.debug", optionsFile.getAbsolutePath()); //$NON-NLS-1$
+		configuration.put(FrameworkDebugOptions.PROP_TRACE_ASYNC, "true"); //$NON-NLS-1$
+		configuration.put(FrameworkDebugOptions.PROP_TRACE_BUFFER_SIZE, "16"); //$NON-NLS-1$
+		Equinox equinox = new Equinox(configuration);
+		equinox.start();
+		final int threadCount = 4;
+		final int entryCount = 500;
+		try {
+			BundleContext systemContext = equinox.getBundleContext();
+			DebugOptions asyncDebugOptions = systemContext.getService(systemContext.getServiceReference(DebugOptions.class));
+			assertEquals("Wrong overflow policy", TraceOverflowPolicy.BLOCK, ((FrameworkDebugOptions) asyncDebugOptions).getTraceOverflowPolicy()); //$NON-NLS-1$
+			asyncDebugOptions.setFile(traceFile);
+			final DebugTrace debugTrace = asyncDebugOptions.newDebugTrace(getName());
+			List<Thread> threads = new ArrayList<>();
+			for (int i = 0; i < threadCount; i++) {
+				final int id = i;
+				threads.add(new Thread(() -> {
+					for (int j = 0; j < entryCount; j++) {
+						debugTrace.trace("/debug", "testing " + id + " " + j); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					}
+				}, getName() + i));
+			}
+			for (Thread thread : threads) {
+				thread.start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+		} finally {
+			// stopping the framework writes the buffered entries
+			equinox.stop();
+			equinox.waitForStop(10000);
+		}
+		TraceEntry[] traceOutput = readTraceFile(traceFile);
+		assertEquals("Wrong number of trace entries", threadCount * entryCount, traceOutput.length); //$NON-NLS-1$
+		int[] next = new int[threadCount];
+		for (TraceEntry entry : traceOutput) {
+			// the entries of each thread must be written in order
+			int id = Integer.parseInt(entry.getThreadName().substring(getName().length()));
+			assertEquals("trace message is incorrect", "testing " + id + " " + next[id]++, entry.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		traceFile.delete();
+	}
+
 	/**
 	 * test DebugTrace.trace(option, message, Throwable)
 	 */
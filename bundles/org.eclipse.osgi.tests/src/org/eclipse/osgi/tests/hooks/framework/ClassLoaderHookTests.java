@@ -17,6 +17,7 @@ import static org.eclipse.osgi.tests.bundles.AbstractBundleTests.stopQuietly;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 import java.io.File;
@@ -52,6 +53,7 @@ public class ClassLoaderHookTests extends AbstractFrameworkHookTests {
 	private static final String FILTER_CLASS_PATHS = "classloader.hooks.a.filter.class.paths";
 	private static final String PREVENT_RESOURCE_LOAD_PRE = "classloader.hooks.a.fail.resource.load.pre";
 	private static final String PREVENT_RESOURCE_LOAD_POST = "classloader.hooks.a.fail.resource.load.post";
+	private static final String PROVIDE_CLASS_PRE = "classloader.hooks.a.provide.class.pre";
 
 	private Map<String, String> configuration;
 	private Framework framework;
@@ -67,6 +69,7 @@ public class ClassLoaderHookTests extends AbstractFrameworkHookTests {
 		setFilterClassPaths(false);
 		setPreventResourceLoadPre(false);
 		setPreventResourceLoadPost(false);
+		System.clearProperty(PROVIDE_CLASS_PRE);
 		String loc = bundleInstaller.getBundleLocation(HOOK_CONFIGURATOR_BUNDLE);
 		loc = loc.substring(loc.indexOf("file:"));
 		classLoader.addURL(new URL(loc));
@@ -229,4 +232,22 @@ public class ClassLoaderHookTests extends AbstractFrameworkHookTests {
 		resource = b.getResource(TEST_CLASSNAME_RESOURCE);
 		assertNull("Could find resource.", resource);
 	}
+
+	@Test
+	public void testPreFindClassAfterNegativeLookup() throws Exception {
+		initAndStartFramework();
+		Bundle b = installBundle();
+		String missing = "substitutes.x.Missing";
+		for (int i = 0; i < 2; i++) {
+			try {
+				b.loadClass(missing);
+				fail("Expected a ClassNotFoundException.");
+			} catch (ClassNotFoundException e) {
+				// expected; the second attempt hits the negative lookup cache
+			}
+		}
+
+		System.setProperty(PROVIDE_CLASS_PRE, missing);
+		assertSame("Wrong class from the hook.", Object.class, b.loadClass(missing));
+	}
 }
@@ -26,6 +26,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -48,6 +49,8 @@ import org.osgi.framework.ServiceFactory;
 import org.osgi.framework.ServiceListener;
 import org.osgi.framework.ServiceReference;
 import org.osgi.framework.ServiceRegistration;
+import org.osgi.framework.hooks.service.EventListenerHook;
+import org.osgi.framework.hooks.service.ListenerHook.ListenerInfo;
 
 public class ServiceRegistryTests extends AbstractBundleTests {
 
@@ -655,6 +658,139 @@ public class ServiceRegistryTests extends AbstractBundleTests {
 		}
 	}
 
+	@Test
+	public void testFilterPropertyIndexOptimization() throws InvalidSyntaxException {
+		final String PID = getName() + ".pid";
+		Collection<ServiceRegistration<?>> registrations = new ArrayList<>();
+		BundleContext bc = OSGiTestsActivator.getContext();
+		try {
+			ServiceRegistration<?> runnable_pid = registerFilteredService( //
+					bc, registrations, new TestObjectClassOptimizationService(), //
+					Collections.singletonMap(Constants.SERVICE_PID, PID), //
+					Runnable.class);
+			ServiceRegistration<?> callable_pids = registerFilteredService( //
+					bc, registrations, new TestObjectClassOptimizationService(), //
+					Collections.singletonMap(Constants.SERVICE_PID, new String[] {PID, PID + ".other"}), //
+					Callable.class);
+			ServiceRegistration<?> callable_noPid = registerFilteredService( //
+					bc, registrations, new TestObjectClassOptimizationService(), //
+					Collections.<String, Object>emptyMap(), //
+					Callable.class);
+
+			// OPTIMIZED
+			validateFoundServices(bc, "(" + Constants.SERVICE_PID + "=" + PID + ")", //
+					runnable_pid, callable_pids);
+			// OPTIMIZED
+			validateFoundServices(bc, "(" + Constants.SERVICE_PID + "=" + PID + ".other)", //
+					callable_pids);
+			// OPTIMIZED
+			validateFoundServices(bc, "(&(objectClass=" + Callable.class.getName() + ")(" + Constants.SERVICE_PID + "=" + PID + "))", //
+					callable_pids);
+			// OPTIMIZED
+			validateFoundServices(bc, "(" + Constants.SERVICE_PID + "=" + PID + ".none)");
+			// NOT OPTIMIZED
+			validateFoundServices(bc, "(|(" + Constants.SERVICE_PID + "=" + PID + ")(objectClass=" + Callable.class.getName() + "))", //
+					runnable_pid, callable_pids, callable_noPid);
+			ServiceReference<?>[] found = bc.getServiceReferences(Runnable.class.getName(), "(" + Constants.SERVICE_PID + "=" + PID + ")");
+			assertNotNull("No services found.", found);
+			assertEquals("Wrong number of services found.", 1, found.length);
+			assertEquals("Wrong service found.", runnable_pid.getReference(), found[0]);
+
+			// modify the indexed property
+			runnable_pid.setProperties(FrameworkUtil.asDictionary(Collections.singletonMap(Constants.SERVICE_PID, PID + ".modified")));
+			validateFoundServices(bc, "(" + Constants.SERVICE_PID + "=" + PID + ")", //
+					callable_pids);
+			validateFoundServices(bc, "(" + Constants.SERVICE_PID + "=" + PID + ".modified)", //
+					runnable_pid);
+		} finally {
+			registrations.forEach(ServiceRegistration::unregister);
+		}
+	}
+
+	@Test
+	public void testServiceListenerObjectClassDelivery() throws InvalidSyntaxException {
+		final String TEST_KEY = getName() + ".key";
+		BundleContext bc = OSGiTestsActivator.getContext();
+		List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+		// listeners keyed by objectClass are mixed with listeners for any objectClass
+		Map<String, String> filters = new LinkedHashMap<>();
+		filters.put("runnable", "(objectClass=" + Runnable.class.getName() + ")");
+		filters.put("any", "(" + TEST_KEY + "=*)");
+		filters.put("callable", "(&(objectClass=" + Callable.class.getName() + ")(" + TEST_KEY + "=*))");
+		filters.put("null", null);
+		filters.put("other", "(objectClass=" + getName() + ".Other)");
+		filters.put("runnable.key", "(&(" + TEST_KEY + "=*)(objectClass=" + Runnable.class.getName() + "))");
+		List<ServiceListener> listeners = new ArrayList<>();
+		Collection<ServiceRegistration<?>> registrations = new ArrayList<>();
+		try {
+			for (Map.Entry<String, String> filter : filters.entrySet()) {
+				ServiceListener listener = event -> {
+					if (event.getServiceReference().getProperty(TEST_KEY) != null) {
+						delivered.add(filter.getKey());
+					}
+				};
+				bc.addServiceListener(listener, filter.getValue());
+				listeners.add(listener);
+			}
+
+			Map<String, ?> props = Collections.singletonMap(TEST_KEY, Boolean.TRUE);
+			registerFilteredService(bc, registrations, new TestObjectClassOptimizationService(), props, Runnable.class);
+			assertEquals("Wrong delivery for Runnable.", Arrays.asList("runnable", "any", "null", "runnable.key"), delivered);
+
+			delivered.clear();
+			registerFilteredService(bc, registrations, new TestObjectClassOptimizationService(), props, Callable.class);
+			assertEquals("Wrong delivery for Callable.", Arrays.asList("any", "callable", "null"), delivered);
+
+			delivered.clear();
+			registerFilteredService(bc, registrations, new TestObjectClassOptimizationService(), props, Callable.class, Runnable.class);
+			assertEquals("Wrong delivery for Callable and Runnable.", Arrays.asList("runnable", "any", "callable", "null", "runnable.key"), delivered);
+
+			// replacing a listener changes its filter and keeps its position
+			bc.addServiceListener(listeners.get(0), "(objectClass=" + Callable.class.getName() + ")");
+			delivered.clear();
+			registerFilteredService(bc, registrations, new TestObjectClassOptimizationService(), props, Callable.class);
+			assertEquals("Wrong delivery after replacing a listener.", Arrays.asList("runnable", "any", "callable", "null"), delivered);
+
+			bc.removeServiceListener(listeners.get(1));
+			delivered.clear();
+			registerFilteredService(bc, registrations, new TestObjectClassOptimizationService(), props, Runnable.class);
+			assertEquals("Wrong delivery after removing a listener.", Arrays.asList("null", "runnable.key"), delivered);
+		} finally {
+			registrations.forEach(ServiceRegistration::unregister);
+			listeners.forEach(bc::removeServiceListener);
+		}
+	}
+
+	@Test
+	public void testServiceListenerHookSeesAllListeners() throws InvalidSyntaxException {
+		final String TEST_KEY = getName() + ".key";
+		BundleContext bc = OSGiTestsActivator.getContext();
+		String otherFilter = "(objectClass=" + getName() + ".Other)";
+		ServiceListener other = event -> fail("Unexpected event: " + event);
+		AtomicReference<Collection<ListenerInfo>> hookListeners = new AtomicReference<>();
+		EventListenerHook hook = (event, listeners) -> {
+			if (event.getServiceReference().getProperty(TEST_KEY) != null) {
+				hookListeners.set(new ArrayList<>(listeners.get(bc)));
+			}
+		};
+		Collection<ServiceRegistration<?>> registrations = new ArrayList<>();
+		bc.addServiceListener(other, otherFilter);
+		try {
+			registrations.add(bc.registerService(EventListenerHook.class, hook, null));
+			registerFilteredService(bc, registrations, new TestObjectClassOptimizationService(), Collections.singletonMap(TEST_KEY, Boolean.TRUE), Runnable.class);
+			Collection<ListenerInfo> infos = hookListeners.get();
+			assertNotNull("The hook was not called with the context of the listener.", infos);
+			boolean found = false;
+			for (ListenerInfo info : infos) {
+				found |= otherFilter.equals(info.getFilter());
+			}
+			assertTrue("The hook did not get the listener for another objectClass: " + infos, found);
+		} finally {
+			registrations.forEach(ServiceRegistration::unregister);
+			bc.removeServiceListener(other);
+		}
+	}
+
 	private void validateFoundServices(BundleContext bc, String filter, ServiceRegistration<?>... expectedRegs)
 			throws InvalidSyntaxException {
 		ServiceReference<?>[] foundArray = bc.getServiceReferences((String) null, filter);
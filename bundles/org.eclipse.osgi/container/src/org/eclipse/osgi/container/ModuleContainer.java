@@ -22,12 +22,16 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -49,6 +53,7 @@ import org.eclipse.osgi.framework.eventmgr.EventManager;
 import org.eclipse.osgi.framework.eventmgr.ListenerQueue;
 import org.eclipse.osgi.framework.util.SecureAction;
 import org.eclipse.osgi.framework.util.ThreadInfoReport;
+import org.eclipse.osgi.internal.container.ComputeNodeOrder;
 import org.eclipse.osgi.internal.container.InternalUtils;
 import org.eclipse.osgi.internal.container.LockSet;
 import org.eclipse.osgi.internal.container.NamespaceList;
@@ -56,6 +61,7 @@ import org.eclipse.osgi.internal.debug.Debug;
 import org.eclipse.osgi.internal.framework.EquinoxConfiguration;
 import org.eclipse.osgi.internal.framework.FilterImpl;
 import org.eclipse.osgi.internal.messages.Msg;
+import org.eclipse.osgi.internal.util.VirtualThreads;
 import org.eclipse.osgi.report.resolution.ResolutionReport;
 import org.eclipse.osgi.report.resolution.ResolutionReport.Entry;
 import org.eclipse.osgi.service.debug.DebugOptions;
@@ -138,6 +144,10 @@ public final class ModuleContainer implements DebugOptionsListener {
 
 	final boolean restrictParallelStart;
 
+	final boolean dependencyOrderedStart;
+
+	private final boolean virtualThreads;
+
 	boolean DEBUG_MONITOR_LAZY = false;
 	boolean DEBUG_BUNDLE_START_TIME = false;
 
@@ -177,6 +187,12 @@ public final class ModuleContainer implements DebugOptionsListener {
 		}
 		this.autoStartOnResolve = Boolean.parseBoolean(autoStartOnResolveProp);
 		this.restrictParallelStart = Boolean.parseBoolean(adaptor.getProperty(EquinoxConfiguration.PROP_EQUINOX_START_LEVEL_RESTRICT_PARALLEL));
+		this.dependencyOrderedStart = Boolean.parseBoolean(adaptor.getProperty(EquinoxConfiguration.PROP_EQUINOX_START_LEVEL_DEPENDENCY_ORDER));
+		this.virtualThreads = Boolean.parseBoolean(adaptor.getProperty(EquinoxConfiguration.PROP_EQUINOX_VIRTUAL_THREADS));
+	}
+
+	EventManager newEventManager(String threadName) {
+		return new EventManager(threadName, null, virtualThreads ? VirtualThreads.newThreadFactory(threadName) : null);
 	}
 
 	/**
@@ -1640,7 +1656,7 @@ public final class ModuleContainer implements DebugOptionsListener {
 		private EventManager getManager() {
 			synchronized (monitor) {
 				if (refreshThread == null) {
-					refreshThread = new EventManager("Refresh Thread: " + adaptor.toString()); //$NON-NLS-1$
+					refreshThread = newEventManager("Refresh Thread: " + adaptor.toString()); //$NON-NLS-1$
 				}
 				return refreshThread;
 			}
@@ -1943,6 +1959,10 @@ public final class ModuleContainer implements DebugOptionsListener {
 			if (toStart.isEmpty()) {
 				return;
 			}
+			if (inParallel && dependencyOrderedStart && toStart.size() > 1) {
+				incStartLevelByDependency(toStartLevel, toStart);
+				return;
+			}
 			final Executor executor = inParallel ? adaptor.getStartLevelExecutor() : new Executor() {
 				@Override
 				public void execute(Runnable command) {
@@ -1977,6 +1997,139 @@ public final class ModuleContainer implements DebugOptionsListener {
 			}
 		}
 
+		/**
+		 * Starts the modules in parallel while making sure a module is only started
+		 * after the modules it is wired to within the same set of modules have been
+		 * started. Modules which depend on each other in a cycle are started
+		 * sequentially by the same task.
+		 */
+		private void incStartLevelByDependency(final int toStartLevel, List<Module> toStart) {
+			Map<Module, StartNode> nodes = getStartNodes(toStart);
+			Set<StartNode> allNodes = new LinkedHashSet<>(nodes.values());
+			final Executor executor = adaptor.getStartLevelExecutor();
+			// the start tasks post themselves to this queue when done; only this
+			// thread schedules dependents so no recursion happens with a synchronous executor
+			final BlockingQueue<StartNode> completed = new LinkedBlockingQueue<>();
+			for (StartNode node : allNodes) {
+				if (node.remaining == 0) {
+					submit(toStartLevel, node, executor, completed);
+				}
+			}
+			StartNode last = null;
+			try {
+				for (int finished = 0; finished < allNodes.size(); finished++) {
+					StartNode node = completed.take();
+					for (StartNode dependency : node.dependencies) {
+						if (node.critical == null || dependency.pathTime > node.critical.pathTime) {
+							node.critical = dependency;
+						}
+					}
+					node.pathTime = node.elapsed + (node.critical == null ? 0 : node.critical.pathTime);
+					if (last == null || node.pathTime > last.pathTime) {
+						last = node;
+					}
+					for (StartNode dependent : node.dependents) {
+						if (--dependent.remaining == 0) {
+							submit(toStartLevel, dependent, executor, completed);
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				adaptor.publishContainerEvent(ContainerEvent.ERROR, moduleDatabase.getModule(0), e);
+				return;
+			}
+			if (debugStartLevel && last != null) {
+				List<String> path = new ArrayList<>();
+				for (StartNode node = last; node != null; node = node.critical) {
+					for (ListIterator<Module> modules = node.modules.listIterator(node.modules.size()); modules.hasPrevious();) {
+						path.add(0, toString(modules.previous()));
+					}
+				}
+				Debug.println("StartLevel: critical path with startLevel=" + toStartLevel + "; " + TimeUnit.NANOSECONDS.toMillis(last.pathTime) + " ms; " + path); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+		}
+
+		private Map<Module, StartNode> getStartNodes(List<Module> toStart) {
+			Set<Module> members = new HashSet<>(toStart);
+			List<Module[]> references = new ArrayList<>();
+			for (Module module : toStart) {
+				ModuleRevision current = module.getCurrentRevision();
+				ModuleWiring wiring = current == null ? null : current.getWiring();
+				List<ModuleWire> wires = wiring == null ? null : wiring.getRequiredModuleWires(null);
+				if (wires == null) {
+					continue;
+				}
+				for (ModuleWire wire : wires) {
+					ModuleRequirement req = wire.getRequirement();
+					String namespace = req.getNamespace();
+					if (BundleNamespace.BUNDLE_NAMESPACE.equals(namespace) || (PackageNamespace.PACKAGE_NAMESPACE.equals(namespace) && !PackageNamespace.RESOLUTION_DYNAMIC.equals(req.getDirectives().get(Namespace.REQUIREMENT_RESOLUTION_DIRECTIVE)))) {
+						Module provider = wire.getProvider().getRevisions().getModule();
+						if (provider != module && members.contains(provider)) {
+							references.add(new Module[] {module, provider});
+						}
+					}
+				}
+			}
+			Module[] sorted = toStart.toArray(new Module[toStart.size()]);
+			Object[][] cycles = ComputeNodeOrder.computeNodeOrder(sorted, references.toArray(new Module[references.size()][]));
+
+			// modules in a cycle share a node
+			Map<Module, StartNode> nodes = new LinkedHashMap<>();
+			for (Object[] cycle : cycles) {
+				StartNode node = new StartNode();
+				for (Object module : cycle) {
+					nodes.put((Module) module, node);
+				}
+			}
+			for (Module module : sorted) {
+				StartNode node = nodes.get(module);
+				if (node == null) {
+					node = new StartNode();
+					nodes.put(module, node);
+				}
+				// add in dependency order so cycles start in a stable order
+				node.modules.add(module);
+			}
+			for (Module[] reference : references) {
+				StartNode requirer = nodes.get(reference[0]);
+				StartNode provider = nodes.get(reference[1]);
+				if (requirer != provider && requirer.dependencies.add(provider)) {
+					provider.dependents.add(requirer);
+					requirer.remaining++;
+				}
+			}
+			return nodes;
+		}
+
+		private void submit(final int toStartLevel, final StartNode node, Executor executor, final BlockingQueue<StartNode> completed) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					long start = System.nanoTime();
+					try {
+						for (Module module : node.modules) {
+							if (isRefreshingSystemModule()) {
+								return;
+							}
+							try {
+								if (debugStartLevel) {
+									Debug.println("StartLevel: resuming bundle; " + ContainerStartLevel.this.toString(module) + "; with startLevel=" + toStartLevel); //$NON-NLS-1$ //$NON-NLS-2$
+								}
+								module.start(StartOptions.TRANSIENT_IF_AUTO_START, StartOptions.TRANSIENT_RESUME);
+							} catch (BundleException e) {
+								adaptor.publishContainerEvent(ContainerEvent.ERROR, module, e);
+							} catch (IllegalStateException e) {
+								// been uninstalled
+							}
+						}
+					} finally {
+						node.elapsed = System.nanoTime() - start;
+						completed.add(node);
+					}
+				}
+			});
+		}
+
 		private void decStartLevel(int toStartLevel, List<Module> sortedModules) {
 			ListIterator<Module> iModules = sortedModules.listIterator(sortedModules.size());
 			while (iModules.hasPrevious()) {
@@ -2014,7 +2167,7 @@ public final class ModuleContainer implements DebugOptionsListener {
 		private EventManager getManager() {
 			synchronized (eventManagerLock) {
 				if (startLevelThread == null) {
-					startLevelThread = new EventManager("Start Level: " + adaptor.toString()); //$NON-NLS-1$
+					startLevelThread = newEventManager("Start Level: " + adaptor.toString()); //$NON-NLS-1$
 				}
 				return startLevelThread;
 			}
@@ -2047,4 +2200,20 @@ public final class ModuleContainer implements DebugOptionsListener {
 			return b != null ? b.toString() : m.toString();
 		}
 	}
+
+	/**
+	 * A set of modules started together by one task of a dependency ordered
+	 * start-level change. All fields except {@link #elapsed} are only accessed by
+	 * the start-level thread; the elapsed time is set by the start task before the
+	 * node is posted to the completed queue.
+	 */
+	static final class StartNode {
+		final List<Module> modules = new ArrayList<>(1);
+		final Set<StartNode> dependencies = new LinkedHashSet<>();
+		final List<StartNode> dependents = new ArrayList<>();
+		int remaining;
+		long elapsed;
+		long pathTime;
+		StartNode critical;
+	}
 }
\ No newline at end of file
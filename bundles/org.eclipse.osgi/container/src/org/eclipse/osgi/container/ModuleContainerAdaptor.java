@@ -269,6 +269,16 @@ public abstract class ModuleContainerAdaptor {
 		// do nothing by default
 	}
 
+	/**
+	 * This is called each time the resolver has resolved a batch of revisions.
+	 * @param batchSize the number of revisions in the batch
+	 * @param elapsedNanos the time in nanoseconds spent resolving the batch
+	 * @since 3.19
+	 */
+	public void resolvedBatch(int batchSize, long elapsedNanos) {
+		// do nothing by default
+	}
+
 	/**
 	 * This is called when the {@link SystemModule#init()} is running.
 	 */
@@ -13,10 +13,13 @@
  *******************************************************************************/
 package org.eclipse.osgi.container;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -25,9 +28,11 @@ import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
@@ -127,11 +132,55 @@ public class ModuleDatabase {
 
 	private final Capabilities capabilities;
 
+	/**
+	 * Revisions loaded from an indexed database whose capabilities have not been
+	 * added to the capabilities yet.  They are added the first time the capabilities
+	 * are used so that the declarations of the loaded revisions are only decoded
+	 * when they are needed.
+	 */
+	private final Set<ModuleRevision> unindexedRevisions = new LinkedHashSet<>();
+
+	private volatile boolean hasUnindexedRevisions;
+
 	/**
 	 * A map of module settings keyed by module id.
 	 */
 	final Map<Long, EnumSet<Settings>> moduleSettings;
 
+	/**
+	 * Holds the ids of modules which had their settings or start level modified
+	 * since this database was last {@link #store(DataOutputStream, boolean) stored}
+	 * or since the last {@link #storeDelta(DataOutputStream) delta} was stored.
+	 */
+	private final Set<Long> changedModules = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Holds the ids of modules which were installed or updated since this database was
+	 * last {@link #store(DataOutputStream, boolean) stored} or since the last
+	 * {@link #storeDelta(DataOutputStream) delta} was stored.
+	 */
+	private final Set<Long> revisedModules = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Holds the ids of modules which were uninstalled since this database was
+	 * last {@link #store(DataOutputStream, boolean) stored} or since the last
+	 * {@link #storeDelta(DataOutputStream) delta} was stored.
+	 */
+	private final Set<Long> uninstalledModules = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Indicates if the wirings changed since this database was last
+	 * {@link #store(DataOutputStream, boolean) stored} or since the last
+	 * {@link #storeDelta(DataOutputStream) delta} was stored.
+	 */
+	private volatile boolean wiringsChanged;
+
+	/**
+	 * The revisions timestamp the next {@link #storeDelta(DataOutputStream) delta}
+	 * is based on.
+	 */
+	private volatile long deltaBaseTimeStamp = -1;
+
 	/**
 	 * The initial module start level.
 	 */
@@ -237,6 +286,7 @@ public class ModuleDatabase {
 			long currentTime = System.currentTimeMillis();
 			module.setlastModified(currentTime);
 			setSystemLastModified(currentTime);
+			revisedModules.add(id);
 			incrementTimestamps(true);
 			return module;
 		} finally {
@@ -266,6 +316,10 @@ public class ModuleDatabase {
 	}
 
 	final Module load(String location, ModuleRevisionBuilder builder, Object revisionInfo, long id, EnumSet<Settings> settings, int startlevel) {
+		return load(location, builder, revisionInfo, null, id, settings, startlevel);
+	}
+
+	private Module load(String location, ModuleRevisionBuilder builder, Object revisionInfo, ModuleRevision.DeclarationsDecoder decoder, long id, EnumSet<Settings> settings, int startlevel) {
 		// sanity check
 		checkWrite();
 		if (modulesByLocations.containsKey(location))
@@ -278,13 +332,20 @@ public class ModuleDatabase {
 		} else {
 			module = adaptor.createModule(location, id, settings, startlevel);
 		}
-		builder.addRevision(module, revisionInfo);
+		builder.addRevision(module, revisionInfo, decoder);
 		modulesByLocations.put(location, module);
 		modulesById.put(id, module);
 		if (settings != null)
 			moduleSettings.put(id, settings);
 		ModuleRevision newRevision = module.getCurrentRevision();
-		addCapabilities(newRevision);
+		if (decoder == null) {
+			addCapabilities(newRevision);
+		} else {
+			synchronized (unindexedRevisions) {
+				unindexedRevisions.add(newRevision);
+				hasUnindexedRevisions = true;
+			}
+		}
 		return module;
 	}
 
@@ -315,6 +376,9 @@ public class ModuleDatabase {
 				if (oldWiring == null) {
 					module.getRevisions().removeRevision(revision);
 					removeCapabilities(revision);
+				} else {
+					// the wiring is now removal pending
+					wiringsChanged = true;
 				}
 			}
 
@@ -323,6 +387,9 @@ public class ModuleDatabase {
 			long currentTime = System.currentTimeMillis();
 			module.setlastModified(currentTime);
 			setSystemLastModified(currentTime);
+			revisedModules.remove(module.getId());
+			changedModules.remove(module.getId());
+			uninstalledModules.add(module.getId());
 			incrementTimestamps(true);
 		} finally {
 			writeUnlock();
@@ -349,6 +416,9 @@ public class ModuleDatabase {
 			if (oldWiring == null) {
 				module.getRevisions().removeRevision(oldRevision);
 				removeCapabilities(oldRevision);
+			} else {
+				// the wiring is now removal pending
+				wiringsChanged = true;
 			}
 			// attempt to clean up removal pendings
 			cleanupRemovalPending();
@@ -356,6 +426,7 @@ public class ModuleDatabase {
 			long currentTime = System.currentTimeMillis();
 			module.setlastModified(currentTime);
 			setSystemLastModified(currentTime);
+			revisedModules.add(module.getId());
 			incrementTimestamps(true);
 		} finally {
 			writeUnlock();
@@ -421,6 +492,7 @@ public class ModuleDatabase {
 				for (ModuleWiring moduleWiring : toRemoveWirings) {
 					moduleWiring.invalidate();
 				}
+				wiringsChanged = true;
 			}
 		}
 	}
@@ -525,6 +597,7 @@ public class ModuleDatabase {
 		try {
 			wirings.clear();
 			wirings.putAll(newWiring);
+			wiringsChanged = true;
 			incrementTimestamps(true);
 		} finally {
 			writeUnlock();
@@ -543,6 +616,7 @@ public class ModuleDatabase {
 		writeLock();
 		try {
 			wirings.putAll(deltaWiring);
+			wiringsChanged = true;
 			incrementTimestamps(true);
 		} finally {
 			writeUnlock();
@@ -563,6 +637,9 @@ public class ModuleDatabase {
 		writeLock();
 		try {
 			op.run();
+			if (incrementRevision) {
+				wiringsChanged = true;
+			}
 			incrementTimestamps(incrementRevision);
 		} finally {
 			writeUnlock();
@@ -843,6 +920,7 @@ public class ModuleDatabase {
 	 */
 	final void addCapabilities(ModuleRevision revision) {
 		checkWrite();
+		indexCapabilities();
 		Collection<String> packageNames = capabilities.addCapabilities(revision);
 		// Clear the dynamic miss caches for all the package names added
 		for (ModuleWiring wiring : wirings.values()) {
@@ -860,9 +938,34 @@ public class ModuleDatabase {
 	 */
 	protected void removeCapabilities(ModuleRevision revision) {
 		checkWrite();
+		if (hasUnindexedRevisions) {
+			synchronized (unindexedRevisions) {
+				if (unindexedRevisions.remove(revision)) {
+					return;
+				}
+			}
+		}
 		capabilities.removeCapabilities(revision);
 	}
 
+	/**
+	 * Adds the capabilities of the revisions loaded from an indexed database
+	 * that have not been added yet.  This may be called while holding the
+	 * {@link #readLock() read} lock.
+	 */
+	private void indexCapabilities() {
+		if (!hasUnindexedRevisions) {
+			return;
+		}
+		synchronized (unindexedRevisions) {
+			for (ModuleRevision revision : unindexedRevisions) {
+				capabilities.addCapabilities(revision);
+			}
+			unindexedRevisions.clear();
+			hasUnindexedRevisions = false;
+		}
+	}
+
 	/**
 	 * Returns a mutable snapshot of capabilities that are candidates for
 	 * satisfying the specified requirement.
@@ -876,6 +979,7 @@ public class ModuleDatabase {
 	final List<ModuleCapability> findCapabilities(Requirement requirement) {
 		readLock();
 		try {
+			indexCapabilities();
 			return capabilities.findCapabilities(requirement);
 		} finally {
 			readUnlock();
@@ -903,6 +1007,7 @@ public class ModuleDatabase {
 	public final void store(DataOutputStream out, boolean persistWirings) throws IOException {
 		readLock();
 		try {
+			resetDeltaTracking();
 			Persistence.store(this, out, persistWirings);
 		} finally {
 			readUnlock();
@@ -930,6 +1035,114 @@ public class ModuleDatabase {
 			if (allTimeStamp.get() != constructionTime)
 				throw new IllegalStateException("Can only load into a empty database."); //$NON-NLS-1$
 			Persistence.load(this, in);
+			resetDeltaTracking();
+		} finally {
+			writeUnlock();
+		}
+	}
+
+	/**
+	 * Writes the modules installed, updated and uninstalled as well as the module
+	 * settings, module start levels and initial module start level that changed since
+	 * this database was last {@link #store(DataOutputStream, boolean) stored} or since
+	 * the last delta was stored. The written delta can be applied with
+	 * {@link #loadDelta(DataInputStream)} to a database loaded from the last full store
+	 * and the deltas stored before this one.
+	 * <p>
+	 * A delta does not record wirings. If the wirings changed since the last full store
+	 * or the last delta then a full store must be done instead, see
+	 * {@link #canStoreDelta()}.
+	 * <p>
+	 * This method acquires the {@link #readLock() read} lock while writing the delta.
+	 * @param out the data output stream.
+	 * @return the modules installed or updated by the delta, ordered by module ID.
+	 * The revision info of their current revisions must be available from the
+	 * {@link ModuleContainerAdaptor#getRevisionInfo(String, long) adaptor} when the
+	 * delta is loaded.
+	 * @throws IOException if writing the delta to the specified output stream throws an IOException
+	 * @since 3.19
+	 */
+	public final List<Module> storeDelta(DataOutputStream out) throws IOException {
+		readLock();
+		try {
+			List<Module> revised = getDeltaModules(revisedModules);
+			List<Module> changed = getDeltaModules(changedModules);
+			List<Long> uninstalled = new ArrayList<>(uninstalledModules);
+			long baseTimeStamp = deltaBaseTimeStamp;
+			resetDeltaTracking();
+			Persistence.storeDelta(this, baseTimeStamp, uninstalled, revised, changed, out);
+			return revised;
+		} finally {
+			readUnlock();
+		}
+	}
+
+	private List<Module> getDeltaModules(Set<Long> ids) {
+		List<Module> modules = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			Module module = modulesById.get(id);
+			if (module != null) {
+				modules.add(module);
+			}
+		}
+		Collections.sort(modules, (m1, m2) -> Long.compare(m1.getId(), m2.getId()));
+		return modules;
+	}
+
+	private void resetDeltaTracking() {
+		changedModules.clear();
+		revisedModules.clear();
+		uninstalledModules.clear();
+		wiringsChanged = false;
+		deltaBaseTimeStamp = revisionsTimeStamp.get();
+	}
+
+	/**
+	 * Returns true if the changes since this database was last
+	 * {@link #store(DataOutputStream, boolean) stored} or since the last delta was
+	 * stored can be written with {@link #storeDelta(DataOutputStream)}.  A delta
+	 * cannot be stored if the wirings changed or if the system module got a new
+	 * revision.
+	 * <p>
+	 * A read operation protected by the {@link #readLock() read} lock.
+	 * @return true if the changes can be written as a delta
+	 * @since 3.19
+	 */
+	public final boolean canStoreDelta() {
+		readLock();
+		try {
+			return deltaBaseTimeStamp != -1 && !wiringsChanged && !revisedModules.contains(0L) && !uninstalledModules.contains(0L);
+		} finally {
+			readUnlock();
+		}
+	}
+
+	/**
+	 * Applies a delta written by {@link #storeDelta(DataOutputStream)} to this
+	 * database.  The delta is ignored if it was written for different revisions
+	 * than the ones currently loaded or if it is older than the current
+	 * {@link #getTimestamp() timestamp}.
+	 * <p>
+	 * The revision info of installed and updated modules is obtained from the
+	 * {@link ModuleContainerAdaptor#getRevisionInfo(String, long) adaptor}.
+	 * A delta does not change the wirings; it is rejected if it updates or
+	 * uninstalls a module which is resolved in this database.
+	 * <p>
+	 * This method acquires the {@link #writeLock() write} lock while applying the delta.
+	 * @param in the data input stream.
+	 * @return true if the delta was applied; false if it was ignored.
+	 * @throws IOException if an error occurred when reading from the input stream.
+	 * @throws IllegalArgumentException if the delta is not compatible with this database.
+	 * @since 3.19
+	 */
+	public final boolean loadDelta(DataInputStream in) throws IOException {
+		writeLock();
+		try {
+			boolean applied = Persistence.loadDelta(this, in);
+			if (applied) {
+				resetDeltaTracking();
+			}
+			return applied;
 		} finally {
 			writeUnlock();
 		}
@@ -941,6 +1154,7 @@ public class ModuleDatabase {
 			EnumSet<Settings> existing = moduleSettings.get(module.getId());
 			if (!settings.equals(existing)) {
 				moduleSettings.put(module.getId(), EnumSet.copyOf(settings));
+				changedModules.add(module.getId());
 				incrementTimestamps(false);
 			}
 		} finally {
@@ -953,6 +1167,7 @@ public class ModuleDatabase {
 		try {
 			module.checkValid();
 			module.storeStartLevel(startlevel);
+			changedModules.add(module.getId());
 			incrementTimestamps(false);
 		} finally {
 			writeUnlock();
@@ -979,7 +1194,13 @@ public class ModuleDatabase {
 	}
 
 	private static class Persistence {
-		private static final int VERSION = 3;
+		private static final int VERSION = 4;
+		/**
+		 * The last version that stores everything in one stream
+		 * which must be read completely when loading.
+		 */
+		private static final int STREAM_VERSION = 3;
+		private static final int DELTA_VERSION = 2;
 		private static final byte NULL = 0;
 		private static final byte OBJECT = 1;
 		private static final byte INDEX = 2;
@@ -1032,9 +1253,13 @@ public class ModuleDatabase {
 			Set<Map<String, ?>> allMaps = new HashSet<>();
 
 			// first gather all the strings, versions and maps from the modules
-			List<Module> modules = moduleDatabase.getModules();
-			for (Module module : modules) {
-				getStringsVersionsAndMaps(module, moduleDatabase, allStrings, allVersions, allMaps);
+			List<ModuleRevision> revisions = new ArrayList<>();
+			for (Module module : moduleDatabase.getModules()) {
+				ModuleRevision current = module.getCurrentRevision();
+				if (current != null) {
+					revisions.add(current);
+					getStringsVersionsAndMaps(module, moduleDatabase, allStrings, allVersions, allMaps);
+				}
 			}
 			// outside of the modules the wirings have 'substituted' packages strings
 			Map<ModuleRevision, ModuleWiring> wirings = moduleDatabase.wirings;
@@ -1042,55 +1267,112 @@ public class ModuleDatabase {
 				Collection<String> substituted = wiring.getSubstitutedNames();
 				allStrings.addAll(substituted);
 			}
+			allStrings.remove(null);
 
-			// Now persist all the Strings
+			// The strings, versions, maps, revisions and wirings are written to a data
+			// section and are referenced by their offset into the data section.  This
+			// allows each of them to be decoded only when it is used after loading.
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream data = new DataOutputStream(bytes);
 			Map<Object, Integer> objectTable = new HashMap<>();
-			allStrings.remove(null);
-			out.writeInt(allStrings.size());
+			int[] objectOffsets = new int[allStrings.size() + allVersions.size() + allMaps.size()];
 			for (String string : allStrings) {
-				writeString(string, out, objectTable);
-				out.writeInt(addToWriteTable(string, objectTable));
+				objectOffsets[objectTable.size()] = data.size();
+				writeString(string, data, objectTable);
+				addToWriteTable(string, objectTable);
 			}
 			// Followed by versions which may reference strings with their qualifier
-			out.writeInt(allVersions.size());
 			for (Version version : allVersions) {
-				writeVersion(version, out, objectTable);
-				out.writeInt(addToWriteTable(version, objectTable));
+				objectOffsets[objectTable.size()] = data.size();
+				writeVersion(version, data, objectTable);
+				addToWriteTable(version, objectTable);
 			}
 			// Followed by maps which may reference the strings and versions
-			out.writeInt(allMaps.size());
 			for (Map<String, ?> map : allMaps) {
-				writeMap(map, out, objectTable, moduleDatabase);
-				out.writeInt(addToWriteTable(map, objectTable));
+				objectOffsets[objectTable.size()] = data.size();
+				writeMap(map, data, objectTable, moduleDatabase);
+				addToWriteTable(map, objectTable);
 			}
 
-			// Followed by modules which reference the strings, versions, and maps
-			out.writeInt(modules.size());
-			for (Module module : modules) {
-				writeModule(module, moduleDatabase, out, objectTable);
+			// Followed by the declarations of the revisions which are referenced
+			// by the index of the revision and the ordinal of the declaration
+			Map<ModuleRevision, Integer> revisionIndexes = new HashMap<>();
+			Map<Object, Integer> ordinals = new HashMap<>();
+			int[] revisionOffsets = new int[revisions.size()];
+			for (int i = 0; i < revisions.size(); i++) {
+				ModuleRevision current = revisions.get(i);
+				revisionIndexes.put(current, i);
+				revisionOffsets[i] = data.size();
+				writeRevision(current, data, objectTable, ordinals);
 			}
 
 			Collection<ModuleRevision> removalPendings = moduleDatabase.getRemovalPending();
 			// only persist wirings if there are no removals pending
 			persistWirings &= removalPendings.isEmpty();
-			out.writeBoolean(persistWirings);
-			if (!persistWirings) {
-				return;
+			int[] wiringOffsets = new int[revisions.size()];
+			int[] requiredWiresOffsets = new int[revisions.size()];
+			int[] providedWiresOffsets = new int[revisions.size()];
+			if (persistWirings) {
+				// Followed by the wirings; the required wires are written first
+				// so that the provided wires can reference them
+				Map<ModuleWire, int[]> wireIndexes = new HashMap<>();
+				for (ModuleWiring wiring : wirings.values()) {
+					int index = getIndex(wiring.getRevision(), revisionIndexes, "Could not find revision for wiring."); //$NON-NLS-1$
+					requiredWiresOffsets[index] = data.size();
+					List<ModuleWire> requiredWires = wiring.getPersistentRequiredWires();
+					data.writeInt(requiredWires.size());
+					for (int i = 0; i < requiredWires.size(); i++) {
+						ModuleWire wire = requiredWires.get(i);
+						writeWire(wire, data, revisionIndexes, ordinals);
+						wireIndexes.put(wire, new int[] {index, i});
+					}
+					wiringOffsets[index] = data.size();
+					writeWiring(wiring, data, objectTable, revisionIndexes, ordinals);
+				}
+				for (ModuleWiring wiring : wirings.values()) {
+					int index = revisionIndexes.get(wiring.getRevision());
+					providedWiresOffsets[index] = data.size();
+					List<ModuleWire> providedWires = wiring.getPersistentProvidedWires();
+					data.writeInt(providedWires.size());
+					for (ModuleWire wire : providedWires) {
+						int[] wireIndex = wireIndexes.get(wire);
+						if (wireIndex == null)
+							throw new NullPointerException("Could not find provided wire for wiring."); //$NON-NLS-1$
+						data.writeInt(wireIndex[0]);
+						data.writeInt(wireIndex[1]);
+					}
+				}
 			}
 
-			// prime the object table with all the required wires which reference the modules
-			out.writeInt(wirings.size());
-			for (ModuleWiring wiring : wirings.values()) {
-				List<ModuleWire> requiredWires = wiring.getPersistentRequiredWires();
-				out.writeInt(requiredWires.size());
-				for (ModuleWire wire : requiredWires) {
-					writeWire(wire, out, objectTable);
-				}
+			// Now persist the offsets of the objects and the data section
+			out.writeInt(allStrings.size());
+			out.writeInt(allVersions.size());
+			out.writeInt(allMaps.size());
+			for (int offset : objectOffsets) {
+				out.writeInt(offset);
 			}
+			out.writeInt(data.size());
+			bytes.writeTo(out);
 
-			// now write all the info about each wiring using only indexes from the objectTable
-			for (ModuleWiring wiring : wirings.values()) {
-				writeWiring(wiring, out, objectTable);
+			// Followed by the index of the modules which reference the objects and
+			// the offsets of the revisions
+			out.writeInt(revisions.size());
+			for (int i = 0; i < revisions.size(); i++) {
+				writeModule(revisions.get(i), moduleDatabase, out, objectTable);
+				out.writeInt(revisionOffsets[i]);
+			}
+
+			// Followed by the index of the wirings
+			out.writeBoolean(persistWirings);
+			if (persistWirings) {
+				out.writeInt(wirings.size());
+				for (ModuleWiring wiring : wirings.values()) {
+					int index = revisionIndexes.get(wiring.getRevision());
+					out.writeInt(index);
+					out.writeInt(wiringOffsets[index]);
+					out.writeInt(requiredWiresOffsets[index]);
+					out.writeInt(providedWiresOffsets[index]);
+				}
 			}
 
 			out.flush();
@@ -1167,6 +1449,11 @@ public class ModuleDatabase {
 			moduleDatabase.nextId.set(in.readLong());
 			moduleDatabase.setInitialModuleStartLevel(in.readInt());
 
+			if (version > STREAM_VERSION) {
+				loadIndexed(moduleDatabase, in, revisionsTimeStamp, allTimeStamp);
+				return;
+			}
+
 			List<Object> objectTable = new ArrayList<>();
 
 			if (version >= 2) {
@@ -1222,33 +1509,297 @@ public class ModuleDatabase {
 			moduleDatabase.allTimeStamp.set(allTimeStamp);
 		}
 
-		private static void writeModule(Module module, ModuleDatabase moduleDatabase, DataOutputStream out, Map<Object, Integer> objectTable) throws IOException {
-			ModuleRevision current = module.getCurrentRevision();
-			if (current == null)
-				return;
-			out.writeInt(addToWriteTable(current, objectTable));
+		private static void loadIndexed(ModuleDatabase moduleDatabase, DataInputStream in, long revisionsTimeStamp, long allTimeStamp) throws IOException {
+			int numStrings = in.readInt();
+			int numVersions = in.readInt();
+			int numMaps = in.readInt();
+			int[] objectOffsets = new int[numStrings + numVersions + numMaps];
+			for (int i = 0; i < objectOffsets.length; i++) {
+				objectOffsets[i] = in.readInt();
+			}
+			byte[] data = new byte[in.readInt()];
+			in.readFully(data);
 
-			writeString(module.getLocation(), out, objectTable);
-			out.writeLong(module.getId());
+			int numModules = in.readInt();
+			IndexedData indexedData = new IndexedData(data, objectOffsets, numStrings, numVersions, numModules);
+			List<Object> objectTable = indexedData.objectTable;
+			ModuleRevisionBuilder builder = new ModuleRevisionBuilder();
+			for (int i = 0; i < numModules; i++) {
+				long id = in.readLong();
+				String location = readString(in, objectTable);
+				builder.setSymbolicName(readString(in, objectTable));
+				builder.setVersion(readVersion(in, objectTable));
+				builder.setTypes(in.readInt());
+
+				// settings
+				EnumSet<Settings> settings = null;
+				int numSettings = in.readInt();
+				if (numSettings > 0) {
+					settings = EnumSet.noneOf(Settings.class);
+					for (int j = 0; j < numSettings; j++) {
+						settings.add(Settings.valueOf(readString(in, objectTable)));
+					}
+				}
 
-			writeString(current.getSymbolicName(), out, objectTable);
-			writeVersion(current.getVersion(), out, objectTable);
-			out.writeInt(current.getTypes());
+				// startlevel
+				int startlevel = in.readInt();
 
-			List<ModuleCapability> capabilities = current.getModuleCapabilities(null);
-			out.writeInt(capabilities.size());
-			for (ModuleCapability capability : capabilities) {
-				out.writeInt(addToWriteTable(capability, objectTable));
-				writeGenericInfo(capability.getNamespace(), capability.getPersistentAttributes(), capability.getDirectives(), out, objectTable);
+				// last modified
+				long lastModified = in.readLong();
+
+				// the declarations are decoded from the revision offset when first used
+				indexedData.revisionOffsets[i] = in.readInt();
+
+				Object revisionInfo = moduleDatabase.adaptor.getRevisionInfo(location, id);
+				Module module = moduleDatabase.load(location, builder, revisionInfo, new IndexedModule(indexedData, i), id, settings, startlevel);
+				module.setlastModified(lastModified);
+				indexedData.revisions[i] = module.getCurrentRevision();
 			}
 
-			List<Requirement> requirements = current.getRequirements(null);
-			out.writeInt(requirements.size());
-			for (Requirement requirement : requirements) {
-				out.writeInt(addToWriteTable(requirement, objectTable));
-				writeGenericInfo(requirement.getNamespace(), requirement.getAttributes(), requirement.getDirectives(), out, objectTable);
+			moduleDatabase.revisionsTimeStamp.set(revisionsTimeStamp);
+			moduleDatabase.allTimeStamp.set(allTimeStamp);
+			if (!in.readBoolean())
+				return; // no wires persisted
+
+			int numWirings = in.readInt();
+			Map<ModuleRevision, ModuleWiring> wirings = new HashMap<>();
+			for (int i = 0; i < numWirings; i++) {
+				int index = in.readInt();
+				indexedData.wiringOffsets[index] = in.readInt();
+				indexedData.requiredWiresOffsets[index] = in.readInt();
+				indexedData.providedWiresOffsets[index] = in.readInt();
+				ModuleRevision revision = indexedData.revisions[index];
+				wirings.put(revision, new ModuleWiring(revision, new IndexedModule(indexedData, index)));
+			}
+			// TODO need to do this without incrementing the timestamp
+			moduleDatabase.setWiring(wirings);
+
+			// need to set the resolution state of the modules
+			for (ModuleWiring wiring : wirings.values()) {
+				wiring.getRevision().getRevisions().getModule().setState(State.RESOLVED);
+			}
+
+			// Setting the timestamp at the end since some operations increment it
+			moduleDatabase.revisionsTimeStamp.set(revisionsTimeStamp);
+			moduleDatabase.allTimeStamp.set(allTimeStamp);
+		}
+
+		public static void storeDelta(ModuleDatabase moduleDatabase, long baseTimeStamp, List<Long> uninstalled, List<Module> revised, List<Module> changed, DataOutputStream out) throws IOException {
+			out.writeInt(DELTA_VERSION);
+			out.writeLong(baseTimeStamp);
+			out.writeLong(moduleDatabase.getRevisionsTimestamp());
+			out.writeLong(moduleDatabase.getTimestamp());
+			out.writeLong(moduleDatabase.getNextId());
+			out.writeInt(moduleDatabase.getInitialModuleStartLevel());
+			Module systemModule = moduleDatabase.modulesById.get(0L);
+			out.writeLong(systemModule == null ? 0 : systemModule.getLastModified());
+
+			out.writeInt(uninstalled.size());
+			for (Long id : uninstalled) {
+				out.writeLong(id);
+			}
+
+			// the delta is small; strings, versions and maps are written inline
+			Map<Object, Integer> objectTable = Collections.emptyMap();
+			out.writeInt(revised.size());
+			for (Module module : revised) {
+				ModuleRevision current = module.getCurrentRevision();
+				out.writeLong(module.getId());
+				writeString(module.getLocation(), out, objectTable);
+				writeString(current.getSymbolicName(), out, objectTable);
+				writeVersion(current.getVersion(), out, objectTable);
+				out.writeInt(current.getTypes());
+				out.writeLong(module.getLastModified());
+
+				List<ModuleCapability> capabilities = current.getModuleCapabilities(null);
+				out.writeInt(capabilities.size());
+				for (ModuleCapability capability : capabilities) {
+					writeString(capability.getNamespace(), out, objectTable);
+					writeMap(capability.getPersistentAttributes(), out, objectTable, moduleDatabase);
+					writeMap(capability.getDirectives(), out, objectTable, moduleDatabase);
+				}
+
+				List<ModuleRequirement> requirements = current.getModuleRequirements(null);
+				out.writeInt(requirements.size());
+				for (ModuleRequirement requirement : requirements) {
+					writeString(requirement.getNamespace(), out, objectTable);
+					writeMap(requirement.getAttributes(), out, objectTable, moduleDatabase);
+					writeMap(requirement.getDirectives(), out, objectTable, moduleDatabase);
+				}
+				writeDeltaSettings(moduleDatabase, module, out);
 			}
 
+			out.writeInt(changed.size());
+			for (Module module : changed) {
+				out.writeLong(module.getId());
+				writeDeltaSettings(moduleDatabase, module, out);
+			}
+			out.flush();
+		}
+
+		private static void writeDeltaSettings(ModuleDatabase moduleDatabase, Module module, DataOutputStream out) throws IOException {
+			out.writeInt(module.getStartLevel());
+			EnumSet<Settings> settings = moduleDatabase.moduleSettings.get(module.getId());
+			out.writeInt(settings == null ? 0 : settings.size());
+			if (settings != null) {
+				for (Settings setting : settings) {
+					out.writeUTF(setting.name());
+				}
+			}
+		}
+
+		private static EnumSet<Settings> readDeltaSettings(DataInputStream in) throws IOException {
+			EnumSet<Settings> settings = null;
+			int numSettings = in.readInt();
+			if (numSettings > 0) {
+				settings = EnumSet.noneOf(Settings.class);
+				for (int j = 0; j < numSettings; j++) {
+					settings.add(Settings.valueOf(in.readUTF()));
+				}
+			}
+			return settings;
+		}
+
+		public static boolean loadDelta(ModuleDatabase moduleDatabase, DataInputStream in) throws IOException {
+			int version = in.readInt();
+			if (version != DELTA_VERSION)
+				throw new IllegalArgumentException("The version of the persistent framework delta is not compatible: " + version + " expecting: " + DELTA_VERSION); //$NON-NLS-1$ //$NON-NLS-2$
+			long baseTimeStamp = in.readLong();
+			long revisionsTimeStamp = in.readLong();
+			long allTimeStamp = in.readLong();
+			long nextId = in.readLong();
+			int initialModuleStartLevel = in.readInt();
+			long systemLastModified = in.readLong();
+
+			// read the complete delta before modifying the database
+			int numUninstalled = in.readInt();
+			List<Long> uninstalled = new ArrayList<>(numUninstalled);
+			for (int i = 0; i < numUninstalled; i++) {
+				uninstalled.add(in.readLong());
+			}
+
+			List<Object> objectTable = Collections.emptyList();
+			int numRevised = in.readInt();
+			List<DeltaModule> revised = new ArrayList<>(numRevised);
+			for (int i = 0; i < numRevised; i++) {
+				DeltaModule deltaModule = new DeltaModule(in.readLong(), readString(in, objectTable));
+				ModuleRevisionBuilder builder = deltaModule.builder;
+				builder.setSymbolicName(readString(in, objectTable));
+				builder.setVersion(readVersion(in, objectTable));
+				builder.setTypes(in.readInt());
+				deltaModule.lastModified = in.readLong();
+				int numCapabilities = in.readInt();
+				for (int j = 0; j < numCapabilities; j++) {
+					// version 1 of the format has the maps inline
+					readGenericInfo(true, in, builder, objectTable, 1);
+				}
+				int numRequirements = in.readInt();
+				for (int j = 0; j < numRequirements; j++) {
+					readGenericInfo(false, in, builder, objectTable, 1);
+				}
+				deltaModule.startlevel = in.readInt();
+				deltaModule.settings = readDeltaSettings(in);
+				revised.add(deltaModule);
+			}
+
+			int numChanged = in.readInt();
+			List<DeltaModule> changed = new ArrayList<>(numChanged);
+			for (int i = 0; i < numChanged; i++) {
+				DeltaModule deltaModule = new DeltaModule(in.readLong(), null);
+				deltaModule.startlevel = in.readInt();
+				deltaModule.settings = readDeltaSettings(in);
+				changed.add(deltaModule);
+			}
+
+			if (baseTimeStamp != moduleDatabase.revisionsTimeStamp.get() || allTimeStamp <= moduleDatabase.allTimeStamp.get()) {
+				return false;
+			}
+			for (Long id : uninstalled) {
+				Module module = moduleDatabase.modulesById.get(id);
+				if (module != null) {
+					checkUnresolved(moduleDatabase, module);
+				}
+			}
+			for (DeltaModule deltaModule : revised) {
+				Module module = moduleDatabase.modulesById.get(deltaModule.id);
+				if (module != null) {
+					checkUnresolved(moduleDatabase, module);
+				}
+			}
+
+			for (Long id : uninstalled) {
+				Module module = moduleDatabase.modulesById.get(id);
+				if (module != null) {
+					moduleDatabase.uninstall(module);
+				}
+			}
+			for (DeltaModule deltaModule : revised) {
+				Object revisionInfo = moduleDatabase.adaptor.getRevisionInfo(deltaModule.location, deltaModule.id);
+				Module module = moduleDatabase.modulesById.get(deltaModule.id);
+				if (module == null) {
+					module = moduleDatabase.load(deltaModule.location, deltaModule.builder, revisionInfo, deltaModule.id, deltaModule.settings, deltaModule.startlevel);
+				} else {
+					moduleDatabase.update(module, deltaModule.builder, revisionInfo);
+				}
+				module.setlastModified(deltaModule.lastModified);
+			}
+			revised.addAll(changed);
+			for (DeltaModule deltaModule : revised) {
+				Module module = moduleDatabase.modulesById.get(deltaModule.id);
+				if (module != null) {
+					module.storeStartLevel(deltaModule.startlevel);
+					module.storeSettings(deltaModule.settings);
+					if (deltaModule.settings == null) {
+						moduleDatabase.moduleSettings.remove(deltaModule.id);
+					} else {
+						moduleDatabase.moduleSettings.put(deltaModule.id, deltaModule.settings);
+					}
+				}
+			}
+
+			Module systemModule = moduleDatabase.modulesById.get(0L);
+			if (systemModule != null) {
+				systemModule.setlastModified(systemLastModified);
+			}
+			moduleDatabase.nextId.set(nextId);
+			moduleDatabase.initialModuleStartLevel = initialModuleStartLevel;
+			// Setting the timestamps at the end since some operations increment them
+			moduleDatabase.revisionsTimeStamp.set(revisionsTimeStamp);
+			moduleDatabase.allTimeStamp.set(allTimeStamp);
+			return true;
+		}
+
+		private static void checkUnresolved(ModuleDatabase moduleDatabase, Module module) {
+			// a delta is only stored when the wirings did not change
+			if (moduleDatabase.wirings.containsKey(module.getCurrentRevision()))
+				throw new IllegalArgumentException("The persistent framework delta changes the resolved module: " + module); //$NON-NLS-1$
+		}
+
+		/**
+		 * A module installed, updated or changed by a delta.
+		 */
+		private static class DeltaModule {
+			final long id;
+			final String location;
+			final ModuleRevisionBuilder builder = new ModuleRevisionBuilder();
+			long lastModified;
+			int startlevel;
+			EnumSet<Settings> settings;
+
+			DeltaModule(long id, String location) {
+				this.id = id;
+				this.location = location;
+			}
+		}
+
+		private static void writeModule(ModuleRevision current, ModuleDatabase moduleDatabase, DataOutputStream out, Map<Object, Integer> objectTable) throws IOException {
+			Module module = current.getRevisions().getModule();
+			out.writeLong(module.getId());
+			writeString(module.getLocation(), out, objectTable);
+			writeString(current.getSymbolicName(), out, objectTable);
+			writeVersion(current.getVersion(), out, objectTable);
+			out.writeInt(current.getTypes());
+
 			// settings
 			EnumSet<Settings> settings = moduleDatabase.moduleSettings.get(module.getId());
 			out.writeInt(settings == null ? 0 : settings.size());
@@ -1265,6 +1816,79 @@ public class ModuleDatabase {
 			out.writeLong(module.getLastModified());
 		}
 
+		private static void writeRevision(ModuleRevision current, DataOutputStream out, Map<Object, Integer> objectTable, Map<Object, Integer> ordinals) throws IOException {
+			List<ModuleCapability> capabilities = current.getModuleCapabilities(null);
+			out.writeInt(capabilities.size());
+			for (int i = 0; i < capabilities.size(); i++) {
+				ModuleCapability capability = capabilities.get(i);
+				ordinals.put(capability, i);
+				writeGenericInfo(capability.getNamespace(), capability.getPersistentAttributes(), capability.getDirectives(), out, objectTable);
+			}
+
+			List<ModuleRequirement> requirements = current.getModuleRequirements(null);
+			out.writeInt(requirements.size());
+			for (int i = 0; i < requirements.size(); i++) {
+				ModuleRequirement requirement = requirements.get(i);
+				ordinals.put(requirement, i);
+				writeGenericInfo(requirement.getNamespace(), requirement.getAttributes(), requirement.getDirectives(), out, objectTable);
+			}
+		}
+
+		private static void readRevision(DataInputStream in, ModuleRevisionBuilder builder, List<Object> objectTable) throws IOException {
+			int numCapabilities = in.readInt();
+			for (int i = 0; i < numCapabilities; i++) {
+				readGenericInfo(true, in, builder, objectTable, VERSION);
+			}
+
+			int numRequirements = in.readInt();
+			for (int i = 0; i < numRequirements; i++) {
+				readGenericInfo(false, in, builder, objectTable, VERSION);
+			}
+		}
+
+		private static void writeWire(ModuleWire wire, DataOutputStream out, Map<ModuleRevision, Integer> revisionIndexes, Map<Object, Integer> ordinals) throws IOException {
+			String message = "Could not find the expected indexes"; //$NON-NLS-1$
+			writeReference(wire.getCapability(), wire.getCapability().getRevision(), out, revisionIndexes, ordinals, message);
+			out.writeInt(getIndex(wire.getProvider(), revisionIndexes, message));
+			writeReference(wire.getRequirement(), wire.getRequirement().getRevision(), out, revisionIndexes, ordinals, message);
+			out.writeInt(getIndex(wire.getRequirer(), revisionIndexes, message));
+		}
+
+		private static void writeWiring(ModuleWiring wiring, DataOutputStream out, Map<Object, Integer> objectTable, Map<ModuleRevision, Integer> revisionIndexes, Map<Object, Integer> ordinals) throws IOException {
+			List<ModuleCapability> capabilities = wiring.getModuleCapabilities(null);
+			out.writeInt(capabilities.size());
+			for (ModuleCapability capability : capabilities) {
+				writeReference(capability, capability.getRevision(), out, revisionIndexes, ordinals, "Could not find capability for wiring."); //$NON-NLS-1$
+			}
+
+			List<ModuleRequirement> requirements = wiring.getPersistentRequirements();
+			out.writeInt(requirements.size());
+			for (ModuleRequirement requirement : requirements) {
+				writeReference(requirement, requirement.getRevision(), out, revisionIndexes, ordinals, "Could not find requirement for wiring."); //$NON-NLS-1$
+			}
+
+			Collection<String> substituted = wiring.getSubstitutedNames();
+			out.writeInt(substituted.size());
+			for (String pkgName : substituted) {
+				writeString(pkgName, out, objectTable);
+			}
+		}
+
+		private static void writeReference(Object declaration, ModuleRevision revision, DataOutputStream out, Map<ModuleRevision, Integer> revisionIndexes, Map<Object, Integer> ordinals, String message) throws IOException {
+			Integer ordinal = ordinals.get(declaration);
+			if (ordinal == null)
+				throw new NullPointerException(message);
+			out.writeInt(getIndex(revision, revisionIndexes, message));
+			out.writeInt(ordinal);
+		}
+
+		private static int getIndex(ModuleRevision revision, Map<ModuleRevision, Integer> revisionIndexes, String message) {
+			Integer index = revisionIndexes.get(revision);
+			if (index == null)
+				throw new NullPointerException(message);
+			return index;
+		}
+
 		private static void readModule(ModuleRevisionBuilder builder, ModuleDatabase moduleDatabase, DataInputStream in, List<Object> objectTable, int version) throws IOException {
 			builder.clear();
 			int moduleIndex = in.readInt();
@@ -1320,24 +1944,6 @@ public class ModuleDatabase {
 			}
 		}
 
-		private static void writeWire(ModuleWire wire, DataOutputStream out, Map<Object, Integer> objectTable) throws IOException {
-			Wire w = wire;
-			Integer capability = objectTable.get(w.getCapability());
-			Integer provider = objectTable.get(w.getProvider());
-			Integer requirement = objectTable.get(w.getRequirement());
-			Integer requirer = objectTable.get(w.getRequirer());
-
-			if (capability == null || provider == null || requirement == null || requirer == null)
-				throw new NullPointerException("Could not find the expected indexes"); //$NON-NLS-1$
-
-			out.writeInt(addToWriteTable(wire, objectTable));
-
-			out.writeInt(capability);
-			out.writeInt(provider);
-			out.writeInt(requirement);
-			out.writeInt(requirer);
-		}
-
 		private static void readWire(DataInputStream in, List<Object> objectTable) throws IOException {
 			int wireIndex = in.readInt();
 
@@ -1354,55 +1960,6 @@ public class ModuleDatabase {
 			addToReadTable(result, wireIndex, objectTable);
 		}
 
-		private static void writeWiring(ModuleWiring wiring, DataOutputStream out, Map<Object, Integer> objectTable) throws IOException {
-			Integer revisionIndex = objectTable.get(wiring.getRevision());
-			if (revisionIndex == null)
-				throw new NullPointerException("Could not find revision for wiring."); //$NON-NLS-1$
-			out.writeInt(revisionIndex);
-
-			List<ModuleCapability> capabilities = wiring.getModuleCapabilities(null);
-			out.writeInt(capabilities.size());
-			for (ModuleCapability capability : capabilities) {
-				Integer capabilityIndex = objectTable.get(capability);
-				if (capabilityIndex == null)
-					throw new NullPointerException("Could not find capability for wiring."); //$NON-NLS-1$
-				out.writeInt(capabilityIndex);
-			}
-
-			List<ModuleRequirement> requirements = wiring.getPersistentRequirements();
-			out.writeInt(requirements.size());
-			for (ModuleRequirement requirement : requirements) {
-				Integer requirementIndex = objectTable.get(requirement);
-				if (requirementIndex == null)
-					throw new NullPointerException("Could not find requirement for wiring."); //$NON-NLS-1$
-				out.writeInt(requirementIndex);
-			}
-
-			List<ModuleWire> providedWires = wiring.getPersistentProvidedWires();
-			out.writeInt(providedWires.size());
-			for (ModuleWire wire : providedWires) {
-				Integer wireIndex = objectTable.get(wire);
-				if (wireIndex == null)
-					throw new NullPointerException("Could not find provided wire for wiring."); //$NON-NLS-1$
-				out.writeInt(wireIndex);
-			}
-
-			List<ModuleWire> requiredWires = wiring.getPersistentRequiredWires();
-			out.writeInt(requiredWires.size());
-			for (ModuleWire wire : requiredWires) {
-				Integer wireIndex = objectTable.get(wire);
-				if (wireIndex == null)
-					throw new NullPointerException("Could not find required wire for wiring."); //$NON-NLS-1$
-				out.writeInt(wireIndex);
-			}
-
-			Collection<String> substituted = wiring.getSubstitutedNames();
-			out.writeInt(substituted.size());
-			for (String pkgName : substituted) {
-				writeString(pkgName, out, objectTable);
-			}
-		}
-
 		private static ModuleWiring readWiring(DataInputStream in, List<Object> objectTable) throws IOException {
 			ModuleRevision revision = (ModuleRevision) objectTable.get(in.readInt());
 			if (revision == null)
@@ -1733,5 +2290,167 @@ public class ModuleDatabase {
 
 			return intern ? ObjectPool.intern(string) : string;
 		}
+
+		/**
+		 * The data of a database loaded from the indexed format.  The strings, versions,
+		 * maps, declarations and wirings are decoded from the data section the first
+		 * time they are used while holding the lock of this object.  The data section
+		 * is released once no undecoded revision or wiring references it anymore.
+		 */
+		private static class IndexedData {
+			final byte[] data;
+			final int[] objectOffsets;
+			final int numStrings;
+			final int numVersions;
+			final Object[] objects;
+			final List<Object> objectTable = new AbstractList<Object>() {
+				@Override
+				public Object get(int index) {
+					return getObject(index);
+				}
+
+				@Override
+				public int size() {
+					return objects.length;
+				}
+			};
+			final ModuleRevision[] revisions;
+			final int[] revisionOffsets;
+			final int[] wiringOffsets;
+			final int[] requiredWiresOffsets;
+			final int[] providedWiresOffsets;
+			final ModuleWire[][] requiredWires;
+
+			IndexedData(byte[] data, int[] objectOffsets, int numStrings, int numVersions, int numModules) {
+				this.data = data;
+				this.objectOffsets = objectOffsets;
+				this.numStrings = numStrings;
+				this.numVersions = numVersions;
+				this.objects = new Object[objectOffsets.length];
+				this.revisions = new ModuleRevision[numModules];
+				this.revisionOffsets = new int[numModules];
+				this.wiringOffsets = new int[numModules];
+				this.requiredWiresOffsets = new int[numModules];
+				this.providedWiresOffsets = new int[numModules];
+				this.requiredWires = new ModuleWire[numModules][];
+			}
+
+			DataInputStream getData(int offset) {
+				return new DataInputStream(new ByteArrayInputStream(data, offset, data.length - offset));
+			}
+
+			Object getObject(int index) {
+				Object object = objects[index];
+				if (object == null) {
+					try {
+						DataInputStream in = getData(objectOffsets[index]);
+						if (index < numStrings) {
+							object = readString0(in, objectTable, false);
+						} else if (index < numStrings + numVersions) {
+							object = readVersion0(in, objectTable, false);
+						} else {
+							object = readMap(in, objectTable);
+						}
+					} catch (IOException e) {
+						throw new IllegalStateException("Could not read the persistent framework data.", e); //$NON-NLS-1$
+					}
+					objects[index] = object;
+				}
+				return object;
+			}
+
+			ModuleWire[] getRequiredWires(int index) throws IOException {
+				ModuleWire[] wires = requiredWires[index];
+				if (wires == null) {
+					DataInputStream in = getData(requiredWiresOffsets[index]);
+					wires = new ModuleWire[in.readInt()];
+					for (int i = 0; i < wires.length; i++) {
+						ModuleCapability capability = revisions[in.readInt()].getModuleCapabilities(null).get(in.readInt());
+						ModuleRevision provider = revisions[in.readInt()];
+						ModuleRequirement requirement = revisions[in.readInt()].getModuleRequirements(null).get(in.readInt());
+						ModuleRevision requirer = revisions[in.readInt()];
+						wires[i] = new ModuleWire(capability, provider, requirement, requirer);
+					}
+					// keep the wires so the provided wires of the providers use the same objects
+					requiredWires[index] = wires;
+				}
+				return wires;
+			}
+		}
+
+		/**
+		 * Decodes the declarations and the wiring of one module of
+		 * an {@link IndexedData indexed} database.
+		 */
+		private static class IndexedModule implements ModuleRevision.DeclarationsDecoder, ModuleWiring.WiringDecoder {
+			private final IndexedData indexedData;
+			private final int index;
+
+			IndexedModule(IndexedData indexedData, int index) {
+				this.indexedData = indexedData;
+				this.index = index;
+			}
+
+			@Override
+			public Object getLock() {
+				return indexedData;
+			}
+
+			@Override
+			public void decode(ModuleRevisionBuilder builder) {
+				try {
+					readRevision(indexedData.getData(indexedData.revisionOffsets[index]), builder, indexedData.objectTable);
+				} catch (IOException e) {
+					throw new IllegalStateException("Could not read the persistent framework data.", e); //$NON-NLS-1$
+				}
+			}
+
+			@Override
+			public void decodeWiring(ModuleWiring wiring) {
+				try {
+					ModuleRevision[] revisions = indexedData.revisions;
+					NamespaceList.Builder<ModuleWire> requiredWires = Builder.create(NamespaceList.WIRE);
+					requiredWires.addAll(Arrays.asList(indexedData.getRequiredWires(index)));
+
+					DataInputStream in = indexedData.getData(indexedData.wiringOffsets[index]);
+					int numCapabilities = in.readInt();
+					NamespaceList.Builder<ModuleCapability> capabilities = Builder.create(NamespaceList.CAPABILITY);
+					for (int i = 0; i < numCapabilities; i++) {
+						capabilities.add(revisions[in.readInt()].getModuleCapabilities(null).get(in.readInt()));
+					}
+
+					int numRequirements = in.readInt();
+					NamespaceList.Builder<ModuleRequirement> requirements = Builder.create(NamespaceList.REQUIREMENT);
+					for (int i = 0; i < numRequirements; i++) {
+						requirements.add(revisions[in.readInt()].getModuleRequirements(null).get(in.readInt()));
+					}
+
+					int numSubstitutedNames = in.readInt();
+					Collection<String> substituted = new ArrayList<>(numSubstitutedNames);
+					for (int i = 0; i < numSubstitutedNames; i++) {
+						substituted.add(readString(in, indexedData.objectTable));
+					}
+
+					wiring.initWiring(capabilities.build(), requirements.build(), requiredWires.build(), substituted);
+				} catch (IOException e) {
+					throw new IllegalStateException("Could not read the persistent framework data.", e); //$NON-NLS-1$
+				}
+			}
+
+			@Override
+			public void decodeProvidedWires(ModuleWiring wiring) {
+				try {
+					DataInputStream in = indexedData.getData(indexedData.providedWiresOffsets[index]);
+					int numProvidedWires = in.readInt();
+					NamespaceList.Builder<ModuleWire> providedWires = Builder.create(NamespaceList.WIRE);
+					for (int i = 0; i < numProvidedWires; i++) {
+						providedWires.add(indexedData.getRequiredWires(in.readInt())[in.readInt()]);
+					}
+					wiring.initProvidedWires(providedWires.build());
+				} catch (IOException e) {
+					throw new IllegalStateException("Could not read the persistent framework data.", e); //$NON-NLS-1$
+				}
+			}
+		}
 	}
 }
@@ -1026,6 +1026,7 @@ final class ModuleResolver {
 			currentlyResolvingMandatory = isMandatory;
 			transitivelyResolveFailures.clear();
 			Map<Resource, List<Wire>> interimResults = null;
+			long begin = System.nanoTime();
 			try {
 				transitivelyResolveFailures.addAll(revisions);
 				interimResults = new ResolverImpl(logger, this).resolve(this);
@@ -1066,6 +1067,7 @@ final class ModuleResolver {
 				}
 				currentlyResolving = null;
 				currentlyResolvingMandatory = false;
+				adaptor.resolvedBatch(revisions.size(), System.nanoTime() - begin);
 			}
 		}
 
@@ -36,11 +36,31 @@ import org.osgi.resource.Requirement;
  * @since 3.10
  */
 public final class ModuleRevision implements BundleRevision {
+	/**
+	 * Decodes the declared capabilities and requirements of a revision
+	 * that was loaded from a persistent database.
+	 */
+	interface DeclarationsDecoder {
+		/**
+		 * Returns the lock held while decoding.  Decoders that share
+		 * data with other decoders must return the same lock.
+		 * @return the lock held while decoding
+		 */
+		Object getLock();
+
+		/**
+		 * Adds the declared capabilities and requirements to the specified builder.
+		 * @param builder the builder to add the declarations to
+		 */
+		void decode(ModuleRevisionBuilder builder);
+	}
+
 	private final String symbolicName;
 	private final Version version;
 	private final int types;
-	private final NamespaceList<ModuleCapability> capabilities;
-	private final NamespaceList<ModuleRequirement> requirements;
+	private volatile NamespaceList<ModuleCapability> capabilities;
+	private volatile NamespaceList<ModuleRequirement> requirements;
+	private volatile DeclarationsDecoder decoder;
 	private final ModuleRevisions revisions;
 	private final Object revisionInfo;
 	private volatile Boolean lazyActivationPolicy = null;
@@ -55,6 +75,33 @@ public final class ModuleRevision implements BundleRevision {
 		this.revisionInfo = revisionInfo;
 	}
 
+	ModuleRevision(String symbolicName, Version version, int types, DeclarationsDecoder decoder, ModuleRevisions revisions, Object revisionInfo) {
+		this.symbolicName = symbolicName;
+		this.version = version;
+		this.types = types;
+		this.decoder = decoder;
+		this.revisions = revisions;
+		this.revisionInfo = revisionInfo;
+	}
+
+	private void decodeDeclarations() {
+		DeclarationsDecoder current = decoder;
+		if (current == null) {
+			return;
+		}
+		synchronized (current.getLock()) {
+			if (decoder == null) {
+				return;
+			}
+			ModuleRevisionBuilder builder = new ModuleRevisionBuilder();
+			current.decode(builder);
+			requirements = createRequirements(builder.getRequirementsBuilder());
+			capabilities = createCapabilities(builder.getCapabilitiesBuilder());
+			// clear the decoder last to publish the declarations
+			decoder = null;
+		}
+	}
+
 	private NamespaceList<ModuleCapability> createCapabilities(NamespaceList.Builder<GenericInfo> capabilityInfos) {
 		return capabilityInfos.transformIntoCopy(new Function<GenericInfo, ModuleCapability>()  {
 			public ModuleCapability apply(GenericInfo i) {
@@ -118,7 +165,7 @@ public final class ModuleRevision implements BundleRevision {
 	 * @return An unmodifiable list containing the declared capabilities.
 	 */
 	public List<ModuleCapability> getModuleCapabilities(String namespace) {
-		return capabilities.getList(namespace);
+		return getCapabilities().getList(namespace);
 	}
 
 	/**
@@ -128,7 +175,7 @@ public final class ModuleRevision implements BundleRevision {
 	 * @return An unmodifiable list containing the declared requirements.
 	 */
 	public List<ModuleRequirement> getModuleRequirements(String namespace) {
-		return requirements.getList(namespace);
+		return getRequirements().getList(namespace);
 	}
 
 	@Override
@@ -201,10 +248,12 @@ public final class ModuleRevision implements BundleRevision {
 	}
 
 	NamespaceList<ModuleCapability> getCapabilities() {
+		decodeDeclarations();
 		return capabilities;
 	}
 
 	NamespaceList<ModuleRequirement> getRequirements() {
+		decodeDeclarations();
 		return requirements;
 	}
 }
@@ -207,6 +207,10 @@ public final class ModuleRevisionBuilder {
 		return getRequirements(null);
 	}
 
+	NamespaceList.Builder<GenericInfo> getCapabilitiesBuilder() {
+		return capabilityInfos;
+	}
+
 	NamespaceList.Builder<GenericInfo> getRequirementsBuilder() {
 		return requirementInfos;
 	}
@@ -269,8 +273,21 @@ public final class ModuleRevisionBuilder {
 	 * @return the new new {@link Module#getCurrentRevision() current} revision.
 	 */
 	ModuleRevision addRevision(Module module, Object revisionInfo) {
+		return addRevision(module, revisionInfo, null);
+	}
+
+	/**
+	 * Same as {@link #addRevision(Module, Object)} except the capabilities and
+	 * requirements of the new revision are decoded with the specified decoder
+	 * the first time they are accessed instead of being taken from this builder.
+	 * @param module the module to build a new revision for
+	 * @param revisionInfo the revision info for the new revision, may be {@code null}
+	 * @param decoder the decoder for the declarations of the new revision, may be {@code null}
+	 * @return the new new {@link Module#getCurrentRevision() current} revision.
+	 */
+	ModuleRevision addRevision(Module module, Object revisionInfo, ModuleRevision.DeclarationsDecoder decoder) {
 		ModuleRevisions revisions = module.getRevisions();
-		ModuleRevision revision = new ModuleRevision(symbolicName, version, types, capabilityInfos, requirementInfos, revisions, revisionInfo);
+		ModuleRevision revision = decoder == null ? new ModuleRevision(symbolicName, version, types, capabilityInfos, requirementInfos, revisions, revisionInfo) : new ModuleRevision(symbolicName, version, types, decoder, revisions, revisionInfo);
 
 		revisions.addRevision(revision);
 		module.getContainer().getAdaptor().associateRevision(revision, revisionInfo);
@@ -58,16 +58,47 @@ public final class ModuleWiring implements BundleWiring {
 		}
 	}
 
+	/**
+	 * Decodes a wiring that was loaded from a persistent database.  The
+	 * provided wires are decoded separately from the rest of the wiring
+	 * because they are shared with the wirings of the requirers.
+	 */
+	interface WiringDecoder {
+		/**
+		 * Returns the lock held while decoding.  Decoders that share
+		 * data with other decoders must return the same lock.
+		 * @return the lock held while decoding
+		 */
+		Object getLock();
+
+		/**
+		 * Decodes the capabilities, requirements, required wires and substituted
+		 * package names of the specified wiring and sets them with
+		 * {@link ModuleWiring#initWiring(NamespaceList, NamespaceList, NamespaceList, Collection)}.
+		 * @param wiring the wiring to decode
+		 */
+		void decodeWiring(ModuleWiring wiring);
+
+		/**
+		 * Decodes the provided wires of the specified wiring and sets them with
+		 * {@link ModuleWiring#initProvidedWires(NamespaceList)}.
+		 * @param wiring the wiring to decode
+		 */
+		void decodeProvidedWires(ModuleWiring wiring);
+	}
+
 	private static final RuntimePermission GET_CLASSLOADER_PERM = new RuntimePermission("getClassLoader"); //$NON-NLS-1$
 	private static final String DYNAMICALLY_ADDED_IMPORT_DIRECTIVE = "x.dynamically.added"; //$NON-NLS-1$
 	private final ModuleRevision revision;
 	private volatile NamespaceList<ModuleCapability> capabilities;
 	private volatile NamespaceList<ModuleRequirement> requirements;
-	private final Collection<String> substitutedPkgNames;
+	private volatile Collection<String> substitutedPkgNames;
 	private final AtomicLazyInitializer<ModuleLoader> loader = new AtomicLazyInitializer<>();
 	private final LoaderInitializer loaderInitializer = new LoaderInitializer();
 	private volatile NamespaceList<ModuleWire> providedWires;
 	private volatile NamespaceList<ModuleWire> requiredWires;
+	private volatile WiringDecoder wiringDecoder;
+	private volatile WiringDecoder providedWiresDecoder;
 	volatile boolean isValid = true;
 	private final AtomicReference<Set<String>> dynamicMissRef = new AtomicReference<>();
 
@@ -83,6 +114,53 @@ public final class ModuleWiring implements BundleWiring {
 		this.substitutedPkgNames = substitutedPkgNames.isEmpty() ? Collections.emptyList() : substitutedPkgNames;
 	}
 
+	ModuleWiring(ModuleRevision revision, WiringDecoder decoder) {
+		super();
+		this.revision = revision;
+		this.wiringDecoder = decoder;
+		this.providedWiresDecoder = decoder;
+	}
+
+	void initWiring(NamespaceList<ModuleCapability> capabilities, NamespaceList<ModuleRequirement> requirements,
+			NamespaceList<ModuleWire> requiredWires, Collection<String> substitutedPkgNames) {
+		this.capabilities = capabilities;
+		this.requirements = requirements;
+		this.requiredWires = requiredWires;
+		this.substitutedPkgNames = substitutedPkgNames.isEmpty() ? Collections.emptyList() : substitutedPkgNames;
+	}
+
+	void initProvidedWires(NamespaceList<ModuleWire> providedWires) {
+		this.providedWires = providedWires;
+	}
+
+	private void decodeWiring() {
+		WiringDecoder current = wiringDecoder;
+		if (current == null) {
+			return;
+		}
+		synchronized (current.getLock()) {
+			if (wiringDecoder != null) {
+				current.decodeWiring(this);
+				// clear the decoder last to publish the decoded wiring
+				wiringDecoder = null;
+			}
+		}
+	}
+
+	private void decodeProvidedWires() {
+		WiringDecoder current = providedWiresDecoder;
+		if (current == null) {
+			return;
+		}
+		synchronized (current.getLock()) {
+			if (providedWiresDecoder != null) {
+				current.decodeProvidedWires(this);
+				// clear the decoder last to publish the decoded wires
+				providedWiresDecoder = null;
+			}
+		}
+	}
+
 	@Override
 	public Bundle getBundle() {
 		return revision.getBundle();
@@ -95,7 +173,7 @@ public final class ModuleWiring implements BundleWiring {
 
 	@Override
 	public boolean isInUse() {
-		return isCurrent() || !providedWires.isEmpty() || isFragmentInUse();
+		return isCurrent() || !getProvidedWires().isEmpty() || isFragmentInUse();
 	}
 
 	private boolean isFragmentInUse() {
@@ -120,7 +198,7 @@ public final class ModuleWiring implements BundleWiring {
 		if (!isValid) {
 			return null;
 		}
-		return capabilities.getList(namespace);
+		return getCapabilities().getList(namespace);
 	}
 
 	/**
@@ -135,14 +213,14 @@ public final class ModuleWiring implements BundleWiring {
 		if (!isValid) {
 			return null;
 		}
-		return requirements.getList(namespace);
+		return getRequirements().getList(namespace);
 	}
 
 	List<ModuleRequirement> getPersistentRequirements() {
 		if (!isValid) {
 			return null;
 		}
-		List<ModuleRequirement> persistentRequriements = new ArrayList<>(requirements.getList(null));
+		List<ModuleRequirement> persistentRequriements = new ArrayList<>(getRequirements().getList(null));
 		for (Iterator<ModuleRequirement> iRequirements = persistentRequriements.iterator(); iRequirements.hasNext();) {
 			ModuleRequirement requirement = iRequirements.next();
 			if (PackageNamespace.PACKAGE_NAMESPACE.equals(requirement.getNamespace())) {
@@ -174,11 +252,11 @@ public final class ModuleWiring implements BundleWiring {
 	 * @see #getProvidedWires(String)
 	 */
 	public List<ModuleWire> getProvidedModuleWires(String namespace) {
-		return getWires(namespace, providedWires);
+		return getWires(namespace, getProvidedWires());
 	}
 
 	List<ModuleWire> getPersistentProvidedWires() {
-		return getPersistentWires(providedWires);
+		return getPersistentWires(getProvidedWires());
 	}
 
 	/**
@@ -190,11 +268,11 @@ public final class ModuleWiring implements BundleWiring {
 	 * @see #getRequiredWires(String)
 	 */
 	public List<ModuleWire> getRequiredModuleWires(String namespace) {
-		return getWires(namespace, requiredWires);
+		return getWires(namespace, getRequiredWires());
 	}
 
 	List<ModuleWire> getPersistentRequiredWires() {
-		return getPersistentWires(requiredWires);
+		return getPersistentWires(getRequiredWires());
 	}
 
 	private List<ModuleWire> getPersistentWires(NamespaceList<ModuleWire> allWires) {
@@ -215,12 +293,12 @@ public final class ModuleWiring implements BundleWiring {
 
 	@Override
 	public List<BundleWire> getProvidedWires(String namespace) {
-		return asCopy(getWires(namespace, providedWires));
+		return asCopy(getWires(namespace, getProvidedWires()));
 	}
 
 	@Override
 	public List<BundleWire> getRequiredWires(String namespace) {
-		return asCopy(getWires(namespace, requiredWires));
+		return asCopy(getWires(namespace, getRequiredWires()));
 	}
 
 	private List<ModuleWire> getWires(String namespace, NamespaceList<ModuleWire> wires) {
@@ -312,12 +390,12 @@ public final class ModuleWiring implements BundleWiring {
 
 	@Override
 	public List<Wire> getProvidedResourceWires(String namespace) {
-		return asCopy(getWires(namespace, providedWires));
+		return asCopy(getWires(namespace, getProvidedWires()));
 	}
 
 	@Override
 	public List<Wire> getRequiredResourceWires(String namespace) {
-		return asCopy(getWires(namespace, requiredWires));
+		return asCopy(getWires(namespace, getRequiredWires()));
 	}
 
 	@Override
@@ -326,18 +404,22 @@ public final class ModuleWiring implements BundleWiring {
 	}
 
 	void setProvidedWires(NamespaceList<ModuleWire> providedWires) {
+		decodeProvidedWires();
 		this.providedWires = providedWires;
 	}
 
 	void setRequiredWires(NamespaceList<ModuleWire> requiredWires) {
+		decodeWiring();
 		this.requiredWires = requiredWires;
 	}
 
 	void setCapabilities(NamespaceList<ModuleCapability> capabilities) {
+		decodeWiring();
 		this.capabilities = capabilities;
 	}
 
 	void setRequirements(NamespaceList<ModuleRequirement> requirements) {
+		decodeWiring();
 		this.requirements = requirements;
 	}
 
@@ -368,6 +450,7 @@ public final class ModuleWiring implements BundleWiring {
 		if (!PackageNamespace.PACKAGE_NAMESPACE.equals(capability.getNamespace())) {
 			return false;
 		}
+		decodeWiring();
 		return substitutedPkgNames.contains(capability.getAttributes().get(PackageNamespace.PACKAGE_NAMESPACE));
 	}
 
@@ -377,6 +460,7 @@ public final class ModuleWiring implements BundleWiring {
 	 * @return true if the specified package name has been substituted in this wiring
 	 */
 	public boolean isSubstitutedPackage(String packageName) {
+		decodeWiring();
 		return substitutedPkgNames.contains(packageName);
 	}
 
@@ -386,6 +470,7 @@ public final class ModuleWiring implements BundleWiring {
 	 * @return the substituted package names
 	 */
 	public Collection<String> getSubstitutedNames() {
+		decodeWiring();
 		return Collections.unmodifiableCollection(substitutedPkgNames);
 	}
 
@@ -426,7 +511,7 @@ public final class ModuleWiring implements BundleWiring {
 		// This is necessary to make sure any in flight resolve operations are using the
 		// latest wiring data and avoids them overwriting the requirements incorrectly.
 		moduleDatabase.writeLockOperation(true, () -> {
-			NamespaceList.Builder<ModuleRequirement> requirmentsBuilder = requirements.createBuilder();
+			NamespaceList.Builder<ModuleRequirement> requirmentsBuilder = getRequirements().createBuilder();
 			requirmentsBuilder.addAll(newRequirements);
 			requirements = requirmentsBuilder.build();
 			// clear out miss cache when adding new dynamic imports.
@@ -467,6 +552,7 @@ public final class ModuleWiring implements BundleWiring {
 	}
 
 	List<Wire> getSubstitutionWires() {
+		decodeWiring();
 		if (substitutedPkgNames.isEmpty()) {
 			return Collections.emptyList();
 		}
@@ -483,18 +569,22 @@ public final class ModuleWiring implements BundleWiring {
 	}
 
 	NamespaceList<ModuleCapability> getCapabilities() {
+		decodeWiring();
 		return capabilities;
 	}
 
 	NamespaceList<ModuleWire> getProvidedWires() {
+		decodeProvidedWires();
 		return providedWires;
 	}
 
 	NamespaceList<ModuleRequirement> getRequirements() {
+		decodeWiring();
 		return requirements;
 	}
 
 	NamespaceList<ModuleWire> getRequiredWires() {
+		decodeWiring();
 		return requiredWires;
 	}
 }
@@ -0,0 +1,326 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.internal.debug;
+
+import java.io.File;
+import java.io.Writer;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import org.eclipse.osgi.internal.debug.FrameworkDebugOptions.TraceOverflowPolicy;
+
+/**
+ * Writes trace entries to the trace file from a background thread.
+ * <p>
+ * Tracing threads put their entries into a bounded lock-free ring buffer and
+ * return without doing any I/O.  A single writer thread drains the buffer,
+ * keeps the trace file open between entries and flushes once per batch.  The
+ * trace file is rotated with the same backup logic as the synchronous
+ * {@link EclipseDebugTrace} writer.  When the buffer is full the
+ * {@link TraceOverflowPolicy} of the debug options either drops the entry or
+ * blocks the tracing thread until the writer catches up.
+ */
+class DebugTraceWriter implements Runnable {
+	static final String THREAD_NAME = "Equinox Debug Trace Writer"; //$NON-NLS-1$
+	/** The default number of entries the buffer can hold */
+	static final int DEFAULT_BUFFER_SIZE = 8192;
+	/** The maximum number of entries written before the trace file is flushed */
+	private static final int MAX_BATCH = 512;
+	/** The time the writer waits for new entries before checking again */
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	/** The time a blocked tracing thread waits before checking for free space again */
+	private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	/** The time to wait for the writer to drain the buffer when closing */
+	private static final long CLOSE_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+	/**
+	 * An entry waiting in the buffer together with the trace that formats it.
+	 */
+	static final class PendingEntry {
+		final EclipseDebugTrace trace;
+		final FrameworkDebugTraceEntry entry;
+
+		PendingEntry(EclipseDebugTrace trace, FrameworkDebugTraceEntry entry) {
+			this.trace = trace;
+			this.entry = entry;
+		}
+	}
+
+	private final FrameworkDebugOptions debugOptions;
+	private final ThreadFactory threadFactory;
+
+	// The ring buffer; a slot is free for the producer claiming position p when
+	// its sequence is p and holds an entry for the consumer at position p when
+	// its sequence is p + 1.
+	private final int mask;
+	private final AtomicReferenceArray<PendingEntry> slots;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	/** only modified by the writer thread */
+	private long head;
+
+	private final AtomicLong dropped = new AtomicLong();
+	/** the number of tracing threads currently in write */
+	private final AtomicInteger producers = new AtomicInteger();
+	private volatile boolean parked;
+	private volatile boolean closed;
+	private volatile Thread thread;
+
+	/** only used by the writer thread while holding the debug options write lock */
+	private Writer traceWriter;
+	private File traceWriterFile;
+
+	DebugTraceWriter(FrameworkDebugOptions debugOptions, int bufferSize, ThreadFactory threadFactory) {
+		this.debugOptions = debugOptions;
+		this.threadFactory = threadFactory;
+		int capacity = Integer.highestOneBit(Math.max(2, Math.min(bufferSize, 1 << 20)) * 2 - 1);
+		this.mask = capacity - 1;
+		this.slots = new AtomicReferenceArray<>(capacity);
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * Queues an entry to be written by the writer thread.
+	 *
+	 * @param trace the trace used to format the entry
+	 * @param entry the entry
+	 * @return false if the writer is closed and the entry must be written by
+	 *         the caller; true if the entry was queued or dropped
+	 */
+	boolean write(EclipseDebugTrace trace, FrameworkDebugTraceEntry entry) {
+		// close waits for the producers that saw the writer open before draining
+		producers.incrementAndGet();
+		try {
+			return write0(trace, entry);
+		} finally {
+			producers.decrementAndGet();
+		}
+	}
+
+	private boolean write0(EclipseDebugTrace trace, FrameworkDebugTraceEntry entry) {
+		if (closed) {
+			return false;
+		}
+		Thread writerThread = thread;
+		if (writerThread == null) {
+			writerThread = start();
+			if (writerThread == null) {
+				return false;
+			}
+		}
+		if (writerThread == Thread.currentThread()) {
+			// tracing while writing; never wait on ourselves
+			return false;
+		}
+		PendingEntry pending = new PendingEntry(trace, entry);
+		while (!offer(pending)) {
+			if (debugOptions.getTraceOverflowPolicy() == TraceOverflowPolicy.DROP || Thread.currentThread().isInterrupted()) {
+				dropped.incrementAndGet();
+				return true;
+			}
+			if (closed) {
+				return false;
+			}
+			LockSupport.unpark(writerThread);
+			LockSupport.parkNanos(this, FULL_PARK_NANOS);
+		}
+		if (parked) {
+			LockSupport.unpark(writerThread);
+		}
+		return true;
+	}
+
+	private synchronized Thread start() {
+		if (closed) {
+			return null;
+		}
+		if (thread == null) {
+			Thread writerThread = threadFactory == null ? new Thread(this, THREAD_NAME) : threadFactory.newThread(this);
+			writerThread.setDaemon(true);
+			thread = writerThread;
+			writerThread.start();
+		}
+		return thread;
+	}
+
+	/**
+	 * Allows the writer to be started again after it was closed.
+	 */
+	synchronized void open() {
+		closed = false;
+	}
+
+	/**
+	 * Stops the writer thread after it has written the queued entries and
+	 * closes the trace file.  Entries traced after closing are written by
+	 * the tracing thread.
+	 */
+	void close() {
+		Thread writerThread;
+		synchronized (this) {
+			closed = true;
+			writerThread = thread;
+			thread = null;
+		}
+		if (writerThread == null) {
+			return;
+		}
+		LockSupport.unpark(writerThread);
+		long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT;
+		try {
+			writerThread.join(CLOSE_TIMEOUT);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (writerThread.isAlive()) {
+			return;
+		}
+		// producers that passed the closed check may still queue an entry;
+		// tracing threads arriving now see the writer closed
+		while (producers.get() > 0 && System.currentTimeMillis() < deadline && !Thread.currentThread().isInterrupted()) {
+			LockSupport.parkNanos(this, FULL_PARK_NANOS);
+		}
+		// write anything queued while the writer was exiting
+		drain();
+	}
+
+	private boolean offer(PendingEntry pending) {
+		while (true) {
+			long position = tail.get();
+			int index = (int) position & mask;
+			long sequence = sequences.get(index);
+			if (sequence == position) {
+				if (tail.compareAndSet(position, position + 1)) {
+					slots.set(index, pending);
+					sequences.lazySet(index, position + 1);
+					return true;
+				}
+			} else if (sequence < position) {
+				// the slot still holds an entry from the previous lap; the buffer is full
+				return false;
+			}
+			// another producer claimed the position; try the next one
+		}
+	}
+
+	private PendingEntry poll() {
+		int index = (int) head & mask;
+		if (sequences.get(index) != head + 1) {
+			return null;
+		}
+		PendingEntry pending = slots.get(index);
+		slots.set(index, null);
+		sequences.lazySet(index, head + mask + 1);
+		head++;
+		return pending;
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			PendingEntry first = poll();
+			if (first != null) {
+				writeBatch(first);
+				continue;
+			}
+			if (closed || thread != Thread.currentThread()) {
+				break;
+			}
+			parked = true;
+			try {
+				// check again after publishing the parked flag so no wake up is missed
+				first = poll();
+				if (first == null) {
+					LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+				}
+			} finally {
+				parked = false;
+			}
+			if (first != null) {
+				writeBatch(first);
+			}
+		}
+		if (thread == null) {
+			drain();
+		}
+	}
+
+	private void drain() {
+		PendingEntry first;
+		while ((first = poll()) != null) {
+			writeBatch(first);
+		}
+		synchronized (debugOptions.getWriteLock()) {
+			closeTraceWriter();
+		}
+	}
+
+	/**
+	 * Writes the specified entry and up to {@link #MAX_BATCH} queued entries
+	 * with a single flush.
+	 */
+	private void writeBatch(PendingEntry first) {
+		synchronized (debugOptions.getWriteLock()) {
+			PendingEntry pending = first;
+			EclipseDebugTrace lastTrace = null;
+			try {
+				int count = 0;
+				do {
+					File tracingFile = debugOptions.getFile(); // the tracing file may be null if it has not been set
+					if (traceWriter != null && !Objects.equals(tracingFile, traceWriterFile)) {
+						closeTraceWriter();
+					}
+					if (traceWriter == null) {
+						// the trace file is only rotated while it is closed
+						pending.trace.checkTraceFileSize(tracingFile, pending.entry.getTimestamp());
+						traceWriter = pending.trace.openWriter(tracingFile);
+						traceWriterFile = tracingFile;
+					}
+					long droppedEntries = dropped.getAndSet(0);
+					if (droppedEntries > 0) {
+						pending.trace.writeComment(traceWriter, droppedEntries + " trace entries were dropped because the trace buffer was full"); //$NON-NLS-1$
+					}
+					pending.trace.writeEntry(traceWriter, pending.entry);
+					lastTrace = pending.trace;
+				} while (++count < MAX_BATCH && (pending = poll()) != null);
+				traceWriter.flush();
+				if (lastTrace.isRotationNeeded(traceWriterFile)) {
+					// close so the next batch rotates the trace file
+					closeTraceWriter();
+				}
+			} catch (Exception ex) {
+				// any exceptions during tracing should be caught
+				System.err.println("An exception occurred while writing to the platform trace file: ");//$NON-NLS-1$
+				ex.printStackTrace(System.err);
+				closeTraceWriter();
+			}
+		}
+	}
+
+	private void closeTraceWriter() {
+		if (traceWriter != null) {
+			EclipseDebugTrace.closeWriter(traceWriter);
+			traceWriter = null;
+			traceWriterFile = null;
+		}
+	}
+}
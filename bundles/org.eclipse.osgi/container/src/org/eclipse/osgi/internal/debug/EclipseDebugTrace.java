@@ -350,6 +350,10 @@ class EclipseDebugTrace implements DebugTrace {
 	private void writeRecord(final FrameworkDebugTraceEntry entry) {
 
 		if (entry != null) {
+			DebugTraceWriter asyncWriter = debugOptions.getAsyncTraceWriter();
+			if (asyncWriter != null && asyncWriter.write(this, entry)) {
+				return;
+			}
 			synchronized (debugOptions.getWriteLock()) {
 				final File tracingFile = debugOptions.getFile(); // the tracing file may be null if it has not been set
 				Writer traceWriter = null;
@@ -358,10 +362,7 @@ class EclipseDebugTrace implements DebugTrace {
 					checkTraceFileSize(tracingFile, entry.getTimestamp());
 					// open the trace file
 					traceWriter = openWriter(tracingFile);
-					if (debugOptions.newSession()) {
-						writeSession(traceWriter, entry.getTimestamp());
-					}
-					writeMessage(traceWriter, entry);
+					writeEntry(traceWriter, entry);
 					// flush the writer
 					traceWriter.flush();
 				} catch (Exception ex) {
@@ -376,6 +377,21 @@ class EclipseDebugTrace implements DebugTrace {
 		}
 	}
 
+	/**
+	 * Writes the specified entry, preceded by the session header if a new
+	 * session started.  The caller must hold the debug options write lock.
+	 *
+	 * @param traceWriter the trace writer
+	 * @param entry The FrameworkTraceEntry to write
+	 * @throws IOException If an error occurs while writing the entry
+	 */
+	void writeEntry(final Writer traceWriter, final FrameworkDebugTraceEntry entry) throws IOException {
+		if (debugOptions.newSession()) {
+			writeSession(traceWriter, entry.getTimestamp());
+		}
+		writeMessage(traceWriter, entry);
+	}
+
 	/**
 	 * Reads the PROP_TRACE_SIZE_MAX and PROP_TRACE_FILE_MAX properties.
 	 */
@@ -408,7 +424,7 @@ class EclipseDebugTrace implements DebugTrace {
 	 * @param timestamp the timestamp for the session; this is the same timestamp as the first entry
 	 * @return false if an error occurred trying to rotate the trace file
 	 */
-	private boolean checkTraceFileSize(final File traceFile, long timestamp) {
+	boolean checkTraceFileSize(final File traceFile, long timestamp) {
 
 		// 0 file size means there is no size limit
 		boolean isBackupOK = true;
@@ -468,6 +484,17 @@ class EclipseDebugTrace implements DebugTrace {
 		return isBackupOK;
 	}
 
+	/**
+	 * Checks if the trace file reached the size limit and must be rotated.
+	 *
+	 * @param traceFile The tracing file
+	 * @return true if the trace file must be rotated
+	 */
+	boolean isRotationNeeded(final File traceFile) {
+		// 0 file size means there is no size limit
+		return maxTraceFileSize > 0 && traceFile != null && (traceFile.length() >> 10) > maxTraceFileSize; // Use KB as file size unit.
+	}
+
 	/**
 	 * Writes a comment to the trace file
 	 *
@@ -475,7 +502,7 @@ class EclipseDebugTrace implements DebugTrace {
 	 * @param comment the comment to be written to the trace file
 	 * @throws IOException If an error occurs while writing the comment
 	 */
-	private void writeComment(final Writer traceWriter, final String comment) throws IOException {
+	void writeComment(final Writer traceWriter, final String comment) throws IOException {
 
 		StringBuilder commentText = new StringBuilder(EclipseDebugTrace.TRACE_COMMENT);
 		commentText.append(" "); //$NON-NLS-1$
@@ -628,7 +655,7 @@ class EclipseDebugTrace implements DebugTrace {
 	 * @param traceFile The tracing file
 	 * @return Returns a new Writer object
 	 */
-	private Writer openWriter(final File traceFile) {
+	Writer openWriter(final File traceFile) {
 		OutputStream out = null;
 		if (traceFile != null) {
 			try {
@@ -679,7 +706,7 @@ class EclipseDebugTrace implements DebugTrace {
 	 *
 	 * @param traceWriter The trace writer
 	 */
-	private void closeWriter(Writer traceWriter) {
+	static void closeWriter(Writer traceWriter) {
 
 		if (traceWriter != null) {
 			try {
@@ -44,9 +44,26 @@ import org.osgi.util.tracker.ServiceTrackerCustomizer;
  */
 public class FrameworkDebugOptions implements DebugOptions, ServiceTrackerCustomizer<DebugOptionsListener, DebugOptionsListener> {
 
+	/**
+	 * What tracing threads do when the trace entries are written from a
+	 * background thread and its buffer is full.
+	 */
+	public enum TraceOverflowPolicy {
+		/** the entry is dropped and the number of dropped entries is written to the trace file */
+		DROP,
+		/** the tracing thread waits until the buffer has room for the entry */
+		BLOCK
+	}
+
 	private static final String OSGI_DEBUG = "osgi.debug"; //$NON-NLS-1$
 	private static final String OSGI_DEBUG_VERBOSE = "osgi.debug.verbose"; //$NON-NLS-1$
 	public static final String PROP_TRACEFILE = "osgi.tracefile"; //$NON-NLS-1$
+	/** The property used to write trace entries from a background thread */
+	public static final String PROP_TRACE_ASYNC = "eclipse.trace.async"; //$NON-NLS-1$
+	/** The property used to specify the number of trace entries buffered for the background thread */
+	public static final String PROP_TRACE_BUFFER_SIZE = "eclipse.trace.buffer.size"; //$NON-NLS-1$
+	/** The property used to specify the {@link TraceOverflowPolicy} when the trace buffer is full */
+	public static final String PROP_TRACE_OVERFLOW = "eclipse.trace.overflow"; //$NON-NLS-1$
 	/** The default name of the .options file if loading when the -debug command-line argument is used */
 	private static final String OPTIONS = ".options"; //$NON-NLS-1$
 
@@ -66,6 +83,10 @@ public class FrameworkDebugOptions implements DebugOptions, ServiceTrackerCustom
 	protected boolean verboseDebug = true;
 	/** A flag to determine if the message being written is done to a new file (i.e. should the header information be written) */
 	private boolean newSession = true;
+	/** What to do when the buffer of the asynchronous trace writer is full */
+	private volatile TraceOverflowPolicy traceOverflowPolicy;
+	/** The writer used when the trace is written asynchronously. This value may be null. */
+	private final DebugTraceWriter asyncTraceWriter;
 	private final EquinoxConfiguration environmentInfo;
 	private volatile BundleContext context;
 	private volatile ServiceTracker<DebugOptionsListener, DebugOptionsListener> listenerTracker;
@@ -74,6 +95,25 @@ public class FrameworkDebugOptions implements DebugOptions, ServiceTrackerCustom
 		this.environmentInfo = environmentInfo;
 		// check if verbose debugging was set during initialization.  This needs to be set even if debugging is disabled
 		this.verboseDebug = Boolean.valueOf(environmentInfo.getConfiguration(OSGI_DEBUG_VERBOSE, Boolean.TRUE.toString())).booleanValue();
+		this.traceOverflowPolicy = TraceOverflowPolicy.BLOCK;
+		String overflowProp = environmentInfo.getConfiguration(PROP_TRACE_OVERFLOW);
+		if (overflowProp != null && TraceOverflowPolicy.DROP.name().equalsIgnoreCase(overflowProp.trim())) {
+			this.traceOverflowPolicy = TraceOverflowPolicy.DROP;
+		}
+		if (Boolean.parseBoolean(environmentInfo.getConfiguration(PROP_TRACE_ASYNC))) {
+			int bufferSize = DebugTraceWriter.DEFAULT_BUFFER_SIZE;
+			String bufferSizeProp = environmentInfo.getConfiguration(PROP_TRACE_BUFFER_SIZE);
+			if (bufferSizeProp != null) {
+				try {
+					bufferSize = Integer.parseInt(bufferSizeProp.trim());
+				} catch (NumberFormatException e) {
+					// use the default
+				}
+			}
+			this.asyncTraceWriter = new DebugTraceWriter(this, bufferSize, environmentInfo.getThreadFactory(DebugTraceWriter.THREAD_NAME));
+		} else {
+			this.asyncTraceWriter = null;
+		}
 		// if no debug option was specified, don't even bother to try.
 		// Must ensure that the options slot is null as this is the signal to the
 		// platform that debugging is not enabled.
@@ -116,6 +156,9 @@ public class FrameworkDebugOptions implements DebugOptions, ServiceTrackerCustom
 
 	public void start(BundleContext bc) {
 		this.context = bc;
+		if (asyncTraceWriter != null) {
+			asyncTraceWriter.open();
+		}
 		listenerTracker = new ServiceTracker<>(bc, DebugOptionsListener.class.getName(), this);
 		listenerTracker.open();
 	}
@@ -124,6 +167,10 @@ public class FrameworkDebugOptions implements DebugOptions, ServiceTrackerCustom
 		listenerTracker.close();
 		listenerTracker = null;
 		this.context = null;
+		if (asyncTraceWriter != null) {
+			// write the buffered entries before the framework stops
+			asyncTraceWriter.close();
+		}
 	}
 
 	/**
@@ -439,6 +486,37 @@ public class FrameworkDebugOptions implements DebugOptions, ServiceTrackerCustom
 		return writeLock;
 	}
 
+	/**
+	 * Returns the writer used to write the trace from a background thread.
+	 * @return the writer, or {@code null} if the trace is written by the
+	 * tracing threads
+	 */
+	DebugTraceWriter getAsyncTraceWriter() {
+		return asyncTraceWriter;
+	}
+
+	/**
+	 * Returns what tracing threads do when the buffer of the asynchronous
+	 * trace writer is full.
+	 * @return the overflow policy
+	 */
+	public TraceOverflowPolicy getTraceOverflowPolicy() {
+		return traceOverflowPolicy;
+	}
+
+	/**
+	 * Sets what tracing threads do when the buffer of the asynchronous trace
+	 * writer is full.  The policy has no effect unless the
+	 * {@link #PROP_TRACE_ASYNC} property is set.
+	 * @param policy the overflow policy
+	 */
+	public void setTraceOverflowPolicy(TraceOverflowPolicy policy) {
+		if (policy == null) {
+			throw new IllegalArgumentException("The policy must not be null."); //$NON-NLS-1$
+		}
+		this.traceOverflowPolicy = policy;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.eclipse.osgi.service.debug.DebugOptions#getVerbose()
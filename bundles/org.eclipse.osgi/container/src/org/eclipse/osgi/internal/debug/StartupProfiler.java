@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.osgi.internal.debug;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.osgi.framework.Bundle;
+
+/**
+ * Records where the framework spends its time while starting up.  The time
+ * of the framework phases and the cost each bundle adds to the startup are
+ * accumulated and can be printed as a report, for example with the
+ * {@code startupreport} console command.  The begin and end times of the
+ * framework phases, activator starts and lazy triggers are also kept as a
+ * timeline.
+ * <p>
+ * The profiler is enabled with the {@code equinox.startup.profiler}
+ * configuration property.  When disabled the probes only cost a check of a
+ * final field.
+ */
+public final class StartupProfiler {
+
+	/**
+	 * The probes of the framework.
+	 */
+	public enum Probe {
+		/** creating the storage, including loading the module database */
+		STORAGE_CREATE("storage create", true), //$NON-NLS-1$
+		/** loading the module database */
+		DATABASE_LOAD("module database load", true), //$NON-NLS-1$
+		/** resolving a batch of revisions */
+		RESOLVE_BATCH("resolve batch", true), //$NON-NLS-1$
+		/** calling BundleActivator.start of a bundle */
+		ACTIVATOR_START("activator", true), //$NON-NLS-1$
+		/** activating a lazy bundle on a class load trigger */
+		LAZY_TRIGGER("lazy trigger", true), //$NON-NLS-1$
+		/** defining a class of a bundle, including nested class loads */
+		CLASS_DEFINE("class define", false), //$NON-NLS-1$
+		/** calling the getService method of a service factory of a bundle */
+		SERVICE_FACTORY("service factory", false); //$NON-NLS-1$
+
+		final String label;
+		// class defines and service factory calls are too many to keep each of them
+		final boolean timeline;
+
+		Probe(String label, boolean timeline) {
+			this.label = label;
+			this.timeline = timeline;
+		}
+	}
+
+	/**
+	 * The maximum number of events kept in the timeline; later events are only
+	 * accumulated.
+	 */
+	static final int MAX_TIMELINE_EVENTS = 10000;
+
+	private static final Probe[] PROBES = Probe.values();
+
+	/**
+	 * The number of calls and the time in nanoseconds of each probe.
+	 */
+	static final class Costs {
+		final String name;
+		final AtomicLongArray counts = new AtomicLongArray(PROBES.length);
+		final AtomicLongArray nanos = new AtomicLongArray(PROBES.length);
+
+		Costs(String name) {
+			this.name = name;
+		}
+
+		void add(Probe probe, long elapsedNanos) {
+			counts.incrementAndGet(probe.ordinal());
+			nanos.addAndGet(probe.ordinal(), elapsedNanos);
+		}
+
+		long totalNanos() {
+			// lazy triggers include the activator and class defines are nested
+			// in other probes, both are only reported separately
+			return nanos.get(Probe.ACTIVATOR_START.ordinal()) + nanos.get(Probe.SERVICE_FACTORY.ordinal());
+		}
+	}
+
+	/**
+	 * A probe that began and ended at the specified times.
+	 */
+	static final class TimelineEvent {
+		final Probe probe;
+		final String name;
+		final String thread;
+		final long beginNanos;
+		final long endNanos;
+
+		TimelineEvent(Probe probe, String name, long beginNanos, long endNanos) {
+			this.probe = probe;
+			this.name = name;
+			this.thread = Thread.currentThread().getName();
+			this.beginNanos = beginNanos;
+			this.endNanos = endNanos;
+		}
+	}
+
+	private final boolean enabled;
+	private final long createdNanos = System.nanoTime();
+	private final Costs framework = new Costs("framework"); //$NON-NLS-1$
+	private final ConcurrentMap<Long, Costs> bundles = new ConcurrentHashMap<>();
+	private final AtomicReferenceArray<TimelineEvent> timeline;
+	private final AtomicInteger timelineSize = new AtomicInteger();
+
+	public StartupProfiler(boolean enabled) {
+		this.enabled = enabled;
+		this.timeline = new AtomicReferenceArray<>(enabled ? MAX_TIMELINE_EVENTS : 0);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Returns the start time to pass to one of the record methods.
+	 * @return the current time in nanoseconds, or 0 if the profiler is disabled
+	 */
+	public long begin() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records a framework phase that started at the specified time.
+	 * @param probe the probe
+	 * @param beginNanos the time returned by {@link #begin()}
+	 */
+	public void record(Probe probe, long beginNanos) {
+		if (enabled) {
+			long end = System.nanoTime();
+			framework.add(probe, end - beginNanos);
+			addTimelineEvent(probe, null, beginNanos, end);
+		}
+	}
+
+	/**
+	 * Records a framework phase that took the specified time.
+	 * @param probe the probe
+	 * @param elapsedNanos the time in nanoseconds
+	 */
+	public void recordElapsed(Probe probe, long elapsedNanos) {
+		if (enabled) {
+			long end = System.nanoTime();
+			framework.add(probe, elapsedNanos);
+			addTimelineEvent(probe, null, end - elapsedNanos, end);
+		}
+	}
+
+	/**
+	 * Records the cost of a bundle that started at the specified time.
+	 * @param probe the probe
+	 * @param bundle the bundle, may be {@code null}
+	 * @param beginNanos the time returned by {@link #begin()}
+	 */
+	public void record(Probe probe, Bundle bundle, long beginNanos) {
+		if (!enabled) {
+			return;
+		}
+		long end = System.nanoTime();
+		long elapsed = end - beginNanos;
+		framework.add(probe, elapsed);
+		if (bundle == null) {
+			addTimelineEvent(probe, null, beginNanos, end);
+			return;
+		}
+		Long id = Long.valueOf(bundle.getBundleId());
+		Costs costs = bundles.get(id);
+		if (costs == null) {
+			Costs newCosts = new Costs(bundle.toString());
+			costs = bundles.putIfAbsent(id, newCosts);
+			if (costs == null) {
+				costs = newCosts;
+			}
+		}
+		costs.add(probe, elapsed);
+		addTimelineEvent(probe, costs.name, beginNanos, end);
+	}
+
+	private void addTimelineEvent(Probe probe, String name, long beginNanos, long endNanos) {
+		if (!probe.timeline) {
+			return;
+		}
+		int index = timelineSize.getAndIncrement();
+		if (index < MAX_TIMELINE_EVENTS) {
+			timeline.set(index, new TimelineEvent(probe, name, beginNanos, endNanos));
+		} else {
+			// keep the counter from overflowing
+			timelineSize.set(MAX_TIMELINE_EVENTS);
+		}
+	}
+
+	/**
+	 * Returns the recorded timeline events ordered by their begin time.
+	 * @return the timeline events
+	 */
+	List<TimelineEvent> getTimeline() {
+		int size = Math.min(timelineSize.get(), MAX_TIMELINE_EVENTS);
+		List<TimelineEvent> events = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			TimelineEvent event = timeline.get(i);
+			// an event may be reserved but not yet set by another thread
+			if (event != null) {
+				events.add(event);
+			}
+		}
+		Collections.sort(events, new Comparator<TimelineEvent>() {
+			@Override
+			public int compare(TimelineEvent e1, TimelineEvent e2) {
+				return Long.compare(e1.beginNanos, e2.beginNanos);
+			}
+		});
+		return events;
+	}
+
+	/**
+	 * Returns a report of the recorded framework phases and the bundles with the
+	 * highest startup cost.
+	 * @param maxBundles the maximum number of bundles to report, or a value
+	 * {@code <= 0} to report all bundles
+	 * @return the report
+	 */
+	public String getReport(int maxBundles) {
+		if (!enabled) {
+			return "The startup profiler is disabled; set the equinox.startup.profiler configuration property to true to enable it."; //$NON-NLS-1$
+		}
+		StringBuilder report = new StringBuilder();
+		report.append(String.format(Locale.ROOT, "Startup profile after %d ms%n", Long.valueOf(toMillis(System.nanoTime() - createdNanos)))); //$NON-NLS-1$
+		report.append(String.format(Locale.ROOT, "%-22s %10s %12s%n", "Phase", "Count", "Time (ms)")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		for (Probe probe : PROBES) {
+			int i = probe.ordinal();
+			report.append(String.format(Locale.ROOT, "%-22s %10d %12d%n", probe.label, Long.valueOf(framework.counts.get(i)), Long.valueOf(toMillis(framework.nanos.get(i))))); //$NON-NLS-1$
+		}
+
+		report.append(String.format(Locale.ROOT, "%nTimeline in ms since the framework was created%n")); //$NON-NLS-1$
+		report.append(String.format(Locale.ROOT, "%10s %10s %10s  %-22s %s%n", "Begin", "End", "Time", "Phase", "Bundle [thread]")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		for (TimelineEvent event : getTimeline()) {
+			report.append(String.format(Locale.ROOT, "%10.3f %10.3f %10.3f  %-22s %s[%s]%n", //$NON-NLS-1$
+					Double.valueOf(toFractionalMillis(event.beginNanos - createdNanos)), //
+					Double.valueOf(toFractionalMillis(event.endNanos - createdNanos)), //
+					Double.valueOf(toFractionalMillis(event.endNanos - event.beginNanos)), //
+					event.probe.label, //
+					event.name == null ? "" : event.name + ' ', //$NON-NLS-1$
+					event.thread));
+		}
+		if (timelineSize.get() >= MAX_TIMELINE_EVENTS) {
+			report.append(String.format(Locale.ROOT, "Only the first %d events are kept%n", Integer.valueOf(MAX_TIMELINE_EVENTS))); //$NON-NLS-1$
+		}
+
+		List<Costs> sorted = new ArrayList<>(bundles.values());
+		Collections.sort(sorted, new Comparator<Costs>() {
+			@Override
+			public int compare(Costs c1, Costs c2) {
+				return Long.compare(c2.totalNanos(), c1.totalNanos());
+			}
+		});
+		if (maxBundles > 0 && sorted.size() > maxBundles) {
+			sorted = sorted.subList(0, maxBundles);
+		}
+		report.append(String.format(Locale.ROOT, "%nBundle costs in ms (call counts in parentheses); the total is the activator and service factory time%n")); //$NON-NLS-1$
+		report.append(String.format(Locale.ROOT, "%10s %10s %18s %18s %18s  %s%n", "Total", "Activator", "Lazy trigger", "Service factory", "Class define", "Bundle")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+		for (Costs costs : sorted) {
+			report.append(String.format(Locale.ROOT, "%10d %10d %18s %18s %18s  %s%n", //$NON-NLS-1$
+					Long.valueOf(toMillis(costs.totalNanos())), //
+					Long.valueOf(toMillis(costs.nanos.get(Probe.ACTIVATOR_START.ordinal()))), //
+					counted(costs, Probe.LAZY_TRIGGER), //
+					counted(costs, Probe.SERVICE_FACTORY), //
+					counted(costs, Probe.CLASS_DEFINE), //
+					costs.name));
+		}
+		return report.toString();
+	}
+
+	private static String counted(Costs costs, Probe probe) {
+		int i = probe.ordinal();
+		return toMillis(costs.nanos.get(i)) + " (" + costs.counts.get(i) + ')'; //$NON-NLS-1$
+	}
+
+	private static long toMillis(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+
+	private static double toFractionalMillis(long nanos) {
+		return nanos / 1000000.0;
+	}
+
+	@Override
+	public String toString() {
+		return getReport(0);
+	}
+}
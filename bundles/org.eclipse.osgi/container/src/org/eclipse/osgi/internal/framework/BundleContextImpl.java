@@ -33,6 +33,8 @@ import org.eclipse.osgi.container.ModuleWiring;
 import org.eclipse.osgi.container.namespaces.EquinoxModuleDataNamespace;
 import org.eclipse.osgi.framework.eventmgr.EventDispatcher;
 import org.eclipse.osgi.internal.debug.Debug;
+import org.eclipse.osgi.internal.debug.StartupProfiler;
+import org.eclipse.osgi.internal.debug.StartupProfiler.Probe;
 import org.eclipse.osgi.internal.loader.BundleLoader;
 import org.eclipse.osgi.internal.messages.Msg;
 import org.eclipse.osgi.internal.serviceregistry.ServiceReferenceImpl;
@@ -762,12 +764,15 @@ public class BundleContextImpl implements BundleContext, EventDispatcher<Object,
 		}
 
 		if (activator != null) {
+			StartupProfiler profiler = container.getConfiguration().getStartupProfiler();
+			long begin = profiler.begin();
 			try {
 				startActivator(activator);
 			} catch (BundleException be) {
 				activator = null;
 				throw be;
 			} finally {
+				profiler.record(Probe.ACTIVATOR_START, bundle, begin);
 				if (debug.DEBUG_BUNDLE_TIME) {
 					Debug.println((System.currentTimeMillis() - start) + " ms to load and start the activator of " + bundle); //$NON-NLS-1$
 				}
@@ -50,17 +50,20 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Properties;
 import java.util.StringTokenizer;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.eclipse.core.runtime.internal.adaptor.ConsoleManager;
 import org.eclipse.osgi.framework.log.FrameworkLogEntry;
 import org.eclipse.osgi.internal.container.InternalUtils;
 import org.eclipse.osgi.internal.debug.Debug;
 import org.eclipse.osgi.internal.debug.FrameworkDebugOptions;
+import org.eclipse.osgi.internal.debug.StartupProfiler;
 import org.eclipse.osgi.internal.hookregistry.HookRegistry;
 import org.eclipse.osgi.internal.location.EquinoxLocations;
 import org.eclipse.osgi.internal.location.LocationHelper;
 import org.eclipse.osgi.internal.log.EquinoxLogServices;
 import org.eclipse.osgi.internal.messages.Msg;
+import org.eclipse.osgi.internal.util.VirtualThreads;
 import org.eclipse.osgi.service.datalocation.Location;
 import org.eclipse.osgi.service.debug.DebugOptions;
 import org.eclipse.osgi.service.environment.Constants;
@@ -102,6 +105,7 @@ public class EquinoxConfiguration implements EnvironmentInfo {
 	private final ConfigValues configValues;
 
 	private final Debug debug;
+	private final StartupProfiler startupProfiler;
 	private final DebugOptions debugOptions;
 	private final HookRegistry hookRegistry;
 	private final AliasMapper aliasMapper = new AliasMapper();
@@ -140,6 +144,9 @@ public class EquinoxConfiguration implements EnvironmentInfo {
 
 	public final boolean CLASS_CERTIFICATE;
 	public final boolean PARALLEL_CAPABLE;
+	public final int LOADER_NEGATIVE_CACHE_SIZE;
+	public final boolean CLASSPATH_INDEX;
+	public final boolean VIRTUAL_THREADS;
 
 	private final Map<Throwable, Integer> exceptions = new LinkedHashMap<>(0);
 
@@ -206,10 +213,13 @@ public class EquinoxConfiguration implements EnvironmentInfo {
 
 	public static final String PROP_EQUINOX_SECURITY = "eclipse.security"; //$NON-NLS-1$
 	public static final String PROP_FILE_LIMIT = "osgi.bundlefile.limit"; //$NON-NLS-1$
+	public static final String PROP_SERVICE_INDEX_PROPERTIES = "equinox.service.index.properties"; //$NON-NLS-1$
 
 	public final static String PROP_CLASS_CERTIFICATE_SUPPORT = "osgi.support.class.certificate"; //$NON-NLS-1$
 	public final static String PROP_CLASS_LOADER_TYPE = "osgi.classloader.type"; //$NON-NLS-1$
 	public final static String CLASS_LOADER_TYPE_PARALLEL = "parallel"; //$NON-NLS-1$
+	public static final String PROP_LOADER_NEGATIVE_CACHE_SIZE = "equinox.loader.negative.cache.size"; //$NON-NLS-1$
+	public static final String PROP_CLASSPATH_INDEX = "equinox.loader.classpath.index"; //$NON-NLS-1$
 
 	public static final String PROP_FORCED_RESTART = "osgi.forcedRestart"; //$NON-NLS-1$
 	public static final String PROP_IGNORE_USER_CONFIGURATION = "eclipse.ignoreUserConfiguration"; //$NON-NLS-1$
@@ -221,6 +231,8 @@ public class EquinoxConfiguration implements EnvironmentInfo {
 
 	public static final String DEFAULT_STATE_SAVE_DELAY_INTERVAL = "30000"; //$NON-NLS-1$
 	public static final String PROP_STATE_SAVE_DELAY_INTERVAL = "eclipse.stateSaveDelayInterval"; //$NON-NLS-1$
+	public static final String PROP_STORAGE_MAP_FRAMEWORK_INFO = "equinox.storage.map.framework.info"; //$NON-NLS-1$
+	public static final String PROP_STORAGE_MAX_DELTAS = "equinox.storage.max.deltas"; //$NON-NLS-1$
 
 	public static final String PROP_MODULE_LOCK_TIMEOUT = "osgi.module.lock.timeout"; //$NON-NLS-1$
 	public static final String PROP_MODULE_AUTO_START_ON_RESOLVE = "osgi.module.auto.start.on.resolve"; //$NON-NLS-1$
@@ -233,6 +245,9 @@ public class EquinoxConfiguration implements EnvironmentInfo {
 	public static final String PROP_EQUINOX_RESOLVER_THREAD_COUNT = "equinox.resolver.thread.count"; //$NON-NLS-1$
 	public static final String PROP_EQUINOX_START_LEVEL_THREAD_COUNT = "equinox.start.level.thread.count"; //$NON-NLS-1$
 	public static final String PROP_EQUINOX_START_LEVEL_RESTRICT_PARALLEL = "equinox.start.level.restrict.parallel"; //$NON-NLS-1$
+	public static final String PROP_EQUINOX_START_LEVEL_DEPENDENCY_ORDER = "equinox.start.level.dependency.order"; //$NON-NLS-1$
+	public static final String PROP_EQUINOX_VIRTUAL_THREADS = "equinox.virtual.threads"; //$NON-NLS-1$
+	public static final String PROP_STARTUP_PROFILER = "equinox.startup.profiler"; //$NON-NLS-1$
 	public static final String PROP_RESOLVER_REVISION_BATCH_SIZE = "equinox.resolver.revision.batch.size"; //$NON-NLS-1$
 	public static final String PROP_RESOLVER_BATCH_TIMEOUT = "equinox.resolver.batch.timeout"; //$NON-NLS-1$
 
@@ -567,8 +582,11 @@ public class EquinoxConfiguration implements EnvironmentInfo {
 		this.configValues.loadConfigIni(getConfigIni(equinoxLocations, true));
 		this.configValues.finalizeValues();
 
+		// must be known before the debug options create the trace writer thread
+		VIRTUAL_THREADS = Boolean.parseBoolean(getConfiguration(PROP_EQUINOX_VIRTUAL_THREADS)) && VirtualThreads.isSupported();
 		this.debugOptions = new FrameworkDebugOptions(this);
 		this.debug = new Debug(this.debugOptions);
+		this.startupProfiler = new StartupProfiler(Boolean.parseBoolean(getConfiguration(PROP_STARTUP_PROFILER)));
 		// finally we know if locations should be debugged.
 		debugLocations.set(debug.DEBUG_LOCATION);
 
@@ -631,6 +649,15 @@ public class EquinoxConfiguration implements EnvironmentInfo {
 
 		PARALLEL_CAPABLE = CLASS_LOADER_TYPE_PARALLEL.equals(getConfiguration(PROP_CLASS_LOADER_TYPE));
 
+		int negativeCacheSize = 256;
+		try {
+			negativeCacheSize = Integer.parseInt(getConfiguration(PROP_LOADER_NEGATIVE_CACHE_SIZE, "256")); //$NON-NLS-1$
+		} catch (NumberFormatException e) {
+			// use the default
+		}
+		LOADER_NEGATIVE_CACHE_SIZE = negativeCacheSize;
+		CLASSPATH_INDEX = "true".equals(getConfiguration(PROP_CLASSPATH_INDEX, "true")); //$NON-NLS-1$ //$NON-NLS-2$
+
 		// A specified osgi.dev property but unspecified osgi.checkConfiguration
 		// property implies osgi.checkConfiguration = true.
 		inCheckConfigurationMode = Boolean.valueOf(getConfiguration(PROP_CHECK_CONFIGURATION, Boolean.toString(devMode)));
@@ -720,6 +747,16 @@ public class EquinoxConfiguration implements EnvironmentInfo {
 		return os == null || !os.startsWith("Mac OS") ? null : "dylib,jnilib"; //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
+	/**
+	 * Returns a factory of virtual threads for the framework threads with
+	 * the specified name if virtual threads are enabled.
+	 * @param threadName the name of the threads
+	 * @return the thread factory or {@code null} if platform threads are used
+	 */
+	public ThreadFactory getThreadFactory(String threadName) {
+		return VIRTUAL_THREADS ? VirtualThreads.newThreadFactory(threadName) : null;
+	}
+
 	public boolean inCheckConfigurationMode() {
 		return inCheckConfigurationMode;
 	}
@@ -859,6 +896,10 @@ public class EquinoxConfiguration implements EnvironmentInfo {
 		return this.debug;
 	}
 
+	public StartupProfiler getStartupProfiler() {
+		return this.startupProfiler;
+	}
+
 	public DebugOptions getDebugOptions() {
 		return this.debugOptions;
 	}
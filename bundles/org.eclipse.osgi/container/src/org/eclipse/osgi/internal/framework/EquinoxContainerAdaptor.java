@@ -40,11 +40,13 @@ import org.eclipse.osgi.container.ModuleRevisionBuilder;
 import org.eclipse.osgi.container.ModuleWiring;
 import org.eclipse.osgi.container.SystemModule;
 import org.eclipse.osgi.internal.container.AtomicLazyInitializer;
+import org.eclipse.osgi.internal.debug.StartupProfiler.Probe;
 import org.eclipse.osgi.internal.hookregistry.ClassLoaderHook;
 import org.eclipse.osgi.internal.loader.BundleLoader;
 import org.eclipse.osgi.internal.loader.FragmentLoader;
 import org.eclipse.osgi.internal.loader.SystemBundleLoader;
 import org.eclipse.osgi.internal.permadmin.BundlePermissions;
+import org.eclipse.osgi.internal.util.VirtualThreads;
 import org.eclipse.osgi.service.debug.DebugOptions;
 import org.eclipse.osgi.storage.BundleInfo.Generation;
 import org.eclipse.osgi.storage.Storage;
@@ -63,6 +65,7 @@ public class EquinoxContainerAdaptor extends ModuleContainerAdaptor {
 	// The ClassLoader parent to use when creating ModuleClassLoaders.
 	private final ClassLoader moduleClassLoaderParent;
 	private final AtomicLong lastSecurityAdminFlush;
+	private final AtomicLong databaseGeneration = new AtomicLong();
 
 	final AtomicLazyInitializer<Executor> resolverExecutor;
 	final Callable<Executor> lazyResolverExecutorCreator;
@@ -110,7 +113,7 @@ public class EquinoxContainerAdaptor extends ModuleContainerAdaptor {
 		this.resolverExecutor = new AtomicLazyInitializer<>();
 		this.lazyResolverExecutorCreator = createLazyExecutorCreator( //
 				"Equinox resolver thread - " + EquinoxContainerAdaptor.this.toString(), //$NON-NLS-1$
-				resolverThreadCnt, new SynchronousQueue<>());
+				resolverThreadCnt, new SynchronousQueue<>(), config);
 
 		// For the start-level we can safely use a growing queue because the thread feeding the
 		// start-level executor with work is a single thread and it can safely block waiting
@@ -118,13 +121,16 @@ public class EquinoxContainerAdaptor extends ModuleContainerAdaptor {
 		this.startLevelExecutor = new AtomicLazyInitializer<>();
 		this.lazyStartLevelExecutorCreator = createLazyExecutorCreator(//
 				"Equinox start level thread - " + EquinoxContainerAdaptor.this.toString(), //$NON-NLS-1$
-				startLevelThreadCnt, new LinkedBlockingQueue<>(1000));
+				startLevelThreadCnt, new LinkedBlockingQueue<>(1000), config);
 
 	}
 
-	private Callable<Executor> createLazyExecutorCreator(final String threadName, int threadCnt, final BlockingQueue<Runnable> queue) {
+	private Callable<Executor> createLazyExecutorCreator(final String threadName, int threadCnt, final BlockingQueue<Runnable> queue, EquinoxConfiguration config) {
 		// use the number of processors when configured value is <=0
 		final int maxThreads = threadCnt <= 0 ? Runtime.getRuntime().availableProcessors() : threadCnt;
+		final ThreadFactory virtualThreadFactory = config.getThreadFactory(threadName);
+		// with virtual threads there is no need to bound the number of threads unless configured
+		final boolean threadPerTask = virtualThreadFactory != null && threadCnt <= 0;
 		return new Callable<Executor>() {
 			@Override
 			public Executor call() throws Exception {
@@ -137,12 +143,18 @@ public class EquinoxContainerAdaptor extends ModuleContainerAdaptor {
 						}
 					};
 				}
+				if (threadPerTask) {
+					ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor(virtualThreadFactory);
+					if (executor != null) {
+						return executor;
+					}
+				}
 				// Always want to create core threads until max size
 				int coreThreads = maxThreads;
 				// idle timeout; make it short to get rid of threads quickly after use
 				int idleTimeout = 10;
 				// try to name the threads with useful name
-				ThreadFactory threadFactory = new ThreadFactory() {
+				ThreadFactory threadFactory = virtualThreadFactory != null ? virtualThreadFactory : new ThreadFactory() {
 					@Override
 					public Thread newThread(Runnable r) {
 						Thread t = new Thread(r, threadName);
@@ -362,12 +374,27 @@ public class EquinoxContainerAdaptor extends ModuleContainerAdaptor {
 
 	@Override
 	public void updatedDatabase() {
+		databaseGeneration.incrementAndGet();
 		StorageSaver saver = container.getStorageSaver();
 		if (saver == null)
 			return;
 		saver.save();
 	}
 
+	/**
+	 * Returns a value which changes each time the module database is updated.
+	 * Unlike the database timestamps this does not acquire the database lock.
+	 * @return the current generation of the module database
+	 */
+	public long getDatabaseGeneration() {
+		return databaseGeneration.get();
+	}
+
+	@Override
+	public void resolvedBatch(int batchSize, long elapsedNanos) {
+		container.getConfiguration().getStartupProfiler().recordElapsed(Probe.RESOLVE_BATCH, elapsedNanos);
+	}
+
 	@Override
 	public void initBegin() {
 		hooks.initBegin();
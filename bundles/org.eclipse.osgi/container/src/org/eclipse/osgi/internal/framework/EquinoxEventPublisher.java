@@ -77,7 +77,8 @@ public class EquinoxEventPublisher {
 
 	void init() {
 		// create our event manager on init()
-		resetEventManager(new EventManager("Framework Event Dispatcher: " + container.toString())); //$NON-NLS-1$
+		String threadName = "Framework Event Dispatcher: " + container.toString(); //$NON-NLS-1$
+		resetEventManager(new EventManager(threadName, null, container.getConfiguration().getThreadFactory(threadName)));
 	}
 
 	void close() {
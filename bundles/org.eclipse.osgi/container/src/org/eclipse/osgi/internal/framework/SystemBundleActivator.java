@@ -23,6 +23,7 @@ import org.apache.felix.resolver.Logger;
 import org.apache.felix.resolver.ResolverImpl;
 import org.eclipse.osgi.internal.debug.Debug;
 import org.eclipse.osgi.internal.debug.FrameworkDebugOptions;
+import org.eclipse.osgi.internal.debug.StartupProfiler;
 import org.eclipse.osgi.internal.framework.legacy.PackageAdminImpl;
 import org.eclipse.osgi.internal.framework.legacy.StartLevelImpl;
 import org.eclipse.osgi.internal.location.BasicLocation;
@@ -103,6 +104,11 @@ public class SystemBundleActivator implements BundleActivator {
 
 		register(bc, DebugOptions.class, dbgOptions, null);
 
+		StartupProfiler startupProfiler = configuration.getStartupProfiler();
+		if (startupProfiler.isEnabled()) {
+			register(bc, StartupProfiler.class, startupProfiler, null);
+		}
+
 		ClassLoader tccl = equinoxContainer.getContextFinder();
 		if (tccl != null) {
 			props.clear();
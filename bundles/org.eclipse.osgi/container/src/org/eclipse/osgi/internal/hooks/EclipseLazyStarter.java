@@ -31,6 +31,8 @@ import org.eclipse.osgi.container.ModuleRevision;
 import org.eclipse.osgi.container.namespaces.EquinoxModuleDataNamespace;
 import org.eclipse.osgi.framework.log.FrameworkLogEntry;
 import org.eclipse.osgi.framework.util.SecureAction;
+import org.eclipse.osgi.internal.debug.StartupProfiler;
+import org.eclipse.osgi.internal.debug.StartupProfiler.Probe;
 import org.eclipse.osgi.internal.framework.EquinoxContainer;
 import org.eclipse.osgi.internal.hookregistry.ClassLoaderHook;
 import org.eclipse.osgi.internal.loader.classpath.ClasspathManager;
@@ -112,6 +114,8 @@ public class EclipseLazyStarter extends ClassLoaderHook {
 			// In this case we will timeout after a default of 5 seconds and record the BundleException
 			long startTime = System.currentTimeMillis();
 			Module m = managerElement.getGeneration().getRevision().getRevisions().getModule();
+			StartupProfiler profiler = container.getConfiguration().getStartupProfiler();
+			long begin = profiler.begin();
 			try {
 				// do not persist the start of this bundle
 				secureAction.start(m, StartOptions.LAZY_TRIGGER);
@@ -130,6 +134,8 @@ public class EclipseLazyStarter extends ClassLoaderHook {
 					throw error;
 				}
 				container.getEventPublisher().publishFrameworkEvent(FrameworkEvent.ERROR, bundle, new BundleException(message, e));
+			} finally {
+				profiler.record(Probe.LAZY_TRIGGER, m.getBundle(), begin);
 			}
 		}
 	}
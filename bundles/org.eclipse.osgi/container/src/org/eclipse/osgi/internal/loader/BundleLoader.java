@@ -45,6 +45,7 @@ import org.eclipse.osgi.container.namespaces.EquinoxModuleDataNamespace;
 import org.eclipse.osgi.internal.debug.Debug;
 import org.eclipse.osgi.internal.framework.EquinoxConfiguration;
 import org.eclipse.osgi.internal.framework.EquinoxContainer;
+import org.eclipse.osgi.internal.framework.EquinoxContainerAdaptor;
 import org.eclipse.osgi.internal.hookregistry.ClassLoaderHook;
 import org.eclipse.osgi.internal.loader.buddy.PolicyHandler;
 import org.eclipse.osgi.internal.loader.sources.MultiSourcePackage;
@@ -124,6 +125,10 @@ public class BundleLoader extends ModuleLoader {
 	private final ClassLoader parent;
 	private final AtomicBoolean triggerClassLoaded = new AtomicBoolean(false);
 	private final AtomicBoolean firstUseOfInvalidLoader = new AtomicBoolean(false);
+	private final EquinoxContainerAdaptor adaptor;
+	/* names of classes and resources which could not be found; null if disabled */
+	private final NegativeLookupCache classMisses;
+	private final NegativeLookupCache resourceMisses;
 
 	/**
 	 * Returns the package name from the specified class name.
@@ -166,6 +171,10 @@ public class BundleLoader extends ModuleLoader {
 		this.container = container;
 		this.debug = container.getConfiguration().getDebug();
 		this.parent = parent;
+		this.adaptor = (EquinoxContainerAdaptor) container.getStorage().getAdaptor();
+		int negativeCacheSize = container.getConfiguration().LOADER_NEGATIVE_CACHE_SIZE;
+		this.classMisses = negativeCacheSize > 0 ? new NegativeLookupCache(negativeCacheSize) : null;
+		this.resourceMisses = negativeCacheSize > 0 ? new NegativeLookupCache(negativeCacheSize) : null;
 
 		// init the provided packages set
 		exportSources = new BundleLoaderSources(this);
@@ -310,6 +319,7 @@ public class BundleLoader extends ModuleLoader {
 		addFragmentExports(wiring.getModuleCapabilities(PackageNamespace.PACKAGE_NAMESPACE));
 		loadClassLoaderFragments(fragments);
 		clearManifestLocalizationCache();
+		clearNegativeLookupCaches();
 	}
 
 	protected void clearManifestLocalizationCache() {
@@ -468,6 +478,33 @@ public class BundleLoader extends ModuleLoader {
 		}
 		if (result != null)
 			return result;
+		// the hooks are always called; only the search of the sources is skipped for a known miss
+		NegativeLookupCache.Misses misses = classMisses == null ? null : classMisses.getMisses(adaptor.getDatabaseGeneration());
+		if (misses != null) {
+			Boolean terminal = misses.get(name);
+			if (terminal != null) {
+				if (debug.DEBUG_LOADER) {
+					Debug.println("BundleLoader[" + this + "] class " + name + " was not found previously"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				}
+				// last ditch find loaded check in case something is reflectively
+				// calling defineClass on our loader.
+				result = getModuleClassLoader().publicFindLoaded(name);
+				if (result != null)
+					return result;
+				if (terminal.booleanValue())
+					return generateException(name, generateException);
+				try {
+					result = (Class<?>) searchHooks(name, POST_CLASS);
+				} catch (FileNotFoundException e) {
+					// will not happen
+				}
+				if (result == null && policy != null)
+					result = policy.doBuddyClassLoading(name);
+				if (result != null)
+					return result;
+				return findClassFromParent(name, parentDelegation, bootDelegation, generateException);
+			}
+		}
 		// 3) search the imported packages
 		PackageSource source = findImportedSource(pkgName, null);
 		if (source != null) {
@@ -483,6 +520,8 @@ public class BundleLoader extends ModuleLoader {
 			}
 			if (result != null)
 				return result;
+			if (misses != null)
+				misses.put(name, true);
 			return generateException(name, generateException);
 		}
 		// 4) search the required bundles
@@ -506,6 +545,8 @@ public class BundleLoader extends ModuleLoader {
 				result = source.loadClass(name);
 				if (result != null)
 					return result;
+				if (misses != null)
+					misses.put(name, true);
 				return generateException(name, generateException);
 			}
 		}
@@ -521,6 +562,12 @@ public class BundleLoader extends ModuleLoader {
 			result = policy.doBuddyClassLoading(name);
 		if (result != null)
 			return result;
+		if (misses != null)
+			misses.put(name, false);
+		return findClassFromParent(name, parentDelegation, bootDelegation, generateException);
+	}
+
+	private Class<?> findClassFromParent(String name, boolean parentDelegation, boolean bootDelegation, boolean generateException) throws ClassNotFoundException {
 		// hack to support backwards compatibility for bootdelegation
 		// or last resort; do class context trick to work around VM bugs
 		if (parentDelegation && parent != null && !bootDelegation
@@ -669,6 +716,30 @@ public class BundleLoader extends ModuleLoader {
 		}
 		if (result != null)
 			return result;
+		// the hooks are always called; only the search of the sources is skipped for a known miss
+		NegativeLookupCache.Misses misses = resourceMisses == null ? null : resourceMisses.getMisses(adaptor.getDatabaseGeneration());
+		if (misses != null) {
+			Boolean terminal = misses.get(name);
+			if (terminal != null) {
+				if (debug.DEBUG_LOADER) {
+					Debug.println("BundleLoader[" + this + "] resource " + name + " was not found previously"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				}
+				if (terminal.booleanValue())
+					return null;
+				try {
+					result = (URL) searchHooks(name, POST_RESOURCE);
+				} catch (FileNotFoundException e) {
+					return null;
+				} catch (ClassNotFoundException e) {
+					// will not happen
+				}
+				if (result == null && policy != null)
+					result = policy.doBuddyResourceLoading(name);
+				if (result != null)
+					return result;
+				return findResourceFromParent(name, bootDelegation);
+			}
+		}
 		// 3) search the imported packages
 		PackageSource source = findImportedSource(pkgName, null);
 		if (source != null) {
@@ -676,7 +747,10 @@ public class BundleLoader extends ModuleLoader {
 				Debug.println("BundleLoader[" + this + "] loading from import package: " + source); //$NON-NLS-1$ //$NON-NLS-2$
 			}
 			// 3) found import source terminate search at the source
-			return source.getResource(name);
+			result = source.getResource(name);
+			if (result == null && misses != null)
+				misses.put(name, true);
+			return result;
 		}
 		// 4) search the required bundles
 		source = findRequiredSource(pkgName, null);
@@ -695,9 +769,13 @@ public class BundleLoader extends ModuleLoader {
 		// 6) attempt to find a dynamic import source; only do this if a required source was not found
 		if (source == null) {
 			source = findDynamicSource(pkgName);
-			if (source != null)
+			if (source != null) {
 				// must return the result of the dynamic import and do not continue
-				return source.getResource(name);
+				result = source.getResource(name);
+				if (result == null && misses != null)
+					misses.put(name, true);
+				return result;
+			}
 		}
 
 		if (result == null)
@@ -713,12 +791,18 @@ public class BundleLoader extends ModuleLoader {
 			result = policy.doBuddyResourceLoading(name);
 		if (result != null)
 			return result;
+		if (misses != null)
+			misses.put(name, false);
+		return findResourceFromParent(name, bootDelegation);
+	}
+
+	private URL findResourceFromParent(String name, boolean bootDelegation) {
 		// hack to support backwards compatibility for bootdelegation
 		// or last resort; do class context trick to work around VM bugs
 		if (parent != null && !bootDelegation && (container.getConfiguration().compatibilityBootDelegation || isRequestFromVM()))
 			// we don't need to continue if the resource is not found here
 			return parent.getResource(name);
-		return result;
+		return null;
 	}
 
 	/**
@@ -1163,9 +1247,35 @@ public class BundleLoader extends ModuleLoader {
 			// gets added to the wiring first. This avoids issues if another
 			// thread tries to dynamic resolve before all is done here.
 			addDynamicImportPackage(dynamicImports.toArray(new String[dynamicImports.size()]));
+			clearNegativeLookupCaches();
 		}
 	}
 
+	private void clearNegativeLookupCaches() {
+		if (classMisses != null) {
+			classMisses.clear();
+			resourceMisses.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of class and resource lookups which were answered
+	 * from the cache of names that could not be found previously.
+	 * @return the number of negative lookup cache hits
+	 */
+	public long getNegativeLookupCacheHits() {
+		return classMisses == null ? 0 : classMisses.getHitCount() + resourceMisses.getHitCount();
+	}
+
+	/**
+	 * Returns the number of class and resource lookups which were not found
+	 * in the cache of names that could not be found previously.
+	 * @return the number of negative lookup cache misses
+	 */
+	public long getNegativeLookupCacheMisses() {
+		return classMisses == null ? 0 : classMisses.getMissCount() + resourceMisses.getMissCount();
+	}
+
 	/*
 	 * Finds a packagesource that is either imported or required from another bundle.
 	 * This will not include an local package source
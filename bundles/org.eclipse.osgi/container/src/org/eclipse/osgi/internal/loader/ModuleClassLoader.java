@@ -25,9 +25,9 @@ import java.security.ProtectionDomain;
 import java.security.cert.Certificate;
 import java.util.Collection;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.eclipse.osgi.container.ModuleRevision;
 import org.eclipse.osgi.internal.debug.Debug;
 import org.eclipse.osgi.internal.framework.EquinoxConfiguration;
@@ -98,7 +98,8 @@ public abstract class ModuleClassLoader extends ClassLoader implements BundleRef
 		}
 	}
 
-	private final Map<String, Thread> classNameLocks = new HashMap<>(5);
+	/* Locks for the class names currently being defined; only used when registered as parallel. */
+	private final ConcurrentMap<String, Object> classNameLocks = new ConcurrentHashMap<>();
 	private final Object pkgLock = new Object();
 
 	/**
@@ -274,19 +275,20 @@ public abstract class ModuleClassLoader extends ClassLoader implements BundleRef
 		boolean defined = false;
 		Class<?> result = null;
 		if (isRegisteredAsParallel()) {
-			// lock by class name in this case
-			boolean initialLock = lockClassName(name);
-			try {
+			// lock by class name in this case; threads defining other classes are not blocked
+			Object classNameLock = classNameLocks.computeIfAbsent(name, n -> new Object());
+			synchronized (classNameLock) {
 				result = findLoadedClass(name);
 				if (result == null) {
 					result = defineClass(name, classbytes, 0, classbytes.length, classpathEntry.getDomain());
 					defined = true;
 				}
-			} finally {
-				if (initialLock) {
-					unlockClassName(name);
-				}
 			}
+			// The lock is only removed once the class is loaded; any thread still waiting
+			// for the lock and any thread getting a new lock for the name will find it loaded.
+			// If defineClass threw, the lock stays so that the next attempt to define the
+			// class is still serialized with the threads waiting for this lock.
+			classNameLocks.remove(name, classNameLock);
 		} else {
 			// lock by class loader instance in this case
 			synchronized (this) {
@@ -310,14 +312,17 @@ public abstract class ModuleClassLoader extends ClassLoader implements BundleRef
 	}
 
 	public Package publicGetPackage(String pkgname) {
-		synchronized (pkgLock) {
-			return getPackage(pkgname);
-		}
+		// the packages of a class loader are safe to get concurrently
+		return getPackage(pkgname);
 	}
 
 	public Package publicDefinePackage(String name, String specTitle, String specVersion, String specVendor, String implTitle, String implVersion, String implVendor, URL sealBase) {
+		Package pkg = getPackage(name);
+		if (pkg != null) {
+			return pkg;
+		}
 		synchronized (pkgLock) {
-			Package pkg = getPackage(name);
+			pkg = getPackage(name);
 			return pkg != null ? pkg : definePackage(name, specTitle, specVersion, specVendor, implTitle, implVersion, implVendor, sealBase);
 		}
 	}
@@ -405,43 +410,6 @@ public abstract class ModuleClassLoader extends ClassLoader implements BundleRef
 		getClasspathManager().loadFragments(fragments);
 	}
 
-	private boolean lockClassName(String classname) {
-		synchronized (classNameLocks) {
-			Object lockingThread = classNameLocks.get(classname);
-			Thread current = Thread.currentThread();
-			if (lockingThread == current)
-				return false;
-			boolean previousInterruption = Thread.interrupted();
-			try {
-				while (true) {
-					if (lockingThread == null) {
-						classNameLocks.put(classname, current);
-						return true;
-					}
-
-					classNameLocks.wait();
-					lockingThread = classNameLocks.get(classname);
-				}
-			} catch (InterruptedException e) {
-				previousInterruption = true;
-				// must not throw LinkageError or ClassNotFoundException here because that will cause all threads
-				// to fail to load the class (see bug 490902)
-				throw new Error("Interrupted while waiting for classname lock: " + classname, e); //$NON-NLS-1$
-			} finally {
-				if (previousInterruption) {
-					current.interrupt();
-				}
-			}
-		}
-	}
-
-	private void unlockClassName(String classname) {
-		synchronized (classNameLocks) {
-			classNameLocks.remove(classname);
-			classNameLocks.notifyAll();
-		}
-	}
-
 	public void close() {
 		getClasspathManager().close();
 	}
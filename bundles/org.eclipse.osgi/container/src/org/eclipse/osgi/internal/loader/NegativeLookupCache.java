@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.internal.loader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the names a bundle loader failed to find.
+ * <p>
+ * The cached names are only valid for a single generation of the module
+ * database.  Any change to the database, for example installing or resolving
+ * a bundle, may allow a name which was not found to be found by a dynamic
+ * import or a buddy policy so the cache is discarded when the generation changes.
+ * <p>
+ * A lookup must get the {@link Misses misses} before searching for a name and
+ * record a failed search in the same misses.  This makes sure that a search which
+ * was concurrent with a change in generation or with a call to {@link #clear()}
+ * does not record its result in the current cache.
+ */
+final class NegativeLookupCache {
+	static final class Misses {
+		final long generation;
+		/* Key is the name */
+		private final ConcurrentMap<String, Miss> names = new ConcurrentHashMap<>();
+		private final NegativeLookupCache cache;
+
+		Misses(long generation, NegativeLookupCache cache) {
+			this.generation = generation;
+			this.cache = cache;
+		}
+
+		/**
+		 * Returns if the search for the name failed before
+		 * @param name the name
+		 * @return {@code null} if the name is not known to be missing; otherwise
+		 * {@code true} if the search was terminated by a package source
+		 */
+		Boolean get(String name) {
+			Miss miss = names.get(name);
+			if (miss == null) {
+				cache.misses.increment();
+				return null;
+			}
+			cache.hits.increment();
+			miss.lastUsed = System.nanoTime();
+			return miss.terminal;
+		}
+
+		/**
+		 * Records that the search for the name failed.
+		 * @param name the name
+		 * @param terminal true if the search was terminated by a package source
+		 */
+		void put(String name, boolean terminal) {
+			if (names.size() >= cache.maxSize) {
+				evict();
+			}
+			names.put(name, new Miss(terminal, System.nanoTime()));
+		}
+
+		/**
+		 * Keeps the cache bounded by removing the least recently used names.
+		 * More names than needed are removed so the eviction does not happen
+		 * for each name put into a full cache.
+		 */
+		private synchronized void evict() {
+			int size = names.size();
+			if (size < cache.maxSize) {
+				return; // another thread evicted already
+			}
+			// copy the access times; they may change while sorting
+			List<Map.Entry<String, Miss>> entries = new ArrayList<>(names.entrySet());
+			long[] lastUsed = new long[entries.size()];
+			Integer[] byLastUsed = new Integer[lastUsed.length];
+			for (int i = 0; i < lastUsed.length; i++) {
+				lastUsed[i] = entries.get(i).getValue().lastUsed;
+				byLastUsed[i] = i;
+			}
+			Arrays.sort(byLastUsed, (i1, i2) -> Long.compare(lastUsed[i1], lastUsed[i2]));
+			int toEvict = Math.min(lastUsed.length, size - cache.maxSize + Math.max(1, cache.maxSize / 4));
+			for (int i = 0; i < toEvict; i++) {
+				Map.Entry<String, Miss> entry = entries.get(byLastUsed[i]);
+				names.remove(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	private static final class Miss {
+		final boolean terminal;
+		volatile long lastUsed;
+
+		Miss(boolean terminal, long lastUsed) {
+			this.terminal = terminal;
+			this.lastUsed = lastUsed;
+		}
+	}
+
+	final int maxSize;
+	final LongAdder hits = new LongAdder();
+	final LongAdder misses = new LongAdder();
+	private volatile Misses current;
+
+	NegativeLookupCache(int maxSize) {
+		this.maxSize = maxSize;
+		this.current = new Misses(Long.MIN_VALUE, this);
+	}
+
+	/**
+	 * Returns the misses for the specified generation.
+	 * @param generation the current generation of the module database
+	 * @return the misses for the generation
+	 */
+	Misses getMisses(long generation) {
+		Misses result = current;
+		if (result.generation == generation) {
+			return result;
+		}
+		synchronized (this) {
+			result = current;
+			if (result.generation < generation) {
+				current = result = new Misses(generation, this);
+			} else if (result.generation > generation) {
+				// the caller is behind the current generation; do not record in the current misses
+				result = new Misses(generation, this);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Discards all the recorded misses.
+	 */
+	void clear() {
+		synchronized (this) {
+			current = new Misses(current.generation, this);
+		}
+	}
+
+	long getHitCount() {
+		return hits.sum();
+	}
+
+	long getMissCount() {
+		return misses.sum();
+	}
+}
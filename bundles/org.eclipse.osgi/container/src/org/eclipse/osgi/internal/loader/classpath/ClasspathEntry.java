@@ -60,6 +60,7 @@ public class ClasspathEntry {
 	private final Map<String, ManifestPackageAttributes> perPackageManifestAttributes;
 	private final List<BundleFile> mrBundleFiles;
 	private HashMap<Object, KeyedElement> userObjects = null;
+	private volatile ClasspathEntryIndex index;
 
 	// TODO Note that PDE has internal dependency on this field type/name (bug 267238)
 	@SuppressWarnings("unused")
@@ -186,6 +187,9 @@ public class ClasspathEntry {
 	 * @return the entry with the specified path.
 	 */
 	public BundleEntry findEntry(String path) {
+		if (!mayContain(path)) {
+			return null;
+		}
 		for (BundleFile mrFile : mrBundleFiles) {
 			BundleEntry mrEntry = mrFile.getEntry(path);
 			if (mrEntry != null) {
@@ -204,6 +208,9 @@ public class ClasspathEntry {
 	 * @return the resource URL or {@code null} if the resource does not exist.
 	 */
 	public URL findResource(String name, Module m, int index) {
+		if (!mayContain(name)) {
+			return null;
+		}
 		for (BundleFile mrFile : mrBundleFiles) {
 			URL mrURL = mrFile.getResourceURL(name, m, index);
 			if (mrURL != null) {
@@ -213,6 +220,16 @@ public class ClasspathEntry {
 		return bundlefile.getResourceURL(name, m, index);
 	}
 
+	void setIndex(ClasspathEntryIndex index) {
+		this.index = index;
+	}
+
+	private boolean mayContain(String path) {
+		ClasspathEntryIndex current = index;
+		// the index does not include the content of multi-release versions
+		return current == null || !mrBundleFiles.isEmpty() || current.mayContain(path, bundlefile);
+	}
+
 	/**
 	 * Adds the BundleFile objects for this classpath in the proper order
 	 * for searching for resources. This handles Multi-Release ordering also.
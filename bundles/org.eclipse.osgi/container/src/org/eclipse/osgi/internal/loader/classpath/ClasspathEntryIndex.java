@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.internal.loader.classpath;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import org.eclipse.osgi.internal.debug.Debug;
+import org.eclipse.osgi.storage.BundleInfo.Generation;
+import org.eclipse.osgi.storage.StorageUtil;
+import org.eclipse.osgi.storage.bundlefile.BundleFile;
+
+/**
+ * An index of the directories contained in the bundle file of a classpath entry.
+ * The index allows a classpath entry to answer that it does not contain a
+ * class or resource without asking the bundle file which may need to reopen a
+ * closed zip file.
+ * <p>
+ * The index is computed the first time it is used and then persisted in the
+ * storage area of the generation which provides the classpath entry.  It is
+ * only used for generations that are not directories since the content of a
+ * generation which is a directory may change.
+ */
+final class ClasspathEntryIndex {
+	private static final int VERSION = 1;
+	private static final String INDEX_DIR = ".cpindex"; //$NON-NLS-1$
+
+	private final Generation generation;
+	private final String classpath;
+	private final Debug debug;
+	private volatile Set<String> directories;
+
+	private ClasspathEntryIndex(Generation generation, String classpath) {
+		this.generation = generation;
+		this.classpath = classpath;
+		this.debug = generation.getBundleInfo().getStorage().getConfiguration().getDebug();
+	}
+
+	/**
+	 * Creates an index for the bundle file of the specified classpath of a generation.
+	 * @param generation the generation providing the classpath
+	 * @param classpath the classpath
+	 * @return the index or {@code null} if the generation content cannot be indexed
+	 */
+	static ClasspathEntryIndex create(Generation generation, String classpath) {
+		if (generation.isDirectory() || !generation.getBundleInfo().getStorage().getConfiguration().CLASSPATH_INDEX) {
+			return null;
+		}
+		return new ClasspathEntryIndex(generation, classpath);
+	}
+
+	/**
+	 * Returns false if the specified path is known to not exist in the bundle file.
+	 * @param path the path of an entry
+	 * @param bundleFile the bundle file indexed
+	 * @return false if the path does not exist in the bundle file
+	 */
+	boolean mayContain(String path, BundleFile bundleFile) {
+		if (path.length() > 0 && path.charAt(0) == '/') {
+			path = path.substring(1);
+		}
+		int lastSlash = path.lastIndexOf('/');
+		if (lastSlash < 0) {
+			// entries in the root directory are not indexed
+			return true;
+		}
+		Set<String> current = getDirectories(bundleFile);
+		return current == null || current.contains(path.substring(0, lastSlash + 1));
+	}
+
+	private Set<String> getDirectories(BundleFile bundleFile) {
+		Set<String> current = directories;
+		if (current != null) {
+			return current;
+		}
+		synchronized (this) {
+			current = directories;
+			if (current == null) {
+				File indexFile = getIndexFile();
+				long contentStamp = getContentStamp(bundleFile);
+				current = indexFile == null ? null : load(indexFile, contentStamp);
+				if (current == null) {
+					current = compute(bundleFile);
+					if (indexFile != null) {
+						save(indexFile, contentStamp, current);
+					}
+				}
+				directories = current;
+			}
+			return current;
+		}
+	}
+
+	private Set<String> compute(BundleFile bundleFile) {
+		Set<String> result = new HashSet<>();
+		Enumeration<String> paths = bundleFile.getEntryPaths("", true); //$NON-NLS-1$
+		if (paths != null) {
+			while (paths.hasMoreElements()) {
+				String path = paths.nextElement();
+				int lastSlash = path.lastIndexOf('/');
+				if (lastSlash >= 0) {
+					result.add(path.substring(0, lastSlash + 1));
+				}
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * The content of a generation does not change but a bundle installed by reference
+	 * may be replaced in place.  The persisted index is only used if the content file
+	 * is the same as when the index was computed.
+	 */
+	private static long getContentStamp(BundleFile bundleFile) {
+		File baseFile = bundleFile.getBaseFile();
+		return baseFile == null ? 0 : baseFile.lastModified() ^ baseFile.length();
+	}
+
+	private File getIndexFile() {
+		try {
+			return generation.getExtractFile(INDEX_DIR, Integer.toHexString(classpath.hashCode()));
+		} catch (RuntimeException e) {
+			// the index will not be persisted
+			return null;
+		}
+	}
+
+	private Set<String> load(File indexFile, long contentStamp) {
+		if (!indexFile.isFile()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+			if (in.readInt() != VERSION || !classpath.equals(in.readUTF()) || in.readLong() != contentStamp) {
+				return null;
+			}
+			int size = in.readInt();
+			Set<String> result = new HashSet<>(size * 4 / 3 + 1);
+			for (int i = 0; i < size; i++) {
+				result.add(in.readUTF());
+			}
+			return result;
+		} catch (IOException e) {
+			if (debug.DEBUG_LOADER) {
+				Debug.println("Error reading classpath index " + indexFile + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			return null;
+		}
+	}
+
+	private void save(File indexFile, long contentStamp, Set<String> dirs) {
+		if (generation.getBundleInfo().getStorage().isReadOnly()) {
+			return;
+		}
+		File tmpFile = new File(indexFile.getPath() + ".tmp"); //$NON-NLS-1$
+		try {
+			indexFile.getParentFile().mkdirs();
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+				out.writeInt(VERSION);
+				out.writeUTF(classpath);
+				out.writeLong(contentStamp);
+				out.writeInt(dirs.size());
+				for (String dir : dirs) {
+					out.writeUTF(dir);
+				}
+			}
+			StorageUtil.move(tmpFile, indexFile, debug.DEBUG_LOADER);
+		} catch (IOException e) {
+			if (debug.DEBUG_LOADER) {
+				Debug.println("Error writing classpath index " + indexFile + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			tmpFile.delete();
+		}
+	}
+}
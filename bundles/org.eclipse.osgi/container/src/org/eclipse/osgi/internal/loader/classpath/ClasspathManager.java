@@ -34,6 +34,8 @@ import org.eclipse.osgi.container.ModuleWire;
 import org.eclipse.osgi.container.namespaces.EquinoxModuleDataNamespace;
 import org.eclipse.osgi.framework.util.ArrayMap;
 import org.eclipse.osgi.internal.debug.Debug;
+import org.eclipse.osgi.internal.debug.StartupProfiler;
+import org.eclipse.osgi.internal.debug.StartupProfiler.Probe;
 import org.eclipse.osgi.internal.framework.EquinoxConfiguration;
 import org.eclipse.osgi.internal.hookregistry.ClassLoaderHook;
 import org.eclipse.osgi.internal.hookregistry.HookRegistry;
@@ -68,6 +70,7 @@ public class ClasspathManager {
 	private final ModuleClassLoader classloader;
 	private final HookRegistry hookRegistry;
 	private final Debug debug;
+	private final StartupProfiler startupProfiler;
 
 	// TODO Note that PDE has internal dependency on this field type/name (bug 267238)
 	private final ClasspathEntry[] entries;
@@ -87,6 +90,7 @@ public class ClasspathManager {
 		EquinoxConfiguration configuration = generation.getBundleInfo().getStorage().getConfiguration();
 		this.debug = configuration.getDebug();
 		this.hookRegistry = configuration.getHookRegistry();
+		this.startupProfiler = configuration.getStartupProfiler();
 		this.generation = generation;
 		this.classloader = classloader;
 		String[] cp = getClassPath(generation.getRevision());
@@ -206,7 +210,9 @@ public class ClasspathManager {
 
 	public static boolean addStandardClassPathEntry(ArrayList<ClasspathEntry> result, String cp, ClasspathManager hostManager, Generation generation) {
 		if (cp.equals(".")) { //$NON-NLS-1$
-			result.add(hostManager.createClassPathEntry(generation.getBundleFile(), generation));
+			ClasspathEntry element = hostManager.createClassPathEntry(generation.getBundleFile(), generation);
+			element.setIndex(ClasspathEntryIndex.create(generation, cp));
+			result.add(element);
 			return true;
 		}
 		ClasspathEntry element = hostManager.getClasspath(cp, generation);
@@ -290,8 +296,11 @@ public class ClasspathManager {
 		// check for internal library jars
 		else if ((file = cpGeneration.getBundleFile().getFile(cp, false)) != null)
 			bundlefile = createBundleFile(file, cpGeneration);
-		if (bundlefile != null)
-			return createClassPathEntry(bundlefile, cpGeneration);
+		if (bundlefile != null) {
+			ClasspathEntry element = createClassPathEntry(bundlefile, cpGeneration);
+			element.setIndex(ClasspathEntryIndex.create(cpGeneration, cp));
+			return element;
+		}
 		return null;
 	}
 
@@ -664,6 +673,7 @@ public class ClasspathManager {
 	 * @return the defined class
 	 */
 	private Class<?> defineClass(String name, byte[] classbytes, ClasspathEntry classpathEntry, BundleEntry entry, List<ClassLoaderHook> hooks) {
+		long begin = startupProfiler.begin();
 		DefineClassResult result = null;
 		boolean recursionDetected = false;
 		try {
@@ -717,6 +727,9 @@ public class ClasspathManager {
 				context.currentlyDefining.remove(name);
 			}
 		} finally {
+			if (result != null && result.defined) {
+				startupProfiler.record(Probe.CLASS_DEFINE, generation.getRevision().getBundle(), begin);
+			}
 			// only call hooks if we properly called processClass above
 			if (!recursionDetected) {
 				// only pass the newly defined class to the hook
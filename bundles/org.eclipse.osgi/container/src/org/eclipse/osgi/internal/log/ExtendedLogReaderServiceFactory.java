@@ -19,12 +19,14 @@ import java.util.Enumeration;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import org.eclipse.equinox.log.LogFilter;
 import org.eclipse.equinox.log.SynchronousLogListener;
 import org.eclipse.osgi.framework.util.ArrayMap;
@@ -42,18 +44,49 @@ public class ExtendedLogReaderServiceFactory implements ServiceFactory<ExtendedL
 
 	static final int MAX_RECURSIONS = 50;
 
+	/**
+	 * Delivers log entries to an asynchronous listener.  Entries are queued
+	 * without locking and delivered in batches by a single task run on the
+	 * ordered task queue of the listener, so only the first entry of a batch
+	 * goes through the executor.
+	 */
 	static final class LogTask implements Runnable {
-		private final LogEntry logEntry;
+		/** the maximum number of entries delivered before the task gives up its thread */
+		private static final int MAX_BATCH = 256;
 		private final LogListener listener;
+		private final OrderedTaskQueue taskQueue;
+		private final Queue<LogEntry> pending = new ConcurrentLinkedQueue<>();
+		private final AtomicBoolean scheduled = new AtomicBoolean();
 
-		LogTask(LogEntry logEntry, LogListener listener) {
-			this.logEntry = logEntry;
+		LogTask(LogListener listener, OrderedTaskQueue taskQueue) {
 			this.listener = listener;
+			this.taskQueue = taskQueue;
+		}
+
+		void log(LogEntry logEntry, int numListeners) {
+			pending.add(logEntry);
+			if (scheduled.compareAndSet(false, true)) {
+				taskQueue.execute(this, numListeners);
+			}
 		}
 
 		@Override
 		public void run() {
-			safeLogged(listener, logEntry);
+			int count = 0;
+			LogEntry logEntry;
+			while ((logEntry = pending.poll()) != null) {
+				safeLogged(listener, logEntry);
+				if (++count == MAX_BATCH) {
+					// let the other listeners use the thread; the queue runs this task again after them
+					taskQueue.execute(this, 1);
+					return;
+				}
+			}
+			scheduled.set(false);
+			// an entry may have been added after the last poll but before the task was unscheduled
+			if (!pending.isEmpty() && scheduled.compareAndSet(false, true)) {
+				taskQueue.execute(this, 1);
+			}
 		}
 	}
 
@@ -68,12 +101,12 @@ public class ExtendedLogReaderServiceFactory implements ServiceFactory<ExtendedL
 
 	private static PrintStream errorStream;
 
-	private final ReentrantReadWriteLock listenersLock = new ReentrantReadWriteLock();
-	private ArrayMap<LogListener, Object[]> listeners = new ArrayMap<>(5);
-	private LogFilter[] filters = null;
+	// guards updates of the listeners; logging reads the volatile copies without locking
+	private final ReentrantLock listenersLock = new ReentrantLock();
+	private volatile ArrayMap<LogListener, Object[]> listeners = new ArrayMap<>(5);
+	private volatile LogFilter[] filters = null;
 	private final ThreadLocal<int[]> nestedCallCount = new ThreadLocal<>();
-	private final LinkedList<LogEntry> history;
-	private final int maxHistory;
+	private final LogHistory history;
 	private final LogLevel defaultLevel;
 
 	private OrderedExecutor executor;
@@ -116,9 +149,8 @@ public class ExtendedLogReaderServiceFactory implements ServiceFactory<ExtendedL
 
 	public ExtendedLogReaderServiceFactory(int maxHistory, LogLevel defaultLevel) {
 		this.defaultLevel = defaultLevel;
-		this.maxHistory = maxHistory;
 		if (maxHistory > 0) {
-			history = new LinkedList<>();
+			history = new LogHistory(maxHistory);
 		} else {
 			history = null;
 		}
@@ -159,13 +191,7 @@ public class ExtendedLogReaderServiceFactory implements ServiceFactory<ExtendedL
 	}
 
 	boolean isLoggablePrivileged(Bundle bundle, String name, int level) {
-		LogFilter[] filtersCopy;
-		listenersLock.readLock().lock();
-		try {
-			filtersCopy = filters;
-		} finally {
-			listenersLock.readLock().unlock();
-		}
+		LogFilter[] filtersCopy = filters;
 		try {
 			if (incrementNestedCount() == MAX_RECURSIONS)
 				return false;
@@ -226,13 +252,7 @@ public class ExtendedLogReaderServiceFactory implements ServiceFactory<ExtendedL
 	void logPrivileged(Bundle bundle, String name, StackTraceElement stackTraceElement, Object context, LogLevel logLevelEnum, int level, String message, ServiceReference<?> ref, Throwable exception) {
 		LogEntry logEntry = new ExtendedLogEntryImpl(bundle, name, stackTraceElement, context, logLevelEnum, level, message, ref, exception);
 		storeEntry(logEntry);
-		ArrayMap<LogListener, Object[]> listenersCopy;
-		listenersLock.readLock().lock();
-		try {
-			listenersCopy = listeners;
-		} finally {
-			listenersLock.readLock().unlock();
-		}
+		ArrayMap<LogListener, Object[]> listenersCopy = listeners;
 		try {
 			if (incrementNestedCount() >= MAX_RECURSIONS)
 				return;
@@ -241,13 +261,12 @@ public class ExtendedLogReaderServiceFactory implements ServiceFactory<ExtendedL
 				Object[] listenerObjects = listenersCopy.getValue(i);
 				LogFilter filter = (LogFilter) listenerObjects[0];
 				if (safeIsLoggable(filter, bundle, name, level)) {
-					LogListener listener = listenersCopy.getKey(i);
-					OrderedTaskQueue orderedTaskQueue = (OrderedTaskQueue) listenerObjects[1];
-					if (orderedTaskQueue != null) {
-						orderedTaskQueue.execute(new LogTask(logEntry, listener), size);
+					LogTask logTask = (LogTask) listenerObjects[1];
+					if (logTask != null) {
+						logTask.log(logEntry, size);
 					} else {
 						// log synchronously
-						safeLogged(listener, logEntry);
+						safeLogged(listenersCopy.getKey(i), logEntry);
 					}
 				}
 			}
@@ -258,24 +277,19 @@ public class ExtendedLogReaderServiceFactory implements ServiceFactory<ExtendedL
 
 	private void storeEntry(LogEntry logEntry) {
 		if (history != null) {
-			synchronized (history) {
-				if (history.size() == maxHistory) {
-					history.removeLast();
-				}
-				history.addFirst(logEntry);
-			}
+			history.add(logEntry);
 		}
 	}
 
 	void addLogListener(LogListener listener, LogFilter filter) {
-		listenersLock.writeLock().lock();
+		listenersLock.lock();
 		try {
 			ArrayMap<LogListener, Object[]> listenersCopy = new ArrayMap<>(listeners.getKeys(), listeners.getValues());
 			Object[] listenerObjects = listenersCopy.get(listener);
 			if (listenerObjects == null) {
 				// Only create a task queue for non-SynchronousLogListeners
-				OrderedTaskQueue taskQueue = (listener instanceof SynchronousLogListener) ? null : executor.createQueue();
-				listenerObjects = new Object[] {filter, taskQueue};
+				LogTask logTask = (listener instanceof SynchronousLogListener) ? null : new LogTask(listener, executor.createQueue());
+				listenerObjects = new Object[] {filter, logTask};
 			} else if (filter != listenerObjects[0]) {
 				// update the filter
 				listenerObjects[0] = filter;
@@ -284,7 +298,7 @@ public class ExtendedLogReaderServiceFactory implements ServiceFactory<ExtendedL
 			recalculateFilters(listenersCopy);
 			listeners = listenersCopy;
 		} finally {
-			listenersLock.writeLock().unlock();
+			listenersLock.unlock();
 		}
 	}
 
@@ -308,14 +322,14 @@ public class ExtendedLogReaderServiceFactory implements ServiceFactory<ExtendedL
 	}
 
 	void removeLogListener(LogListener listener) {
-		listenersLock.writeLock().lock();
+		listenersLock.lock();
 		try {
 			ArrayMap<LogListener, Object[]> listenersCopy = new ArrayMap<>(listeners.getKeys(), listeners.getValues());
 			listenersCopy.remove(listener);
 			recalculateFilters(listenersCopy);
 			listeners = listenersCopy;
 		} finally {
-			listenersLock.writeLock().unlock();
+			listenersLock.unlock();
 		}
 	}
 
@@ -323,9 +337,7 @@ public class ExtendedLogReaderServiceFactory implements ServiceFactory<ExtendedL
 		if (history == null) {
 			return Collections.emptyEnumeration();
 		}
-		synchronized (history) {
-			return Collections.enumeration(new ArrayList<>(history));
-		}
+		return Collections.enumeration(history.getEntries());
 	}
 
 }
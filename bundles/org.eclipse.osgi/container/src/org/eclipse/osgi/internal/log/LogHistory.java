@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.osgi.internal.log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.osgi.service.log.LogEntry;
+
+/**
+ * A fixed size ring buffer of the most recent log entries.  Adding an entry
+ * does not lock and does not allocate; when the buffer is full the oldest
+ * entry is overwritten.
+ * <p>
+ * Each slot records the sequence number of the entry it holds.  A writer
+ * invalidates the sequence of the slot before replacing the entry so readers
+ * can detect entries that were replaced while being read and skip them.
+ */
+final class LogHistory {
+	private static final long INVALID = -1;
+
+	private final int capacity;
+	private final AtomicReferenceArray<LogEntry> entries;
+	private final AtomicLongArray sequences;
+	private final AtomicLong next = new AtomicLong();
+
+	LogHistory(int capacity) {
+		this.capacity = capacity;
+		this.entries = new AtomicReferenceArray<>(capacity);
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, INVALID);
+		}
+	}
+
+	void add(LogEntry entry) {
+		long sequence = next.getAndIncrement();
+		int index = (int) (sequence % capacity);
+		sequences.set(index, INVALID);
+		entries.set(index, entry);
+		sequences.set(index, sequence);
+	}
+
+	/**
+	 * Returns the entries in the history, the most recent entry first.
+	 * @return the entries
+	 */
+	List<LogEntry> getEntries() {
+		long end = next.get();
+		long start = Math.max(0, end - capacity);
+		List<LogEntry> result = new ArrayList<>((int) (end - start));
+		int index = (int) ((end - 1) % capacity);
+		for (long sequence = end - 1; sequence >= start; sequence--) {
+			// skip entries not written yet or replaced by a newer entry while reading
+			if (sequences.get(index) == sequence) {
+				LogEntry entry = entries.get(index);
+				if (sequences.get(index) == sequence) {
+					result.add(entry);
+				}
+			}
+			if (--index < 0) {
+				index = capacity - 1;
+			}
+		}
+		return result;
+	}
+}
@@ -81,6 +81,15 @@ class FilteredServiceListener implements ServiceListener, ListenerHook.ListenerI
 		this.allservices = (listener instanceof AllServiceListener);
 	}
 
+	/**
+	 * Returns the objectClass required by the filter of this listener.
+	 * @return the required objectClass or {@code null} if the listener
+	 * may receive events for services of any class.
+	 */
+	String getObjectClass() {
+		return objectClass;
+	}
+
 	/**
 	 * Receives notification that a service has had a lifecycle change.
 	 *
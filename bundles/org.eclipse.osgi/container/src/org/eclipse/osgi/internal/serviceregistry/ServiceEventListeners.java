@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.osgi.internal.serviceregistry;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.osgi.framework.eventmgr.CopyOnWriteIdentityMap;
+import org.eclipse.osgi.internal.framework.BundleContextImpl;
+import org.osgi.framework.ServiceListener;
+
+/**
+ * The active service listeners of all bundle contexts.
+ * <p>
+ * In addition to the listeners of each bundle context the listeners are grouped
+ * by the objectClass their filter requires.  A service event is only delivered to
+ * the listeners which require one of the classes of the service or which do not
+ * require any objectClass.  Listeners which require another objectClass cannot
+ * match the event since the objectClass of a service never changes.
+ * <p>
+ * Snapshots of the listeners are taken without locking.  Modifications of the
+ * listeners of a bundle context are serialized by the listeners of that context
+ * and therefore do not contend with modifications for other contexts or with
+ * event delivery.  Snapshots keep the order in which the contexts and their
+ * listeners were added.
+ *
+ * @ThreadSafe
+ */
+final class ServiceEventListeners {
+	/** Key for the listeners which do not require an objectClass. */
+	private static final String ANY_CLASS = ""; //$NON-NLS-1$
+
+	/** Listeners by bundle context. */
+	private final ConcurrentMap<BundleContextImpl, ContextListeners> byContext = new ConcurrentHashMap<>();
+
+	/** The order of the next context which adds listeners. */
+	private final AtomicLong nextOrder = new AtomicLong();
+
+	/** Listeners by required objectClass and then by bundle context. */
+	private final ConcurrentMap<String, ConcurrentMap<BundleContextImpl, CopyOnWriteIdentityMap<ServiceListener, FilteredServiceListener>>> byClass = new ConcurrentHashMap<>();
+
+	/**
+	 * Adds the filtered listener for the specified context.
+	 * @return the previous filtered listener for the listener or {@code null}
+	 */
+	FilteredServiceListener put(BundleContextImpl context, ServiceListener listener, FilteredServiceListener filteredListener) {
+		while (true) {
+			ContextListeners listeners = byContext.computeIfAbsent(context, c -> new ContextListeners(nextOrder.getAndIncrement()));
+			synchronized (listeners) {
+				if (byContext.get(context) != listeners) {
+					// all listeners were concurrently removed for the context; try again
+					continue;
+				}
+				FilteredServiceListener oldFilteredListener = listeners.put(listener, filteredListener);
+				if (oldFilteredListener != null) {
+					removeByClass(context, listener, oldFilteredListener);
+				}
+				byClass.compute(getClassKey(filteredListener), (k, contexts) -> {
+					if (contexts == null) {
+						contexts = new ConcurrentHashMap<>();
+					}
+					contexts.computeIfAbsent(context, c -> new CopyOnWriteIdentityMap<>()).put(listener, filteredListener);
+					return contexts;
+				});
+				return oldFilteredListener;
+			}
+		}
+	}
+
+	/**
+	 * Removes the listener for the specified context.
+	 * @return the removed filtered listener or {@code null}
+	 */
+	FilteredServiceListener remove(BundleContextImpl context, ServiceListener listener) {
+		ContextListeners listeners = byContext.get(context);
+		if (listeners == null) {
+			return null; // this context has no listeners to begin with
+		}
+		synchronized (listeners) {
+			FilteredServiceListener oldFilteredListener = listeners.remove(listener);
+			if (oldFilteredListener != null) {
+				removeByClass(context, listener, oldFilteredListener);
+			}
+			return oldFilteredListener;
+		}
+	}
+
+	/**
+	 * Removes all listeners for the specified context.
+	 * @return the removed listeners or {@code null}
+	 */
+	Map<ServiceListener, FilteredServiceListener> removeAll(BundleContextImpl context) {
+		ContextListeners listeners = byContext.get(context);
+		if (listeners == null) {
+			return null;
+		}
+		synchronized (listeners) {
+			byContext.remove(context, listeners);
+			for (Map.Entry<ServiceListener, FilteredServiceListener> entry : listeners.entrySet()) {
+				removeByClass(context, entry.getKey(), entry.getValue());
+			}
+			return listeners;
+		}
+	}
+
+	private void removeByClass(BundleContextImpl context, ServiceListener listener, FilteredServiceListener filteredListener) {
+		byClass.computeIfPresent(getClassKey(filteredListener), (k, contexts) -> {
+			CopyOnWriteIdentityMap<ServiceListener, FilteredServiceListener> classListeners = contexts.get(context);
+			if (classListeners != null) {
+				classListeners.remove(listener);
+				if (classListeners.isEmpty()) {
+					contexts.remove(context);
+				}
+			}
+			return contexts.isEmpty() ? null : contexts;
+		});
+	}
+
+	/**
+	 * Returns all the active filtered listeners.
+	 */
+	Collection<FilteredServiceListener> getAll() {
+		Collection<FilteredServiceListener> result = new ArrayList<>();
+		for (ContextListeners listeners : byContext.values()) {
+			result.addAll(listeners.values());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a snapshot of the listeners, by bundle context, which may receive
+	 * an event for a service registered under the specified classes.  The snapshot
+	 * and the entry sets it contains may be shrunk by the caller.
+	 * @param classes the classes of the service
+	 * @param all if {@code true} the listeners of all contexts are included regardless
+	 * of the objectClass they require.  This is used when hooks must be given all
+	 * the contexts which have listeners.
+	 * @return a snapshot of the listeners.
+	 */
+	Map<BundleContextImpl, Set<Map.Entry<ServiceListener, FilteredServiceListener>>> getSnapshot(String[] classes, boolean all) {
+		List<Map.Entry<BundleContextImpl, ContextListeners>> contexts = new ArrayList<>();
+		Set<String> classKeys = null;
+		if (all) {
+			contexts.addAll(byContext.entrySet());
+		} else {
+			classKeys = new HashSet<>(classes.length + 1);
+			classKeys.add(ANY_CLASS);
+			Collections.addAll(classKeys, classes);
+			Set<BundleContextImpl> found = new HashSet<>();
+			for (String classKey : classKeys) {
+				Map<BundleContextImpl, CopyOnWriteIdentityMap<ServiceListener, FilteredServiceListener>> classContexts = byClass.get(classKey);
+				if (classContexts == null) {
+					continue;
+				}
+				for (BundleContextImpl context : classContexts.keySet()) {
+					ContextListeners listeners = byContext.get(context);
+					if (listeners != null && found.add(context)) {
+						contexts.add(new AbstractMap.SimpleEntry<>(context, listeners));
+					}
+				}
+			}
+		}
+		// deliver in the order the contexts added their listeners
+		contexts.sort((c1, c2) -> Long.compare(c1.getValue().order, c2.getValue().order));
+
+		Map<BundleContextImpl, Set<Map.Entry<ServiceListener, FilteredServiceListener>>> snapshot = new LinkedHashMap<>();
+		for (Map.Entry<BundleContextImpl, ContextListeners> entry : contexts) {
+			Set<Map.Entry<ServiceListener, FilteredServiceListener>> listeners = entry.getValue().entrySet();
+			if (classKeys != null) {
+				listeners = filter(listeners, classKeys);
+			}
+			if (!listeners.isEmpty()) {
+				snapshot.put(entry.getKey(), listeners);
+			}
+		}
+		return snapshot;
+	}
+
+	private static Set<Map.Entry<ServiceListener, FilteredServiceListener>> filter(Set<Map.Entry<ServiceListener, FilteredServiceListener>> listeners, Set<String> classKeys) {
+		for (Map.Entry<ServiceListener, FilteredServiceListener> listener : listeners) {
+			if (!classKeys.contains(getClassKey(listener.getValue()))) {
+				// only keep the listeners which may match; in the order they were added
+				Set<Map.Entry<ServiceListener, FilteredServiceListener>> result = new LinkedHashSet<>();
+				for (Map.Entry<ServiceListener, FilteredServiceListener> candidate : listeners) {
+					if (classKeys.contains(getClassKey(candidate.getValue()))) {
+						result.add(candidate);
+					}
+				}
+				return result;
+			}
+		}
+		// all listeners may match; the snapshot of the context can be used as is
+		return listeners;
+	}
+
+	private static String getClassKey(FilteredServiceListener filteredListener) {
+		String objectClass = filteredListener.getObjectClass();
+		return objectClass == null ? ANY_CLASS : objectClass;
+	}
+
+	/**
+	 * The listeners of one bundle context and the order in which the
+	 * context added its first listener.
+	 */
+	private static final class ContextListeners extends CopyOnWriteIdentityMap<ServiceListener, FilteredServiceListener> {
+		final long order;
+
+		ContextListeners(long order) {
+			this.order = order;
+		}
+	}
+}
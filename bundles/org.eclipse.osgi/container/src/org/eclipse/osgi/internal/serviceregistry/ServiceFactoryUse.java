@@ -17,6 +17,8 @@ package org.eclipse.osgi.internal.serviceregistry;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import org.eclipse.osgi.internal.debug.Debug;
+import org.eclipse.osgi.internal.debug.StartupProfiler;
+import org.eclipse.osgi.internal.debug.StartupProfiler.Probe;
 import org.eclipse.osgi.internal.framework.BundleContextImpl;
 import org.eclipse.osgi.internal.messages.Msg;
 import org.eclipse.osgi.util.NLS;
@@ -211,6 +213,8 @@ public class ServiceFactoryUse<S> extends ServiceUse<S> {
 	/* @GuardedBy("getLock()") */
 	S factoryGetService() {
 		final S service;
+		StartupProfiler profiler = context.getContainer().getConfiguration().getStartupProfiler();
+		long begin = profiler.begin();
 		try {
 			service = AccessController.doPrivileged(new PrivilegedAction<S>() {
 				@Override
@@ -228,6 +232,8 @@ public class ServiceFactoryUse<S> extends ServiceUse<S> {
 			ServiceException se = new ServiceException(NLS.bind(Msg.SERVICE_FACTORY_EXCEPTION, factory.getClass().getName(), "getService"), ServiceException.FACTORY_EXCEPTION, t); //$NON-NLS-1$
 			context.getContainer().getEventPublisher().publishFrameworkEvent(FrameworkEvent.ERROR, registration.getBundle(), se);
 			return null;
+		} finally {
+			profiler.record(Probe.SERVICE_FACTORY, registration.getBundle(), begin);
 		}
 
 		if (service == null) {
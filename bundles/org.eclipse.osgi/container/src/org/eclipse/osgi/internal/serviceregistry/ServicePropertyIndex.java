@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.osgi.internal.serviceregistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.eclipse.osgi.internal.framework.FilterImpl;
+
+/**
+ * An index of published services by the String values of selected service
+ * properties. The index is used to reduce the number of services a filter
+ * must be matched against when the filter requires an exact value for one of
+ * the indexed properties, for example {@code (service.pid=my.pid)} or
+ * {@code (&(objectClass=my.Service)(component.name=my.component))}.
+ * <p>
+ * Only String values and arrays or collections of Strings are indexed. If any
+ * published service has a value of another type for an indexed property then
+ * the index is not used for that property since a filter may match such a value
+ * by converting the filter value.
+ *
+ * @NotThreadSafe - guarded by the service registry
+ */
+final class ServicePropertyIndex {
+	/** The property keys indexed. */
+	private final String[] keys;
+
+	/** Published services by property key and then by property value.
+	 * The {@literal List<ServiceRegistrationImpl<?>>}s are both sorted
+	 * in the natural order of ServiceRegistrationImpl and also are sets in that
+	 * there must be no two entries in a List which are equal.
+	 */
+	private final Map<String, Map<String, List<ServiceRegistrationImpl<?>>>> servicesByValue;
+
+	/** Published services with a value that could not be indexed by property key. */
+	private final Map<String, Set<ServiceRegistrationImpl<?>>> unindexed;
+
+	ServicePropertyIndex(Collection<String> keys) {
+		this.keys = keys.toArray(new String[0]);
+		this.servicesByValue = new HashMap<>(this.keys.length);
+		this.unindexed = new HashMap<>(this.keys.length);
+		for (String key : this.keys) {
+			servicesByValue.put(key, new HashMap<>());
+			unindexed.put(key, Collections.newSetFromMap(new HashMap<>()));
+		}
+	}
+
+	boolean isEmpty() {
+		return keys.length == 0;
+	}
+
+	/**
+	 * Adds the registration to the index using the specified properties.
+	 * @param registration the registration to add
+	 * @param properties the properties of the registration
+	 */
+	void add(ServiceRegistrationImpl<?> registration, Map<String, ?> properties) {
+		for (String key : keys) {
+			Object value = properties.get(key);
+			if (value == null) {
+				continue;
+			}
+			if (!forEachString(value, v -> insert(servicesByValue.get(key), v, registration))) {
+				unindexed.get(key).add(registration);
+			}
+		}
+	}
+
+	/**
+	 * Removes the registration from the index using the specified properties.
+	 * The properties must be the same as the ones used when the registration
+	 * was added.
+	 * @param registration the registration to remove
+	 * @param properties the properties of the registration
+	 */
+	void remove(ServiceRegistrationImpl<?> registration, Map<String, ?> properties) {
+		for (String key : keys) {
+			Object value = properties.get(key);
+			if (value == null) {
+				continue;
+			}
+			Map<String, List<ServiceRegistrationImpl<?>>> values = servicesByValue.get(key);
+			if (!forEachString(value, v -> {
+				List<ServiceRegistrationImpl<?>> services = values.get(v);
+				if (services != null) {
+					services.remove(registration);
+					if (services.isEmpty()) { // remove empty list
+						values.remove(v);
+					}
+				}
+			})) {
+				unindexed.get(key).remove(registration);
+			}
+		}
+	}
+
+	/**
+	 * Returns the smallest list of candidate registrations for the specified filter
+	 * that can be determined with this index.
+	 * @param filter the filter
+	 * @return the candidates for the filter, or {@code null} if this index cannot
+	 * be used to determine the candidates.  The returned list must not be modified.
+	 */
+	List<ServiceRegistrationImpl<?>> lookup(FilterImpl filter) {
+		List<ServiceRegistrationImpl<?>> result = null;
+		for (String key : keys) {
+			String value = filter.getPrimaryKeyValue(key);
+			if (value == null || !unindexed.get(key).isEmpty()) {
+				continue;
+			}
+			List<ServiceRegistrationImpl<?>> services = servicesByValue.get(key).get(value);
+			if (services == null) {
+				// no service has the required value
+				return Collections.emptyList();
+			}
+			if (result == null || services.size() < result.size()) {
+				result = services;
+			}
+		}
+		return result;
+	}
+
+	private static void insert(Map<String, List<ServiceRegistrationImpl<?>>> values, String value, ServiceRegistrationImpl<?> registration) {
+		List<ServiceRegistrationImpl<?>> services = values.computeIfAbsent(value, v -> new ArrayList<>(2));
+		// The list is sorted, so we must find the proper location to insert
+		int insertIndex = Collections.binarySearch(services, registration);
+		if (insertIndex < 0) {
+			services.add(-insertIndex - 1, registration);
+		}
+	}
+
+	/**
+	 * Calls the consumer with each String contained in the value.
+	 * @return false if the value contains something other than Strings
+	 */
+	private static boolean forEachString(Object value, Consumer<String> consumer) {
+		if (value instanceof String) {
+			consumer.accept((String) value);
+			return true;
+		}
+		Collection<?> values;
+		if (value instanceof String[]) {
+			values = Arrays.asList((String[]) value);
+		} else if (value instanceof Collection) {
+			values = (Collection<?>) value;
+		} else {
+			return false;
+		}
+		for (Object v : values) {
+			if (!(v instanceof String)) {
+				return false;
+			}
+		}
+		for (Object v : values) {
+			consumer.accept((String) v);
+		}
+		return true;
+	}
+}
@@ -23,20 +23,21 @@ import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.osgi.container.Module;
 import org.eclipse.osgi.container.ModuleRevision;
-import org.eclipse.osgi.framework.eventmgr.CopyOnWriteIdentityMap;
 import org.eclipse.osgi.framework.eventmgr.EventDispatcher;
 import org.eclipse.osgi.framework.eventmgr.ListenerQueue;
 import org.eclipse.osgi.internal.debug.Debug;
 import org.eclipse.osgi.internal.framework.BundleContextImpl;
+import org.eclipse.osgi.internal.framework.EquinoxConfiguration;
 import org.eclipse.osgi.internal.framework.EquinoxContainer;
 import org.eclipse.osgi.internal.framework.FilterImpl;
 import org.eclipse.osgi.internal.messages.Msg;
@@ -82,6 +83,10 @@ public class ServiceRegistry {
 	/* @GuardedBy("this") */
 	private final Map<String, List<ServiceRegistrationImpl<?>>> publishedServicesByClass;
 
+	/** Published services indexed by selected property values. */
+	/* @GuardedBy("this") */
+	private final ServicePropertyIndex publishedServicesByProperty;
+
 	/** All published services.
 	 * The List is both sorted in the natural order of ServiceRegistrationImpl and also is a
 	 * set in that there must be no two entries in the List which are equal.
@@ -97,15 +102,20 @@ public class ServiceRegistry {
 	/* @GuardedBy("this") */
 	private final Map<BundleContextImpl, List<ServiceRegistrationImpl<?>>> publishedServicesByContext;
 
+	/** Number of published framework hook services by hook type.
+	 * Modified while holding the registry lock but read without locking.
+	 */
+	private final ConcurrentMap<Class<?>, AtomicInteger> publishedHookCounts = new ConcurrentHashMap<>();
+
 	/** next free service id. */
 	/* @GuardedBy("this") */
 	private long serviceid;
 
-	/** Active Service Listeners.
-	 * {@literal Map<BundleContextImpl,CopyOnWriteIdentityMap<ServiceListener,FilteredServiceListener>>}.
-	 */
-	/* @GuardedBy("serviceEventListeners") */
-	private final Map<BundleContextImpl, CopyOnWriteIdentityMap<ServiceListener, FilteredServiceListener>> serviceEventListeners;
+	/** Active Service Listeners. */
+	private final ServiceEventListeners serviceEventListeners;
+
+	/** service properties indexed by default */
+	private static final String DEFAULT_INDEXED_PROPERTIES = Constants.SERVICE_PID + ',' + "component.name"; //$NON-NLS-1$
 
 	/** initial capacity of the main data structure */
 	private static final int initialCapacity = 50;
@@ -129,14 +139,28 @@ public class ServiceRegistry {
 		this.debug = container.getConfiguration().getDebug();
 		serviceid = 1;
 		publishedServicesByClass = new HashMap<>(initialCapacity);
+		publishedServicesByProperty = new ServicePropertyIndex(getIndexedPropertyKeys(container.getConfiguration()));
 		publishedServicesByContext = new HashMap<>(initialCapacity);
 		allPublishedServices = new ArrayList<>(initialCapacity);
-		serviceEventListeners = new LinkedHashMap<>(initialCapacity);
+		serviceEventListeners = new ServiceEventListeners();
 		Module systemModule = container.getStorage().getModuleContainer().getModule(0);
 		systemBundleContext = (BundleContextImpl) systemModule.getBundle().getBundleContext();
 		systemBundleContext.provisionServicesInUseMap();
 	}
 
+	private static Collection<String> getIndexedPropertyKeys(EquinoxConfiguration configuration) {
+		String keys = configuration.getConfiguration(EquinoxConfiguration.PROP_SERVICE_INDEX_PROPERTIES, DEFAULT_INDEXED_PROPERTIES);
+		Set<String> result = new LinkedHashSet<>();
+		for (String key : keys.split(",")) { //$NON-NLS-1$
+			key = key.trim();
+			// objectClass is always indexed by publishedServicesByClass
+			if (!key.isEmpty() && !Constants.OBJECTCLASS.equalsIgnoreCase(key)) {
+				result.add(key);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Registers the specified service object with the specified properties
 	 * under the specified class names into the Framework. A
@@ -791,15 +815,7 @@ public class ServiceRegistry {
 		}
 
 		FilteredServiceListener filteredListener = new FilteredServiceListener(context, listener, filter);
-		FilteredServiceListener oldFilteredListener;
-		synchronized (serviceEventListeners) {
-			CopyOnWriteIdentityMap<ServiceListener, FilteredServiceListener> listeners = serviceEventListeners.get(context);
-			if (listeners == null) {
-				listeners = new CopyOnWriteIdentityMap<>();
-				serviceEventListeners.put(context, listeners);
-			}
-			oldFilteredListener = listeners.put(listener, filteredListener);
-		}
+		FilteredServiceListener oldFilteredListener = serviceEventListeners.put(context, listener, filteredListener);
 
 		if (oldFilteredListener != null) {
 			oldFilteredListener.markRemoved();
@@ -823,15 +839,7 @@ public class ServiceRegistry {
 			Debug.println("removeServiceListener[" + context.getBundleImpl() + "](" + listenerName + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 		}
 
-		FilteredServiceListener oldFilteredListener;
-		synchronized (serviceEventListeners) {
-			Map<ServiceListener, FilteredServiceListener> listeners = serviceEventListeners.get(context);
-			if (listeners == null) {
-				return; // this context has no listeners to begin with
-			}
-			oldFilteredListener = listeners.remove(listener);
-		}
-
+		FilteredServiceListener oldFilteredListener = serviceEventListeners.remove(context, listener);
 		if (oldFilteredListener == null) {
 			return;
 		}
@@ -846,10 +854,7 @@ public class ServiceRegistry {
 	 * @param context Context of bundle removing all listeners.
 	 */
 	public void removeAllServiceListeners(BundleContextImpl context) {
-		Map<ServiceListener, FilteredServiceListener> removedListenersMap;
-		synchronized (serviceEventListeners) {
-			removedListenersMap = serviceEventListeners.remove(context);
-		}
+		Map<ServiceListener, FilteredServiceListener> removedListenersMap = serviceEventListeners.removeAll(context);
 		if ((removedListenersMap == null) || removedListenersMap.isEmpty()) {
 			return;
 		}
@@ -891,22 +896,21 @@ public class ServiceRegistry {
 	}
 
 	void publishServiceEventPrivileged(final ServiceEvent event) {
-		/* Build the listener snapshot */
-		Map<BundleContextImpl, Set<Map.Entry<ServiceListener, FilteredServiceListener>>> listenerSnapshot;
+		/* Build the listener snapshot of the listeners which may match the service classes.
+		 * The hooks are given all the contexts which have listeners.
+		 */
+		String[] classes = ((ServiceReferenceImpl<?>) event.getServiceReference()).getClasses();
+		@SuppressWarnings("deprecation")
+		boolean hooks = hasHooks(org.osgi.framework.hooks.service.EventHook.class) || hasHooks(EventListenerHook.class);
+		Map<BundleContextImpl, Set<Map.Entry<ServiceListener, FilteredServiceListener>>> listenerSnapshot = serviceEventListeners.getSnapshot(classes, hooks);
 		Set<Map.Entry<ServiceListener, FilteredServiceListener>> systemServiceListenersOrig = null;
 		BundleContextImpl systemContext = null;
-		synchronized (serviceEventListeners) {
-			listenerSnapshot = new LinkedHashMap<>(serviceEventListeners.size());
-			for (Map.Entry<BundleContextImpl, CopyOnWriteIdentityMap<ServiceListener, FilteredServiceListener>> entry : serviceEventListeners.entrySet()) {
-				Map<ServiceListener, FilteredServiceListener> listeners = entry.getValue();
-				if (!listeners.isEmpty()) {
-					if (entry.getKey().getBundleImpl().getBundleId() == 0) {
-						systemContext = entry.getKey();
-						// make a copy that we can use to discard hook removals later
-						systemServiceListenersOrig = listeners.entrySet();
-					}
-					listenerSnapshot.put(entry.getKey(), listeners.entrySet());
-				}
+		for (Map.Entry<BundleContextImpl, Set<Map.Entry<ServiceListener, FilteredServiceListener>>> entry : listenerSnapshot.entrySet()) {
+			if (entry.getKey().getBundleImpl().getBundleId() == 0) {
+				systemContext = entry.getKey();
+				// make a copy that we can use to discard hook removals later
+				systemServiceListenersOrig = new LinkedHashSet<>(entry.getValue());
+				break;
 			}
 		}
 
@@ -999,10 +1003,19 @@ public class ServiceRegistry {
 			services.add(insertIndex, registration);
 		}
 
+		// Add the ServiceRegistrationImpl to the index of Services published by property value.
+		publishedServicesByProperty.add(registration, registration.getProperties());
+
 		// Add the ServiceRegistrationImpl to the list of all published Services.
 		// The list is sorted, so we must find the proper location to insert
 		insertIndex = -Collections.binarySearch(allPublishedServices, registration) - 1;
 		allPublishedServices.add(insertIndex, registration);
+
+		if (registration instanceof ServiceRegistrationImpl.FrameworkHookRegistration) {
+			for (Class<?> hookType : ((ServiceRegistrationImpl.FrameworkHookRegistration<?>) registration).getHookTypes()) {
+				publishedHookCounts.computeIfAbsent(hookType, t -> new AtomicInteger()).incrementAndGet();
+			}
+		}
 	}
 
 	/**
@@ -1010,14 +1023,20 @@ public class ServiceRegistry {
 	 *
 	 * @param context The BundleContext of the bundle registering the service.
 	 * @param registration The modified ServiceRegistration.
+	 * @param previousRanking The ranking of the ServiceRegistration before the modification.
+	 * @param previousProperties The properties of the ServiceRegistration before the modification.
 	 */
 	/* @GuardedBy("this") */
 	void modifyServiceRegistration(BundleContextImpl context, ServiceRegistrationImpl<?> registration,
-			int previousRanking) {
+			int previousRanking, Map<String, Object> previousProperties) {
 		assert Thread.holdsLock(this);
 		// The list of Services published by BundleContextImpl is not sorted, so
 		// we do not need to modify it.
 
+		// Re-index the ServiceRegistrationImpl since the property values may have changed.
+		publishedServicesByProperty.remove(registration, previousProperties);
+		publishedServicesByProperty.add(registration, registration.getProperties());
+
 		// If the insert location has changed
 		if (registration.compareTo(previousRanking, registration.getId()) != 0) {
 			// Remove the ServiceRegistrationImpl from the list of Services published by
@@ -1065,8 +1084,20 @@ public class ServiceRegistry {
 			}
 		}
 
+		// Remove the ServiceRegistrationImpl from the index of Services published by property value.
+		publishedServicesByProperty.remove(registration, registration.getProperties());
+
 		// Remove the ServiceRegistrationImpl from the list of all published Services.
 		allPublishedServices.remove(registration);
+
+		if (registration instanceof ServiceRegistrationImpl.FrameworkHookRegistration) {
+			for (Class<?> hookType : ((ServiceRegistrationImpl.FrameworkHookRegistration<?>) registration).getHookTypes()) {
+				AtomicInteger count = publishedHookCounts.get(hookType);
+				if (count != null) {
+					count.decrementAndGet();
+				}
+			}
+		}
 	}
 
 	/**
@@ -1079,6 +1110,7 @@ public class ServiceRegistry {
 	 */
 	private List<ServiceRegistrationImpl<?>> lookupServiceRegistrations(String clazz, Filter filter) {
 		List<ServiceRegistrationImpl<?>> result;
+		String requiredClazz = null;
 		synchronized (this) {
 			if (clazz == null) {
 				if (filter instanceof FilterImpl) {
@@ -1107,6 +1139,19 @@ public class ServiceRegistry {
 				return Collections.emptyList();
 			}
 
+			if (filter instanceof FilterImpl) {
+				// check if the filter requires a value of an indexed property
+				List<ServiceRegistrationImpl<?>> indexed = publishedServicesByProperty.lookup((FilterImpl) filter);
+				if (indexed != null && indexed.size() < result.size()) {
+					if (indexed.isEmpty()) {
+						return Collections.emptyList();
+					}
+					result = indexed;
+					// the indexed services are not necessarily registered under clazz
+					requiredClazz = clazz;
+				}
+			}
+
 			result = new LinkedList<>(result); /* make a new list since we don't want to change the real list */
 		}
 
@@ -1116,6 +1161,10 @@ public class ServiceRegistry {
 
 		for (Iterator<ServiceRegistrationImpl<?>> iter = result.iterator(); iter.hasNext();) {
 			ServiceRegistrationImpl<?> registration = iter.next();
+			if (requiredClazz != null && !hasClass(registration, requiredClazz)) {
+				iter.remove();
+				continue;
+			}
 			ServiceReferenceImpl<?> reference;
 			try {
 				reference = registration.getReferenceImpl();
@@ -1130,6 +1179,15 @@ public class ServiceRegistry {
 		return result;
 	}
 
+	private static boolean hasClass(ServiceRegistrationImpl<?> registration, String clazz) {
+		for (String registered : registration.getClasses()) {
+			if (registered.equals(clazz)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Lookup Service Registrations in the data structure by BundleContext.
 	 *
@@ -1312,6 +1370,20 @@ public class ServiceRegistry {
 		notifyHooksPrivileged(EventListenerHook.class, "event", (hook, r) -> hook.event(event, result)); //$NON-NLS-1$
 	}
 
+	/**
+	 * Returns if a hook service of the specified type may be registered.  This check
+	 * does not lock the registry and allows callers which are frequently called, for
+	 * example while defining classes, to avoid creating a hook context when no hook
+	 * service of the type is registered.
+	 *
+	 * @param hookType the framework hook type
+	 * @return false if no hook service of the type is registered
+	 */
+	public boolean hasHooks(Class<?> hookType) {
+		AtomicInteger count = publishedHookCounts.get(hookType);
+		return count != null && count.get() > 0;
+	}
+
 	/**
 	 * Calls all hook services of the type specified by the hook context.
 	 * 
@@ -1394,14 +1466,7 @@ public class ServiceRegistry {
 		}
 
 		// snapshot the listeners
-		Collection<ListenerInfo> addedListeners = new ArrayList<>(initialCapacity);
-		synchronized (serviceEventListeners) {
-			for (CopyOnWriteIdentityMap<ServiceListener, FilteredServiceListener> listeners : serviceEventListeners.values()) {
-				if (!listeners.isEmpty()) {
-					addedListeners.addAll(listeners.values());
-				}
-			}
-		}
+		Collection<ListenerInfo> addedListeners = new ArrayList<>(serviceEventListeners.getAll());
 
 		final Collection<ListenerInfo> listeners = Collections.unmodifiableCollection(addedListeners);
 		notifyHookPrivileged(systemBundleContext, registration, "added", (hook, hookRegistration) -> { //$NON-NLS-1$
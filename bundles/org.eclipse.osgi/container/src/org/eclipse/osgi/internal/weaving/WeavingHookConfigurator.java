@@ -29,6 +29,8 @@ import org.eclipse.osgi.storage.bundlefile.BundleEntry;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.FrameworkEvent;
 import org.osgi.framework.ServiceRegistration;
+import org.osgi.framework.hooks.weaving.WeavingHook;
+import org.osgi.framework.hooks.weaving.WovenClassListener;
 
 public class WeavingHookConfigurator extends ClassLoaderHook {
 	static class WovenClassContext {
@@ -58,6 +60,8 @@ public class WeavingHookConfigurator extends ClassLoaderHook {
 		ServiceRegistry registry = getRegistry();
 		if (registry == null)
 			return null; // no registry somehow we are loading classes before the registry has been created
+		if (!registry.hasHooks(WeavingHook.class) && !registry.hasHooks(WovenClassListener.class))
+			return null; // nothing to weave or notify; avoid locking the registry for each class defined
 		ModuleClassLoader classLoader = manager.getClassLoader();
 		BundleLoader loader = classLoader.getBundleLoader();
 		// create a woven class object and add it to the thread local stack
@@ -95,10 +99,13 @@ public class WeavingHookConfigurator extends ClassLoaderHook {
 
 	@Override
 	public void recordClassDefine(String name, Class<?> clazz, byte[] classbytes, ClasspathEntry classpathEntry, BundleEntry entry, ClasspathManager manager) {
-		// here we assume the stack contans a woven class with the same name as the class we are defining.
+		// here we assume the stack contans a woven class with the same name as the class we are defining
+		// unless no weaving hook or woven class listener was registered when the class was processed.
 		WovenClassContext context = wovenClassContext.get();
 		if (context == null || context.wovenClassStack.size() == 0)
 			return;
+		if (!context.wovenClassStack.get(context.wovenClassStack.size() - 1).getClassName().equals(name))
+			return;
 		WovenClassImpl wovenClass = context.wovenClassStack.remove(context.wovenClassStack.size() - 1);
 		// inform the woven class about the class that was defined.
 		wovenClass.setWeavingCompleted(clazz);
@@ -29,7 +29,7 @@ public class PermissionData {
 	private final Map<String, String[]> locations = new HashMap<>();
 	private String[] defaultInfos;
 	private String[] condPermInfos;
-	private boolean dirty;
+	private volatile boolean dirty;
 
 	/**
 	 * Returns the locations that have permission data assigned to them,
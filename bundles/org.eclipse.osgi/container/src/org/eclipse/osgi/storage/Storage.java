@@ -21,14 +21,19 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -73,6 +78,8 @@ import org.eclipse.osgi.framework.util.ObjectPool;
 import org.eclipse.osgi.framework.util.SecureAction;
 import org.eclipse.osgi.internal.container.InternalUtils;
 import org.eclipse.osgi.internal.debug.Debug;
+import org.eclipse.osgi.internal.debug.StartupProfiler;
+import org.eclipse.osgi.internal.debug.StartupProfiler.Probe;
 import org.eclipse.osgi.internal.framework.EquinoxConfiguration;
 import org.eclipse.osgi.internal.framework.EquinoxContainer;
 import org.eclipse.osgi.internal.framework.EquinoxContainerAdaptor;
@@ -149,6 +156,8 @@ public class Storage {
 	public static final String BUNDLE_DATA_DIR = "data"; //$NON-NLS-1$
 	public static final String BUNDLE_FILE_NAME = "bundleFile"; //$NON-NLS-1$
 	public static final String FRAMEWORK_INFO = "framework.info"; //$NON-NLS-1$
+	// must not start with FRAMEWORK_INFO; the storage manager deletes stale copies of framework.info
+	public static final String FRAMEWORK_DELTA = "framework.delta"; //$NON-NLS-1$
 	public static final String ECLIPSE_SYSTEMBUNDLE = "Eclipse-SystemBundle"; //$NON-NLS-1$
 	public static final String DELETE_FLAG = ".delete"; //$NON-NLS-1$
 	public static final String LIB_TEMP = "libtemp"; //$NON-NLS-1$
@@ -172,6 +181,9 @@ public class Storage {
 	private final ModuleContainer moduleContainer;
 	private final Object saveMonitor = new Object();
 	private long lastSavedTimestamp = -1;
+	private long lastSavedRevisionsTimestamp = -1;
+	private int savedDeltas = 0;
+	private final int maxDeltas;
 	private final MRUBundleFileList mruList;
 	private final FrameworkExtensionInstaller extensionInstaller;
 	private final List<String> cachedHeaderKeys = Arrays.asList(Constants.BUNDLE_SYMBOLICNAME, Constants.BUNDLE_ACTIVATIONPOLICY, "Service-Component"); //$NON-NLS-1$
@@ -181,6 +193,8 @@ public class Storage {
 	private final String javaSpecVersion;
 
 	public static Storage createStorage(EquinoxContainer container) throws IOException, BundleException {
+		StartupProfiler profiler = container.getConfiguration().getStartupProfiler();
+		long begin = profiler.begin();
 		String[] cachedInfo = new String[3];
 		Storage storage = new Storage(container, cachedInfo);
 		// Do some operations that need to happen on the fully constructed Storage before returning it
@@ -190,6 +204,7 @@ public class Storage {
 		// TODO hack to make sure all bundles are in UNINSTALLED state before system
 		// bundle init is called
 		storage.getModuleContainer().setInitialModuleStates();
+		profiler.record(Probe.STORAGE_CREATE, begin);
 		return storage;
 	}
 
@@ -219,10 +234,11 @@ public class Storage {
 		}
 		runtimeVersion = javaVersion;
 		javaSpecVersion = javaSpecVersionProp;
-		mruList = new MRUBundleFileList(getBundleFileLimit(container.getConfiguration()), container.getConfiguration().getDebug());
+		mruList = new MRUBundleFileList(getBundleFileLimit(container.getConfiguration()), container.getConfiguration().getDebug(), container.getConfiguration().getThreadFactory(MRUBundleFileList.CLOSER_THREAD_NAME));
 		equinoxContainer = container;
 		extensionInstaller = new FrameworkExtensionInstaller(container.getConfiguration());
 		allowRestrictedProvides = Boolean.parseBoolean(container.getConfiguration().getConfiguration(EquinoxConfiguration.PROP_ALLOW_RESTRICTED_PROVIDES));
+		maxDeltas = getMaxDeltas(container.getConfiguration());
 
 		// we need to set the install path as soon as possible so we can determine
 		// the absolute location of install relative URLs
@@ -256,7 +272,8 @@ public class Storage {
 		}
 
 		InputStream info = getInfoInputStream();
-		DataInputStream data = info == null ? null : new DataInputStream(new BufferedInputStream(info));
+		DataInputStream data = info == null ? null
+				: new DataInputStream(info instanceof ByteBufferInputStream ? info : new BufferedInputStream(info));
 		try {
 			Map<Long, Generation> generations;
 			try {
@@ -274,8 +291,13 @@ public class Storage {
 			this.moduleContainer = new ModuleContainer(this.adaptor, this.moduleDatabase);
 			if (data != null) {
 				try {
+					StartupProfiler profiler = equinoxContainer.getConfiguration().getStartupProfiler();
+					long begin = profiler.begin();
 					moduleDatabase.load(data);
+					loadDeltas(generations);
+					profiler.record(Probe.DATABASE_LOAD, begin);
 					lastSavedTimestamp = moduleDatabase.getTimestamp();
+					lastSavedRevisionsTimestamp = moduleDatabase.getRevisionsTimestamp();
 				} catch (IllegalArgumentException e) {
 					equinoxContainer.getLogServices().log(EquinoxContainer.NAME, FrameworkLogEntry.WARNING, "Incompatible version.  Starting with empty framework.", e); //$NON-NLS-1$
 					// Clean up the cache.
@@ -304,6 +326,89 @@ public class Storage {
 		return mruList;
 	}
 
+	private int getMaxDeltas(EquinoxConfiguration configuration) {
+		int propValue = 100; // compact after 100 deltas by default
+		try {
+			String prop = configuration.getConfiguration(EquinoxConfiguration.PROP_STORAGE_MAX_DELTAS);
+			if (prop != null)
+				propValue = Integer.parseInt(prop);
+		} catch (NumberFormatException e) {
+			// use default of 100
+		}
+		return propValue;
+	}
+
+	private void loadDeltas(Map<Long, Generation> generations) {
+		File deltaFile = new File(childRoot, FRAMEWORK_DELTA);
+		if (!deltaFile.isFile()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(deltaFile)))) {
+			while (true) {
+				int length;
+				try {
+					length = in.readInt();
+				} catch (EOFException e) {
+					// reached the end of the journal
+					break;
+				}
+				byte[] delta = new byte[length];
+				in.readFully(delta);
+				if (!loadDelta(new DataInputStream(new ByteArrayInputStream(delta)), generations)) {
+					// a stale journal left behind by a full save; the next save replaces it
+					savedDeltas = maxDeltas;
+					break;
+				}
+				savedDeltas++;
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			// a partially written delta is ignored; the next save compacts the journal
+			if (getConfiguration().getDebug().DEBUG_STORAGE) {
+				Debug.println("Error reading framework.delta: " + e.getMessage()); //$NON-NLS-1$
+				Debug.printStackTrace(e);
+			}
+			savedDeltas = maxDeltas;
+		}
+	}
+
+	private boolean loadDelta(DataInputStream record, Map<Long, Generation> generations) throws IOException {
+		byte[] databaseDelta = new byte[record.readInt()];
+		record.readFully(databaseDelta);
+
+		int numCachedHeaders = record.readInt();
+		List<String> storedCachedHeaderKeys = new ArrayList<>(numCachedHeaders);
+		for (int i = 0; i < numCachedHeaders; i++) {
+			storedCachedHeaderKeys.add(ObjectPool.intern(record.readUTF()));
+		}
+		int numInfos = record.readInt();
+		List<Generation> deltaGenerations = new ArrayList<>(numInfos);
+		Type[] contentTypes = Type.values();
+		for (int i = 0; i < numInfos; i++) {
+			deltaGenerations.add(loadGeneration(record, VERSION, storedCachedHeaderKeys, contentTypes));
+		}
+		connectPersistentBundles(deltaGenerations);
+		loadStorageHookData(deltaGenerations, record);
+
+		// make the generations available to the adaptor while the delta is replayed
+		Map<Long, Generation> replaced = new HashMap<>();
+		for (Generation generation : deltaGenerations) {
+			Long bundleId = generation.getBundleInfo().getBundleId();
+			replaced.put(bundleId, generations.put(bundleId, generation));
+		}
+		if (moduleDatabase.loadDelta(new DataInputStream(new ByteArrayInputStream(databaseDelta)))) {
+			return true;
+		}
+		// the database rejected the delta; restore the generations it replaced
+		for (Map.Entry<Long, Generation> entry : replaced.entrySet()) {
+			if (entry.getValue() == null) {
+				generations.remove(entry.getKey());
+			} else {
+				generations.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return false;
+	}
+
 	private int getBundleFileLimit(EquinoxConfiguration configuration) {
 		int propValue = 100; // enable to 100 open files by default
 		try {
@@ -1299,17 +1404,35 @@ public class Storage {
 			synchronized (this.saveMonitor) {
 				if (lastSavedTimestamp == moduleDatabase.getTimestamp())
 					return;
+				if (lastSavedRevisionsTimestamp != -1 && savedDeltas < maxDeltas && !permissionData.isDirty() && moduleDatabase.canStoreDelta()) {
+					// the wirings did not change; append the changes to the journal.
+					// Permission changes are only saved in framework.info
+					saveDelta();
+					return;
+				}
 				childStorageManager = getChildStorageManager();
 				mos = childStorageManager.getOutputStream(FRAMEWORK_INFO);
 				out = new DataOutputStream(new BufferedOutputStream(mos));
 				saveGenerations(out);
 				savePermissionData(out);
 				moduleDatabase.store(out, true);
+				out.close();
+				out = null;
 				lastSavedTimestamp = moduleDatabase.getTimestamp();
+				lastSavedRevisionsTimestamp = moduleDatabase.getRevisionsTimestamp();
+				// the full save includes everything from the journal
+				File deltaFile = new File(childRoot, FRAMEWORK_DELTA);
+				if (deltaFile.exists() && !deltaFile.delete()) {
+					// make sure no more deltas get appended to a stale journal
+					lastSavedRevisionsTimestamp = -1;
+				}
+				savedDeltas = 0;
 				success = true;
 			}
 		} finally {
 			if (!success) {
+				// force a full save next time
+				lastSavedRevisionsTimestamp = -1;
 				if (mos != null) {
 					mos.abort();
 				}
@@ -1328,6 +1451,52 @@ public class Storage {
 		}
 	}
 
+	private void saveDelta() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		boolean success = false;
+		try {
+			DataOutputStream record = new DataOutputStream(bytes);
+			ByteArrayOutputStream databaseBytes = new ByteArrayOutputStream();
+			List<Module> revised = moduleDatabase.storeDelta(new DataOutputStream(databaseBytes));
+			record.writeInt(databaseBytes.size());
+			databaseBytes.writeTo(record);
+
+			// the generations of installed and updated modules are needed to replay the delta
+			List<Generation> generations = new ArrayList<>(revised.size());
+			for (Module module : revised) {
+				Generation generation = (Generation) module.getCurrentRevision().getRevisionInfo();
+				if (generation != null) {
+					generations.add(generation);
+				}
+			}
+			record.writeInt(cachedHeaderKeys.size());
+			for (String headerKey : cachedHeaderKeys) {
+				record.writeUTF(headerKey);
+			}
+			record.writeInt(generations.size());
+			for (Generation generation : generations) {
+				saveGeneration(record, generation);
+			}
+			saveStorageHookData(record, generations);
+			record.flush();
+
+			try (DataOutputStream out = new DataOutputStream(new FileOutputStream(new File(childRoot, FRAMEWORK_DELTA), true))) {
+				// length prefix allows a partially written delta to be detected on load
+				out.writeInt(bytes.size());
+				bytes.writeTo(out);
+			}
+			lastSavedTimestamp = moduleDatabase.getTimestamp();
+			lastSavedRevisionsTimestamp = moduleDatabase.getRevisionsTimestamp();
+			savedDeltas++;
+			success = true;
+		} finally {
+			if (!success) {
+				// the changes are already consumed by the database; force a full save next time
+				lastSavedRevisionsTimestamp = -1;
+			}
+		}
+	}
+
 	private void savePermissionData(DataOutputStream out) throws IOException {
 		permissionData.savePermissionData(out);
 	}
@@ -1361,43 +1530,47 @@ public class Storage {
 
 		out.writeInt(generations.size());
 		for (Generation generation : generations) {
-			BundleInfo bundleInfo = generation.getBundleInfo();
-			out.writeLong(bundleInfo.getBundleId());
-			out.writeUTF(bundleInfo.getLocation());
-			out.writeLong(bundleInfo.getNextGenerationId());
-			out.writeLong(generation.getGenerationId());
-			out.writeBoolean(generation.isDirectory());
-			Type contentType = generation.getContentType();
-			out.writeInt(contentType.ordinal());
-			out.writeBoolean(generation.hasPackageInfo());
-			if (bundleInfo.getBundleId() == 0 || contentType == Type.CONNECT) {
-				// just write empty string for system bundle content and connect content in this case
-				out.writeUTF(""); //$NON-NLS-1$
+			saveGeneration(out, generation);
+		}
+
+		saveStorageHookData(out, generations);
+	}
+
+	private void saveGeneration(DataOutputStream out, Generation generation) throws IOException {
+		BundleInfo bundleInfo = generation.getBundleInfo();
+		out.writeLong(bundleInfo.getBundleId());
+		out.writeUTF(bundleInfo.getLocation());
+		out.writeLong(bundleInfo.getNextGenerationId());
+		out.writeLong(generation.getGenerationId());
+		out.writeBoolean(generation.isDirectory());
+		Type contentType = generation.getContentType();
+		out.writeInt(contentType.ordinal());
+		out.writeBoolean(generation.hasPackageInfo());
+		if (bundleInfo.getBundleId() == 0 || contentType == Type.CONNECT) {
+			// just write empty string for system bundle content and connect content in this case
+			out.writeUTF(""); //$NON-NLS-1$
+		} else {
+			if (contentType == Type.REFERENCE) {
+				// make reference installs relative to the install path
+				out.writeUTF(new FilePath(installPath).makeRelative(new FilePath(generation.getContent().getAbsolutePath())));
 			} else {
-				if (contentType == Type.REFERENCE) {
-					// make reference installs relative to the install path
-					out.writeUTF(new FilePath(installPath).makeRelative(new FilePath(generation.getContent().getAbsolutePath())));
-				} else {
-					// make normal installs relative to the storage area
-					out.writeUTF(Storage.getBundleFilePath(bundleInfo.getBundleId(), generation.getGenerationId()));
-				}
+				// make normal installs relative to the storage area
+				out.writeUTF(Storage.getBundleFilePath(bundleInfo.getBundleId(), generation.getGenerationId()));
 			}
-			out.writeLong(generation.getLastModified());
+		}
+		out.writeLong(generation.getLastModified());
 
-			Dictionary<String, String> headers = generation.getHeaders();
-			for (String headerKey : cachedHeaderKeys) {
-				String value = headers.get(headerKey);
-				if (value != null) {
-					out.writeUTF(value);
-				} else {
-					out.writeUTF(NUL);
-				}
+		Dictionary<String, String> headers = generation.getHeaders();
+		for (String headerKey : cachedHeaderKeys) {
+			String value = headers.get(headerKey);
+			if (value != null) {
+				out.writeUTF(value);
+			} else {
+				out.writeUTF(NUL);
 			}
-
-			out.writeBoolean(generation.isMRJar());
 		}
 
-		saveStorageHookData(out, generations);
+		out.writeBoolean(generation.isMRJar());
 	}
 
 	private void saveLongString(DataOutputStream out, String value) throws IOException {
@@ -1473,73 +1646,77 @@ public class Storage {
 		List<Generation> generations = new ArrayList<>(numInfos);
 		Type[] contentTypes = Type.values();
 		for (int i = 0; i < numInfos; i++) {
-			long infoId = in.readLong();
-			String infoLocation = ObjectPool.intern(in.readUTF());
-			long nextGenId = in.readLong();
-			long generationId = in.readLong();
-			boolean isDirectory = in.readBoolean();
-
-			Type contentType = Type.DEFAULT;
-			if (version >= CONTENT_TYPE_VERSION) {
-				contentType = contentTypes[in.readInt()];
-			} else {
-				if (in.readBoolean()) {
-					contentType = Type.REFERENCE;
-				}
+			Generation generation = loadGeneration(in, version, storedCachedHeaderKeys, contentTypes);
+			result.put(generation.getBundleInfo().getBundleId(), generation);
+			generations.add(generation);
+		}
+
+		connectPersistentBundles(generations);
+		loadStorageHookData(generations, in);
+		return result;
+	}
+
+	private Generation loadGeneration(DataInputStream in, int version, List<String> storedCachedHeaderKeys, Type[] contentTypes) throws IOException {
+		long infoId = in.readLong();
+		String infoLocation = ObjectPool.intern(in.readUTF());
+		long nextGenId = in.readLong();
+		long generationId = in.readLong();
+		boolean isDirectory = in.readBoolean();
+
+		Type contentType = Type.DEFAULT;
+		if (version >= CONTENT_TYPE_VERSION) {
+			contentType = contentTypes[in.readInt()];
+		} else {
+			if (in.readBoolean()) {
+				contentType = Type.REFERENCE;
 			}
+		}
 
-			boolean hasPackageInfo = in.readBoolean();
-			String contentPath = in.readUTF();
-			long lastModified = in.readLong();
+		boolean hasPackageInfo = in.readBoolean();
+		String contentPath = in.readUTF();
+		long lastModified = in.readLong();
 
-			Map<String, String> cachedHeaders = new HashMap<>(storedCachedHeaderKeys.size());
-			for (String headerKey : storedCachedHeaderKeys) {
-				String value = in.readUTF();
-				if (NUL.equals(value)) {
-					value = null;
-				} else {
-					value = ObjectPool.intern(value);
-				}
-				cachedHeaders.put(headerKey, value);
-			}
-			boolean isMRJar = (version >= MR_JAR_VERSION) ? in.readBoolean() : false;
-
-			File content = null;
-			if (contentType != Type.CONNECT) {
-				if (infoId == 0) {
-					content = getSystemContent();
-					isDirectory = content != null ? content.isDirectory() : false;
-					// Note that we do not do any checking for absolute paths with
-					// the system bundle. We always take the content as discovered
-					// by getSystemContent()
-				} else {
-					content = new File(contentPath);
-					if (!content.isAbsolute()) {
-						// make sure it has the absolute location instead
-						switch (contentType) {
-						case REFERENCE:
-							// reference installs are relative to the installPath
-							content = new File(installPath, contentPath);
-							break;
-						case DEFAULT:
-							// normal installs are relative to the storage area
-							content = getFile(contentPath, true);
-							break;
-						default:
-							throw new IllegalArgumentException("Unknown type: " + contentType); //$NON-NLS-1$
-						}
+		Map<String, String> cachedHeaders = new HashMap<>(storedCachedHeaderKeys.size());
+		for (String headerKey : storedCachedHeaderKeys) {
+			String value = in.readUTF();
+			if (NUL.equals(value)) {
+				value = null;
+			} else {
+				value = ObjectPool.intern(value);
+			}
+			cachedHeaders.put(headerKey, value);
+		}
+		boolean isMRJar = (version >= MR_JAR_VERSION) ? in.readBoolean() : false;
+
+		File content = null;
+		if (contentType != Type.CONNECT) {
+			if (infoId == 0) {
+				content = getSystemContent();
+				isDirectory = content != null ? content.isDirectory() : false;
+				// Note that we do not do any checking for absolute paths with
+				// the system bundle. We always take the content as discovered
+				// by getSystemContent()
+			} else {
+				content = new File(contentPath);
+				if (!content.isAbsolute()) {
+					// make sure it has the absolute location instead
+					switch (contentType) {
+					case REFERENCE:
+						// reference installs are relative to the installPath
+						content = new File(installPath, contentPath);
+						break;
+					case DEFAULT:
+						// normal installs are relative to the storage area
+						content = getFile(contentPath, true);
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown type: " + contentType); //$NON-NLS-1$
 					}
 				}
 			}
-			BundleInfo info = new BundleInfo(this, infoId, infoLocation, nextGenId);
-			Generation generation = info.restoreGeneration(generationId, content, isDirectory, contentType, hasPackageInfo, cachedHeaders, lastModified, isMRJar);
-			result.put(infoId, generation);
-			generations.add(generation);
 		}
-
-		connectPersistentBundles(generations);
-		loadStorageHookData(generations, in);
-		return result;
+		BundleInfo info = new BundleInfo(this, infoId, infoLocation, nextGenId);
+		return info.restoreGeneration(generationId, content, isDirectory, contentType, hasPackageInfo, cachedHeaders, lastModified, isMRJar);
 	}
 
 	private void connectPersistentBundles(List<Generation> generations) {
@@ -2228,7 +2405,42 @@ public class Storage {
 				}
 			}
 		}
-		return storageStream;
+		return mapInfoInputStream(storageStream);
+	}
+
+	/**
+	 * Attempts to memory map the framework information when it is backed directly
+	 * by a file. Reliable file streams and streams that cannot be mapped are
+	 * returned as is.
+	 */
+	private InputStream mapInfoInputStream(InputStream storageStream) {
+		if (!(storageStream instanceof FileInputStream)) {
+			return storageStream;
+		}
+		// mapped files cannot be deleted on Windows until the mapping is garbage
+		// collected, which prevents the storage manager from cleaning up old
+		// generations of framework.info
+		String defaultMap = org.eclipse.osgi.service.environment.Constants.OS_WIN32.equals(getConfiguration().getOS()) ? "false" : "true"; //$NON-NLS-1$ //$NON-NLS-2$
+		if (!Boolean.parseBoolean(getConfiguration().getConfiguration(EquinoxConfiguration.PROP_STORAGE_MAP_FRAMEWORK_INFO, defaultMap))) {
+			return storageStream;
+		}
+		FileInputStream fileStream = (FileInputStream) storageStream;
+		try {
+			FileChannel channel = fileStream.getChannel();
+			long size = channel.size();
+			if (size == 0 || size > Integer.MAX_VALUE) {
+				return storageStream;
+			}
+			MappedByteBuffer mapped = channel.map(MapMode.READ_ONLY, 0, size);
+			fileStream.close();
+			return new ByteBufferInputStream(mapped);
+		} catch (IOException e) {
+			if (getConfiguration().getDebug().DEBUG_STORAGE) {
+				Debug.println("Could not map framework.info: " + e.getMessage()); //$NON-NLS-1$
+				Debug.printStackTrace(e);
+			}
+			return storageStream;
+		}
 	}
 
 	EquinoxContainer getEquinoxContainer() {
@@ -17,6 +17,7 @@ package org.eclipse.osgi.storage.bundlefile;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.channels.FileChannel;
 import org.eclipse.osgi.storage.StorageUtil;
 
 /**
@@ -74,6 +75,21 @@ public abstract class BundleEntry {
 	 */
 	public abstract URL getFileURL();
 
+	/**
+	 * Opens a channel to the file which contains the uncompressed content of this entry.
+	 * The returned channel is positioned at the first byte of the content and the content
+	 * is {@link #getSize()} bytes long.  This allows the content to be transferred or mapped
+	 * without copying it through an input stream.  The caller must close the channel.
+	 * <p>
+	 * This default implementation returns {@code null}.
+	 * @return a channel positioned at the content of this entry or {@code null} if the
+	 * content is not stored uncompressed in a file
+	 * @throws IOException If an error occurs opening the channel.
+	 */
+	public FileChannel getFileChannel() throws IOException {
+		return null;
+	}
+
 	/**
 	 * Return the name of this BundleEntry by calling getName().
 	 *
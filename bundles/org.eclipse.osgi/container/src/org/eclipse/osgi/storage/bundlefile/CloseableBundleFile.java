@@ -238,38 +238,48 @@ public abstract class CloseableBundleFile<E> extends BundleFile {
 
 	@Override
 	public boolean containsDir(String dir) {
+		if (canFindWithoutOpen()) {
+			return findDir(dir);
+		}
 		if (!lockOpen()) {
 			return false;
 		}
 		try {
-			if (dir == null)
-				return false;
+			return findDir(dir);
+		} finally {
+			releaseOpen();
+		}
+	}
 
-			if (dir.length() == 0)
-				return true;
+	private boolean findDir(String dir) {
+		if (dir == null)
+			return false;
 
-			if (dir.charAt(0) == '/') {
-				if (dir.length() == 1)
-					return true;
-				dir = dir.substring(1);
-			}
+		if (dir.length() == 0)
+			return true;
 
-			if (dir.length() > 0 && dir.charAt(dir.length() - 1) != '/')
-				dir = dir + '/';
+		if (dir.charAt(0) == '/') {
+			if (dir.length() == 1)
+				return true;
+			dir = dir.substring(1);
+		}
 
-			for (String entry : getPaths()) {
-				if (entry.startsWith(dir)) {
-					return true;
-				}
+		if (dir.length() > 0 && dir.charAt(dir.length() - 1) != '/')
+			dir = dir + '/';
+
+		for (String entry : getPaths()) {
+			if (entry.startsWith(dir)) {
+				return true;
 			}
-		} finally {
-			releaseOpen();
 		}
 		return false;
 	}
 
 	@Override
 	public BundleEntry getEntry(String path) {
+		if (canFindWithoutOpen()) {
+			return findEntry(path);
+		}
 		if (!lockOpen()) {
 			return null;
 		}
@@ -280,6 +290,17 @@ public abstract class CloseableBundleFile<E> extends BundleFile {
 		}
 	}
 
+	/**
+	 * Returns true if {@link #findEntry(String)} and {@link #getPaths()} can be
+	 * called without holding the open lock.  This allows entries to be found
+	 * and paths to be listed without opening a closed bundle file.  The default
+	 * implementation returns false.
+	 * @return true if entries can be found without opening the bundle file
+	 */
+	protected boolean canFindWithoutOpen() {
+		return false;
+	}
+
 	/**
 	 * Finds the bundle entry for the specified path
 	 * @param path the path of the entry to find
@@ -289,40 +310,47 @@ public abstract class CloseableBundleFile<E> extends BundleFile {
 
 	@Override
 	public Enumeration<String> getEntryPaths(String path, boolean recurse) {
+		if (canFindWithoutOpen()) {
+			return findEntryPaths(path, recurse);
+		}
 		if (!lockOpen()) {
 			return null;
 		}
 		try {
-			if (path == null)
-				throw new NullPointerException();
-
-			// Strip any leading '/' off of path.
-			if (path.length() > 0 && path.charAt(0) == '/')
-				path = path.substring(1);
-			// Append a '/', if not already there, to path if not an empty string.
-			if (path.length() > 0 && path.charAt(path.length() - 1) != '/')
-				path = new StringBuilder(path).append("/").toString(); //$NON-NLS-1$
-
-			LinkedHashSet<String> result = new LinkedHashSet<>();
-			// Get all entries and add the ones of interest.
-			for (String entryPath : getPaths()) {
-				// Is the entry of possible interest? Note that
-				// string.startsWith("") == true.
-				if (entryPath.startsWith(path)) {
-					// If we get here, we know that the entry is either (1) equal to
-					// path, (2) a file under path, or (3) a subdirectory of path.
-					if (path.length() < entryPath.length()) {
-						// If we get here, we know that entry is not equal to path.
-						getEntryPaths(path, entryPath.substring(path.length()), recurse, result);
-					}
-				}
-			}
-			return result.size() == 0 ? null : Collections.enumeration(result);
+			return findEntryPaths(path, recurse);
 		} finally {
 			releaseOpen();
 		}
 	}
 
+	private Enumeration<String> findEntryPaths(String path, boolean recurse) {
+		if (path == null)
+			throw new NullPointerException();
+
+		// Strip any leading '/' off of path.
+		if (path.length() > 0 && path.charAt(0) == '/')
+			path = path.substring(1);
+		// Append a '/', if not already there, to path if not an empty string.
+		if (path.length() > 0 && path.charAt(path.length() - 1) != '/')
+			path = new StringBuilder(path).append("/").toString(); //$NON-NLS-1$
+
+		LinkedHashSet<String> result = new LinkedHashSet<>();
+		// Get all entries and add the ones of interest.
+		for (String entryPath : getPaths()) {
+			// Is the entry of possible interest? Note that
+			// string.startsWith("") == true.
+			if (entryPath.startsWith(path)) {
+				// If we get here, we know that the entry is either (1) equal to
+				// path, (2) a file under path, or (3) a subdirectory of path.
+				if (path.length() < entryPath.length()) {
+					// If we get here, we know that entry is not equal to path.
+					getEntryPaths(path, entryPath.substring(path.length()), recurse, result);
+				}
+			}
+		}
+		return result.size() == 0 ? null : Collections.enumeration(result);
+	}
+
 	private void getEntryPaths(String path, String entry, boolean recurse, LinkedHashSet<String> entries) {
 		if (entry.length() == 0)
 			return;
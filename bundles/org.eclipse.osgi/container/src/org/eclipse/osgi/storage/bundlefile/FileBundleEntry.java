@@ -17,6 +17,7 @@ package org.eclipse.osgi.storage.bundlefile;
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.channels.FileChannel;
 
 /**
  * A BundleEntry represented by a File object.  The FileBundleEntry class is
@@ -59,6 +60,14 @@ public class FileBundleEntry extends BundleEntry {
 		return BundleFile.secureAction.getFileInputStream(file);
 	}
 
+	@Override
+	public FileChannel getFileChannel() throws IOException {
+		if (BundleFile.secureAction.isDirectory(file)) {
+			return null;
+		}
+		return BundleFile.secureAction.getFileInputStream(file).getChannel();
+	}
+
 	/**
 	 * Return size of the uncompressed entry.
 	 *
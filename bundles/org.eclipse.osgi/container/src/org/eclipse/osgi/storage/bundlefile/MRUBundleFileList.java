@@ -17,6 +17,7 @@ package org.eclipse.osgi.storage.bundlefile;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
@@ -33,6 +34,7 @@ import org.eclipse.osgi.internal.debug.Debug;
  * file limit.
  */
 public class MRUBundleFileList implements EventDispatcher<Object, Object, BundleFile> {
+	public static final String CLOSER_THREAD_NAME = "Bundle File Closer"; //$NON-NLS-1$
 	private static final int MIN = 10;
 	private static final ThreadLocal<BundleFile> closingBundleFile = new ThreadLocal<>();
 
@@ -55,8 +57,20 @@ public class MRUBundleFileList implements EventDispatcher<Object, Object, Bundle
 	private final Condition pendingCond = pendingLock.newCondition();
 	private final AtomicInteger pending = new AtomicInteger();
 	private final Debug debug;
+	private final ThreadFactory closerThreadFactory;
 
 	public MRUBundleFileList(int fileLimit, Debug debug) {
+		this(fileLimit, debug, null);
+	}
+
+	/**
+	 * @param fileLimit the limit of open files
+	 * @param debug the debug options
+	 * @param closerThreadFactory the factory of the thread closing bundle files,
+	 *                            may be {@code null}
+	 */
+	public MRUBundleFileList(int fileLimit, Debug debug, ThreadFactory closerThreadFactory) {
+		this.closerThreadFactory = closerThreadFactory;
 		// only enable the MRU if the initFileLimit is > MIN
 		this.fileLimit = fileLimit;
 		this.debug = debug;
@@ -117,7 +131,7 @@ public class MRUBundleFileList implements EventDispatcher<Object, Object, Bundle
 			numOpen++;
 			if (toRemove != null) {
 				if (bundleFileCloserManager == null)
-					bundleFileCloserManager = new EventManager("Bundle File Closer"); //$NON-NLS-1$
+					bundleFileCloserManager = new EventManager(CLOSER_THREAD_NAME, null, closerThreadFactory);
 				manager = bundleFileCloserManager;
 			}
 
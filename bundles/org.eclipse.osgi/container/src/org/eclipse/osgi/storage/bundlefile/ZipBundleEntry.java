@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.channels.FileChannel;
 import java.util.zip.ZipEntry;
 
 /**
@@ -57,6 +58,16 @@ public class ZipBundleEntry extends BundleEntry {
 		return bundleFile.getInputStream(zipEntry);
 	}
 
+	/**
+	 * Opens a channel to the zip file if this entry is stored uncompressed.
+	 * The channel is not managed by the bundle file limit and should be closed
+	 * as soon as the content is transferred.
+	 */
+	@Override
+	public FileChannel getFileChannel() throws IOException {
+		return bundleFile.getStoredContentChannel(zipEntry);
+	}
+
 	/**
 	 * Return size of the uncompressed entry.
 	 *
@@ -18,6 +18,7 @@ package org.eclipse.osgi.storage.bundlefile;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.zip.ZipEntry;
@@ -37,6 +38,15 @@ public class ZipBundleFile extends CloseableBundleFile<ZipEntry> {
 	 * The zip file
 	 */
 	volatile ZipFile zipFile;
+	/**
+	 * A copy of the central directory of the zip file once it has been reopened
+	 */
+	private volatile ZipCentralDirectory centralDirectory;
+	private boolean openedBefore;
+	/**
+	 * The entries stored uncompressed, read the first time the content of such an entry is requested as a channel
+	 */
+	private volatile ZipStoredEntries storedEntries;
 
 	public ZipBundleFile(File basefile, BundleInfo.Generation generation, MRUBundleFileList mruList, Debug debug,
 			boolean verify) throws IOException {
@@ -49,10 +59,23 @@ public class ZipBundleFile extends CloseableBundleFile<ZipEntry> {
 	@Override
 	protected void doOpen() throws IOException {
 		zipFile = BundleFile.secureAction.getZipFile(this.basefile, verify);
+		// Keep a copy of the central directory once the zip file is reopened after being closed.
+		// This avoids reopening the zip file again only to find entries or list paths.
+		ZipCentralDirectory current = centralDirectory;
+		if (current == null ? openedBefore : !current.isCurrent(basefile)) {
+			centralDirectory = ZipCentralDirectory.create(zipFile, basefile);
+		}
+		openedBefore = true;
+	}
+
+	@Override
+	protected boolean canFindWithoutOpen() {
+		return centralDirectory != null;
 	}
 
 	/**
-	* Returns a ZipEntry for the bundle file. Must be called while holding the open lock.
+	* Returns a ZipEntry for the bundle file. Must be called while holding the open lock
+	* unless a copy of the central directory is available.
 	* This method does not ensure that the ZipFile is opened. Callers may need to call getZipfile() prior to calling this
 	* method.
 	* @param path the path to an entry
@@ -61,10 +84,11 @@ public class ZipBundleFile extends CloseableBundleFile<ZipEntry> {
 	private ZipEntry getZipEntry(String path) {
 		if (path.length() > 0 && path.charAt(0) == '/')
 			path = path.substring(1);
-		ZipEntry entry = zipFile.getEntry(path);
+		ZipCentralDirectory current = centralDirectory;
+		ZipEntry entry = current != null ? current.getEntry(path) : zipFile.getEntry(path);
 		if (entry != null && entry.getSize() == 0 && !entry.isDirectory()) {
 			// work around the directory bug see bug 83542
-			ZipEntry dirEntry = zipFile.getEntry(path + '/');
+			ZipEntry dirEntry = current != null ? current.getEntry(path + '/') : zipFile.getEntry(path + '/');
 			if (dirEntry != null)
 				entry = dirEntry;
 		}
@@ -85,6 +109,37 @@ public class ZipBundleFile extends CloseableBundleFile<ZipEntry> {
 		return new ZipBundleEntry(zipEntry, this);
 	}
 
+	/**
+	 * Opens a channel positioned at the content of the specified entry if the entry
+	 * is stored uncompressed.  The channel is opened independently of the zip file.
+	 * @param entry the entry
+	 * @return a channel positioned at the content of the entry or {@code null}
+	 * @throws IOException if an error occurs reading the zip file
+	 */
+	FileChannel getStoredContentChannel(ZipEntry entry) throws IOException {
+		if (verify || entry.isDirectory()) {
+			// the content of signed jars must be read with an input stream to be verified
+			return null;
+		}
+		FileChannel channel = BundleFile.secureAction.getFileInputStream(basefile).getChannel();
+		try {
+			ZipStoredEntries current = storedEntries;
+			if (current == null || !current.isCurrent(basefile)) {
+				storedEntries = current = ZipStoredEntries.read(channel, basefile);
+			}
+			long contentOffset = current.getContentOffset(channel, entry.getName());
+			if (contentOffset >= 0) {
+				channel.position(contentOffset);
+				return channel;
+			}
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		channel.close();
+		return null;
+	}
+
 	@Override
 	protected void doClose() throws IOException {
 		zipFile.close();
@@ -102,6 +157,10 @@ public class ZipBundleFile extends CloseableBundleFile<ZipEntry> {
 
 	@Override
 	protected Iterable<String> getPaths() {
+		ZipCentralDirectory current = centralDirectory;
+		if (current != null) {
+			return current.getNames();
+		}
 		return () -> {
 			final Enumeration<? extends ZipEntry> entries = zipFile.entries();
 			return new Iterator<String>() {
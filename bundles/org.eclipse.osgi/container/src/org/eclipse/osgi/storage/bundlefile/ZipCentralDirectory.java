@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.osgi.storage.bundlefile;
+
+import java.io.File;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A compact copy of the entries in the central directory of a zip file.
+ * The copy allows a {@link ZipBundleFile} to find entries and list paths
+ * while the zip file is closed.
+ * <p>
+ * Only the name, size and time of each entry are kept.  The entries
+ * returned are not the entries of a zip file but may be used to get the
+ * input stream of the entry with the same name from the zip file.
+ * <p>
+ * The directory is stamped with the last modified time and length of the
+ * zip file so that it can be discarded if the zip file was replaced.
+ */
+final class ZipCentralDirectory {
+	private final long stamp;
+	/* entry names in the order of the central directory */
+	private final String[] names;
+	private final long[] sizes;
+	private final long[] times;
+	/* open addressing hash table of indexes into names plus one; zero marks an empty slot */
+	private final int[] table;
+
+	private ZipCentralDirectory(long stamp, String[] names, long[] sizes, long[] times) {
+		this.stamp = stamp;
+		this.names = names;
+		this.sizes = sizes;
+		this.times = times;
+		int capacity = Integer.highestOneBit(Math.max(names.length, 1) * 2 - 1) << 1;
+		this.table = new int[capacity];
+		for (int i = 0; i < names.length; i++) {
+			int slot = slot(names[i]);
+			while (table[slot] != 0) {
+				if (names[table[slot] - 1].equals(names[i])) {
+					// a duplicate name; the zip file returns the last entry with the name
+					break;
+				}
+				slot = (slot + 1) & (table.length - 1);
+			}
+			table[slot] = i + 1;
+		}
+	}
+
+	/**
+	 * Copies the central directory of the specified open zip file.
+	 * @param zipFile the open zip file
+	 * @param baseFile the file of the zip file
+	 * @return the central directory
+	 */
+	static ZipCentralDirectory create(ZipFile zipFile, File baseFile) {
+		int size = zipFile.size();
+		String[] names = new String[size];
+		long[] sizes = new long[size];
+		long[] times = new long[size];
+		int count = 0;
+		for (Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements() && count < size; count++) {
+			ZipEntry entry = entries.nextElement();
+			names[count] = entry.getName();
+			sizes[count] = entry.getSize();
+			times[count] = entry.getTime();
+		}
+		if (count < size) {
+			names = Arrays.copyOf(names, count);
+			sizes = Arrays.copyOf(sizes, count);
+			times = Arrays.copyOf(times, count);
+		}
+		return new ZipCentralDirectory(getStamp(baseFile), names, sizes, times);
+	}
+
+	static long getStamp(File baseFile) {
+		return BundleFile.secureAction.lastModified(baseFile) ^ BundleFile.secureAction.length(baseFile);
+	}
+
+	/**
+	 * Returns true if the directory was copied from the current content of the file.
+	 * @param baseFile the file of the zip file
+	 * @return true if the directory is current
+	 */
+	boolean isCurrent(File baseFile) {
+		return stamp == getStamp(baseFile);
+	}
+
+	/**
+	 * Returns the entry with the specified name
+	 * @param name the name of the entry
+	 * @return the entry or {@code null} if no entry exists with the name
+	 */
+	ZipEntry getEntry(String name) {
+		int slot = slot(name);
+		int index;
+		while ((index = table[slot]) != 0) {
+			if (names[index - 1].equals(name)) {
+				return createEntry(index - 1);
+			}
+			slot = (slot + 1) & (table.length - 1);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the names of all entries in the order of the central directory
+	 * @return the names of all entries
+	 */
+	List<String> getNames() {
+		return Arrays.asList(names);
+	}
+
+	private ZipEntry createEntry(int index) {
+		ZipEntry entry = new ZipEntry(names[index]);
+		if (sizes[index] != -1) {
+			entry.setSize(sizes[index]);
+		}
+		if (times[index] != -1) {
+			entry.setLastModifiedTime(FileTime.fromMillis(times[index]));
+		}
+		return entry;
+	}
+
+	private int slot(String name) {
+		int h = name.hashCode();
+		return (h ^ (h >>> 16)) & (table.length - 1);
+	}
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.osgi.storage.bundlefile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The location of the entries of a zip file which are stored uncompressed.
+ * The content of these entries can be read directly from the zip file
+ * with a file channel.
+ * <p>
+ * Only the central directory of the zip file is read to find the entries.
+ * Zip64 archives and encrypted entries are not supported; no entries are
+ * found for them and their content must be read with an input stream.
+ */
+final class ZipStoredEntries {
+	private static final int LOCSIG = 0x04034b50;
+	private static final int CENSIG = 0x02014b50;
+	private static final int ENDSIG = 0x06054b50;
+	private static final int LOCHDR = 30;
+	private static final int CENHDR = 46;
+	private static final int ENDHDR = 22;
+	private static final int MAX_COMMENT = 0xFFFF;
+	private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+	private final long stamp;
+	/* key is the entry name; value is the offset of its local header */
+	private final Map<String, Long> localHeaders;
+
+	private ZipStoredEntries(long stamp, Map<String, Long> localHeaders) {
+		this.stamp = stamp;
+		this.localHeaders = localHeaders;
+	}
+
+	/**
+	 * Reads the stored entries from the central directory of a zip file.
+	 * @param channel a channel to the zip file
+	 * @param baseFile the zip file
+	 * @return the stored entries
+	 * @throws IOException if an error occurs reading the zip file
+	 */
+	static ZipStoredEntries read(FileChannel channel, File baseFile) throws IOException {
+		return new ZipStoredEntries(ZipCentralDirectory.getStamp(baseFile), readLocalHeaders(channel));
+	}
+
+	/**
+	 * Returns true if the entries were read from the current content of the file.
+	 * @param baseFile the zip file
+	 * @return true if the entries are current
+	 */
+	boolean isCurrent(File baseFile) {
+		return stamp == ZipCentralDirectory.getStamp(baseFile);
+	}
+
+	/**
+	 * Returns the offset of the content of a stored entry.
+	 * @param channel a channel to the zip file
+	 * @param name the name of the entry
+	 * @return the offset of the content or {@code -1} if the entry is not stored
+	 * @throws IOException if an error occurs reading the zip file
+	 */
+	long getContentOffset(FileChannel channel, String name) throws IOException {
+		Long localHeader = localHeaders.get(name);
+		if (localHeader == null) {
+			return -1;
+		}
+		ByteBuffer loc = read(channel, localHeader, LOCHDR);
+		if (loc.getInt(0) != LOCSIG) {
+			return -1;
+		}
+		// the extra field of the local header may differ from the one in the central directory
+		return localHeader + LOCHDR + (loc.getShort(26) & 0xFFFF) + (loc.getShort(28) & 0xFFFF);
+	}
+
+	private static Map<String, Long> readLocalHeaders(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size < ENDHDR) {
+			return Collections.emptyMap();
+		}
+		int tailLength = (int) Math.min(size, ENDHDR + MAX_COMMENT);
+		ByteBuffer tail = read(channel, size - tailLength, tailLength);
+		int end = -1;
+		for (int i = tailLength - ENDHDR; i >= 0; i--) {
+			if (tail.getInt(i) == ENDSIG) {
+				end = i;
+				break;
+			}
+		}
+		if (end < 0) {
+			return Collections.emptyMap();
+		}
+		int total = tail.getShort(end + 10) & 0xFFFF;
+		long cenLength = tail.getInt(end + 12) & 0xFFFFFFFFL;
+		long cenOffset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+		if (total == 0xFFFF || cenLength == ZIP64_MAGIC || cenOffset == ZIP64_MAGIC) {
+			// zip64 archive
+			return Collections.emptyMap();
+		}
+		long cenPosition = size - tailLength + end - cenLength;
+		if (cenPosition < 0 || cenLength > Integer.MAX_VALUE) {
+			return Collections.emptyMap();
+		}
+		// offsets are relative to the start of the archive which may be preceded by other data
+		long base = cenPosition - cenOffset;
+		ByteBuffer cen = read(channel, cenPosition, (int) cenLength);
+		Map<String, Long> result = new HashMap<>();
+		int pos = 0;
+		for (int i = 0; i < total && pos + CENHDR <= cen.limit(); i++) {
+			if (cen.getInt(pos) != CENSIG) {
+				break;
+			}
+			int flags = cen.getShort(pos + 8) & 0xFFFF;
+			int method = cen.getShort(pos + 10) & 0xFFFF;
+			long compressedSize = cen.getInt(pos + 20) & 0xFFFFFFFFL;
+			long uncompressedSize = cen.getInt(pos + 24) & 0xFFFFFFFFL;
+			int nameLength = cen.getShort(pos + 28) & 0xFFFF;
+			int extraLength = cen.getShort(pos + 30) & 0xFFFF;
+			int commentLength = cen.getShort(pos + 32) & 0xFFFF;
+			long localHeader = cen.getInt(pos + 42) & 0xFFFFFFFFL;
+			if (pos + CENHDR + nameLength > cen.limit()) {
+				break;
+			}
+			byte[] nameBytes = new byte[nameLength];
+			cen.position(pos + CENHDR);
+			cen.get(nameBytes);
+			String name = new String(nameBytes, StandardCharsets.UTF_8);
+			boolean encrypted = (flags & 1) != 0;
+			if (method == 0 && !encrypted && compressedSize == uncompressedSize && uncompressedSize != ZIP64_MAGIC && localHeader != ZIP64_MAGIC && !name.endsWith("/")) { //$NON-NLS-1$
+				result.put(name, base + localHeader);
+			}
+			pos += CENHDR + nameLength + extraLength + commentLength;
+		}
+		return result;
+	}
+
+	private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of zip file."); //$NON-NLS-1$
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+}
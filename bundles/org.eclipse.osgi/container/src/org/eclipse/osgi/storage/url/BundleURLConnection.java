@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.channels.FileChannel;
 import org.eclipse.osgi.container.Module;
 import org.eclipse.osgi.container.ModuleContainer;
 import org.eclipse.osgi.internal.messages.Msg;
@@ -116,6 +117,33 @@ public class BundleURLConnection extends URLConnection implements BundleReferenc
 		return in;
 	}
 
+	/**
+	 * Returns a {@link FileChannel} positioned at the content of the bundle entry
+	 * if {@code FileChannel} is requested and the bundle entry is stored uncompressed
+	 * in a file.  This allows clients, such as a servlet serving static resources,
+	 * to transfer the content of a bundle entry without reading it through an input
+	 * stream.  The caller must close the returned channel.  Other requested types are
+	 * obtained from the super class.
+	 */
+	@Override
+	public Object getContent(@SuppressWarnings("rawtypes") Class[] classes) throws IOException {
+		boolean otherClasses = false;
+		for (Class<?> clazz : classes) {
+			if (clazz == FileChannel.class) {
+				if (bundleEntry == null) {
+					throw new IOException(NLS.bind(Msg.RESOURCE_NOT_FOUND_EXCEPTION, getURL()));
+				}
+				FileChannel channel = bundleEntry.getFileChannel();
+				if (channel != null) {
+					return channel;
+				}
+			} else {
+				otherClasses = true;
+			}
+		}
+		return otherClasses ? super.getContent(classes) : null;
+	}
+
 	@Override
 	public long getLastModified() {
 		long lastModified = bundleEntry.getTime();
@@ -18,6 +18,9 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This class is the central class for the Event Manager. Each
@@ -126,6 +129,12 @@ public class EventManager {
 	 */
 	protected final ThreadGroup threadGroup;
 
+	/**
+	 * The factory of the thread used for asynchronous event delivery,
+	 * may be <code>null</code>.
+	 */
+	private final ThreadFactory threadFactory;
+
 	/**
 	 * EventManager constructor. An EventManager object is responsible for
 	 * the delivery of events to listeners via an EventDispatcher.
@@ -156,10 +165,32 @@ public class EventManager {
 	 * @since 3.4
 	 */
 	public EventManager(String threadName, ThreadGroup threadGroup) {
+		this(threadName, threadGroup, null);
+	}
+
+	/**
+	 * EventManager constructor. An EventManager object is responsible for
+	 * the delivery of events to listeners via an EventDispatcher.
+	 * <p>
+	 * A thread factory allows the asynchronous event thread to be of a
+	 * different kind, for example a virtual thread. Threads created by
+	 * the factory are given the thread name of this EventManager, the
+	 * thread group is only used when no factory is specified.
+	 *
+	 * @param threadName The name to give the event thread associated with
+	 * this EventManager.  A <code>null</code> value is allowed.
+	 * @param threadGroup The thread group to use for the asynchronous event
+	 * thread associated with this EventManager. A <code>null</code> value is allowed.
+	 * @param threadFactory The factory to create the asynchronous event
+	 * thread associated with this EventManager. A <code>null</code> value is allowed.
+	 * @since 3.19
+	 */
+	public EventManager(String threadName, ThreadGroup threadGroup, ThreadFactory threadFactory) {
 		thread = null;
 		closed = false;
 		this.threadName = threadName;
 		this.threadGroup = threadGroup;
+		this.threadFactory = threadFactory;
 	}
 
 	/**
@@ -195,7 +226,7 @@ public class EventManager {
 		if (thread == null) {
 			/* if there is no thread, then create a new one */
 			thread = AccessController.doPrivileged((PrivilegedAction<EventThread<K, V, E>>) () -> {
-				EventThread<K, V, E> t = new EventThread<>(threadGroup, threadName);
+				EventThread<K, V, E> t = new EventThread<>(threadGroup, threadName, threadFactory);
 				return t;
 			});
 			/* start the new thread */
@@ -240,9 +271,11 @@ public class EventManager {
 
 	/**
 	 * This package private class is used for asynchronously dispatching events.
+	 * The queue is guarded by a lock instead of the monitor of this object so a
+	 * virtual event thread waiting for events does not pin its carrier thread.
 	 */
 
-	static class EventThread<K, V, E> extends Thread {
+	static class EventThread<K, V, E> implements Runnable {
 		private static int nextThreadNumber;
 
 		/**
@@ -285,18 +318,39 @@ public class EventManager {
 		private Queued<K, V, E> tail;
 		/** if false the thread must terminate */
 		private volatile boolean running;
+		/** guards the event queue */
+		private final ReentrantLock queueLock = new ReentrantLock();
+		/** signalled when an event is queued or the thread must terminate */
+		private final Condition queueNotEmpty = queueLock.newCondition();
+		/** the thread running this EventThread */
+		private final Thread thread;
 
 		/**
 		 * Constructor for the event thread.
 		 * @param threadName Name of the EventThread
+		 * @param threadFactory Factory of the thread, may be null
 		 */
-		EventThread(ThreadGroup threadGroup, String threadName) {
-			super(threadGroup, threadName == null ? getNextName() : threadName);
+		EventThread(ThreadGroup threadGroup, String threadName, ThreadFactory threadFactory) {
+			String name = threadName == null ? getNextName() : threadName;
+			if (threadFactory == null) {
+				thread = new Thread(threadGroup, this, name);
+			} else {
+				thread = threadFactory.newThread(this);
+				thread.setName(name);
+			}
 			running = true;
 			head = null;
 			tail = null;
 
-			setDaemon(true); /* Mark thread as daemon thread */
+			thread.setDaemon(true); /* Mark thread as daemon thread */
+		}
+
+		/**
+		 * Constructor for the event thread.
+		 * @param threadName Name of the EventThread
+		 */
+		EventThread(ThreadGroup threadGroup, String threadName) {
+			this(threadGroup, threadName, null);
 		}
 
 		private static synchronized String getNextName() {
@@ -318,12 +372,19 @@ public class EventManager {
 			this(null, null);
 		}
 
+		/**
+		 * Start thread.
+		 */
+		void start() {
+			thread.start();
+		}
+
 		/**
 		 * Stop thread.
 		 */
 		void close() {
 			running = false;
-			interrupt();
+			thread.interrupt();
 		}
 
 		/**
@@ -362,24 +423,29 @@ public class EventManager {
 		 * @param a Action for this event
 		 * @param o Object for this event
 		 */
-		synchronized void postEvent(Set<Map.Entry<K, V>> l, EventDispatcher<K, V, E> d, int a, E o) {
-			if (!isAlive()) { /* If the thread is not alive, throw an exception */
+		void postEvent(Set<Map.Entry<K, V>> l, EventDispatcher<K, V, E> d, int a, E o) {
+			if (!thread.isAlive()) { /* If the thread is not alive, throw an exception */
 				throw new IllegalStateException();
 			}
 
 			Queued<K, V, E> item = new Queued<>(l, d, a, o);
 
-			if (head == null) /* if the queue was empty */
-			{
-				head = item;
-				tail = item;
-			} else /* else add to end of queue */
-			{
-				tail.next = item;
-				tail = item;
-			}
+			queueLock.lock();
+			try {
+				if (head == null) /* if the queue was empty */
+				{
+					head = item;
+					tail = item;
+				} else /* else add to end of queue */
+				{
+					tail.next = item;
+					tail = item;
+				}
 
-			notify();
+				queueNotEmpty.signal();
+			} finally {
+				queueLock.unlock();
+			}
 		}
 
 		/**
@@ -390,26 +456,31 @@ public class EventManager {
 		 * @return The Queued removed from the top of the queue or null
 		 * if the thread has been requested to stop.
 		 */
-		private synchronized Queued<K, V, E> getNextEvent() {
-			while (running && (head == null)) {
-				try {
-					wait();
-				} catch (InterruptedException e) {
-					// If interrupted, we will loop back up and check running
+		private Queued<K, V, E> getNextEvent() {
+			queueLock.lock();
+			try {
+				while (running && (head == null)) {
+					try {
+						queueNotEmpty.await();
+					} catch (InterruptedException e) {
+						// If interrupted, we will loop back up and check running
+					}
 				}
-			}
 
-			if (!running) { /* if we are stopping */
-				return null;
-			}
+				if (!running) { /* if we are stopping */
+					return null;
+				}
 
-			Queued<K, V, E> item = head;
-			head = item.next;
-			if (head == null) {
-				tail = null;
-			}
+				Queued<K, V, E> item = head;
+				head = item.next;
+				if (head == null) {
+					tail = null;
+				}
 
-			return item;
+				return item;
+			} finally {
+				queueLock.unlock();
+			}
 		}
 	}
 }
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.osgi.internal.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads when running on a VM that supports them. The
+ * framework is compiled for older VMs so the virtual thread API is called
+ * reflectively.
+ */
+public final class VirtualThreads {
+	private static final Method OF_VIRTUAL;
+	private static final Method BUILDER_NAME;
+	private static final Method BUILDER_FACTORY;
+	private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+	static {
+		Method ofVirtual = null;
+		Method builderName = null;
+		Method builderFactory = null;
+		Method newThreadPerTaskExecutor = null;
+		try {
+			ofVirtual = Thread.class.getMethod("ofVirtual"); //$NON-NLS-1$
+			// look the methods up on the public interface, the builder implementation is not accessible
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder"); //$NON-NLS-1$
+			builderName = builderClass.getMethod("name", String.class, long.class); //$NON-NLS-1$
+			builderFactory = builderClass.getMethod("factory"); //$NON-NLS-1$
+			newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class); //$NON-NLS-1$
+		} catch (ClassNotFoundException | NoSuchMethodException | RuntimeException e) {
+			// virtual threads are not supported
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		BUILDER_NAME = builderName;
+		BUILDER_FACTORY = builderFactory;
+		NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+	}
+
+	private VirtualThreads() {
+		// no instances
+	}
+
+	/**
+	 * Returns true if the VM supports virtual threads.
+	 * @return true if the VM supports virtual threads
+	 */
+	public static boolean isSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	/**
+	 * Returns a factory of virtual threads named with the specified prefix
+	 * followed by a counter.
+	 * @param namePrefix the prefix of the thread names
+	 * @return the thread factory or {@code null} if the VM does not support
+	 * virtual threads
+	 */
+	public static ThreadFactory newThreadFactory(String namePrefix) {
+		if (OF_VIRTUAL == null) {
+			return null;
+		}
+		try {
+			Object builder = OF_VIRTUAL.invoke(null);
+			builder = BUILDER_NAME.invoke(builder, namePrefix, Long.valueOf(0));
+			return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns an executor that runs each task in a new thread created by the
+	 * specified factory.
+	 * @param threadFactory the factory of the threads
+	 * @return the executor or {@code null} if the VM does not support
+	 * virtual threads
+	 */
+	public static ExecutorService newThreadPerTaskExecutor(ThreadFactory threadFactory) {
+		if (NEW_THREAD_PER_TASK_EXECUTOR == null) {
+			return null;
+		}
+		try {
+			return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+}